@@ -1,15 +1,11 @@
 package com.quckapp.audit.config;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.elasticsearch.client.ClientConfiguration;
 import org.springframework.data.elasticsearch.client.elc.ElasticsearchConfiguration;
 import org.springframework.data.elasticsearch.repository.config.EnableElasticsearchRepositories;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-
 @Configuration
 @EnableElasticsearchRepositories(basePackages = "com.quckapp.audit.domain.repository")
 public class ElasticsearchConfig extends ElasticsearchConfiguration {
@@ -34,9 +30,4 @@ public class ElasticsearchConfig extends ElasticsearchConfiguration {
 
         return builder.build();
     }
-
-    @Bean
-    public String elasticsearchIndexSuffix() {
-        return LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM"));
-    }
 }
@@ -5,13 +5,23 @@ import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.listener.CommonDelegatingErrorHandler;
+import org.springframework.kafka.listener.CommonErrorHandler;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.util.backoff.ExponentialBackOff;
+import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @Configuration
@@ -24,8 +34,44 @@ public class KafkaConfig {
     @Value("${spring.kafka.consumer.group-id:audit-service}")
     private String groupId;
 
+    @Value("${audit.ingest.batch.max-poll-records:500}")
+    private int batchMaxPollRecords;
+
+    @Value("${audit.ingest.batch.fetch-min-bytes:65536}")
+    private int batchFetchMinBytes;
+
+    @Value("${audit.ingest.batch.linger-ms:100}")
+    private int batchLingerMs;
+
+    @Value("${audit.ingest.batch.concurrency:3}")
+    private int batchConcurrency;
+
+    @Value("${audit.ingest.batch.retry-initial-interval-ms:1000}")
+    private long batchRetryInitialIntervalMs;
+
+    @Value("${audit.ingest.batch.retry-max-interval-ms:60000}")
+    private long batchRetryMaxIntervalMs;
+
     @Bean
     public ConsumerFactory<String, String> consumerFactory() {
+        return new DefaultKafkaConsumerFactory<>(baseConsumerProperties());
+    }
+
+    /**
+     * Consumer tuned for batch ingest: the broker holds each fetch until either
+     * {@code fetch-min-bytes} are available or {@code linger-ms} has passed, and a
+     * single poll returns up to {@code max-poll-records} events.
+     */
+    @Bean
+    public ConsumerFactory<String, String> batchConsumerFactory() {
+        Map<String, Object> props = baseConsumerProperties();
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batchMaxPollRecords);
+        props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, batchFetchMinBytes);
+        props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, batchLingerMs);
+        return new DefaultKafkaConsumerFactory<>(props);
+    }
+
+    private Map<String, Object> baseConsumerProperties() {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
@@ -33,7 +79,7 @@ public class KafkaConfig {
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
-        return new DefaultKafkaConsumerFactory<>(props);
+        return props;
     }
 
     @Bean
@@ -44,4 +90,41 @@ public class KafkaConfig {
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.RECORD);
         return factory;
     }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> batchKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(batchConsumerFactory());
+        factory.setConcurrency(batchConcurrency);
+        factory.setBatchListener(true);
+        // Offsets for the whole poll are committed once, after the listener returns
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        factory.setCommonErrorHandler(batchErrorHandler());
+        return factory;
+    }
+
+    /**
+     * A failed insert rolls back the batch transaction and the poll is retried. While the database
+     * is unreachable the poll is retried with exponential backoff until it comes back, with the
+     * consumer paused, so an outage delays ingest instead of dropping batches. Any other failure
+     * is retried a few times before the batch is skipped.
+     */
+    CommonErrorHandler batchErrorHandler() {
+        ExponentialBackOff untilDatabaseRecovers = new ExponentialBackOff(batchRetryInitialIntervalMs, 2.0);
+        untilDatabaseRecovers.setMaxInterval(batchRetryMaxIntervalMs);
+        untilDatabaseRecovers.setMaxElapsedTime(Long.MAX_VALUE);
+        DefaultErrorHandler databaseDown = new DefaultErrorHandler(untilDatabaseRecovers);
+
+        Map<Class<? extends Throwable>, CommonErrorHandler> delegates = new LinkedHashMap<>();
+        delegates.put(TransientDataAccessException.class, databaseDown);
+        delegates.put(RecoverableDataAccessException.class, databaseDown);
+        delegates.put(DataAccessResourceFailureException.class, databaseDown);
+        delegates.put(CannotCreateTransactionException.class, databaseDown);
+
+        CommonDelegatingErrorHandler errorHandler =
+            new CommonDelegatingErrorHandler(new DefaultErrorHandler(new FixedBackOff(1000L, 3)));
+        errorHandler.setCauseChainTraversing(true);
+        errorHandler.setErrorHandlers(delegates);
+        return errorHandler;
+    }
 }
@@ -0,0 +1,26 @@
+package com.quckapp.audit.controller;
+
+import com.quckapp.audit.dto.AuditDtos.*;
+import com.quckapp.audit.service.archive.ColdArchiveQueryService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/audit/archive")
+@RequiredArgsConstructor
+@Tag(name = "Archive", description = "Archived audit log search APIs")
+public class ArchiveController {
+
+    private final ColdArchiveQueryService coldArchiveQueryService;
+
+    @PostMapping("/search")
+    @Operation(summary = "Search archived audit logs, including sealed cold-archive segments")
+    public ResponseEntity<ApiResponse<PagedResponse<AuditLogResponse>>> searchArchive(
+            @Valid @RequestBody AuditLogSearchRequest request) {
+        return ResponseEntity.ok(ApiResponse.success(coldArchiveQueryService.search(request)));
+    }
+}
@@ -1,6 +1,7 @@
 package com.quckapp.audit.controller;
 
 import com.quckapp.audit.dto.AuditDtos.*;
+import com.quckapp.audit.service.ActivityHistogramService;
 import com.quckapp.audit.service.AuditLogService;
 import com.quckapp.audit.service.ComplianceReportService;
 import com.quckapp.audit.service.RetentionService;
@@ -23,6 +24,7 @@ import java.util.UUID;
 public class AuditController {
 
     private final AuditLogService auditLogService;
+    private final ActivityHistogramService activityHistogramService;
     private final RetentionService retentionService;
     private final ComplianceReportService reportService;
 
@@ -39,11 +41,17 @@ public class AuditController {
     @GetMapping("/logs")
     @Operation(summary = "List audit logs with pagination")
     public ResponseEntity<ApiResponse<PagedResponse<AuditLogResponse>>> listAuditLogs(
+            @RequestParam UUID workspaceId,
             @RequestParam(defaultValue = "1") int page,
-            @RequestParam(name = "per_page", defaultValue = "20") int perPage) {
+            @RequestParam(name = "per_page", defaultValue = "20") int perPage,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
         AuditLogSearchRequest request = AuditLogSearchRequest.builder()
+            .workspaceId(workspaceId)
             .page(page > 0 ? page - 1 : 0)
             .size(perPage)
+            .cursor(cursor)
+            .includeTotal(includeTotal)
             .build();
         return ResponseEntity.ok(ApiResponse.success(auditLogService.searchAuditLogs(request)));
     }
@@ -60,11 +68,15 @@ public class AuditController {
     public ResponseEntity<ApiResponse<PagedResponse<AuditLogResponse>>> getAuditLogsByWorkspace(
             @PathVariable UUID workspaceId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
         AuditLogSearchRequest request = AuditLogSearchRequest.builder()
             .workspaceId(workspaceId)
             .page(page)
             .size(size)
+            .cursor(cursor)
+            .includeTotal(includeTotal)
             .build();
         return ResponseEntity.ok(ApiResponse.success(auditLogService.searchAuditLogs(request)));
     }
@@ -74,8 +86,22 @@ public class AuditController {
     public ResponseEntity<ApiResponse<AuditStatistics>> getStatistics(
             @PathVariable UUID workspaceId,
             @RequestParam(required = false) Instant startDate,
-            @RequestParam(required = false) Instant endDate) {
-        return ResponseEntity.ok(ApiResponse.success(auditLogService.getStatistics(workspaceId, startDate, endDate)));
+            @RequestParam(required = false) Instant endDate,
+            @RequestParam(defaultValue = "false") boolean approximate) {
+        return ResponseEntity.ok(ApiResponse.success(
+            auditLogService.getStatistics(workspaceId, startDate, endDate, approximate)));
+    }
+
+    @GetMapping("/statistics/workspace/{workspaceId}/histogram")
+    @Operation(summary = "Get audit activity per time interval")
+    public ResponseEntity<ApiResponse<ActivityHistogram>> getHistogram(
+            @PathVariable UUID workspaceId,
+            @RequestParam(required = false) Instant startDate,
+            @RequestParam(required = false) Instant endDate,
+            @RequestParam(defaultValue = "1h") String interval,
+            @RequestParam(required = false) String groupBy) {
+        return ResponseEntity.ok(ApiResponse.success(
+            activityHistogramService.getHistogram(workspaceId, startDate, endDate, interval, groupBy)));
     }
 
     // ===== Retention Policy Endpoints =====
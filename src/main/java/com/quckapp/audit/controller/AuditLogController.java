@@ -1,15 +1,25 @@
 package com.quckapp.audit.controller;
 
 import com.quckapp.audit.dto.AuditDtos.*;
+import com.quckapp.audit.service.ActivityHistogramService;
+import com.quckapp.audit.service.AuditLogBulkIngestService;
+import com.quckapp.audit.service.AuditLogExportService;
+import com.quckapp.audit.service.AuditLogExportService.ExportFormat;
 import com.quckapp.audit.service.AuditLogService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.Instant;
 import java.util.UUID;
 
@@ -20,6 +30,9 @@ import java.util.UUID;
 public class AuditLogController {
 
     private final AuditLogService auditLogService;
+    private final ActivityHistogramService activityHistogramService;
+    private final AuditLogExportService auditLogExportService;
+    private final AuditLogBulkIngestService auditLogBulkIngestService;
 
     @PostMapping
     @Operation(summary = "Create audit log entry")
@@ -29,6 +42,22 @@ public class AuditLogController {
             .body(ApiResponse.success("Audit log created", auditLogService.createAuditLog(request)));
     }
 
+    @PostMapping(value = "/bulk", consumes = "application/x-ndjson")
+    @Operation(summary = "Create audit log entries from an NDJSON body, one per line")
+    public ResponseEntity<ApiResponse<BulkIngestResult>> bulkCreateAuditLogs(InputStream body) throws IOException {
+        BulkIngestResult result = auditLogBulkIngestService.ingest(body);
+        if (result.isAborted()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(ApiResponse.<BulkIngestResult>builder()
+                    .success(false)
+                    .message("Bulk ingest stopped after line " + result.getLastCommittedLine())
+                    .data(result)
+                    .timestamp(Instant.now())
+                    .build());
+        }
+        return ResponseEntity.ok(ApiResponse.success("Bulk ingest completed", result));
+    }
+
     @PostMapping("/search")
     @Operation(summary = "Search audit logs")
     public ResponseEntity<ApiResponse<PagedResponse<AuditLogResponse>>> searchAuditLogs(
@@ -36,6 +65,20 @@ public class AuditLogController {
         return ResponseEntity.ok(ApiResponse.success(auditLogService.searchAuditLogs(request)));
     }
 
+    @PostMapping("/export")
+    @Operation(summary = "Stream all audit logs matching a search as NDJSON or CSV")
+    public ResponseEntity<StreamingResponseBody> exportAuditLogs(
+            @RequestBody AuditLogSearchRequest request,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        auditLogExportService.validate(request);
+        String filename = "audit-logs." + format.getExtension() + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : format.getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+            .body(out -> auditLogExportService.export(request, format, gzip, out));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get audit log by ID")
     public ResponseEntity<ApiResponse<AuditLogResponse>> getAuditLogById(@PathVariable UUID id) {
@@ -47,11 +90,15 @@ public class AuditLogController {
     public ResponseEntity<ApiResponse<PagedResponse<AuditLogResponse>>> getAuditLogsByWorkspace(
             @PathVariable UUID workspaceId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
         AuditLogSearchRequest request = AuditLogSearchRequest.builder()
             .workspaceId(workspaceId)
             .page(page)
             .size(size)
+            .cursor(cursor)
+            .includeTotal(includeTotal)
             .build();
         return ResponseEntity.ok(ApiResponse.success(auditLogService.searchAuditLogs(request)));
     }
@@ -61,7 +108,21 @@ public class AuditLogController {
     public ResponseEntity<ApiResponse<AuditStatistics>> getStatistics(
             @PathVariable UUID workspaceId,
             @RequestParam(required = false) Instant startDate,
-            @RequestParam(required = false) Instant endDate) {
-        return ResponseEntity.ok(ApiResponse.success(auditLogService.getStatistics(workspaceId, startDate, endDate)));
+            @RequestParam(required = false) Instant endDate,
+            @RequestParam(defaultValue = "false") boolean approximate) {
+        return ResponseEntity.ok(ApiResponse.success(
+            auditLogService.getStatistics(workspaceId, startDate, endDate, approximate)));
+    }
+
+    @GetMapping("/statistics/workspace/{workspaceId}/histogram")
+    @Operation(summary = "Get audit activity per time interval")
+    public ResponseEntity<ApiResponse<ActivityHistogram>> getHistogram(
+            @PathVariable UUID workspaceId,
+            @RequestParam(required = false) Instant startDate,
+            @RequestParam(required = false) Instant endDate,
+            @RequestParam(defaultValue = "1h") String interval,
+            @RequestParam(required = false) String groupBy) {
+        return ResponseEntity.ok(ApiResponse.success(
+            activityHistogramService.getHistogram(workspaceId, startDate, endDate, interval, groupBy)));
     }
 }
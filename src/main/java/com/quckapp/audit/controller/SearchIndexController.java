@@ -0,0 +1,50 @@
+package com.quckapp.audit.controller;
+
+import com.quckapp.audit.dto.AuditDtos.*;
+import com.quckapp.audit.service.indexing.AuditLogRerouter;
+import com.quckapp.audit.service.indexing.SearchIndexRelay;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.time.Instant;
+
+@RestController
+@RequestMapping("/api/v1/audit/admin/search-index")
+@RequiredArgsConstructor
+@Tag(name = "Search Index", description = "Elasticsearch outbox relay and replay APIs")
+public class SearchIndexController {
+
+    private final SearchIndexRelay searchIndexRelay;
+    private final AuditLogRerouter auditLogRerouter;
+
+    @GetMapping("/status")
+    @Operation(summary = "Get search index relay status")
+    public ResponseEntity<ApiResponse<SearchIndexStatus>> getStatus() {
+        return ResponseEntity.ok(ApiResponse.success(searchIndexRelay.getStatus()));
+    }
+
+    @PostMapping("/replay")
+    @Operation(summary = "Re-index all audit logs created since a timestamp")
+    public ResponseEntity<ApiResponse<SearchIndexStatus>> replay(@RequestParam Instant from) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+            .body(ApiResponse.success("Search index replay scheduled", searchIndexRelay.startReplay(from)));
+    }
+
+    @GetMapping("/reroute")
+    @Operation(summary = "Get progress of rerouting indices by workspace")
+    public ResponseEntity<ApiResponse<RerouteStatus>> getRerouteStatus() {
+        return ResponseEntity.ok(ApiResponse.success(auditLogRerouter.getStatus()));
+    }
+
+    @PostMapping("/reroute")
+    @Operation(summary = "Reindex audit log indices written before routing by workspace")
+    public ResponseEntity<ApiResponse<RerouteStatus>> reroute() throws IOException {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+            .body(ApiResponse.success("Rerouting scheduled", auditLogRerouter.start()));
+    }
+}
@@ -1,6 +1,7 @@
 package com.quckapp.audit.domain.document;
 
 import com.quckapp.audit.domain.entity.AuditLog;
+import com.quckapp.audit.domain.repository.AuditLogIndices;
 import lombok.*;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.elasticsearch.annotations.*;
@@ -9,12 +10,17 @@ import java.time.Instant;
 import java.util.Map;
 import java.util.UUID;
 
-@Document(indexName = "audit-logs-#{@elasticsearchIndexSuffix}")
-@Setting(settingPath = "elasticsearch/settings.json")
+/**
+ * Read through {@link AuditLogIndices#READ_ALIAS}; the indices behind it are created from the
+ * index template put by {@code AuditLogIndexManager}, never by Spring Data.
+ */
+@Document(indexName = AuditLogIndices.READ_ALIAS, createIndex = false)
+@Routing("workspaceId")
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class AuditLogDocument {
 
     @Id
+    @Field(type = FieldType.Keyword)
     private String id;
 
     @Field(type = FieldType.Keyword)
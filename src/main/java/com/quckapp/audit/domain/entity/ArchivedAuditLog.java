@@ -10,10 +10,10 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "archived_audit_logs", indexes = {
-    @Index(name = "idx_archived_workspace", columnList = "workspaceId"),
-    @Index(name = "idx_archived_actor", columnList = "actorId"),
+    @Index(name = "idx_archived_workspace_created", columnList = "workspaceId, createdAt"),
+    @Index(name = "idx_archived_workspace_actor", columnList = "workspaceId, actorId, createdAt"),
     @Index(name = "idx_archived_action", columnList = "action"),
-    @Index(name = "idx_archived_resource", columnList = "resourceType, resourceId"),
+    @Index(name = "idx_archived_workspace_resource", columnList = "workspaceId, resourceType, resourceId, createdAt"),
     @Index(name = "idx_archived_created", columnList = "createdAt"),
     @Index(name = "idx_archived_policy", columnList = "archivedByPolicyId")
 })
@@ -21,6 +21,7 @@ import java.util.UUID;
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class ArchivedAuditLog {
 
+    // Keeps the time-ordered id of the source AuditLog, so archive inserts stay append-only too
     @Id
     private UUID id;
 
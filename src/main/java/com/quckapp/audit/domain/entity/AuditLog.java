@@ -1,5 +1,6 @@
 package com.quckapp.audit.domain.entity;
 
+import com.quckapp.audit.domain.id.TimeOrderedId;
 import jakarta.persistence.*;
 import lombok.*;
 import org.springframework.data.annotation.CreatedDate;
@@ -10,10 +11,11 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "audit_logs", indexes = {
-    @Index(name = "idx_audit_workspace", columnList = "workspaceId"),
-    @Index(name = "idx_audit_actor", columnList = "actorId"),
-    @Index(name = "idx_audit_action", columnList = "action"),
-    @Index(name = "idx_audit_resource", columnList = "resourceType, resourceId"),
+    @Index(name = "idx_audit_retention", columnList = "workspaceId, category, severity, createdAt"),
+    @Index(name = "idx_audit_workspace_created", columnList = "workspaceId, createdAt"),
+    @Index(name = "idx_audit_workspace_actor", columnList = "workspaceId, actorId, createdAt"),
+    @Index(name = "idx_audit_workspace_action", columnList = "workspaceId, action, createdAt"),
+    @Index(name = "idx_audit_workspace_resource", columnList = "workspaceId, resourceType, resourceId, createdAt"),
     @Index(name = "idx_audit_created", columnList = "createdAt")
 })
 @EntityListeners(AuditingEntityListener.class)
@@ -21,7 +23,7 @@ import java.util.UUID;
 public class AuditLog {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedId
     private UUID id;
 
     @Column(nullable = false)
@@ -12,7 +12,8 @@ import java.util.UUID;
 @Table(name = "compliance_reports", indexes = {
     @Index(name = "idx_report_workspace", columnList = "workspaceId"),
     @Index(name = "idx_report_type", columnList = "reportType"),
-    @Index(name = "idx_report_status", columnList = "status")
+    @Index(name = "idx_report_queue", columnList = "status, priority DESC, createdAt"),
+    @Index(name = "idx_report_status_workspace", columnList = "status, workspaceId")
 })
 @EntityListeners(AuditingEntityListener.class)
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
@@ -59,6 +60,23 @@ public class ComplianceReport {
     @Column(length = 255)
     private String errorMessage;
 
+    /**
+     * Queue order: higher priorities are claimed first, then older requests.
+     */
+    @Column(nullable = false)
+    private int priority;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    /**
+     * The worker generating the report while it is PROCESSING.
+     */
+    @Column(length = 100)
+    private String claimedBy;
+
+    private Instant heartbeatAt;
+
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private Instant createdAt;
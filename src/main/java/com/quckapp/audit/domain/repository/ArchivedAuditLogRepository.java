@@ -4,6 +4,7 @@ import com.quckapp.audit.domain.entity.ArchivedAuditLog;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -13,7 +14,7 @@ import java.util.List;
 import java.util.UUID;
 
 @Repository
-public interface ArchivedAuditLogRepository extends JpaRepository<ArchivedAuditLog, UUID> {
+public interface ArchivedAuditLogRepository extends JpaRepository<ArchivedAuditLog, UUID>, JpaSpecificationExecutor<ArchivedAuditLog> {
 
     Page<ArchivedAuditLog> findByWorkspaceIdOrderByCreatedAtDesc(UUID workspaceId, Pageable pageable);
 
@@ -0,0 +1,105 @@
+package com.quckapp.audit.domain.repository;
+
+import com.quckapp.audit.domain.entity.ArchivedAuditLog;
+import com.quckapp.audit.domain.entity.AuditLog;
+import com.quckapp.audit.domain.repository.AuditLogRetentionRepository.RowKey;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keyset-chunked reads and purges of {@code archived_audit_logs} for sealing cold-archive segments.
+ *
+ * Every query is scoped to one workspace and a created_at range through
+ * {@code idx_archived_workspace_created}, and to rows archived before a fixed instant, so a
+ * sealing run reads and purges exactly the same rows even while retention keeps archiving.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ArchivedAuditLogSealingRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<WorkspaceRange> findWorkspaceRanges(Instant archivedBefore) {
+        return jdbcTemplate.query(
+            "SELECT workspace_id, MIN(created_at) AS min_created_at, MAX(created_at) AS max_created_at, COUNT(*) AS row_count " +
+            "FROM archived_audit_logs WHERE archived_at < ? GROUP BY workspace_id",
+            (rs, rowNum) -> new WorkspaceRange(
+                UuidBinary.fromBytes(rs.getBytes("workspace_id")),
+                rs.getTimestamp("min_created_at").toInstant(),
+                rs.getTimestamp("max_created_at").toInstant(),
+                rs.getLong("row_count")),
+            Timestamp.from(archivedBefore));
+    }
+
+    /**
+     * Next chunk of the workspace's rows with {@code from <= created_at < to}, in (created_at, id)
+     * order after the cursor. A null cursor starts at the oldest row.
+     */
+    public List<ArchivedAuditLog> findChunk(UUID workspaceId, Instant from, Instant to, Instant archivedBefore,
+                                            RowKey after, int limit) {
+        StringBuilder sql = new StringBuilder(
+            "SELECT * FROM archived_audit_logs WHERE workspace_id = ? AND created_at >= ? AND created_at < ? " +
+            "AND archived_at < ?");
+        List<Object> params = new ArrayList<>();
+        params.add(UuidBinary.toBytes(workspaceId));
+        params.add(Timestamp.from(from));
+        params.add(Timestamp.from(to));
+        params.add(Timestamp.from(archivedBefore));
+        if (after != null) {
+            sql.append(" AND (created_at > ? OR (created_at = ? AND id > ?))");
+            params.add(Timestamp.from(after.createdAt()));
+            params.add(Timestamp.from(after.createdAt()));
+            params.add(UuidBinary.toBytes(after.id()));
+        }
+        sql.append(" ORDER BY created_at, id LIMIT ?");
+        params.add(limit);
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> map(rs), params.toArray());
+    }
+
+    /**
+     * Deletes up to {@code limit} of the rows {@link #findChunk} reads for the same arguments.
+     */
+    public int purgeChunk(UUID workspaceId, Instant from, Instant to, Instant archivedBefore, int limit) {
+        return jdbcTemplate.update(
+            "DELETE FROM archived_audit_logs WHERE workspace_id = ? AND created_at >= ? AND created_at < ? " +
+            "AND archived_at < ? LIMIT ?",
+            UuidBinary.toBytes(workspaceId), Timestamp.from(from), Timestamp.from(to), Timestamp.from(archivedBefore), limit);
+    }
+
+    private static ArchivedAuditLog map(ResultSet rs) throws SQLException {
+        return ArchivedAuditLog.builder()
+            .id(UuidBinary.fromBytes(rs.getBytes("id")))
+            .workspaceId(UuidBinary.fromBytes(rs.getBytes("workspace_id")))
+            .actorId(UuidBinary.fromBytes(rs.getBytes("actor_id")))
+            .actorEmail(rs.getString("actor_email"))
+            .actorName(rs.getString("actor_name"))
+            .action(rs.getString("action"))
+            .resourceType(rs.getString("resource_type"))
+            .resourceId(UuidBinary.fromBytes(rs.getBytes("resource_id")))
+            .resourceName(rs.getString("resource_name"))
+            .metadata(rs.getString("metadata"))
+            .previousState(rs.getString("previous_state"))
+            .newState(rs.getString("new_state"))
+            .ipAddress(rs.getString("ip_address"))
+            .userAgent(rs.getString("user_agent"))
+            .sessionId(rs.getString("session_id"))
+            .severity(AuditLog.AuditSeverity.valueOf(rs.getString("severity")))
+            .category(AuditLog.AuditCategory.valueOf(rs.getString("category")))
+            .createdAt(rs.getTimestamp("created_at").toInstant())
+            .archivedAt(rs.getTimestamp("archived_at").toInstant())
+            .archivedByPolicyId(UuidBinary.fromBytes(rs.getBytes("archived_by_policy_id")))
+            .build();
+    }
+
+    public record WorkspaceRange(UUID workspaceId, Instant minCreatedAt, Instant maxCreatedAt, long rowCount) {}
+}
@@ -0,0 +1,46 @@
+package com.quckapp.audit.domain.repository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Statistics of a workspace computed by Elasticsearch from the keyword fields of its documents,
+ * as aggregations of a single search rather than one query per figure.
+ */
+public interface AuditLogAggregations {
+
+    /**
+     * Counts per action, category and severity, the {@code topN} actors and resources and the
+     * distinct actors and IP addresses of the workspace's documents created in {@code [from, to)},
+     * in one request that returns no hits. Only the indices overlapping the range are searched.
+     */
+    AggregatedStatistics aggregateStatistics(String workspaceId, Instant from, Instant to, int topN);
+
+    /**
+     * Counts of the workspace's documents created in {@code [from, to)} per {@code interval},
+     * bucketed by {@code date_histogram} from the Unix epoch, and within each bucket per value of
+     * {@code groupField} unless it is null. Buckets without documents are absent.
+     */
+    List<HistogramBucket> histogram(String workspaceId, Instant from, Instant to, Duration interval, String groupField);
+
+    record AggregatedStatistics(
+        long total,
+        Map<String, Long> byAction,
+        Map<String, Long> byCategory,
+        Map<String, Long> bySeverity,
+        List<TopTerm> topActors,
+        List<TopTerm> topResources,
+        long uniqueActors,
+        long uniqueIpAddresses
+    ) {}
+
+    /**
+     * A top term with its count, the upper bound on how much that count may be short of the true
+     * one, and the described fields of its newest document.
+     */
+    record TopTerm(String key, long count, long countError, Map<String, String> latest) {}
+
+    record HistogramBucket(Instant start, long count, Map<String, Long> groups) {}
+}
@@ -0,0 +1,181 @@
+package com.quckapp.audit.domain.repository;
+
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.aggregations.StringTermsBucket;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.json.JsonData;
+import com.quckapp.audit.domain.document.AuditLogDocument;
+import com.quckapp.audit.domain.entity.AuditLog.AuditCategory;
+import com.quckapp.audit.domain.entity.AuditLog.AuditSeverity;
+import jakarta.json.JsonObject;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregations;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.client.elc.NativeQueryBuilder;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHits;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class AuditLogAggregationsImpl implements AuditLogAggregations {
+
+    /** Actions are free-form; beyond this many distinct ones the rarest are left out. */
+    private static final int MAX_ACTIONS = 1000;
+
+    /** Distinct counts are close to exact below this many values per shard. */
+    private static final int CARDINALITY_PRECISION = 40000;
+
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final AuditLogIndices indices;
+
+    @Override
+    public AggregatedStatistics aggregateStatistics(String workspaceId, Instant from, Instant to, int topN) {
+        NativeQuery search = inRange(workspaceId, from, to)
+            .withAggregation("by_action", terms("action", MAX_ACTIONS))
+            .withAggregation("by_category", terms("category", AuditCategory.values().length))
+            .withAggregation("by_severity", terms("severity", AuditSeverity.values().length))
+            .withAggregation("top_actors", top("actorId", topN, "actorEmail", "actorName"))
+            .withAggregation("top_resources", top("resourceId", topN, "resourceType", "resourceName"))
+            .withAggregation("unique_actors", cardinality("actorId"))
+            .withAggregation("unique_ip_addresses", cardinality("ipAddress"))
+            .withMaxResults(0)
+            .withTrackTotalHits(true)
+            .build();
+
+        SearchHits<AuditLogDocument> hits = elasticsearchOperations.search(
+            search, AuditLogDocument.class, indices.forRange(from, to));
+        Map<String, Aggregate> aggregates = aggregates(hits);
+        return new AggregatedStatistics(
+            hits.getTotalHits(),
+            counts(aggregates.get("by_action")),
+            counts(aggregates.get("by_category")),
+            counts(aggregates.get("by_severity")),
+            topTerms(aggregates.get("top_actors"), "actorEmail", "actorName"),
+            topTerms(aggregates.get("top_resources"), "resourceType", "resourceName"),
+            distinct(aggregates.get("unique_actors")),
+            distinct(aggregates.get("unique_ip_addresses")));
+    }
+
+    @Override
+    public List<HistogramBucket> histogram(String workspaceId, Instant from, Instant to, Duration interval,
+                                           String groupField) {
+        Aggregation.Builder.ContainerBuilder histogram = new Aggregation.Builder()
+            .dateHistogram(h -> h.field("createdAt").fixedInterval(t -> t.time(interval.toSeconds() + "s")));
+        if (groupField != null) {
+            histogram.aggregations("groups", terms(groupField, MAX_ACTIONS));
+        }
+        NativeQuery search = inRange(workspaceId, from, to)
+            .withAggregation("histogram", histogram.build())
+            .withMaxResults(0)
+            .build();
+
+        SearchHits<AuditLogDocument> hits = elasticsearchOperations.search(
+            search, AuditLogDocument.class, indices.forRange(from, to));
+        Aggregate aggregate = aggregates(hits).get("histogram");
+        if (aggregate == null || !aggregate.isDateHistogram()) {
+            return List.of();
+        }
+        return aggregate.dateHistogram().buckets().array().stream()
+            .map(bucket -> new HistogramBucket(
+                Instant.ofEpochMilli(bucket.key()),
+                bucket.docCount(),
+                counts(bucket.aggregations().get("groups"))))
+            .toList();
+    }
+
+    /**
+     * A search of the workspace's documents created in {@code [from, to)}, routed to its shards
+     * when every index of the range is routed.
+     */
+    private NativeQueryBuilder inRange(String workspaceId, Instant from, Instant to) {
+        NativeQueryBuilder builder = NativeQuery.builder();
+        if (indices.isRouted(indices.forRange(from, to))) {
+            builder.withRoute(workspaceId);
+        }
+        return builder.withQuery(q -> q.bool(b -> b
+            .filter(f -> f.term(t -> t.field("workspaceId").value(workspaceId)))
+            .filter(f -> f.range(r -> r.field("createdAt").format("epoch_millis")
+                .gte(JsonData.of(from.toEpochMilli()))
+                .lt(JsonData.of(to.toEpochMilli()))))));
+    }
+
+    private static Map<String, Aggregate> aggregates(SearchHits<AuditLogDocument> hits) {
+        Map<String, Aggregate> aggregates = new HashMap<>();
+        if (hits.getAggregations() instanceof ElasticsearchAggregations aggregations) {
+            aggregations.aggregationsAsMap().forEach((name, aggregation) ->
+                aggregates.put(name, aggregation.aggregation().getAggregate()));
+        }
+        return aggregates;
+    }
+
+    private static Aggregation terms(String field, int size) {
+        return Aggregation.of(a -> a.terms(t -> t.field(field).size(size)));
+    }
+
+    /**
+     * The most frequent values of {@code field}, each with the {@code described} fields of its
+     * newest document.
+     */
+    private static Aggregation top(String field, int size, String... described) {
+        return Aggregation.of(a -> a
+            .terms(t -> t.field(field).size(size).showTermDocCountError(true))
+            .aggregations("latest", l -> l.topHits(h -> h
+                .size(1)
+                .sort(s -> s.field(f -> f.field("createdAt").order(SortOrder.Desc)))
+                .source(s -> s.filter(f -> f.includes(List.of(described)))))));
+    }
+
+    private static Aggregation cardinality(String field) {
+        return Aggregation.of(a -> a.cardinality(c -> c.field(field).precisionThreshold(CARDINALITY_PRECISION)));
+    }
+
+    private static Map<String, Long> counts(Aggregate aggregate) {
+        Map<String, Long> counts = new HashMap<>();
+        if (aggregate != null && aggregate.isSterms()) {
+            for (StringTermsBucket bucket : aggregate.sterms().buckets().array()) {
+                counts.put(bucket.key().stringValue(), bucket.docCount());
+            }
+        }
+        return counts;
+    }
+
+    private static List<TopTerm> topTerms(Aggregate aggregate, String... described) {
+        if (aggregate == null || !aggregate.isSterms()) {
+            return List.of();
+        }
+        return aggregate.sterms().buckets().array().stream()
+            .map(bucket -> new TopTerm(
+                bucket.key().stringValue(),
+                bucket.docCount(),
+                bucket.docCountErrorUpperBound() != null ? bucket.docCountErrorUpperBound() : 0,
+                latest(bucket.aggregations().get("latest"), described)))
+            .toList();
+    }
+
+    private static Map<String, String> latest(Aggregate aggregate, String... described) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        if (aggregate == null || !aggregate.isTopHits() || aggregate.topHits().hits().hits().isEmpty()) {
+            return fields;
+        }
+        Hit<JsonData> hit = aggregate.topHits().hits().hits().get(0);
+        if (hit.source() != null) {
+            JsonObject source = hit.source().toJson().asJsonObject();
+            for (String field : described) {
+                fields.put(field, source.getString(field, null));
+            }
+        }
+        return fields;
+    }
+
+    private static long distinct(Aggregate aggregate) {
+        return aggregate != null && aggregate.isCardinality() ? aggregate.cardinality().value() : 0;
+    }
+}
@@ -0,0 +1,82 @@
+package com.quckapp.audit.domain.repository;
+
+import com.quckapp.audit.domain.entity.AuditLog;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * JDBC writer for the high-volume ingest path.
+ *
+ * Inserts a whole batch of audit logs with multi-row {@code INSERT ... VALUES (...), (...)}
+ * statements instead of one {@code save} per entity. Callers must assign {@code id} and
+ * {@code createdAt} up front, since no entity lifecycle callbacks run here.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class AuditLogBatchRepository {
+
+    private static final String INSERT_PREFIX =
+        "INSERT INTO audit_logs (id, workspace_id, actor_id, actor_email, actor_name, action, " +
+        "resource_type, resource_id, resource_name, metadata, previous_state, new_state, " +
+        "ip_address, user_agent, session_id, severity, category, created_at) VALUES ";
+
+    private static final String ROW_PLACEHOLDERS =
+        "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Maximum number of rows per INSERT statement. Keeps a single statement well under
+     * MySQL's max_allowed_packet even when metadata and state columns are large.
+     */
+    @Value("${audit.ingest.batch.insert-rows-per-statement:500}")
+    private int rowsPerStatement;
+
+    public int insertAll(List<AuditLog> auditLogs) {
+        int inserted = 0;
+        for (int from = 0; from < auditLogs.size(); from += rowsPerStatement) {
+            List<AuditLog> chunk = auditLogs.subList(from, Math.min(from + rowsPerStatement, auditLogs.size()));
+            inserted += jdbcTemplate.update(buildInsertSql(chunk.size()), toParameters(chunk));
+        }
+        log.debug("Batch inserted {} audit logs", inserted);
+        return inserted;
+    }
+
+    private String buildInsertSql(int rows) {
+        return INSERT_PREFIX + String.join(", ", Collections.nCopies(rows, ROW_PLACEHOLDERS));
+    }
+
+    private Object[] toParameters(List<AuditLog> chunk) {
+        List<Object> params = new ArrayList<>(chunk.size() * 18);
+        for (AuditLog auditLog : chunk) {
+            params.add(UuidBinary.toBytes(auditLog.getId()));
+            params.add(UuidBinary.toBytes(auditLog.getWorkspaceId()));
+            params.add(UuidBinary.toBytes(auditLog.getActorId()));
+            params.add(auditLog.getActorEmail());
+            params.add(auditLog.getActorName());
+            params.add(auditLog.getAction());
+            params.add(auditLog.getResourceType());
+            params.add(UuidBinary.toBytes(auditLog.getResourceId()));
+            params.add(auditLog.getResourceName());
+            params.add(auditLog.getMetadata());
+            params.add(auditLog.getPreviousState());
+            params.add(auditLog.getNewState());
+            params.add(auditLog.getIpAddress());
+            params.add(auditLog.getUserAgent());
+            params.add(auditLog.getSessionId());
+            params.add(auditLog.getSeverity().name());
+            params.add(auditLog.getCategory().name());
+            params.add(Timestamp.from(auditLog.getCreatedAt()));
+        }
+        return params.toArray();
+    }
+}
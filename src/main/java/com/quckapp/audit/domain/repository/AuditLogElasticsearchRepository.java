@@ -3,7 +3,6 @@ package com.quckapp.audit.domain.repository;
 import com.quckapp.audit.domain.document.AuditLogDocument;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.elasticsearch.annotations.Query;
 import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
 import org.springframework.stereotype.Repository;
 
@@ -11,7 +10,8 @@ import java.time.Instant;
 import java.util.List;
 
 @Repository
-public interface AuditLogElasticsearchRepository extends ElasticsearchRepository<AuditLogDocument, String> {
+public interface AuditLogElasticsearchRepository extends ElasticsearchRepository<AuditLogDocument, String>,
+        AuditLogFullTextSearch, AuditLogAggregations {
 
     Page<AuditLogDocument> findByWorkspaceIdOrderByCreatedAtDesc(String workspaceId, Pageable pageable);
 
@@ -30,10 +30,6 @@ public interface AuditLogElasticsearchRepository extends ElasticsearchRepository
     Page<AuditLogDocument> findByWorkspaceIdAndCreatedAtBetweenOrderByCreatedAtDesc(
         String workspaceId, Instant start, Instant end, Pageable pageable);
 
-    @Query("{\"bool\": {\"must\": [{\"term\": {\"workspaceId\": \"?0\"}}, " +
-           "{\"multi_match\": {\"query\": \"?1\", \"fields\": [\"actorEmail\", \"actorName\", \"resourceName\", \"action\"]}}]}}")
-    Page<AuditLogDocument> searchByWorkspaceIdAndQuery(String workspaceId, String query, Pageable pageable);
-
     List<AuditLogDocument> findByWorkspaceIdAndSeverityInOrderByCreatedAtDesc(
         String workspaceId, List<String> severities);
 }
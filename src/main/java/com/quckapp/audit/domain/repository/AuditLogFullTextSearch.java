@@ -0,0 +1,29 @@
+package com.quckapp.audit.domain.repository;
+
+import com.quckapp.audit.domain.document.AuditLogDocument;
+import com.quckapp.audit.domain.repository.AuditLogRetentionRepository.RowKey;
+import com.quckapp.audit.dto.AuditDtos.AuditLogSearchRequest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.elasticsearch.core.SearchHits;
+
+/**
+ * Full-text search routed by workspace and limited to the indices of the searched time range,
+ * which derived and {@code @Query} methods cannot express.
+ */
+public interface AuditLogFullTextSearch {
+
+    /**
+     * Matches of the request's query in its workspace, narrowed by every other filter of the
+     * request, by relevance, one offset page at a time.
+     */
+    Page<AuditLogDocument> searchMatching(AuditLogSearchRequest request, Pageable pageable);
+
+    /**
+     * Matches of the request's query in its workspace, narrowed by every other filter of the
+     * request, newest first, starting after {@code after} (null for the first page) via
+     * {@code search_after}. Only the indices overlapping the request's date range are searched.
+     * Total hits are only tracked when the request includes the total.
+     */
+    SearchHits<AuditLogDocument> searchMatchingAfter(AuditLogSearchRequest request, RowKey after, int limit);
+}
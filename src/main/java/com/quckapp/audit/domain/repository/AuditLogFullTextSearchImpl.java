@@ -0,0 +1,112 @@
+package com.quckapp.audit.domain.repository;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.json.JsonData;
+import com.quckapp.audit.domain.document.AuditLogDocument;
+import com.quckapp.audit.domain.repository.AuditLogRetentionRepository.RowKey;
+import com.quckapp.audit.dto.AuditDtos.AuditLogSearchRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.client.elc.NativeQueryBuilder;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+
+import java.time.Instant;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class AuditLogFullTextSearchImpl implements AuditLogFullTextSearch {
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final AuditLogIndices indices;
+
+    @Override
+    public Page<AuditLogDocument> searchMatching(AuditLogSearchRequest request, Pageable pageable) {
+        IndexCoordinates index = indices.forRange(request.getStartDate(), request.getEndDate());
+        NativeQuery search = route(NativeQuery.builder(), request.getWorkspaceId().toString(), index)
+            .withQuery(matching(request, request.getEndDate()))
+            .withPageable(pageable)
+            .build();
+        SearchHits<AuditLogDocument> hits = elasticsearchOperations.search(search, AuditLogDocument.class, index);
+        return new PageImpl<>(hits.getSearchHits().stream().map(SearchHit::getContent).toList(),
+            pageable, hits.getTotalHits());
+    }
+
+    @Override
+    public SearchHits<AuditLogDocument> searchMatchingAfter(AuditLogSearchRequest request, RowKey after, int limit) {
+        // Pages after a cursor only hold older documents, which narrows the indices to search
+        Instant to = request.getEndDate();
+        Instant until = after != null && (to == null || after.createdAt().isBefore(to)) ? after.createdAt() : to;
+        IndexCoordinates index = indices.forRange(request.getStartDate(), until);
+        NativeQuery search = route(NativeQuery.builder(), request.getWorkspaceId().toString(), index)
+            .withQuery(matching(request, until))
+            .withSort(NEWEST_FIRST)
+            .withSearchAfter(after != null ? List.<Object>of(after.createdAt().toEpochMilli(), after.id().toString()) : null)
+            .withMaxResults(limit)
+            .withTrackTotalHits(request.isIncludeTotal())
+            .build();
+        return elasticsearchOperations.search(search, AuditLogDocument.class, index);
+    }
+
+    /**
+     * Routes the search to the workspace's shards, unless one of the indices still holds
+     * documents indexed without routing.
+     */
+    private NativeQueryBuilder route(NativeQueryBuilder builder, String workspaceId, IndexCoordinates index) {
+        return indices.isRouted(index) ? builder.withRoute(workspaceId) : builder;
+    }
+
+    /**
+     * The request's query as a full-text match, and each of its other filters as the term,
+     * terms or range filter matching {@code AuditLogSpecifications.matching}, with the end of
+     * the range moved to {@code until}.
+     */
+    static Query matching(AuditLogSearchRequest request, Instant until) {
+        Instant from = request.getStartDate();
+        return Query.of(q -> q.bool(b -> {
+            b.must(m -> m.term(t -> t.field("workspaceId").value(request.getWorkspaceId().toString())))
+                .must(m -> m.multiMatch(mm -> mm.query(request.getQuery())
+                    .fields("actorEmail", "actorName", "resourceName", "action")));
+            term(b, "actorId", request.getActorId());
+            term(b, "action", request.getAction());
+            term(b, "resourceType", request.getResourceType());
+            term(b, "resourceId", request.getResourceId());
+            term(b, "category", request.getCategory());
+            if (request.getSeverities() != null && !request.getSeverities().isEmpty()) {
+                List<FieldValue> severities = request.getSeverities().stream()
+                    .map(severity -> FieldValue.of(severity.name()))
+                    .toList();
+                b.filter(f -> f.terms(t -> t.field("severity").terms(v -> v.value(severities))));
+            }
+            if (from != null || until != null) {
+                b.filter(f -> f.range(r -> {
+                    r.field("createdAt").format("epoch_millis");
+                    if (from != null) {
+                        r.gte(JsonData.of(from.toEpochMilli()));
+                    }
+                    if (until != null) {
+                        r.lte(JsonData.of(until.toEpochMilli()));
+                    }
+                    return r;
+                }));
+            }
+            return b;
+        }));
+    }
+
+    private static void term(BoolQuery.Builder bool, String field, Object value) {
+        if (value != null) {
+            bool.filter(f -> f.term(t -> t.field(field).value(value.toString())));
+        }
+    }
+}
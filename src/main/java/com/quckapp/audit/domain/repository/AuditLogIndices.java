@@ -0,0 +1,154 @@
+package com.quckapp.audit.domain.repository;
+
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Names of the rolling audit log indices, and which of them hold which time range.
+ *
+ * Documents are written through {@link #WRITE_ALIAS}, which points at a single index that is
+ * rolled over to a fresh {@code audit-logs-yyyy.MM-NNNNNN} index every month or once it grows
+ * too large. {@link #READ_ALIAS} spans every index. The lifecycle manager records the oldest and
+ * newest {@code createdAt} of each rolled-over index, so that searches over a time range only
+ * hit the indices overlapping it. The write index is always searched through the write alias, as
+ * it is still filling up and replays may write old documents into it; the alias follows a
+ * rollover at once, while the recorded ranges only catch up on the next refresh. The previous
+ * write index is searched as well until then, as its recorded range stops short of its newest
+ * documents.
+ *
+ * Documents are routed by workspace, so a search for one workspace only needs the shards its
+ * routing value maps to. Indices created before routing hold documents on any shard and are
+ * searched without routing until they have been rerouted.
+ */
+@Component
+public class AuditLogIndices {
+
+    public static final String READ_ALIAS = "audit-logs";
+    public static final String WRITE_ALIAS = "audit-logs-write";
+    public static final String INDEX_PATTERN = "audit-logs-*";
+
+    private static final String ROUTED_SUFFIX = "-routed";
+
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyy.MM");
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * The name of the {@code sequence}th index rolled over to in {@code month}.
+     */
+    public static String indexName(YearMonth month, int sequence) {
+        return String.format("audit-logs-%s-%06d", month.format(MONTH), sequence);
+    }
+
+    /**
+     * The month and sequence of an index named by {@link #indexName}, or null for any other
+     * index, such as the fixed monthly indices written before rollover.
+     */
+    public static IndexGeneration generationOf(String index) {
+        String[] parts = index.split("-");
+        if (parts.length != 4 || parts[3].length() != 6) {
+            return null;
+        }
+        try {
+            return new IndexGeneration(YearMonth.parse(parts[2], MONTH), Integer.parseInt(parts[3]));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The copy an unrouted index is reindexed into with routing; it replaces the index once complete.
+     */
+    public static String reroutedCopyOf(String index) {
+        return index + ROUTED_SUFFIX;
+    }
+
+    public static boolean isReroutedCopy(String index) {
+        return index.endsWith(ROUTED_SUFFIX);
+    }
+
+    /**
+     * The index a rerouted copy was made from.
+     */
+    public static String sourceOf(String reroutedCopy) {
+        return reroutedCopy.substring(0, reroutedCopy.length() - ROUTED_SUFFIX.length());
+    }
+
+    /**
+     * Whether the write alias is known to exist, so that documents can be written through it.
+     */
+    public boolean isBootstrapped() {
+        return snapshot != null;
+    }
+
+    /**
+     * Records the current write index and the time range of every other index with documents.
+     */
+    public void update(String writeIndex, Map<String, TimeRange> ranges, Set<String> unroutedIndices) {
+        snapshot = new Snapshot(writeIndex, Map.copyOf(ranges), Set.copyOf(unroutedIndices));
+    }
+
+    /**
+     * The indices to search for documents created in {@code [from, to]}; either end may be null
+     * for an open range. Falls back to the read alias until the ranges are known.
+     */
+    public IndexCoordinates forRange(Instant from, Instant to) {
+        Snapshot current = snapshot;
+        if (current == null || (from == null && to == null)) {
+            return IndexCoordinates.of(READ_ALIAS);
+        }
+        List<String> indices = new ArrayList<>();
+        indices.add(WRITE_ALIAS);
+        indices.add(current.writeIndex());
+        current.ranges().forEach((index, range) -> {
+            if (!index.equals(current.writeIndex()) && range.overlaps(from, to)) {
+                indices.add(index);
+            }
+        });
+        return IndexCoordinates.of(indices.toArray(String[]::new));
+    }
+
+    /**
+     * Whether every index of {@code coordinates} routes its documents by workspace, so that a
+     * search for one workspace can be routed.
+     */
+    public boolean isRouted(IndexCoordinates coordinates) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return false;
+        }
+        for (String index : coordinates.getIndexNames()) {
+            boolean unrouted = switch (index) {
+                case READ_ALIAS -> !current.unroutedIndices().isEmpty();
+                case WRITE_ALIAS -> current.unroutedIndices().contains(current.writeIndex());
+                default -> current.unroutedIndices().contains(index);
+            };
+            if (unrouted) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Oldest and newest {@code createdAt} in an index.
+     */
+    public record TimeRange(Instant oldest, Instant newest) {
+
+        boolean overlaps(Instant from, Instant to) {
+            return (from == null || !newest.isBefore(from)) && (to == null || !oldest.isAfter(to));
+        }
+    }
+
+    public record IndexGeneration(YearMonth month, int sequence) {}
+
+    private record Snapshot(String writeIndex, Map<String, TimeRange> ranges, Set<String> unroutedIndices) {}
+}
@@ -0,0 +1,122 @@
+package com.quckapp.audit.domain.repository;
+
+import com.quckapp.audit.domain.entity.AuditLog;
+import com.quckapp.audit.domain.repository.AuditLogRetentionRepository.RetentionCell;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Partition metadata and DDL for the range-partitioned {@code audit_logs} table.
+ *
+ * Partitions are ranged on {@code UNIX_TIMESTAMP(created_at)}, so every bound is an epoch
+ * second. The last partition, {@code p_future}, is bounded by MAXVALUE and is split to add
+ * new months.
+ *
+ * DDL needs the table's metadata lock, which waits for every open transaction on the table,
+ * such as a long export, while every later statement on the table queues behind it. It is
+ * therefore run with a {@code lock_wait_timeout} of {@code lock-wait-timeout-seconds} and fails
+ * with a {@link org.springframework.dao.CannotAcquireLockException} instead of stalling ingest.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class AuditLogPartitionRepository {
+
+    public static final String FUTURE_PARTITION = "p_future";
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("p_?[a-z0-9]+");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${audit.partitions.lock-wait-timeout-seconds:5}")
+    private int lockWaitTimeoutSeconds;
+
+    /**
+     * Partitions in ascending bound order; empty when the table is not partitioned.
+     */
+    public List<PartitionInfo> findPartitions() {
+        return jdbcTemplate.query(
+            "SELECT PARTITION_NAME, PARTITION_DESCRIPTION, TABLE_ROWS FROM information_schema.PARTITIONS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'audit_logs' AND PARTITION_NAME IS NOT NULL " +
+            "ORDER BY PARTITION_ORDINAL_POSITION",
+            (rs, rowNum) -> {
+                String bound = rs.getString("PARTITION_DESCRIPTION");
+                Instant upperBound = "MAXVALUE".equalsIgnoreCase(bound) ? null : Instant.ofEpochSecond(Long.parseLong(bound));
+                return new PartitionInfo(rs.getString("PARTITION_NAME"), upperBound, rs.getLong("TABLE_ROWS"));
+            });
+    }
+
+    /**
+     * Splits {@code p_future} into the given partitions followed by a new, empty {@code p_future}.
+     */
+    public void addPartitions(List<PartitionInfo> partitions) {
+        if (partitions.isEmpty()) {
+            return;
+        }
+        String definitions = partitions.stream()
+            .map(p -> "PARTITION " + checkName(p.name()) + " VALUES LESS THAN (" + p.upperBound().getEpochSecond() + ")")
+            .collect(Collectors.joining(", "));
+        executeDdl("ALTER TABLE audit_logs REORGANIZE PARTITION " + FUTURE_PARTITION + " INTO (" +
+            definitions + ", PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN MAXVALUE)");
+        log.info("Added audit_logs partitions: {}", partitions.stream().map(PartitionInfo::name).toList());
+    }
+
+    public void dropPartition(String name) {
+        executeDdl("ALTER TABLE audit_logs DROP PARTITION " + checkName(name));
+    }
+
+    /**
+     * Runs the statement on one connection with the short lock wait timeout, restoring the
+     * server default before the connection goes back to the pool.
+     */
+    private void executeDdl(String sql) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET SESSION lock_wait_timeout = " + lockWaitTimeoutSeconds);
+                try {
+                    statement.execute(sql);
+                } finally {
+                    statement.execute("SET SESSION lock_wait_timeout = DEFAULT");
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * The retention cells that have rows in the partition, read from {@code idx_audit_retention}.
+     */
+    public List<RetentionCell> findCells(String partition) {
+        return jdbcTemplate.query(
+            "SELECT DISTINCT workspace_id, category, severity FROM audit_logs PARTITION (" + checkName(partition) + ")",
+            (rs, rowNum) -> new RetentionCell(
+                UuidBinary.fromBytes(rs.getBytes("workspace_id")),
+                AuditLog.AuditCategory.valueOf(rs.getString("category")),
+                AuditLog.AuditSeverity.valueOf(rs.getString("severity"))));
+    }
+
+    /**
+     * Partition names are interpolated into DDL, so only accept the names this service creates.
+     */
+    private static String checkName(String name) {
+        if (!PARTITION_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid partition name: " + name);
+        }
+        return name;
+    }
+
+    /**
+     * @param upperBound exclusive upper bound on created_at, or null for the MAXVALUE partition
+     */
+    public record PartitionInfo(String name, Instant upperBound, long estimatedRows) {}
+}
@@ -4,7 +4,7 @@ import com.quckapp.audit.domain.entity.AuditLog;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -14,7 +14,8 @@ import java.util.List;
 import java.util.UUID;
 
 @Repository
-public interface AuditLogRepository extends JpaRepository<AuditLog, UUID> {
+public interface AuditLogRepository extends JpaRepository<AuditLog, UUID>, JpaSpecificationExecutor<AuditLog>,
+        AuditLogStreamingRepository {
 
     Page<AuditLog> findByWorkspaceIdOrderByCreatedAtDesc(UUID workspaceId, Pageable pageable);
 
@@ -54,27 +55,19 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, UUID> {
         @Param("severities") List<AuditLog.AuditSeverity> severities,
         Pageable pageable);
 
-    @Query("SELECT COUNT(a) FROM AuditLog a WHERE a.workspaceId = :workspaceId " +
-           "AND a.createdAt BETWEEN :start AND :end")
-    long countByWorkspaceIdAndDateRange(
+    @Query("SELECT a.actorId, a.actorEmail, a.actorName, COUNT(a) FROM AuditLog a WHERE a.workspaceId = :workspaceId " +
+           "AND a.createdAt >= :start AND a.createdAt < :end GROUP BY a.actorId, a.actorEmail, a.actorName ORDER BY COUNT(a) DESC")
+    List<Object[]> findTopActorsInDateRange(
         @Param("workspaceId") UUID workspaceId,
         @Param("start") Instant start,
-        @Param("end") Instant end);
+        @Param("end") Instant end,
+        Pageable pageable);
 
-    @Query("SELECT a.action, COUNT(a) FROM AuditLog a WHERE a.workspaceId = :workspaceId " +
-           "AND a.createdAt BETWEEN :start AND :end GROUP BY a.action ORDER BY COUNT(a) DESC")
-    List<Object[]> countByActionInDateRange(
+    @Query("SELECT a.resourceType, a.resourceId, a.resourceName, COUNT(a) FROM AuditLog a WHERE a.workspaceId = :workspaceId " +
+           "AND a.createdAt >= :start AND a.createdAt < :end GROUP BY a.resourceType, a.resourceId, a.resourceName ORDER BY COUNT(a) DESC")
+    List<Object[]> findTopResourcesInDateRange(
         @Param("workspaceId") UUID workspaceId,
         @Param("start") Instant start,
-        @Param("end") Instant end);
-
-    @Modifying
-    @Query("DELETE FROM AuditLog a WHERE a.createdAt < :cutoffDate AND a.category = :category")
-    int deleteByCreatedAtBeforeAndCategory(
-        @Param("cutoffDate") Instant cutoffDate,
-        @Param("category") AuditLog.AuditCategory category);
-
-    @Modifying
-    @Query("DELETE FROM AuditLog a WHERE a.createdAt < :cutoffDate")
-    int deleteByCreatedAtBefore(@Param("cutoffDate") Instant cutoffDate);
+        @Param("end") Instant end,
+        Pageable pageable);
 }
@@ -0,0 +1,132 @@
+package com.quckapp.audit.domain.repository;
+
+import com.quckapp.audit.domain.entity.AuditLog;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keyset-chunked reads and deletes of expired audit logs for the retention executor.
+ *
+ * Retention works on cells of one workspace, category and severity. Chunks of a cell are
+ * selected in (created_at, id) order through {@code idx_audit_retention}, so each chunk is a
+ * short range scan that continues where the previous one stopped, and deleted by primary key.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AuditLogRetentionRepository {
+
+    private static final String ARCHIVED_COLUMNS =
+        "id, workspace_id, actor_id, actor_email, actor_name, action, resource_type, resource_id, resource_name, " +
+        "metadata, previous_state, new_state, ip_address, user_agent, session_id, severity, category, created_at";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Workspaces that have audit logs, in the binary order of their ids. A loose index scan on
+     * the leading column of {@code idx_audit_retention}.
+     */
+    public List<UUID> findWorkspaceIds() {
+        return jdbcTemplate.query("SELECT DISTINCT workspace_id FROM audit_logs ORDER BY workspace_id",
+            (rs, rowNum) -> UuidBinary.fromBytes(rs.getBytes("workspace_id")));
+    }
+
+    /**
+     * Next chunk of the cell's rows older than {@code cutoff} after the cursor. A null cursor
+     * starts at the oldest row.
+     */
+    public List<RowKey> findExpiredKeys(RetentionCell cell, Instant cutoff, RowKey after, int limit) {
+        StringBuilder sql = new StringBuilder(
+            "SELECT id, created_at FROM audit_logs WHERE workspace_id = ? AND category = ? AND severity = ? " +
+            "AND created_at < ?");
+        List<Object> params = new ArrayList<>();
+        params.add(UuidBinary.toBytes(cell.workspaceId()));
+        params.add(cell.category().name());
+        params.add(cell.severity().name());
+        params.add(Timestamp.from(cutoff));
+        if (after != null) {
+            sql.append(" AND (created_at > ? OR (created_at = ? AND id > ?))");
+            params.add(Timestamp.from(after.createdAt()));
+            params.add(Timestamp.from(after.createdAt()));
+            params.add(UuidBinary.toBytes(after.id()));
+        }
+        sql.append(" ORDER BY created_at, id LIMIT ?");
+        params.add(limit);
+
+        return jdbcTemplate.query(sql.toString(),
+            (rs, rowNum) -> new RowKey(UuidBinary.fromBytes(rs.getBytes("id")), rs.getTimestamp("created_at").toInstant()),
+            params.toArray());
+    }
+
+    /**
+     * Copies the given rows into {@code archived_audit_logs} with one {@code INSERT ... SELECT},
+     * so the rows never pass through the application. Rows archived by an earlier attempt are
+     * left as they are. Meant to run in the same transaction as {@link #deleteByKeys}.
+     */
+    public int archiveByKeys(List<RowKey> keys, UUID policyId) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        List<Object> params = new ArrayList<>(keys.size() + 3);
+        params.add(UuidBinary.toBytes(policyId));
+        String keyRange = appendKeyRange(keys, params);
+
+        return jdbcTemplate.update(
+            "INSERT INTO archived_audit_logs (" + ARCHIVED_COLUMNS + ", archived_at, archived_by_policy_id) " +
+            "SELECT " + ARCHIVED_COLUMNS + ", CURRENT_TIMESTAMP, ? FROM audit_logs WHERE " + keyRange + " " +
+            "ON DUPLICATE KEY UPDATE archived_at = archived_at",
+            params.toArray());
+    }
+
+    /**
+     * Deletes the given rows in primary key order, so concurrent chunks and ingest always take
+     * row locks in the same order. The created_at range lets MySQL prune partitions.
+     */
+    public int deleteByKeys(List<RowKey> keys) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        List<Object> params = new ArrayList<>(keys.size() + 2);
+        return jdbcTemplate.update(
+            "DELETE FROM audit_logs WHERE " + appendKeyRange(keys, params) + " ORDER BY id",
+            params.toArray());
+    }
+
+    /**
+     * Predicate matching exactly the given rows, with ids in primary key order. The created_at
+     * range lets MySQL prune partitions.
+     */
+    private static String appendKeyRange(List<RowKey> keys, List<Object> params) {
+        keys.stream()
+            .map(RowKey::id)
+            .sorted(UuidBinary::compare)
+            .forEach(id -> params.add(UuidBinary.toBytes(id)));
+        params.add(Timestamp.from(keys.stream().map(RowKey::createdAt).min(Comparator.naturalOrder()).orElseThrow()));
+        params.add(Timestamp.from(keys.stream().map(RowKey::createdAt).max(Comparator.naturalOrder()).orElseThrow()));
+        return "id IN (" + String.join(", ", Collections.nCopies(keys.size(), "?")) + ") AND created_at BETWEEN ? AND ?";
+    }
+
+    public record RowKey(UUID id, Instant createdAt) {}
+
+    /**
+     * The leading columns of {@code idx_audit_retention}; every audit log belongs to exactly one cell.
+     */
+    public record RetentionCell(UUID workspaceId, AuditLog.AuditCategory category, AuditLog.AuditSeverity severity) {
+
+        /**
+         * Index order of the cells.
+         */
+        public static final Comparator<RetentionCell> ORDER = Comparator
+            .comparing(RetentionCell::workspaceId, UuidBinary::compare)
+            .thenComparing(RetentionCell::category)
+            .thenComparing(RetentionCell::severity);
+    }
+}
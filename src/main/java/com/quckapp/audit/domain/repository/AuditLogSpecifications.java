@@ -0,0 +1,113 @@
+package com.quckapp.audit.domain.repository;
+
+import com.quckapp.audit.domain.entity.AuditLog;
+import com.quckapp.audit.dto.AuditDtos.AuditLogSearchRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Search filters shared by {@code audit_logs} and {@code archived_audit_logs}, which map the
+ * searchable columns to the same attribute names. Every filter returns null for a null argument,
+ * so {@link Specification#and} skips it and a request's filters compose into one WHERE clause.
+ *
+ * The composite indexes all lead with workspace_id and end with created_at, so whichever
+ * equality filters a request combines, one index covers them as a prefix and serves the
+ * newest-first order without a sort; the remaining filters are applied in the index scan.
+ */
+public final class AuditLogSpecifications {
+
+    /**
+     * Newest first; the id breaks ties between rows with the same created_at so pages are stable.
+     */
+    public static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
+    private AuditLogSpecifications() {
+    }
+
+    /**
+     * All filters of the request except the free-text query, combined with AND.
+     */
+    public static <T> Specification<T> matching(AuditLogSearchRequest request) {
+        return Specification.<T>where(inWorkspace(request.getWorkspaceId()))
+            .and(byActor(request.getActorId()))
+            .and(withAction(request.getAction()))
+            .and(onResourceType(request.getResourceType()))
+            .and(onResource(request.getResourceId()))
+            .and(inCategory(request.getCategory()))
+            .and(withSeverityIn(request.getSeverities()))
+            .and(createdFrom(request.getStartDate()))
+            .and(createdUntil(request.getEndDate()));
+    }
+
+    public static <T> Specification<T> inWorkspace(UUID workspaceId) {
+        return equal("workspaceId", workspaceId);
+    }
+
+    public static <T> Specification<T> byActor(UUID actorId) {
+        return equal("actorId", actorId);
+    }
+
+    public static <T> Specification<T> withAction(String action) {
+        return equal("action", action);
+    }
+
+    public static <T> Specification<T> onResourceType(String resourceType) {
+        return equal("resourceType", resourceType);
+    }
+
+    public static <T> Specification<T> onResource(UUID resourceId) {
+        return equal("resourceId", resourceId);
+    }
+
+    public static <T> Specification<T> inCategory(AuditLog.AuditCategory category) {
+        return equal("category", category);
+    }
+
+    public static <T> Specification<T> withSeverityIn(Collection<AuditLog.AuditSeverity> severities) {
+        if (severities == null || severities.isEmpty()) {
+            return null;
+        }
+        if (severities.size() == 1) {
+            return equal("severity", severities.iterator().next());
+        }
+        return (root, query, cb) -> root.get("severity").in(severities);
+    }
+
+    /**
+     * Inclusive lower bound on created_at.
+     */
+    public static <T> Specification<T> createdFrom(Instant from) {
+        return from == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.<Instant>get("createdAt"), from);
+    }
+
+    /**
+     * Inclusive upper bound on created_at, matching the BETWEEN of the date-range queries.
+     */
+    public static <T> Specification<T> createdUntil(Instant until) {
+        return until == null ? null : (root, query, cb) -> cb.lessThanOrEqualTo(root.<Instant>get("createdAt"), until);
+    }
+
+    /**
+     * Exclusive upper bound on created_at, for half-open time slices.
+     */
+    public static <T> Specification<T> createdBefore(Instant before) {
+        return before == null ? null : (root, query, cb) -> cb.lessThan(root.<Instant>get("createdAt"), before);
+    }
+
+    /**
+     * Rows after ({@code createdAt}, {@code id}) in {@link #NEWEST_FIRST} order, for keyset paging.
+     */
+    public static <T> Specification<T> olderThan(Instant createdAt, UUID id) {
+        return (root, query, cb) -> cb.or(
+            cb.lessThan(root.<Instant>get("createdAt"), createdAt),
+            cb.and(cb.equal(root.get("createdAt"), createdAt), cb.lessThan(root.<UUID>get("id"), id)));
+    }
+
+    private static <T> Specification<T> equal(String attribute, Object value) {
+        return value == null ? null : (root, query, cb) -> cb.equal(root.get(attribute), value);
+    }
+}
@@ -0,0 +1,20 @@
+package com.quckapp.audit.domain.repository;
+
+import com.quckapp.audit.domain.entity.AuditLog;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.stream.Stream;
+
+/**
+ * Unbounded reads of {@code audit_logs} over a forward-only cursor, for exports.
+ */
+public interface AuditLogStreamingRepository {
+
+    /**
+     * Every row matching {@code spec} in {@code sort} order, read one at a time from the open result
+     * set and detached as it is handed out, so memory stays flat however many rows match. Must be
+     * consumed and closed inside a transaction.
+     */
+    Stream<AuditLog> streamAll(Specification<AuditLog> spec, Sort sort);
+}
@@ -0,0 +1,207 @@
+package com.quckapp.audit.domain.repository;
+
+import com.quckapp.audit.domain.entity.AuditLog;
+import com.quckapp.audit.domain.repository.AuditLogRetentionRepository.RetentionCell;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * JDBC access to the hourly and daily rollups of audit log counts, and to the raw rows the
+ * statistics fall back to for partial buckets and buckets finer than an hour.
+ *
+ * Rollups are incremented with {@code INSERT ... ON DUPLICATE KEY UPDATE} in the ingest
+ * transaction. A batch is first aggregated per bucket row, and its rows are written in primary
+ * key order, so concurrent batches lock shared rows in the same order and cannot deadlock.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AuditRollupRepository {
+
+    private static final int ROWS_PER_STATEMENT = 500;
+
+    private static final Comparator<RollupKey> KEY_ORDER = Comparator
+        .comparing(RollupKey::workspaceId, UuidBinary::compare)
+        .thenComparing(RollupKey::bucketStart)
+        .thenComparing(RollupKey::action)
+        .thenComparing(RollupKey::category)
+        .thenComparing(RollupKey::severity);
+
+    private static final RowMapper<RollupCount> COUNT_MAPPER = (rs, rowNum) -> new RollupCount(
+        rs.getString("action"),
+        AuditLog.AuditCategory.valueOf(rs.getString("category")),
+        AuditLog.AuditSeverity.valueOf(rs.getString("severity")),
+        rs.getLong("event_count"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Adds the given, already persisted audit logs to their hourly and daily buckets.
+     */
+    public void increment(Collection<AuditLog> auditLogs) {
+        if (auditLogs.isEmpty()) {
+            return;
+        }
+        for (Granularity granularity : Granularity.values()) {
+            Map<RollupKey, Long> counts = new TreeMap<>(KEY_ORDER);
+            for (AuditLog auditLog : auditLogs) {
+                RollupKey key = new RollupKey(auditLog.getWorkspaceId(), granularity.bucketOf(auditLog.getCreatedAt()),
+                    auditLog.getAction(), auditLog.getCategory(), auditLog.getSeverity());
+                counts.merge(key, 1L, Long::sum);
+            }
+            upsert(granularity, new ArrayList<>(counts.entrySet()));
+        }
+    }
+
+    /**
+     * The rollups of the buckets starting in {@code [from, to)}, by bucket. Buckets without
+     * events are absent.
+     */
+    public Map<Instant, List<RollupCount>> findBuckets(Granularity granularity, UUID workspaceId, Instant from, Instant to) {
+        Map<Instant, List<RollupCount>> buckets = new TreeMap<>();
+        jdbcTemplate.query(
+            "SELECT bucket_start, action, category, severity, event_count FROM " + granularity.table +
+            " WHERE workspace_id = ? AND bucket_start >= ? AND bucket_start < ?",
+            rs -> {
+                buckets.computeIfAbsent(rs.getTimestamp("bucket_start").toInstant(), bucket -> new ArrayList<>())
+                    .add(COUNT_MAPPER.mapRow(rs, 0));
+            },
+            UuidBinary.toBytes(workspaceId), Timestamp.from(from), Timestamp.from(to));
+        return buckets;
+    }
+
+    /**
+     * Counts the raw audit logs created in {@code [from, to)}, or {@code [from, to]} when
+     * {@code toInclusive}.
+     */
+    public List<RollupCount> countRaw(UUID workspaceId, Instant from, Instant to, boolean toInclusive) {
+        return jdbcTemplate.query(
+            "SELECT action, category, severity, COUNT(*) AS event_count FROM audit_logs " +
+            "WHERE workspace_id = ? AND created_at >= ? AND created_at " + (toInclusive ? "<=" : "<") + " ? " +
+            "GROUP BY action, category, severity",
+            COUNT_MAPPER, UuidBinary.toBytes(workspaceId), Timestamp.from(from), Timestamp.from(to));
+    }
+
+    /**
+     * Streams the creation time and rollup dimensions of the raw audit logs created in
+     * {@code [from, to)} from a forward-only cursor, for bucketing finer than the rollups.
+     */
+    public void scanRaw(UUID workspaceId, Instant from, Instant to, Consumer<RawEvent> consumer) {
+        jdbcTemplate.query(
+            connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                    "SELECT created_at, action, category, severity FROM audit_logs " +
+                    "WHERE workspace_id = ? AND created_at >= ? AND created_at < ?",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(Integer.MIN_VALUE);
+                statement.setBytes(1, UuidBinary.toBytes(workspaceId));
+                statement.setTimestamp(2, Timestamp.from(from));
+                statement.setTimestamp(3, Timestamp.from(to));
+                return statement;
+            },
+            rs -> {
+                consumer.accept(new RawEvent(
+                    rs.getTimestamp("created_at").toInstant(),
+                    rs.getString("action"),
+                    AuditLog.AuditCategory.valueOf(rs.getString("category")),
+                    AuditLog.AuditSeverity.valueOf(rs.getString("severity"))));
+            });
+    }
+
+    /**
+     * Removes the rollups of a retention cell's buckets that ended by the cutoff, once its rows
+     * are gone. The bucket the cutoff falls in keeps counting the rows deleted from it.
+     */
+    public int deleteExpired(RetentionCell cell, Instant cutoff) {
+        int deleted = 0;
+        for (Granularity granularity : Granularity.values()) {
+            deleted += jdbcTemplate.update(
+                "DELETE FROM " + granularity.table + " WHERE workspace_id = ? AND category = ? AND severity = ? " +
+                "AND bucket_start <= ?",
+                UuidBinary.toBytes(cell.workspaceId()), cell.category().name(), cell.severity().name(),
+                Timestamp.from(cutoff.minus(granularity.length)));
+        }
+        return deleted;
+    }
+
+    private void upsert(Granularity granularity, List<Map.Entry<RollupKey, Long>> rows) {
+        for (int from = 0; from < rows.size(); from += ROWS_PER_STATEMENT) {
+            List<Map.Entry<RollupKey, Long>> chunk = rows.subList(from, Math.min(from + ROWS_PER_STATEMENT, rows.size()));
+            List<Object> params = new ArrayList<>(chunk.size() * 6);
+            for (Map.Entry<RollupKey, Long> row : chunk) {
+                RollupKey key = row.getKey();
+                params.add(UuidBinary.toBytes(key.workspaceId()));
+                params.add(Timestamp.from(key.bucketStart()));
+                params.add(key.action());
+                params.add(key.category().name());
+                params.add(key.severity().name());
+                params.add(row.getValue());
+            }
+            jdbcTemplate.update(
+                "INSERT INTO " + granularity.table + " (workspace_id, bucket_start, action, category, severity, event_count) " +
+                "VALUES " + String.join(", ", Collections.nCopies(chunk.size(), "(?, ?, ?, ?, ?, ?)")) +
+                " ON DUPLICATE KEY UPDATE event_count = event_count + VALUES(event_count)",
+                params.toArray());
+        }
+    }
+
+    public enum Granularity {
+        HOURLY("audit_rollups_hourly", ChronoUnit.HOURS),
+        DAILY("audit_rollups_daily", ChronoUnit.DAYS);
+
+        private final String table;
+        private final ChronoUnit unit;
+        private final Duration length;
+
+        Granularity(String table, ChronoUnit unit) {
+            this.table = table;
+            this.unit = unit;
+            this.length = unit.getDuration();
+        }
+
+        /**
+         * The start of the UTC bucket containing {@code instant}.
+         */
+        public Instant bucketOf(Instant instant) {
+            return instant.truncatedTo(unit);
+        }
+
+        public Duration length() {
+            return length;
+        }
+
+        /**
+         * The start of the first bucket starting at or after {@code instant}.
+         */
+        public Instant nextBoundary(Instant instant) {
+            Instant start = bucketOf(instant);
+            return start.equals(instant) ? start : start.plus(length);
+        }
+    }
+
+    private record RollupKey(UUID workspaceId, Instant bucketStart, String action,
+                             AuditLog.AuditCategory category, AuditLog.AuditSeverity severity) {}
+
+    public record RawEvent(Instant createdAt, String action, AuditLog.AuditCategory category,
+                           AuditLog.AuditSeverity severity) {}
+
+    public record RollupCount(String action, AuditLog.AuditCategory category, AuditLog.AuditSeverity severity,
+                              long count) {}
+}
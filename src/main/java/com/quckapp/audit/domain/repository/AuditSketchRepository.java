@@ -0,0 +1,126 @@
+package com.quckapp.audit.domain.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * JDBC access to {@code audit_sketches}, the serialized per-day sketches of a workspace, and to
+ * the raw rows they are built from.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AuditSketchRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * The stored sketches of the days starting in {@code [from, to)}, by day.
+     */
+    public Map<Instant, SketchRow> findDays(UUID workspaceId, Instant from, Instant to) {
+        Map<Instant, SketchRow> days = new TreeMap<>();
+        jdbcTemplate.query(
+            "SELECT * FROM audit_sketches WHERE workspace_id = ? AND bucket_start >= ? AND bucket_start < ?",
+            rs -> {
+                days.put(rs.getTimestamp("bucket_start").toInstant(), map(rs));
+            },
+            UuidBinary.toBytes(workspaceId), Timestamp.from(from), Timestamp.from(to));
+        return days;
+    }
+
+    public void save(UUID workspaceId, Instant day, SketchRow sketches) {
+        jdbcTemplate.update(
+            "INSERT INTO audit_sketches (workspace_id, bucket_start, actors, ip_addresses, top_actors, " +
+            "top_resources, top_actions) VALUES (?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE actors = VALUES(actors), ip_addresses = VALUES(ip_addresses), " +
+            "top_actors = VALUES(top_actors), top_resources = VALUES(top_resources), " +
+            "top_actions = VALUES(top_actions), built_at = CURRENT_TIMESTAMP",
+            UuidBinary.toBytes(workspaceId), Timestamp.from(day), sketches.actors(), sketches.ipAddresses(),
+            sketches.topActors(), sketches.topResources(), sketches.topActions());
+    }
+
+    /**
+     * Drops the sketches of the workspace's days starting in {@code [from, to)}; a null
+     * {@code from} drops every day before {@code to}.
+     */
+    public int deleteDays(UUID workspaceId, Instant from, Instant to) {
+        if (from == null) {
+            return jdbcTemplate.update("DELETE FROM audit_sketches WHERE workspace_id = ? AND bucket_start < ?",
+                UuidBinary.toBytes(workspaceId), Timestamp.from(to));
+        }
+        return jdbcTemplate.update(
+            "DELETE FROM audit_sketches WHERE workspace_id = ? AND bucket_start >= ? AND bucket_start < ?",
+            UuidBinary.toBytes(workspaceId), Timestamp.from(from), Timestamp.from(to));
+    }
+
+    /**
+     * Days with audit logs, according to the daily rollups, that started at or before
+     * {@code startedBy} and have no sketch yet, oldest first.
+     */
+    public List<WorkspaceDay> findUnsketchedDays(Instant startedBy, int limit) {
+        return jdbcTemplate.query(
+            "SELECT r.workspace_id, r.bucket_start FROM audit_rollups_daily r " +
+            "LEFT JOIN audit_sketches s ON s.workspace_id = r.workspace_id AND s.bucket_start = r.bucket_start " +
+            "WHERE s.workspace_id IS NULL AND r.bucket_start <= ? " +
+            "GROUP BY r.workspace_id, r.bucket_start ORDER BY r.bucket_start LIMIT ?",
+            (rs, rowNum) -> new WorkspaceDay(UuidBinary.fromBytes(rs.getBytes("workspace_id")),
+                rs.getTimestamp("bucket_start").toInstant()),
+            Timestamp.from(startedBy), limit);
+    }
+
+    /**
+     * Streams the sketched columns of the workspace's audit logs created in {@code [from, to)},
+     * or {@code [from, to]} when {@code toInclusive}. Rows are read from a forward-only cursor, so
+     * a day of rows is never held in memory.
+     */
+    public void scan(UUID workspaceId, Instant from, Instant to, boolean toInclusive, Consumer<ActivityRow> consumer) {
+        jdbcTemplate.query(
+            connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                    "SELECT actor_id, actor_email, actor_name, ip_address, resource_type, resource_id, resource_name, " +
+                    "action FROM audit_logs WHERE workspace_id = ? AND created_at >= ? AND created_at " +
+                    (toInclusive ? "<=" : "<") + " ?",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(Integer.MIN_VALUE);
+                statement.setBytes(1, UuidBinary.toBytes(workspaceId));
+                statement.setTimestamp(2, Timestamp.from(from));
+                statement.setTimestamp(3, Timestamp.from(to));
+                return statement;
+            },
+            rs -> {
+                consumer.accept(new ActivityRow(
+                    UuidBinary.fromBytes(rs.getBytes("actor_id")),
+                    rs.getString("actor_email"),
+                    rs.getString("actor_name"),
+                    rs.getString("ip_address"),
+                    rs.getString("resource_type"),
+                    UuidBinary.fromBytes(rs.getBytes("resource_id")),
+                    rs.getString("resource_name"),
+                    rs.getString("action")));
+            });
+    }
+
+    private static SketchRow map(ResultSet rs) throws SQLException {
+        return new SketchRow(rs.getBytes("actors"), rs.getBytes("ip_addresses"), rs.getBytes("top_actors"),
+            rs.getBytes("top_resources"), rs.getBytes("top_actions"));
+    }
+
+    public record SketchRow(byte[] actors, byte[] ipAddresses, byte[] topActors, byte[] topResources,
+                            byte[] topActions) {}
+
+    public record WorkspaceDay(UUID workspaceId, Instant day) {}
+
+    public record ActivityRow(UUID actorId, String actorEmail, String actorName, String ipAddress,
+                              String resourceType, UUID resourceId, String resourceName, String action) {}
+}
@@ -0,0 +1,124 @@
+package com.quckapp.audit.domain.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JDBC access to {@code cold_archive_segments}, the manifest of sealed cold-archive files.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ColdArchiveSegmentRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Registers a segment before its file is written, so an interrupted write can be cleaned up.
+     */
+    public void insertWriting(UUID id, UUID workspaceId, YearMonth month, String path, Instant archivedBefore) {
+        jdbcTemplate.update(
+            "INSERT INTO cold_archive_segments (id, workspace_id, month, path, status, archived_before) " +
+            "VALUES (?, ?, ?, ?, 'WRITING', ?)",
+            UuidBinary.toBytes(id), UuidBinary.toBytes(workspaceId), month.toString(), path, Timestamp.from(archivedBefore));
+    }
+
+    /**
+     * Marks the segment sealed and, in the same transaction, the segments whose rows it merged
+     * as replaced, so readers see either the old segments or the new one but never both.
+     */
+    @Transactional
+    public void markSealed(UUID id, long rowCount, long sizeBytes, Instant minCreatedAt, Instant maxCreatedAt,
+                           List<UUID> replaced) {
+        jdbcTemplate.update(
+            "UPDATE cold_archive_segments SET status = 'SEALED', row_count = ?, size_bytes = ?, " +
+            "min_created_at = ?, max_created_at = ?, sealed_at = CURRENT_TIMESTAMP WHERE id = ?",
+            rowCount, sizeBytes, Timestamp.from(minCreatedAt), Timestamp.from(maxCreatedAt), UuidBinary.toBytes(id));
+        for (UUID replacedId : replaced) {
+            jdbcTemplate.update("UPDATE cold_archive_segments SET status = 'REPLACED' WHERE id = ?",
+                (Object) UuidBinary.toBytes(replacedId));
+        }
+    }
+
+    public void markPurged(UUID id) {
+        jdbcTemplate.update("UPDATE cold_archive_segments SET status = 'PURGED' WHERE id = ?",
+            (Object) UuidBinary.toBytes(id));
+    }
+
+    public void delete(UUID id) {
+        jdbcTemplate.update("DELETE FROM cold_archive_segments WHERE id = ?", (Object) UuidBinary.toBytes(id));
+    }
+
+    public List<ColdSegment> findByStatus(Status status) {
+        return jdbcTemplate.query("SELECT * FROM cold_archive_segments WHERE status = ? ORDER BY created_at",
+            (rs, rowNum) -> map(rs), status.name());
+    }
+
+    /**
+     * Purged segments of the workspace and month, the ones a new sealing run merges its rows into.
+     */
+    public List<ColdSegment> findPurged(UUID workspaceId, YearMonth month) {
+        return jdbcTemplate.query(
+            "SELECT * FROM cold_archive_segments WHERE workspace_id = ? AND month = ? AND status = 'PURGED' " +
+            "ORDER BY created_at",
+            (rs, rowNum) -> map(rs), UuidBinary.toBytes(workspaceId), month.toString());
+    }
+
+    /**
+     * Sealed and purged segments of the workspace whose rows overlap {@code from <= created_at < to};
+     * either bound may be null. A sealed segment's file is complete, but its rows may still be
+     * partly in MySQL while the purge runs or after it was interrupted, so readers must skip
+     * those rows in {@code archived_audit_logs}.
+     */
+    public List<ColdSegment> findReadable(UUID workspaceId, Instant from, Instant to) {
+        StringBuilder sql = new StringBuilder(
+            "SELECT * FROM cold_archive_segments WHERE workspace_id = ? AND status IN ('SEALED', 'PURGED')");
+        List<Object> args = new ArrayList<>();
+        args.add(UuidBinary.toBytes(workspaceId));
+        if (from != null) {
+            sql.append(" AND max_created_at >= ?");
+            args.add(Timestamp.from(from));
+        }
+        if (to != null) {
+            sql.append(" AND min_created_at < ?");
+            args.add(Timestamp.from(to));
+        }
+        sql.append(" ORDER BY month DESC");
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> map(rs), args.toArray());
+    }
+
+    private static ColdSegment map(ResultSet rs) throws SQLException {
+        Timestamp minCreatedAt = rs.getTimestamp("min_created_at");
+        Timestamp maxCreatedAt = rs.getTimestamp("max_created_at");
+        return new ColdSegment(
+            UuidBinary.fromBytes(rs.getBytes("id")),
+            UuidBinary.fromBytes(rs.getBytes("workspace_id")),
+            YearMonth.parse(rs.getString("month")),
+            rs.getString("path"),
+            Status.valueOf(rs.getString("status")),
+            rs.getTimestamp("archived_before").toInstant(),
+            rs.getLong("row_count"),
+            rs.getLong("size_bytes"),
+            minCreatedAt != null ? minCreatedAt.toInstant() : null,
+            maxCreatedAt != null ? maxCreatedAt.toInstant() : null);
+    }
+
+    public enum Status { WRITING, SEALED, PURGED, REPLACED }
+
+    /**
+     * @param archivedBefore the segment holds the month's archived rows with an earlier archived_at
+     */
+    public record ColdSegment(UUID id, UUID workspaceId, YearMonth month, String path, Status status,
+                              Instant archivedBefore, long rowCount, long sizeBytes,
+                              Instant minCreatedAt, Instant maxCreatedAt) {}
+}
@@ -0,0 +1,132 @@
+package com.quckapp.audit.domain.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * JDBC access to {@code compliance_reports} as the report job queue.
+ *
+ * Workers lock PENDING rows with {@code FOR UPDATE SKIP LOCKED}, so instances polling at the same
+ * time claim disjoint jobs without waiting on each other, and mark them PROCESSING under their
+ * worker id in the same transaction. Claimed rows carry a heartbeat; a PROCESSING row whose
+ * heartbeat is stale (or missing, for rows claimed before the queue existed) is orphaned.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReportJobRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Locks up to {@code limit} PENDING jobs for the current transaction, highest priority first
+     * and oldest first within a priority, skipping jobs another transaction is claiming.
+     */
+    public List<ReportJob> lockPending(int limit) {
+        return jdbcTemplate.query(
+            "SELECT id, workspace_id FROM compliance_reports WHERE status = 'PENDING' " +
+            "ORDER BY priority DESC, created_at LIMIT ? FOR UPDATE SKIP LOCKED",
+            (rs, rowNum) -> new ReportJob(UuidBinary.fromBytes(rs.getBytes("id")), UuidBinary.fromBytes(rs.getBytes("workspace_id"))),
+            limit);
+    }
+
+    public Map<UUID, Integer> countProcessingByWorkspace(Collection<UUID> workspaceIds) {
+        Map<UUID, Integer> counts = new HashMap<>();
+        if (workspaceIds.isEmpty()) {
+            return counts;
+        }
+        jdbcTemplate.query(
+            "SELECT workspace_id, COUNT(*) AS processing FROM compliance_reports WHERE status = 'PROCESSING' " +
+            "AND workspace_id IN (" + placeholders(workspaceIds.size()) + ") GROUP BY workspace_id",
+            rs -> {
+                counts.put(UuidBinary.fromBytes(rs.getBytes("workspace_id")), rs.getInt("processing"));
+            },
+            workspaceIds.stream().map(UuidBinary::toBytes).toArray());
+        return counts;
+    }
+
+    public void markClaimed(List<UUID> ids, String workerId, Instant now) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Object> params = new ArrayList<>();
+        params.add(workerId);
+        params.add(Timestamp.from(now));
+        ids.forEach(id -> params.add(UuidBinary.toBytes(id)));
+        jdbcTemplate.update(
+            "UPDATE compliance_reports SET status = 'PROCESSING', claimed_by = ?, heartbeat_at = ?, " +
+            "attempts = attempts + 1 WHERE id IN (" + placeholders(ids.size()) + ")",
+            params.toArray());
+    }
+
+    /**
+     * Refreshes the heartbeat of the jobs the worker still owns.
+     */
+    public int heartbeat(Collection<UUID> ids, String workerId, Instant now) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Object> params = new ArrayList<>();
+        params.add(Timestamp.from(now));
+        params.add(workerId);
+        ids.forEach(id -> params.add(UuidBinary.toBytes(id)));
+        return jdbcTemplate.update(
+            "UPDATE compliance_reports SET heartbeat_at = ? WHERE status = 'PROCESSING' AND claimed_by = ? " +
+            "AND id IN (" + placeholders(ids.size()) + ")",
+            params.toArray());
+    }
+
+    /**
+     * Puts jobs the worker gives up on shutdown back in the queue, without counting the attempt.
+     */
+    public int release(Collection<UUID> ids, String workerId) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Object> params = new ArrayList<>();
+        params.add(workerId);
+        ids.forEach(id -> params.add(UuidBinary.toBytes(id)));
+        return jdbcTemplate.update(
+            "UPDATE compliance_reports SET status = 'PENDING', claimed_by = NULL, heartbeat_at = NULL, " +
+            "attempts = GREATEST(attempts - 1, 0) WHERE status = 'PROCESSING' AND claimed_by = ? " +
+            "AND id IN (" + placeholders(ids.size()) + ")",
+            params.toArray());
+    }
+
+    /**
+     * Queues orphaned jobs again, unless they already used up their attempts.
+     */
+    public int requeueOrphans(Instant staleBefore, int maxAttempts) {
+        return jdbcTemplate.update(
+            "UPDATE compliance_reports SET status = 'PENDING', claimed_by = NULL, heartbeat_at = NULL " +
+            "WHERE status = 'PROCESSING' AND (heartbeat_at IS NULL OR heartbeat_at < ?) AND attempts < ?",
+            Timestamp.from(staleBefore), maxAttempts);
+    }
+
+    /**
+     * Fails orphaned jobs that used up their attempts, so a report that keeps killing its worker
+     * is not retried forever.
+     */
+    public int failOrphans(Instant staleBefore, int maxAttempts, String errorMessage) {
+        return jdbcTemplate.update(
+            "UPDATE compliance_reports SET status = 'FAILED', claimed_by = NULL, error_message = ? " +
+            "WHERE status = 'PROCESSING' AND (heartbeat_at IS NULL OR heartbeat_at < ?) AND attempts >= ?",
+            errorMessage, Timestamp.from(staleBefore), maxAttempts);
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    public record ReportJob(UUID id, UUID workspaceId) {}
+}
@@ -0,0 +1,92 @@
+package com.quckapp.audit.domain.repository;
+
+import com.quckapp.audit.domain.entity.AuditLog;
+import com.quckapp.audit.domain.repository.AuditLogRetentionRepository.RetentionCell;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * JDBC access to {@code retention_checkpoints}, the per-policy progress of chunked retention runs.
+ * The cursor is the last processed row of the policy's scan plan: its cell and (created_at, id).
+ */
+@Repository
+@RequiredArgsConstructor
+public class RetentionCheckpointRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Optional<RetentionCheckpoint> findByPolicyId(UUID policyId) {
+        return jdbcTemplate.query("SELECT * FROM retention_checkpoints WHERE policy_id = ?",
+            (rs, rowNum) -> map(rs), (Object) UuidBinary.toBytes(policyId)).stream().findFirst();
+    }
+
+    /**
+     * Starts a new run for the policy, replacing any previous checkpoint.
+     */
+    public RetentionCheckpoint start(UUID policyId, Instant cutoff) {
+        jdbcTemplate.update(
+            "INSERT INTO retention_checkpoints (policy_id, status, cutoff, cursor_workspace_id, cursor_category, " +
+            "cursor_severity, cursor_created_at, cursor_id, deleted_count, archived_count, started_at) " +
+            "VALUES (?, 'RUNNING', ?, NULL, NULL, NULL, NULL, NULL, 0, 0, CURRENT_TIMESTAMP) " +
+            "ON DUPLICATE KEY UPDATE status = 'RUNNING', cutoff = VALUES(cutoff), cursor_workspace_id = NULL, " +
+            "cursor_category = NULL, cursor_severity = NULL, cursor_created_at = NULL, cursor_id = NULL, " +
+            "deleted_count = 0, archived_count = 0, started_at = CURRENT_TIMESTAMP",
+            UuidBinary.toBytes(policyId), Timestamp.from(cutoff));
+        return new RetentionCheckpoint(policyId, true, cutoff, null, null, null, 0, 0);
+    }
+
+    /**
+     * Records a processed chunk. Called in the chunk transaction so the cursor never runs ahead
+     * of the rows actually deleted.
+     */
+    public void advance(UUID policyId, RetentionCell cell, Instant cursorCreatedAt, UUID cursorId,
+                        int deleted, int archived) {
+        jdbcTemplate.update(
+            "UPDATE retention_checkpoints SET cursor_workspace_id = ?, cursor_category = ?, cursor_severity = ?, " +
+            "cursor_created_at = ?, cursor_id = ?, deleted_count = deleted_count + ?, " +
+            "archived_count = archived_count + ? WHERE policy_id = ?",
+            UuidBinary.toBytes(cell.workspaceId()), cell.category().name(), cell.severity().name(),
+            Timestamp.from(cursorCreatedAt), UuidBinary.toBytes(cursorId), deleted, archived,
+            UuidBinary.toBytes(policyId));
+    }
+
+    public void complete(UUID policyId) {
+        jdbcTemplate.update("UPDATE retention_checkpoints SET status = 'COMPLETED' WHERE policy_id = ?",
+            (Object) UuidBinary.toBytes(policyId));
+    }
+
+    private static RetentionCheckpoint map(ResultSet rs) throws SQLException {
+        Timestamp cursorCreatedAt = rs.getTimestamp("cursor_created_at");
+        String cursorCategory = rs.getString("cursor_category");
+        RetentionCell cursorCell = cursorCategory != null
+            ? new RetentionCell(UuidBinary.fromBytes(rs.getBytes("cursor_workspace_id")),
+                AuditLog.AuditCategory.valueOf(cursorCategory),
+                AuditLog.AuditSeverity.valueOf(rs.getString("cursor_severity")))
+            : null;
+        return new RetentionCheckpoint(
+            UuidBinary.fromBytes(rs.getBytes("policy_id")),
+            "RUNNING".equals(rs.getString("status")),
+            rs.getTimestamp("cutoff").toInstant(),
+            cursorCell,
+            cursorCreatedAt != null ? cursorCreatedAt.toInstant() : null,
+            UuidBinary.fromBytes(rs.getBytes("cursor_id")),
+            rs.getLong("deleted_count"),
+            rs.getLong("archived_count"));
+    }
+
+    /**
+     * @param cursorCell      cell of the last processed row, or null before the first chunk
+     * @param cursorCreatedAt created_at of the last processed row, or null before the first chunk
+     */
+    public record RetentionCheckpoint(UUID policyId, boolean running, Instant cutoff,
+                                      RetentionCell cursorCell, Instant cursorCreatedAt, UUID cursorId,
+                                      long deletedCount, long archivedCount) {}
+}
@@ -0,0 +1,211 @@
+package com.quckapp.audit.domain.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * JDBC access to the search outbox ({@code audit_log_outbox}) and the relay progress
+ * table ({@code search_relay_state}).
+ *
+ * Outbox rows are appended inside the ingest transaction and deleted by the relay once
+ * indexed. The relay claims rows and replay chunks by lease: a claim stamps its owner and an
+ * expiry in a short transaction and holds no lock while the documents are indexed, so several
+ * instances can relay concurrently without blocking each other or the ingest path. A lease
+ * that expires, such as that of a crashed instance, makes its rows claimable again.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SearchOutboxRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void append(List<UUID> auditLogIds) {
+        if (auditLogIds.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO audit_log_outbox (audit_log_id) VALUES " +
+            String.join(", ", Collections.nCopies(auditLogIds.size(), "(?)"));
+        jdbcTemplate.update(sql, auditLogIds.stream().map(UuidBinary::toBytes).toArray());
+    }
+
+    /**
+     * Claims the oldest outbox rows without a live lease for {@code owner} until {@code leaseUntil}.
+     * Must run in a transaction, which only holds the row locks until the lease is stamped. Rows
+     * that a concurrent transaction committed with a lower id are still picked up on a later
+     * claim, because rows are only removed once relayed.
+     */
+    public List<OutboxEntry> claimBatch(int limit, String owner, Instant now, Instant leaseUntil) {
+        List<OutboxEntry> entries = jdbcTemplate.query(
+            "SELECT id, audit_log_id FROM audit_log_outbox WHERE claimed_until IS NULL OR claimed_until < ? " +
+            "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED",
+            (rs, rowNum) -> new OutboxEntry(rs.getLong("id"), UuidBinary.fromBytes(rs.getBytes("audit_log_id"))),
+            Timestamp.from(now), limit);
+        if (!entries.isEmpty()) {
+            List<Object> params = new ArrayList<>();
+            params.add(owner);
+            params.add(Timestamp.from(leaseUntil));
+            entries.forEach(entry -> params.add(entry.id()));
+            jdbcTemplate.update(
+                "UPDATE audit_log_outbox SET claimed_by = ?, claimed_until = ? WHERE id IN (" +
+                placeholders(entries.size()) + ")",
+                params.toArray());
+        }
+        return entries;
+    }
+
+    /**
+     * Drops the lease of rows the owner failed to relay, so the next tick retries them at once.
+     */
+    public int release(List<Long> outboxIds, String owner) {
+        if (outboxIds.isEmpty()) {
+            return 0;
+        }
+        List<Object> params = new ArrayList<>();
+        params.add(owner);
+        params.addAll(outboxIds);
+        return jdbcTemplate.update(
+            "UPDATE audit_log_outbox SET claimed_by = NULL, claimed_until = NULL WHERE claimed_by = ? " +
+            "AND id IN (" + placeholders(outboxIds.size()) + ")",
+            params.toArray());
+    }
+
+    public int delete(List<Long> outboxIds) {
+        if (outboxIds.isEmpty()) {
+            return 0;
+        }
+        String sql = "DELETE FROM audit_log_outbox WHERE id IN (" + placeholders(outboxIds.size()) + ")";
+        return jdbcTemplate.update(sql, outboxIds.toArray());
+    }
+
+    public long countPending() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM audit_log_outbox", Long.class);
+        return count != null ? count : 0;
+    }
+
+    public Optional<Instant> findOldestPendingCreatedAt() {
+        Timestamp oldest = jdbcTemplate.queryForObject("SELECT MIN(created_at) FROM audit_log_outbox", Timestamp.class);
+        return Optional.ofNullable(oldest).map(Timestamp::toInstant);
+    }
+
+    public void advanceHighWaterMark(String relayName, long outboxId) {
+        jdbcTemplate.update(
+            "UPDATE search_relay_state SET high_water_mark = GREATEST(high_water_mark, ?) WHERE relay_name = ?",
+            outboxId, relayName);
+    }
+
+    public Optional<RelayState> findState(String relayName) {
+        return jdbcTemplate.query("SELECT * FROM search_relay_state WHERE relay_name = ?",
+            (rs, rowNum) -> mapState(rs), relayName).stream().findFirst();
+    }
+
+    /**
+     * Claims the next chunk of an in-flight replay for {@code owner} until {@code leaseUntil} and
+     * returns the state it was claimed at, or empty if no replay is running or another instance
+     * holds a live lease.
+     */
+    public Optional<RelayState> claimReplay(String relayName, String owner, Instant now, Instant leaseUntil) {
+        int claimed = jdbcTemplate.update(
+            "UPDATE search_relay_state SET replay_claimed_by = ?, replay_claimed_until = ? " +
+            "WHERE relay_name = ? AND replay_from IS NOT NULL " +
+            "AND (replay_claimed_until IS NULL OR replay_claimed_until < ?)",
+            owner, Timestamp.from(leaseUntil), relayName, Timestamp.from(now));
+        return claimed > 0 ? findState(relayName) : Optional.empty();
+    }
+
+    /**
+     * Drops the owner's replay lease without moving the cursor, so the chunk is replayed again.
+     */
+    public void releaseReplay(String relayName, String owner) {
+        jdbcTemplate.update(
+            "UPDATE search_relay_state SET replay_claimed_by = NULL, replay_claimed_until = NULL " +
+            "WHERE relay_name = ? AND replay_claimed_by = ?",
+            relayName, owner);
+    }
+
+    /**
+     * Records a new replay window. Any lease on the previous replay is dropped, so a chunk still
+     * in flight cannot move the new cursor.
+     */
+    public void startReplay(String relayName, Instant from, Instant until) {
+        jdbcTemplate.update(
+            "UPDATE search_relay_state SET replay_from = ?, replay_until = ?, replay_cursor_created_at = ?, " +
+            "replay_cursor_id = ?, replayed_count = 0, replay_claimed_by = NULL, replay_claimed_until = NULL " +
+            "WHERE relay_name = ?",
+            Timestamp.from(from), Timestamp.from(until), Timestamp.from(from), new byte[16], relayName);
+    }
+
+    /**
+     * Moves the replay cursor past a chunk and drops the lease. Returns false, changing nothing,
+     * if the owner's lease was lost in the meantime.
+     */
+    public boolean advanceReplayCursor(String relayName, String owner, Instant createdAt, UUID id, int replayed) {
+        return jdbcTemplate.update(
+            "UPDATE search_relay_state SET replay_cursor_created_at = ?, replay_cursor_id = ?, " +
+            "replayed_count = replayed_count + ?, replay_claimed_by = NULL, replay_claimed_until = NULL " +
+            "WHERE relay_name = ? AND replay_claimed_by = ?",
+            Timestamp.from(createdAt), UuidBinary.toBytes(id), replayed, relayName, owner) > 0;
+    }
+
+    public void finishReplay(String relayName, String owner) {
+        jdbcTemplate.update(
+            "UPDATE search_relay_state SET replay_from = NULL, replay_until = NULL, replay_cursor_created_at = NULL, " +
+            "replay_cursor_id = NULL, replay_claimed_by = NULL, replay_claimed_until = NULL " +
+            "WHERE relay_name = ? AND replay_claimed_by = ?",
+            relayName, owner);
+    }
+
+    /**
+     * Next page of audit log ids after the replay cursor, in (created_at, id) order,
+     * bounded by the instant the replay was requested.
+     */
+    public List<ReplayKey> findReplayKeys(Instant cursorCreatedAt, UUID cursorId, Instant until, int limit) {
+        Timestamp cursor = Timestamp.from(cursorCreatedAt);
+        return jdbcTemplate.query(
+            "SELECT id, created_at FROM audit_logs " +
+            "WHERE (created_at > ? OR (created_at = ? AND id > ?)) AND created_at <= ? " +
+            "ORDER BY created_at, id LIMIT ?",
+            (rs, rowNum) -> new ReplayKey(UuidBinary.fromBytes(rs.getBytes("id")), rs.getTimestamp("created_at").toInstant()),
+            cursor, cursor, UuidBinary.toBytes(cursorId), Timestamp.from(until), limit);
+    }
+
+    private static RelayState mapState(ResultSet rs) throws SQLException {
+        return new RelayState(
+            rs.getLong("high_water_mark"),
+            toInstant(rs.getTimestamp("replay_from")),
+            toInstant(rs.getTimestamp("replay_until")),
+            toInstant(rs.getTimestamp("replay_cursor_created_at")),
+            UuidBinary.fromBytes(rs.getBytes("replay_cursor_id")),
+            rs.getLong("replayed_count"));
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static Instant toInstant(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toInstant() : null;
+    }
+
+    public record OutboxEntry(long id, UUID auditLogId) {}
+
+    public record ReplayKey(UUID id, Instant createdAt) {}
+
+    public record RelayState(long highWaterMark, Instant replayFrom, Instant replayUntil,
+                             Instant replayCursorCreatedAt, UUID replayCursorId, long replayedCount) {
+
+        public boolean isReplaying() {
+            return replayFrom != null;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.quckapp.audit.domain.repository;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Converts UUIDs to and from the BINARY(16) layout Hibernate uses for UUID columns
+ * (most significant bits first), so JDBC statements can bind them directly.
+ */
+public final class UuidBinary {
+
+    private UuidBinary() {
+    }
+
+    public static byte[] toBytes(UUID uuid) {
+        if (uuid == null) return null;
+        return ByteBuffer.allocate(16)
+            .putLong(uuid.getMostSignificantBits())
+            .putLong(uuid.getLeastSignificantBits())
+            .array();
+    }
+
+    public static UUID fromBytes(byte[] bytes) {
+        if (bytes == null) return null;
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    /**
+     * Orders UUIDs the way MySQL orders their BINARY(16) form (unsigned, byte by byte).
+     * {@link UUID#compareTo} compares signed longs and disagrees for ids with the high bit set.
+     */
+    public static int compare(UUID a, UUID b) {
+        int cmp = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return cmp != 0 ? cmp : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
@@ -38,6 +38,27 @@ public class AuditDtos {
         @NotNull private AuditLog.AuditCategory category;
     }
 
+    @Data @Builder @NoArgsConstructor @AllArgsConstructor
+    public static class BulkIngestResult {
+        /** Non-blank lines read. */
+        private long received;
+        private long inserted;
+        private long rejected;
+        /** The first rejected lines, up to max-reported-errors of them. */
+        private List<BulkIngestError> errors;
+        /** Every line up to this one was inserted or rejected; resume after it when aborted. */
+        private long lastCommittedLine;
+        /** Whether a batch failed to insert, leaving the lines after lastCommittedLine unread or uninserted. */
+        private boolean aborted;
+        private String abortReason;
+    }
+
+    @Data @Builder @NoArgsConstructor @AllArgsConstructor
+    public static class BulkIngestError {
+        private long line;
+        private String error;
+    }
+
     @Data @Builder @NoArgsConstructor @AllArgsConstructor
     @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
     public static class AuditLogResponse {
@@ -62,7 +83,7 @@ public class AuditDtos {
 
     @Data @Builder @NoArgsConstructor @AllArgsConstructor
     public static class AuditLogSearchRequest {
-        private UUID workspaceId;
+        @NotNull private UUID workspaceId;
         private UUID actorId;
         private String action;
         private String resourceType;
@@ -74,6 +95,12 @@ public class AuditDtos {
         private String query;
         @Min(0) private int page;
         @Min(1) @Max(100) private int size = 20;
+        /**
+         * Keyset paging: the next_cursor of the previous page, or blank for the newest page. When
+         * set, page is ignored and the total is only counted if includeTotal is true.
+         */
+        private String cursor;
+        private boolean includeTotal;
     }
 
     // ===== Retention Policy DTOs =====
@@ -124,6 +151,10 @@ public class AuditDtos {
         @NotNull private Instant periodStart;
         @NotNull private Instant periodEnd;
         private Map<String, Object> parameters;
+        /** Queued reports of higher priority are generated first. */
+        @Min(0) @Max(10) private int priority;
+        /** Counts distinct users with a sketch instead of exactly. */
+        private boolean approximate;
     }
 
     @Data @Builder @NoArgsConstructor @AllArgsConstructor
@@ -133,6 +164,8 @@ public class AuditDtos {
         private String name;
         private ComplianceReport.ReportType reportType;
         private ComplianceReport.ReportStatus status;
+        private int priority;
+        private int attempts;
         private Instant periodStart;
         private Instant periodEnd;
         private UUID requestedBy;
@@ -158,6 +191,35 @@ public class AuditDtos {
         private Map<String, Long> eventsBySeverity;
         private List<TopActor> topActors;
         private List<TopResource> topResources;
+        /** Whether the distinct counts and top lists come from sketches. */
+        private boolean approximate;
+        /** Distinct actors and IP addresses; only set when approximate. */
+        private Long uniqueActors;
+        private Long uniqueIpAddresses;
+        /** Relative standard error of sketched distinct counts; 99% of estimates are within three times this. */
+        private Double distinctRelativeError;
+        /** What answered the request: ROLLUPS or ELASTICSEARCH. */
+        private String backend;
+    }
+
+    @Data @Builder @NoArgsConstructor @AllArgsConstructor
+    public static class ActivityHistogram {
+        private UUID workspaceId;
+        /** Start of the first bucket; bucket i starts at start + i * intervalSeconds. */
+        private Instant start;
+        private Instant end;
+        private String interval;
+        private long intervalSeconds;
+        /** ACTION, CATEGORY or SEVERITY; null when not grouped. */
+        private String groupBy;
+        /** Events per bucket. */
+        private long[] totals;
+        /** Group names when grouped, in the order of counts. */
+        private List<String> groups;
+        /** Events per bucket of each group, aligned with totals. */
+        private List<long[]> counts;
+        /** What the buckets were summed from: ROLLUPS, ELASTICSEARCH or SCAN. */
+        private String backend;
     }
 
     @Data @Builder @NoArgsConstructor @AllArgsConstructor
@@ -166,6 +228,8 @@ public class AuditDtos {
         private String actorEmail;
         private String actorName;
         private long eventCount;
+        /** Bound on how far eventCount may be off: over the true count for sketches, under it for Elasticsearch. */
+        private Long countError;
     }
 
     @Data @Builder @NoArgsConstructor @AllArgsConstructor
@@ -174,6 +238,8 @@ public class AuditDtos {
         private UUID resourceId;
         private String resourceName;
         private long eventCount;
+        /** Bound on how far eventCount may be off: over the true count for sketches, under it for Elasticsearch. */
+        private Long countError;
     }
 
     // ===== API Response =====
@@ -203,10 +269,13 @@ public class AuditDtos {
         private List<T> content;
         private int page;
         private int size;
-        private long totalElements;
-        private int totalPages;
+        /** Null for keyset pages fetched without includeTotal. */
+        private Long totalElements;
+        private Integer totalPages;
         private boolean first;
         private boolean last;
+        /** Cursor of the following page in keyset paging; null on the last page and for offset paging. */
+        private String nextCursor;
     }
 
     // ===== Retention Execution DTOs =====
@@ -227,8 +296,37 @@ public class AuditDtos {
         private boolean success;
         private int archivedCount;
         private int deletedCount;
+        private int droppedPartitions;
+        /** Search documents deleted along with dropped partitions. */
         private int esCleanedCount;
+        /** Search deletes queued in the outbox for chunk-deleted rows, applied by the relay later. */
+        private int esQueuedCount;
         private String errorMessage;
         private Instant executedAt;
     }
+
+    // ===== Search Index DTOs =====
+
+    @Data @Builder @NoArgsConstructor @AllArgsConstructor
+    public static class SearchIndexStatus {
+        private long highWaterMark;
+        private long pendingOutboxEntries;
+        private Instant oldestPendingAt;
+        private long lagSeconds;
+        private int queueDepth;
+        private boolean replaying;
+        private Instant replayFrom;
+        private Instant replayUntil;
+        private Instant replayPosition;
+        private long replayedCount;
+    }
+
+    @Data @Builder @NoArgsConstructor @AllArgsConstructor
+    public static class RerouteStatus {
+        private boolean running;
+        private List<String> pendingIndices;
+        private List<String> reroutedIndices;
+        private String currentIndex;
+        private String error;
+    }
 }
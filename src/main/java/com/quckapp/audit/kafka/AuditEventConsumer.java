@@ -3,11 +3,20 @@ package com.quckapp.audit.kafka;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.quckapp.audit.dto.AuditDtos.CreateAuditLogRequest;
 import com.quckapp.audit.service.AuditLogService;
+import com.quckapp.audit.service.DatabaseFailures;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
 @Component
 @RequiredArgsConstructor
 @Slf4j
@@ -15,16 +24,95 @@ public class AuditEventConsumer {
 
     private final AuditLogService auditLogService;
     private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final MeterRegistry meterRegistry;
 
-    @KafkaListener(topics = "${kafka.topics.audit-events:audit-events}", groupId = "${spring.kafka.consumer.group-id:audit-service}")
+    /**
+     * Per-record ingest path. Only started when batch ingest is disabled.
+     */
+    @KafkaListener(topics = "${kafka.topics.audit-events:audit-events}", groupId = "${spring.kafka.consumer.group-id:audit-service}",
+            autoStartup = "#{!${audit.ingest.batch.enabled:true}}")
     public void consumeAuditEvent(String message) {
+        Timer.Sample sample = Timer.start(meterRegistry);
         try {
             CreateAuditLogRequest request = objectMapper.readValue(message, CreateAuditLogRequest.class);
             auditLogService.createAuditLog(request);
+            meterRegistry.counter("audit.ingest.events", "mode", "record").increment();
             log.debug("Processed audit event: {} on {}", request.getAction(), request.getResourceType());
         } catch (Exception e) {
             log.error("Failed to process audit event: {}", message, e);
+        } finally {
+            sample.stop(meterRegistry.timer("audit.ingest.duration", "mode", "record"));
+        }
+    }
+
+    /**
+     * Batch ingest path: every record of a poll is inserted with multi-row inserts in
+     * one transaction, and offsets are committed once for the whole batch.
+     *
+     * Malformed or invalid events are logged and dropped so they cannot poison the batch. A
+     * transient database failure is rethrown so the container retries the poll until the
+     * database recovers; any other insert failure is caused by some event of the batch, so the
+     * events are inserted one by one and only those the database refuses are logged and dropped.
+     */
+    @KafkaListener(topics = "${kafka.topics.audit-events:audit-events}", groupId = "${spring.kafka.consumer.group-id:audit-service}",
+            containerFactory = "batchKafkaListenerContainerFactory", autoStartup = "${audit.ingest.batch.enabled:true}")
+    public void consumeAuditEvents(List<String> messages) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        List<CreateAuditLogRequest> requests = new ArrayList<>(messages.size());
+
+        for (String message : messages) {
+            try {
+                CreateAuditLogRequest request = objectMapper.readValue(message, CreateAuditLogRequest.class);
+                Set<ConstraintViolation<CreateAuditLogRequest>> violations = validator.validate(request);
+                if (!violations.isEmpty()) {
+                    log.error("Skipping invalid audit event ({} violations): {}", violations.size(), message);
+                    continue;
+                }
+                requests.add(request);
+            } catch (Exception e) {
+                log.error("Failed to parse audit event: {}", message, e);
+            }
+        }
+
+        int inserted;
+        try {
+            inserted = auditLogService.createAuditLogs(requests);
+        } catch (RuntimeException e) {
+            if (DatabaseFailures.isTransient(e)) {
+                throw e;
+            }
+            log.warn("Batch of {} audit events failed to insert, inserting them one by one: {}",
+                requests.size(), e.getMessage());
+            inserted = insertOneByOne(requests);
+        }
+
+        meterRegistry.counter("audit.ingest.events", "mode", "batch").increment(inserted);
+        meterRegistry.summary("audit.ingest.batch.size").record(messages.size());
+        sample.stop(meterRegistry.timer("audit.ingest.duration", "mode", "batch"));
+        log.debug("Processed batch of {} audit events ({} inserted)", messages.size(), inserted);
+    }
+
+    /**
+     * Inserts each event in its own transaction, dropping those the database refuses. A
+     * transient failure midway is rethrown like a batch one; the events inserted before it are
+     * then inserted again when the poll is redelivered, as with any at-least-once delivery.
+     */
+    private int insertOneByOne(List<CreateAuditLogRequest> requests) {
+        int inserted = 0;
+        for (CreateAuditLogRequest request : requests) {
+            try {
+                inserted += auditLogService.createAuditLogs(List.of(request));
+            } catch (RuntimeException e) {
+                if (DatabaseFailures.isTransient(e)) {
+                    throw e;
+                }
+                meterRegistry.counter("audit.ingest.rejected", "mode", "batch").increment();
+                log.error("Dropping audit event {} on {} refused by the database: {}",
+                    request.getAction(), request.getResourceType(), e.getMessage());
+            }
         }
+        return inserted;
     }
 
     @KafkaListener(topics = "${kafka.topics.user-events:user-events}", groupId = "${spring.kafka.consumer.group-id:audit-service}")
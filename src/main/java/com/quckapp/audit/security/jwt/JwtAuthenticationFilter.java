@@ -20,7 +20,6 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.UUID;
 
 /**
  * JWT Authentication Filter
@@ -72,29 +71,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = extractJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && jwtService.validateToken(jwt)) {
-                String tokenType = jwtService.extractTokenType(jwt);
-
-                // Only allow access tokens for API authentication
-                if (!"access".equals(tokenType)) {
-                    log.debug("Token type '{}' is not valid for API authentication", tokenType);
-                    filterChain.doFilter(request, response);
-                    return;
-                }
-
-                String userId = jwtService.extractUserId(jwt);
-                String email = jwtService.extractEmail(jwt);
-                String externalId = jwtService.extractExternalId(jwt);
-                String sessionId = jwtService.extractSessionId(jwt);
-
-                // Create authentication principal with user details
-                JwtUserPrincipal principal = JwtUserPrincipal.builder()
-                        .userId(UUID.fromString(userId))
-                        .email(email)
-                        .externalId(externalId)
-                        .sessionId(sessionId)
-                        .build();
-
+            // A single verification yields the principal; tokens seen before skip it altogether
+            JwtUserPrincipal principal = StringUtils.hasText(jwt) ? jwtService.authenticate(jwt) : null;
+            if (principal != null) {
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
                                 principal,
@@ -105,7 +84,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authentication);
 
-                log.debug("Authenticated user '{}' from JWT", email);
+                log.debug("Authenticated user '{}' from JWT", principal.getEmail());
             }
         } catch (Exception e) {
             log.error("Cannot set user authentication: {}", e.getMessage());
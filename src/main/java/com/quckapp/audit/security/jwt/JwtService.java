@@ -1,14 +1,28 @@
 package com.quckapp.audit.security.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.UUID;
 import java.util.function.Function;
 
 /**
@@ -16,17 +30,80 @@ import java.util.function.Function;
  *
  * This service validates JWT tokens issued by the auth-service.
  * It uses the same shared secret to verify token signatures.
+ *
+ * The signing key and parser are built once. {@link #authenticate} parses and verifies a token
+ * a single time and caches the resulting principal under the SHA-256 of the token until the
+ * token expires, at most for {@code jwt.principal-cache.max-ttl-seconds}, so callers reusing a
+ * token skip signature verification altogether.
  */
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class JwtService {
 
+    private static final String ACCESS_TOKEN_TYPE = "access";
+
+    private final MeterRegistry meterRegistry;
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
     @Value("${jwt.issuer:quckapp-auth-local}")
     private String expectedIssuer;
 
+    @Value("${jwt.principal-cache.max-size:10000}")
+    private long principalCacheMaxSize;
+
+    @Value("${jwt.principal-cache.max-ttl-seconds:300}")
+    private long principalCacheMaxTtlSeconds;
+
+    private JwtParser parser;
+    private Cache<String, VerifiedPrincipal> principals;
+
+    @PostConstruct
+    public void init() {
+        parser = Jwts.parser()
+                .verifyWith(getSigningKey())
+                .build();
+        principals = Caffeine.newBuilder()
+                .maximumSize(principalCacheMaxSize)
+                .expireAfter(new PrincipalExpiry(Duration.ofSeconds(principalCacheMaxTtlSeconds)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "jwt.principals");
+    }
+
+    /**
+     * The principal of a valid access token, or null if the token is invalid, expired or not an
+     * access token. Verified principals are served from the cache until their token expires.
+     */
+    public JwtUserPrincipal authenticate(String token) {
+        String key = hash(token);
+        VerifiedPrincipal cached = principals.getIfPresent(key);
+        if (cached != null && cached.expiresAt().isAfter(Instant.now())) {
+            return cached.principal();
+        }
+
+        Claims claims = verify(token);
+        if (claims == null) {
+            return null;
+        }
+        String tokenType = claims.get("type", String.class);
+        if (!ACCESS_TOKEN_TYPE.equals(tokenType)) {
+            log.debug("Token type '{}' is not valid for API authentication", tokenType);
+            return null;
+        }
+
+        JwtUserPrincipal principal = JwtUserPrincipal.builder()
+                .userId(UUID.fromString(claims.getSubject()))
+                .email(claims.get("email", String.class))
+                .externalId(claims.get("externalId", String.class))
+                .sessionId(claims.get("sessionId", String.class))
+                .build();
+        principals.put(key, new VerifiedPrincipal(principal, claims.getExpiration().toInstant()));
+        return principal;
+    }
+
     /**
      * Extract user ID from token
      */
@@ -88,17 +165,21 @@ public class JwtService {
      * Extract all claims from token
      */
     public Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     /**
      * Validate token without user context
      */
     public boolean validateToken(String token) {
+        return verify(token) != null;
+    }
+
+    /**
+     * Parses and verifies the token once: signature, expiry and issuer. Returns its claims, or
+     * null if it is not valid. Tokens without an expiry are rejected.
+     */
+    private Claims verify(String token) {
         try {
             Claims claims = extractAllClaims(token);
 
@@ -106,25 +187,30 @@ public class JwtService {
             String issuer = claims.getIssuer();
             if (issuer == null || !issuer.startsWith("quckapp-auth")) {
                 log.warn("JWT issuer invalid. Expected prefix: quckapp-auth, Got: {}", issuer);
-                return false;
+                return null;
             }
 
-            return !isTokenExpired(token);
+            // The parser already rejects expired tokens, but accepts tokens that never expire
+            if (claims.getExpiration() == null) {
+                log.warn("JWT token has no expiration");
+                return null;
+            }
+            return claims;
         } catch (ExpiredJwtException e) {
             log.warn("JWT token is expired: {}", e.getMessage());
-            return false;
+            return null;
         } catch (UnsupportedJwtException e) {
             log.warn("JWT token is unsupported: {}", e.getMessage());
-            return false;
+            return null;
         } catch (MalformedJwtException e) {
             log.warn("JWT token is malformed: {}", e.getMessage());
-            return false;
-        } catch (SecurityException e) {
+            return null;
+        } catch (io.jsonwebtoken.security.SecurityException e) {
             log.warn("JWT signature validation failed: {}", e.getMessage());
-            return false;
+            return null;
         } catch (IllegalArgumentException e) {
             log.warn("JWT claims string is empty: {}", e.getMessage());
-            return false;
+            return null;
         }
     }
 
@@ -137,8 +223,44 @@ public class JwtService {
             keyBytes = Decoders.BASE64.decode(jwtSecret);
         } catch (Exception e) {
             // Fallback: use raw bytes if secret is not valid Base64 (matches auth-service behavior)
-            keyBytes = jwtSecret.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+            keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
         }
         return Keys.hmacShaKeyFor(keyBytes);
     }
+
+    /**
+     * The cache key of a token; tokens themselves are not kept in memory.
+     */
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record VerifiedPrincipal(JwtUserPrincipal principal, Instant expiresAt) {}
+
+    /**
+     * Keeps a principal until its token expires, or for {@code maxTtl} if that is sooner.
+     */
+    private record PrincipalExpiry(Duration maxTtl) implements Expiry<String, VerifiedPrincipal> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedPrincipal value, long currentTime) {
+            Duration untilExpiry = Duration.between(Instant.now(), value.expiresAt());
+            return Math.max(0, Math.min(untilExpiry.toNanos(), maxTtl.toNanos()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedPrincipal value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedPrincipal value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
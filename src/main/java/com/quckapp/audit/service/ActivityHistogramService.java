@@ -0,0 +1,268 @@
+package com.quckapp.audit.service;
+
+import com.quckapp.audit.domain.entity.AuditLog.AuditCategory;
+import com.quckapp.audit.domain.entity.AuditLog.AuditSeverity;
+import com.quckapp.audit.domain.repository.AuditLogAggregations.HistogramBucket;
+import com.quckapp.audit.domain.repository.AuditLogElasticsearchRepository;
+import com.quckapp.audit.domain.repository.AuditRollupRepository;
+import com.quckapp.audit.domain.repository.AuditRollupRepository.Granularity;
+import com.quckapp.audit.domain.repository.AuditRollupRepository.RollupCount;
+import com.quckapp.audit.dto.AuditDtos.ActivityHistogram;
+import com.quckapp.audit.exception.BadRequestException;
+import com.quckapp.audit.service.statistics.StatisticsCache;
+import com.quckapp.audit.service.statistics.StatisticsPlanner;
+import com.quckapp.audit.service.statistics.StatisticsPlanner.Backend;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Counts a workspace's events per fixed interval, bucketed on the server.
+ *
+ * Buckets are aligned to multiples of the interval since the Unix epoch, like Elasticsearch's
+ * {@code date_histogram}, and returned as dense arrays: one count per bucket, zeros included,
+ * for the total and for each group. The {@link StatisticsPlanner} picks where the buckets are
+ * summed from: rollups for intervals of whole hours, Elasticsearch or a MySQL scan for finer ones.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ActivityHistogramService {
+
+    private static final Pattern INTERVAL = Pattern.compile("(\\d+)([mhd])");
+
+    private static final Duration MAX_INTERVAL = Duration.ofDays(366);
+
+    private final StatisticsPlanner statisticsPlanner;
+    private final StatisticsCache statisticsCache;
+    private final AuditRollupRepository rollupRepository;
+    private final AuditLogElasticsearchRepository elasticsearchRepository;
+
+    @Value("${audit.statistics.histogram.max-buckets:5000}")
+    private int maxBuckets;
+
+    /**
+     * The range is widened to whole intervals, from the start of the interval of
+     * {@code startDate} up to the end of the interval of {@code endDate}.
+     *
+     * @throws BadRequestException if the interval or grouping is not understood, the interval
+     * is longer than a year, or the range holds more than {@code max-buckets} intervals
+     */
+    public ActivityHistogram getHistogram(UUID workspaceId, Instant startDate, Instant endDate,
+                                          String interval, String groupBy) {
+        Duration length = parseInterval(interval);
+        GroupBy grouping = GroupBy.parse(groupBy);
+        if (endDate == null) endDate = Instant.now();
+        if (startDate == null) startDate = endDate.minus(30, ChronoUnit.DAYS);
+        if (startDate.isAfter(endDate)) {
+            throw new BadRequestException("startDate must not be after endDate");
+        }
+        Instant from;
+        Instant to;
+        long buckets;
+        try {
+            from = bucketOf(startDate, length);
+            to = bucketOf(endDate, length).plus(length);
+            buckets = Duration.between(from, to).dividedBy(length);
+        } catch (ArithmeticException | DateTimeException e) {
+            throw new BadRequestException("Histogram range out of bounds: " + startDate + " to " + endDate, e);
+        }
+        if (buckets > maxBuckets) {
+            throw new BadRequestException(
+                "Histogram would have " + buckets + " buckets, at most " + maxBuckets + " are allowed");
+        }
+
+        Histogram histogram = new Histogram(from, length, (int) buckets, grouping);
+        Backend backend = statisticsPlanner.chooseHistogram(from, to, length);
+        if (backend == Backend.ELASTICSEARCH && !fillFromElasticsearch(histogram, workspaceId, to, grouping)) {
+            backend = Backend.SCAN;
+        }
+        if (backend == Backend.ROLLUPS) {
+            Granularity granularity = length.toSeconds() % Granularity.DAILY.length().toSeconds() == 0
+                ? Granularity.DAILY : Granularity.HOURLY;
+            statisticsCache.bucketsByStart(granularity, workspaceId, from, to).forEach((start, rows) -> {
+                for (RollupCount row : rows) {
+                    histogram.add(start, grouping.of(row.action(), row.category(), row.severity()), row.count());
+                }
+            });
+        } else if (backend == Backend.SCAN) {
+            rollupRepository.scanRaw(workspaceId, from, to, event ->
+                histogram.add(event.createdAt(), grouping.of(event.action(), event.category(), event.severity()), 1));
+        }
+
+        return ActivityHistogram.builder()
+            .workspaceId(workspaceId)
+            .start(from)
+            .end(to)
+            .interval(interval)
+            .intervalSeconds(length.toSeconds())
+            .groupBy(grouping != GroupBy.NONE ? grouping.name() : null)
+            .totals(histogram.totals)
+            .groups(grouping != GroupBy.NONE ? new ArrayList<>(histogram.groups.keySet()) : null)
+            .counts(grouping != GroupBy.NONE ? new ArrayList<>(histogram.groups.values()) : null)
+            .backend(backend.name())
+            .build();
+    }
+
+    /**
+     * Fills the histogram from a {@code date_histogram} search. Returns false, leaving it empty,
+     * if the search fails.
+     */
+    private boolean fillFromElasticsearch(Histogram histogram, UUID workspaceId, Instant to, GroupBy grouping) {
+        List<HistogramBucket> buckets;
+        try {
+            buckets = elasticsearchRepository.histogram(
+                workspaceId.toString(), histogram.start, to, histogram.interval, grouping.field);
+        } catch (RuntimeException e) {
+            log.warn("Failed to bucket the histogram of workspace {} in Elasticsearch, scanning MySQL: {}",
+                workspaceId, e.getMessage());
+            return false;
+        }
+        buckets.forEach(histogram::add);
+        return true;
+    }
+
+    /**
+     * Parses an interval such as {@code 5m}, {@code 1h} or {@code 7d}, at least one minute and
+     * at most {@link #MAX_INTERVAL}, which keeps the bucket arithmetic clear of overflow.
+     */
+    static Duration parseInterval(String interval) {
+        Matcher matcher = INTERVAL.matcher(interval != null ? interval.trim() : "");
+        if (!matcher.matches()) {
+            throw new BadRequestException("Invalid interval: " + interval + ", expected e.g. 5m, 1h or 1d");
+        }
+        Duration length;
+        try {
+            long amount = Long.parseLong(matcher.group(1));
+            length = switch (matcher.group(2)) {
+                case "m" -> Duration.ofMinutes(amount);
+                case "h" -> Duration.ofHours(amount);
+                default -> Duration.ofDays(amount);
+            };
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new BadRequestException("Interval too long: " + interval + ", at most " + MAX_INTERVAL.toDays() + "d", e);
+        }
+        if (length.isZero()) {
+            throw new BadRequestException("Interval must be positive: " + interval);
+        }
+        if (length.compareTo(MAX_INTERVAL) > 0) {
+            throw new BadRequestException("Interval too long: " + interval + ", at most " + MAX_INTERVAL.toDays() + "d");
+        }
+        return length;
+    }
+
+    private static Instant bucketOf(Instant instant, Duration interval) {
+        long millis = interval.toMillis();
+        return Instant.ofEpochMilli(Math.floorDiv(instant.toEpochMilli(), millis) * millis);
+    }
+
+    public enum GroupBy {
+        NONE(null),
+        ACTION("action"),
+        CATEGORY("category"),
+        SEVERITY("severity");
+
+        /** The keyword field of the search index holding the group. */
+        private final String field;
+
+        GroupBy(String field) {
+            this.field = field;
+        }
+
+        static GroupBy parse(String value) {
+            if (value == null || value.isBlank()) {
+                return NONE;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Invalid groupBy: " + value + ", expected one of "
+                    + Arrays.toString(values()).toLowerCase(Locale.ROOT));
+            }
+        }
+
+        String of(String action, AuditCategory category, AuditSeverity severity) {
+            return switch (this) {
+                case NONE -> null;
+                case ACTION -> action;
+                case CATEGORY -> category.name();
+                case SEVERITY -> severity.name();
+            };
+        }
+
+        /**
+         * Groups present in every histogram, so that series line up across requests. Actions
+         * are open-ended and only appear once they have events.
+         */
+        List<String> fixedGroups() {
+            return switch (this) {
+                case CATEGORY -> Arrays.stream(AuditCategory.values()).map(Enum::name).toList();
+                case SEVERITY -> Arrays.stream(AuditSeverity.values()).map(Enum::name).toList();
+                default -> List.of();
+            };
+        }
+    }
+
+    /**
+     * Dense per-bucket counts, in total and per group in group order.
+     */
+    private static final class Histogram {
+
+        private final Instant start;
+        private final Duration interval;
+        private final GroupBy grouping;
+        private final long[] totals;
+        private final Map<String, long[]> groups = new TreeMap<>();
+
+        Histogram(Instant start, Duration interval, int buckets, GroupBy grouping) {
+            this.start = start;
+            this.interval = interval;
+            this.grouping = grouping;
+            this.totals = new long[buckets];
+            grouping.fixedGroups().forEach(group -> groups.put(group, new long[buckets]));
+        }
+
+        void add(Instant at, String group, long count) {
+            if (at.isBefore(start)) {
+                return;
+            }
+            long bucket = Duration.between(start, at).dividedBy(interval);
+            if (bucket >= totals.length) {
+                return;
+            }
+            totals[(int) bucket] += count;
+            if (group != null) {
+                groups.computeIfAbsent(group, key -> new long[totals.length])[(int) bucket] += count;
+            }
+        }
+
+        void add(HistogramBucket bucket) {
+            if (grouping == GroupBy.NONE) {
+                add(bucket.start(), null, bucket.count());
+                return;
+            }
+            // Events without a group value only count towards the total
+            long grouped = 0;
+            for (Map.Entry<String, Long> entry : bucket.groups().entrySet()) {
+                add(bucket.start(), entry.getKey(), entry.getValue());
+                grouped += entry.getValue();
+            }
+            add(bucket.start(), null, bucket.count() - grouped);
+        }
+    }
+}
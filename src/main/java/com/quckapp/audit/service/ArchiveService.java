@@ -1,62 +1,282 @@
 package com.quckapp.audit.service;
 
 import com.quckapp.audit.domain.entity.ArchivedAuditLog;
-import com.quckapp.audit.domain.entity.AuditLog;
 import com.quckapp.audit.domain.entity.RetentionPolicy;
+import com.quckapp.audit.domain.id.UuidV7;
 import com.quckapp.audit.domain.repository.ArchivedAuditLogRepository;
-import com.quckapp.audit.domain.repository.AuditLogRepository;
+import com.quckapp.audit.domain.repository.ArchivedAuditLogSealingRepository;
+import com.quckapp.audit.domain.repository.ArchivedAuditLogSealingRepository.WorkspaceRange;
+import com.quckapp.audit.domain.repository.AuditLogRetentionRepository;
+import com.quckapp.audit.domain.repository.AuditLogRetentionRepository.RowKey;
+import com.quckapp.audit.domain.repository.ColdArchiveSegmentRepository;
+import com.quckapp.audit.domain.repository.ColdArchiveSegmentRepository.ColdSegment;
+import com.quckapp.audit.domain.repository.ColdArchiveSegmentRepository.Status;
+import com.quckapp.audit.service.archive.ColdArchiveStore;
+import com.quckapp.audit.service.archive.SegmentFooter;
+import com.quckapp.audit.service.archive.SegmentReader;
+import com.quckapp.audit.service.archive.SegmentWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
 import java.util.UUID;
 
+/**
+ * Archives audit logs in two tiers. Retention copies expiring rows into
+ * {@code archived_audit_logs} chunk by chunk; a nightly job then seals them into immutable,
+ * compressed columnar segment files (one per workspace and month, see {@link SegmentWriter}) and
+ * purges the sealed rows from MySQL. Rows archived after a month was sealed are merged with the
+ * month's segment into a new one that replaces it.
+ *
+ * Sealing is tracked in {@code cold_archive_segments}: a segment is registered as WRITING before
+ * its file is created, becomes SEALED once the file is durable and PURGED once its rows are gone
+ * from MySQL. An interrupted run is finished or rolled back from that state on the next run.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ArchiveService {
 
-    private final AuditLogRepository auditLogRepository;
+    private final AuditLogRetentionRepository retentionRepository;
     private final ArchivedAuditLogRepository archivedAuditLogRepository;
+    private final ArchivedAuditLogSealingRepository sealingRepository;
+    private final ColdArchiveSegmentRepository segmentRepository;
+    private final ColdArchiveStore coldArchiveStore;
 
-    @Transactional
-    public int archiveAuditLogs(RetentionPolicy policy) {
-        Instant cutoffDate = Instant.now().minus(policy.getRetentionDays(), ChronoUnit.DAYS);
-        List<AuditLog> logsToArchive = findLogsToArchive(policy, cutoffDate);
+    @Value("${audit.archive.cold.enabled:true}")
+    private boolean coldArchiveEnabled;
 
-        if (logsToArchive.isEmpty()) {
+    @Value("${audit.archive.cold.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${audit.archive.cold.seal-grace-minutes:60}")
+    private long sealGraceMinutes;
+
+    /**
+     * Archives one retention chunk. It must join the chunk transaction that deletes the same
+     * keys, so a row is never deleted without its archive copy or archived twice.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int archiveChunk(RetentionPolicy policy, List<RowKey> keys) {
+        int archived = retentionRepository.archiveByKeys(keys, policy.getId());
+        log.debug("Archived {} of {} audit logs for policy: {}", archived, keys.size(), policy.getName());
+        return archived;
+    }
+
+    /**
+     * Rows of the policy still in {@code archived_audit_logs}; sealed rows are counted in their
+     * segments.
+     */
+    @Transactional(readOnly = true)
+    public long getArchivedCountByPolicy(UUID policyId) {
+        return archivedAuditLogRepository.countByPolicyId(policyId);
+    }
+
+    /**
+     * Seals the archived rows into cold segments and returns the number of segments written.
+     * Only rows archived more than {@code seal-grace-minutes} ago are taken, so no retention
+     * chunk that is still in flight can add rows to a month while it is being sealed.
+     */
+    @Scheduled(cron = "${audit.archive.cold.seal-cron:0 30 3 * * ?}") // Daily at 3:30 AM, after retention
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int sealColdSegments() {
+        if (!coldArchiveEnabled) {
             return 0;
         }
+        recoverInterruptedSegments();
+
+        Instant archivedBefore = Instant.now().minus(sealGraceMinutes, ChronoUnit.MINUTES).truncatedTo(ChronoUnit.SECONDS);
+        int sealed = 0;
+        for (WorkspaceRange range : sealingRepository.findWorkspaceRanges(archivedBefore)) {
+            YearMonth last = YearMonth.from(range.maxCreatedAt().atOffset(ZoneOffset.UTC));
+            for (YearMonth month = YearMonth.from(range.minCreatedAt().atOffset(ZoneOffset.UTC));
+                 !month.isAfter(last); month = month.plusMonths(1)) {
+                try {
+                    if (sealMonth(range.workspaceId(), month, archivedBefore)) {
+                        sealed++;
+                    }
+                } catch (Exception e) {
+                    log.error("Failed to seal cold-archive segment for workspace {} month {}", range.workspaceId(), month, e);
+                }
+            }
+        }
+        log.info("Sealed {} cold-archive segments", sealed);
+        return sealed;
+    }
+
+    /**
+     * Writes the month's sealable rows, merged with the rows of its existing segments, into one new
+     * segment. The new segment replaces the old ones in the same manifest update that seals it, so
+     * a workspace-month keeps a single file however many nightly runs added rows to it.
+     */
+    private boolean sealMonth(UUID workspaceId, YearMonth month, Instant archivedBefore) throws IOException {
+        UUID segmentId = UuidV7.generate();
+        Path path = coldArchiveStore.segmentPath(workspaceId, month, segmentId);
+        ColdSegment segment = new ColdSegment(segmentId, workspaceId, month, path.toString(), Status.WRITING,
+            archivedBefore, 0, 0, null, null);
+        segmentRepository.insertWriting(segmentId, workspaceId, month, segment.path(), archivedBefore);
+
+        List<ColdSegment> previous = List.of();
+        List<SegmentReader> readers = new ArrayList<>();
+        SegmentFooter footer;
+        try (SegmentWriter writer = coldArchiveStore.openWriter(path, workspaceId, month)) {
+            Iterator<ArchivedAuditLog> archived = archivedRows(workspaceId, month, archivedBefore);
+            if (!archived.hasNext()) {
+                discard(segment);
+                return false;
+            }
+            PriorityQueue<MergeSource> sources = new PriorityQueue<>();
+            MergeSource.offer(sources, archived);
+            previous = segmentRepository.findPurged(workspaceId, month);
+            for (ColdSegment old : previous) {
+                SegmentReader reader = coldArchiveStore.openReader(Path.of(old.path()));
+                readers.add(reader);
+                MergeSource.offer(sources, reader.rows());
+            }
+            while (!sources.isEmpty()) {
+                MergeSource source = sources.poll();
+                writer.append(source.head);
+                MergeSource.offer(sources, source.rows);
+            }
+            footer = writer.seal();
+        } catch (IOException | RuntimeException e) {
+            discard(segment);
+            throw e;
+        } finally {
+            for (SegmentReader reader : readers) {
+                reader.close();
+            }
+        }
+
+        List<UUID> replaced = previous.stream().map(ColdSegment::id).toList();
+        segmentRepository.markSealed(segmentId, footer.rowCount(), coldArchiveStore.size(path),
+            footer.minCreatedAt(), footer.maxCreatedAt(), replaced);
+        long purged = purge(segment);
+        log.info("Sealed {} archived audit logs of workspace {} month {} into {}, replacing {} segments ({} purged from MySQL)",
+            footer.rowCount(), workspaceId, month, path, replaced.size(), purged);
+        return true;
+    }
+
+    /**
+     * The month's sealable rows in {@code archived_audit_logs}, in (created_at, id) order, read
+     * chunk by chunk.
+     */
+    private Iterator<ArchivedAuditLog> archivedRows(UUID workspaceId, YearMonth month, Instant archivedBefore) {
+        Instant from = monthStart(month);
+        Instant to = monthStart(month.plusMonths(1));
+        return new Iterator<>() {
+            private List<ArchivedAuditLog> chunk = sealingRepository.findChunk(
+                workspaceId, from, to, archivedBefore, null, chunkSize);
+            private int next;
 
-        List<ArchivedAuditLog> archivedLogs = logsToArchive.stream()
-            .map(auditLog -> ArchivedAuditLog.fromAuditLog(auditLog, policy.getId()))
-            .toList();
+            @Override
+            public boolean hasNext() {
+                if (next == chunk.size() && chunk.size() == chunkSize) {
+                    ArchivedAuditLog last = chunk.get(chunk.size() - 1);
+                    chunk = sealingRepository.findChunk(workspaceId, from, to, archivedBefore,
+                        new RowKey(last.getId(), last.getCreatedAt()), chunkSize);
+                    next = 0;
+                }
+                return next < chunk.size();
+            }
 
-        archivedAuditLogRepository.saveAll(archivedLogs);
-        log.info("Archived {} audit logs for policy: {}", archivedLogs.size(), policy.getName());
+            @Override
+            public ArchivedAuditLog next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return chunk.get(next++);
+            }
+        };
+    }
 
-        return archivedLogs.size();
+    /**
+     * Deletes the segment's rows from {@code archived_audit_logs}; they now live only in its file.
+     */
+    private long purge(ColdSegment segment) {
+        Instant from = monthStart(segment.month());
+        Instant to = monthStart(segment.month().plusMonths(1));
+        long purged = 0;
+        int deleted;
+        do {
+            deleted = sealingRepository.purgeChunk(segment.workspaceId(), from, to, segment.archivedBefore(), chunkSize);
+            purged += deleted;
+        } while (deleted == chunkSize);
+        segmentRepository.markPurged(segment.id());
+        return purged;
     }
 
-    private List<AuditLog> findLogsToArchive(RetentionPolicy policy, Instant cutoffDate) {
-        if (policy.getCategory() != null && policy.getMinSeverity() != null) {
-            return auditLogRepository.findByCreatedAtBeforeAndCategoryAndSeverityLessThan(
-                cutoffDate, policy.getCategory(), policy.getMinSeverity());
-        } else if (policy.getCategory() != null) {
-            return auditLogRepository.findByCreatedAtBeforeAndCategory(cutoffDate, policy.getCategory());
-        } else if (policy.getMinSeverity() != null) {
-            return auditLogRepository.findByCreatedAtBeforeAndSeverityLessThan(cutoffDate, policy.getMinSeverity());
-        } else {
-            return auditLogRepository.findByCreatedAtBefore(cutoffDate);
+    /**
+     * Finishes purging sealed segments and drops segments whose write never completed; their rows
+     * are still in MySQL and are sealed again by this run. Segments replaced by the previous run
+     * are deleted now rather than at the swap, so queries that listed them before it could finish.
+     */
+    private void recoverInterruptedSegments() {
+        for (ColdSegment segment : segmentRepository.findByStatus(Status.WRITING)) {
+            log.warn("Discarding incomplete cold-archive segment {}", segment.path());
+            discard(segment);
+        }
+        for (ColdSegment segment : segmentRepository.findByStatus(Status.SEALED)) {
+            log.info("Resuming purge of cold-archive segment {}", segment.path());
+            purge(segment);
+        }
+        for (ColdSegment segment : segmentRepository.findByStatus(Status.REPLACED)) {
+            log.info("Deleting replaced cold-archive segment {}", segment.path());
+            discard(segment);
         }
     }
 
-    @Transactional(readOnly = true)
-    public long getArchivedCountByPolicy(UUID policyId) {
-        return archivedAuditLogRepository.countByPolicyId(policyId);
+    private void discard(ColdSegment segment) {
+        try {
+            coldArchiveStore.delete(Path.of(segment.path()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete cold-archive segment " + segment.path(), e);
+        }
+        segmentRepository.delete(segment.id());
+    }
+
+    private static Instant monthStart(YearMonth month) {
+        return month.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    /**
+     * One sorted input of a segment merge, ordered by the created_at of its next row.
+     */
+    private static final class MergeSource implements Comparable<MergeSource> {
+
+        private final Iterator<ArchivedAuditLog> rows;
+        private final ArchivedAuditLog head;
+
+        private MergeSource(Iterator<ArchivedAuditLog> rows, ArchivedAuditLog head) {
+            this.rows = rows;
+            this.head = head;
+        }
+
+        static void offer(PriorityQueue<MergeSource> sources, Iterator<ArchivedAuditLog> rows) {
+            if (rows.hasNext()) {
+                sources.add(new MergeSource(rows, rows.next()));
+            }
+        }
+
+        @Override
+        public int compareTo(MergeSource other) {
+            return head.getCreatedAt().compareTo(other.head.getCreatedAt());
+        }
     }
 }
@@ -0,0 +1,233 @@
+package com.quckapp.audit.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quckapp.audit.dto.AuditDtos.BulkIngestError;
+import com.quckapp.audit.dto.AuditDtos.BulkIngestResult;
+import com.quckapp.audit.dto.AuditDtos.CreateAuditLogRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Ingests audit logs from an NDJSON stream, one {@link CreateAuditLogRequest} per line.
+ *
+ * Lines are read as they arrive and valid ones are inserted in batches of {@code batch-size}
+ * through {@link AuditLogService#createAuditLogs}, the path the Kafka batch listener uses, each
+ * batch in its own transaction. Only the current batch and line are held in memory, so the body
+ * can be arbitrarily large. Malformed and invalid lines are rejected one by one without failing
+ * the rest, and so are lines the database refuses: a batch that fails to insert is retried line
+ * by line. Only a failure that may pass, such as the database being unreachable, stops the
+ * ingest, and the result tells the client which line to resume after.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AuditLogBulkIngestService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final AuditLogService auditLogService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${audit.ingest.bulk.batch-size:500}")
+    private int batchSize;
+
+    @Value("${audit.ingest.bulk.max-line-length:1048576}")
+    private int maxLineLength;
+
+    @Value("${audit.ingest.bulk.max-reported-errors:100}")
+    private int maxReportedErrors;
+
+    /**
+     * Reads {@code body} to the end, or up to the first insert that fails transiently. Does not
+     * close {@code body}.
+     */
+    public BulkIngestResult ingest(InputStream body) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        BulkIngestResult result = BulkIngestResult.builder().errors(new ArrayList<>()).build();
+        NdjsonLines lines = new NdjsonLines(new InputStreamReader(body, StandardCharsets.UTF_8), maxLineLength);
+        List<CreateAuditLogRequest> batch = new ArrayList<>(batchSize);
+        List<Long> batchLines = new ArrayList<>(batchSize);
+
+        long lineNumber = 0;
+        while (lines.next()) {
+            lineNumber++;
+            if (lines.tooLong) {
+                result.setReceived(result.getReceived() + 1);
+                reject(result, lineNumber, "Line is longer than " + maxLineLength + " characters");
+                continue;
+            }
+            String line = lines.line.toString();
+            if (line.isBlank()) {
+                continue;
+            }
+            result.setReceived(result.getReceived() + 1);
+
+            CreateAuditLogRequest request;
+            try {
+                request = objectMapper.readValue(line, CreateAuditLogRequest.class);
+            } catch (JsonProcessingException e) {
+                reject(result, lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+                continue;
+            }
+            Set<ConstraintViolation<CreateAuditLogRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                reject(result, lineNumber, violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+                continue;
+            }
+
+            batch.add(request);
+            batchLines.add(lineNumber);
+            if (batch.size() >= batchSize && !flush(batch, batchLines, lineNumber, result)) {
+                break;
+            }
+        }
+        if (!result.isAborted()) {
+            flush(batch, batchLines, lineNumber, result);
+        }
+
+        meterRegistry.counter("audit.ingest.events", "mode", "bulk").increment(result.getInserted());
+        sample.stop(meterRegistry.timer("audit.ingest.duration", "mode", "bulk"));
+        log.info("Bulk ingest read {} audit logs: {} inserted, {} rejected{}", result.getReceived(),
+            result.getInserted(), result.getRejected(), result.isAborted() ? ", aborted" : "");
+        return result;
+    }
+
+    /**
+     * Inserts the batch, read up to {@code lineNumber}, from the given lines. If the insert fails
+     * for good, the lines are inserted one by one and those that still fail are rejected. Returns
+     * false, marking the result as aborted, if an insert fails transiently.
+     */
+    private boolean flush(List<CreateAuditLogRequest> batch, List<Long> batchLines, long lineNumber,
+                          BulkIngestResult result) {
+        try {
+            if (!batch.isEmpty()) {
+                result.setInserted(result.getInserted() + auditLogService.createAuditLogs(batch));
+            }
+            result.setLastCommittedLine(lineNumber);
+            return true;
+        } catch (RuntimeException e) {
+            if (DatabaseFailures.isTransient(e)) {
+                return abort(result, lineNumber, e);
+            }
+            log.warn("Bulk ingest batch ending at line {} failed, inserting its lines one by one: {}",
+                lineNumber, e.getMessage());
+            for (int i = 0; i < batch.size(); i++) {
+                try {
+                    result.setInserted(result.getInserted() + auditLogService.createAuditLogs(List.of(batch.get(i))));
+                } catch (RuntimeException lineFailure) {
+                    if (DatabaseFailures.isTransient(lineFailure)) {
+                        // Every line before this one has been inserted or rejected
+                        result.setLastCommittedLine(batchLines.get(i) - 1);
+                        return abort(result, batchLines.get(i), lineFailure);
+                    }
+                    reject(result, batchLines.get(i), "Insert failed: " + lineFailure.getMessage());
+                }
+            }
+            result.setLastCommittedLine(lineNumber);
+            return true;
+        } finally {
+            batch.clear();
+            batchLines.clear();
+        }
+    }
+
+    private boolean abort(BulkIngestResult result, long lineNumber, RuntimeException e) {
+        log.error("Bulk ingest failed at line {}, stopping", lineNumber, e);
+        result.setAborted(true);
+        result.setAbortReason(e.getMessage());
+        return false;
+    }
+
+    private void reject(BulkIngestResult result, long lineNumber, String error) {
+        result.setRejected(result.getRejected() + 1);
+        if (result.getErrors().size() < maxReportedErrors) {
+            result.getErrors().add(new BulkIngestError(lineNumber, error));
+        }
+    }
+
+    /**
+     * Splits a character stream into lines without ever holding more than one line, and not
+     * even that once it grows past {@code maxLength}: the rest of an overlong line is skipped.
+     */
+    private static final class NdjsonLines {
+
+        private final Reader reader;
+        private final int maxLength;
+        private final char[] buffer = new char[BUFFER_SIZE];
+        private final StringBuilder line = new StringBuilder();
+        private int position;
+        private int limit;
+        private boolean tooLong;
+
+        NdjsonLines(Reader reader, int maxLength) {
+            this.reader = reader;
+            this.maxLength = maxLength;
+        }
+
+        /**
+         * Reads the next line into {@link #line}, without its terminator. Returns false at the
+         * end of the stream.
+         */
+        boolean next() throws IOException {
+            line.setLength(0);
+            tooLong = false;
+            boolean read = false;
+            while (true) {
+                if (position == limit) {
+                    limit = Math.max(reader.read(buffer), 0);
+                    position = 0;
+                    if (limit == 0) {
+                        return read;
+                    }
+                }
+                read = true;
+                int start = position;
+                while (position < limit && buffer[position] != '\n') {
+                    position++;
+                }
+                append(start, position);
+                if (position < limit) {
+                    position++;
+                    if (!line.isEmpty() && line.charAt(line.length() - 1) == '\r') {
+                        line.setLength(line.length() - 1);
+                    }
+                    return true;
+                }
+            }
+        }
+
+        private void append(int start, int end) {
+            if (tooLong) {
+                return;
+            }
+            if (line.length() + (end - start) > maxLength) {
+                tooLong = true;
+                line.setLength(0);
+                return;
+            }
+            line.append(buffer, start, end - start);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.quckapp.audit.service;
+
+import com.quckapp.audit.domain.repository.AuditLogRetentionRepository.RowKey;
+import com.quckapp.audit.exception.BadRequestException;
+
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque continuation token for keyset paging: the (created_at, id) of the last row of a page,
+ * as URL-safe base64. The next page holds the rows ordered after it, newest first.
+ */
+public final class AuditLogCursor {
+
+    private static final int LENGTH = Long.BYTES + Integer.BYTES + 2 * Long.BYTES;
+
+    private AuditLogCursor() {
+    }
+
+    public static String encode(Instant createdAt, UUID id) {
+        ByteBuffer buffer = ByteBuffer.allocate(LENGTH)
+            .putLong(createdAt.getEpochSecond())
+            .putInt(createdAt.getNano())
+            .putLong(id.getMostSignificantBits())
+            .putLong(id.getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * @throws BadRequestException if the token was not produced by {@link #encode}
+     */
+    public static RowKey decode(String cursor) {
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(cursor);
+            if (bytes.length != LENGTH) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            Instant createdAt = Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+            return new RowKey(new UUID(buffer.getLong(), buffer.getLong()), createdAt);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new BadRequestException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.quckapp.audit.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opencsv.CSVWriter;
+import com.quckapp.audit.domain.entity.AuditLog;
+import com.quckapp.audit.domain.repository.AuditLogRepository;
+import com.quckapp.audit.domain.repository.AuditLogSpecifications;
+import com.quckapp.audit.dto.AuditDtos.AuditLogSearchRequest;
+import com.quckapp.audit.exception.BadRequestException;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams every audit log matching a search request to an output stream as NDJSON or CSV.
+ *
+ * Rows come from a forward-only MySQL cursor and are written as they are read, so memory stays
+ * flat whatever the size of the result. Writes block while the client is slow to read, which in
+ * turn stops the cursor from being advanced: the export runs at the pace of the client.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AuditLogExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final AuditLogRepository auditLogRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @throws BadRequestException if the request cannot be exported; checked up front, before
+     * the response is committed
+     */
+    public void validate(AuditLogSearchRequest request) {
+        if (request.getWorkspaceId() == null) {
+            throw new BadRequestException("workspaceId is required to export audit logs");
+        }
+        if (request.getQuery() != null && !request.getQuery().isBlank()) {
+            throw new BadRequestException("Free-text query is not supported for exports");
+        }
+    }
+
+    /**
+     * Writes all matching rows, newest first, ignoring the request's paging. Does not close
+     * {@code out}. Returns the number of rows written.
+     */
+    @Transactional(readOnly = true)
+    public long export(AuditLogSearchRequest request, ExportFormat format, boolean gzip, OutputStream out)
+            throws IOException {
+        validate(request);
+        long start = System.currentTimeMillis();
+        GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+        OutputStream target = compressed != null ? compressed : out;
+
+        long rows;
+        try (Stream<AuditLog> logs = auditLogRepository.streamAll(
+                AuditLogSpecifications.matching(request), AuditLogSpecifications.NEWEST_FIRST)) {
+            rows = switch (format) {
+                case NDJSON -> writeNdjson(logs, target);
+                case CSV -> writeCsv(logs, target);
+            };
+        }
+        if (compressed != null) {
+            compressed.finish();
+        }
+        out.flush();
+
+        log.info("Exported {} audit logs of workspace {} as {} in {}ms",
+            rows, request.getWorkspaceId(), format, System.currentTimeMillis() - start);
+        return rows;
+    }
+
+    /**
+     * One JSON object per line with the fields of an audit log response. The JSON columns are
+     * copied through raw rather than parsed and re-serialized.
+     */
+    private long writeNdjson(Stream<AuditLog> logs, OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .setRootValueSeparator(null);
+        long count = 0;
+        for (AuditLog row : (Iterable<AuditLog>) logs::iterator) {
+            generator.writeStartObject();
+            writeUuid(generator, "id", row.getId());
+            writeUuid(generator, "workspace_id", row.getWorkspaceId());
+            writeUuid(generator, "actor_id", row.getActorId());
+            generator.writeStringField("actor_email", row.getActorEmail());
+            generator.writeStringField("actor_name", row.getActorName());
+            generator.writeStringField("action", row.getAction());
+            generator.writeStringField("resource_type", row.getResourceType());
+            writeUuid(generator, "resource_id", row.getResourceId());
+            generator.writeStringField("resource_name", row.getResourceName());
+            writeRawJson(generator, "metadata", row.getMetadata());
+            writeRawJson(generator, "previous_state", row.getPreviousState());
+            writeRawJson(generator, "new_state", row.getNewState());
+            generator.writeStringField("ip_address", row.getIpAddress());
+            generator.writeStringField("user_agent", row.getUserAgent());
+            generator.writeStringField("session_id", row.getSessionId());
+            generator.writeStringField("severity", row.getSeverity().name());
+            generator.writeStringField("category", row.getCategory().name());
+            generator.writeStringField("created_at", row.getCreatedAt().toString());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            count++;
+        }
+        generator.flush();
+        return count;
+    }
+
+    private long writeCsv(Stream<AuditLog> logs, OutputStream out) throws IOException {
+        CSVWriter writer = new CSVWriter(new BufferedWriter(
+            new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE));
+        writer.writeNext(CsvExportService.HEADER);
+        long count = 0;
+        for (AuditLog row : (Iterable<AuditLog>) logs::iterator) {
+            writer.writeNext(CsvExportService.toRow(row));
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static void writeUuid(JsonGenerator generator, String field, UUID value) throws IOException {
+        generator.writeStringField(field, value != null ? value.toString() : null);
+    }
+
+    private static void writeRawJson(JsonGenerator generator, String field, String json) throws IOException {
+        generator.writeFieldName(field);
+        if (json != null) {
+            generator.writeRawValue(json);
+        } else {
+            generator.writeNull();
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public enum ExportFormat {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+    }
+}
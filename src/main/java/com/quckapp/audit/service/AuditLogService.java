@@ -4,15 +4,33 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.quckapp.audit.domain.document.AuditLogDocument;
 import com.quckapp.audit.domain.entity.AuditLog;
+import com.quckapp.audit.domain.id.UuidV7;
+import com.quckapp.audit.domain.repository.AuditLogAggregations.AggregatedStatistics;
+import com.quckapp.audit.domain.repository.AuditLogBatchRepository;
 import com.quckapp.audit.domain.repository.AuditLogElasticsearchRepository;
 import com.quckapp.audit.domain.repository.AuditLogRepository;
+import com.quckapp.audit.domain.repository.AuditLogRetentionRepository.RowKey;
+import com.quckapp.audit.domain.repository.AuditLogSpecifications;
+import com.quckapp.audit.domain.repository.AuditRollupRepository;
+import com.quckapp.audit.domain.repository.AuditRollupRepository.Granularity;
+import com.quckapp.audit.domain.repository.SearchOutboxRepository;
 import com.quckapp.audit.dto.AuditDtos.*;
+import com.quckapp.audit.exception.BadRequestException;
+import com.quckapp.audit.service.sketch.AuditSketches;
+import com.quckapp.audit.service.sketch.HyperLogLog;
+import com.quckapp.audit.service.sketch.SpaceSaving;
+import com.quckapp.audit.service.statistics.StatisticsCache;
+import com.quckapp.audit.service.statistics.StatisticsPlanner;
+import com.quckapp.audit.service.statistics.StatisticsPlanner.Backend;
+import com.quckapp.audit.service.statistics.StatisticsPlanner.EventCounts;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -32,9 +50,58 @@ public class AuditLogService {
     private final AuditLogRepository auditLogRepository;
     private final AuditLogElasticsearchRepository elasticsearchRepository;
     private final ObjectMapper objectMapper;
+    private final AuditLogBatchRepository auditLogBatchRepository;
+    private final SearchOutboxRepository searchOutboxRepository;
+    private final AuditRollupRepository auditRollupRepository;
+    private final StatisticsPlanner statisticsPlanner;
+    private final StatisticsCache statisticsCache;
 
     public AuditLogResponse createAuditLog(CreateAuditLogRequest request) {
-        AuditLog auditLog = AuditLog.builder()
+        AuditLog auditLog = toEntity(request);
+
+        auditLog = auditLogRepository.save(auditLog);
+        log.debug("Created audit log: {} - {} on {}", request.getAction(), request.getResourceType(), request.getResourceId());
+
+        searchOutboxRepository.append(List.of(auditLog.getId()));
+        auditRollupRepository.increment(List.of(auditLog));
+        statisticsCache.evictAfterCommit(List.of(auditLog));
+
+        return mapToResponse(auditLog);
+    }
+
+    /**
+     * Persists a batch of audit logs with multi-row inserts in a single transaction.
+     * Used by the batch Kafka listener so a whole poll costs one commit.
+     * Search outbox rows and rollup increments are written in the same transaction; the
+     * {@code SearchIndexRelay} indexes the logs once committed.
+     */
+    public int createAuditLogs(List<CreateAuditLogRequest> requests) {
+        if (requests.isEmpty()) {
+            return 0;
+        }
+
+        Instant now = Instant.now();
+        List<AuditLog> auditLogs = requests.stream()
+            .map(request -> {
+                AuditLog auditLog = toEntity(request);
+                auditLog.setId(UuidV7.generate());
+                auditLog.setCreatedAt(now);
+                return auditLog;
+            })
+            .toList();
+
+        int inserted = auditLogBatchRepository.insertAll(auditLogs);
+        log.debug("Created {} audit logs in batch", inserted);
+
+        searchOutboxRepository.append(auditLogs.stream().map(AuditLog::getId).toList());
+        auditRollupRepository.increment(auditLogs);
+        statisticsCache.evictAfterCommit(auditLogs);
+
+        return inserted;
+    }
+
+    private AuditLog toEntity(CreateAuditLogRequest request) {
+        return AuditLog.builder()
             .workspaceId(request.getWorkspaceId())
             .actorId(request.getActorId())
             .actorEmail(request.getActorEmail())
@@ -52,60 +119,82 @@ public class AuditLogService {
             .severity(request.getSeverity())
             .category(request.getCategory())
             .build();
-
-        auditLog = auditLogRepository.save(auditLog);
-        log.debug("Created audit log: {} - {} on {}", request.getAction(), request.getResourceType(), request.getResourceId());
-
-        // Index to Elasticsearch asynchronously
-        indexToElasticsearchAsync(auditLog);
-
-        return mapToResponse(auditLog);
-    }
-
-    @Async
-    protected void indexToElasticsearchAsync(AuditLog auditLog) {
-        try {
-            AuditLogDocument document = AuditLogDocument.fromEntity(auditLog);
-            elasticsearchRepository.save(document);
-            log.debug("Indexed audit log to Elasticsearch: {}", auditLog.getId());
-        } catch (Exception e) {
-            log.error("Failed to index audit log to Elasticsearch: {}", auditLog.getId(), e);
-        }
     }
 
     @Transactional(readOnly = true)
     public PagedResponse<AuditLogResponse> searchAuditLogs(AuditLogSearchRequest request) {
+        // Every backend below only scopes by workspace when one is given; never search across tenants
+        if (request.getWorkspaceId() == null) {
+            throw new BadRequestException("workspaceId is required to search audit logs");
+        }
+        if (request.getCursor() != null) {
+            return searchAfterCursor(request);
+        }
         Pageable pageable = PageRequest.of(request.getPage(), request.getSize());
-        Page<AuditLog> page;
 
         if (request.getQuery() != null && !request.getQuery().isBlank()) {
             // Use Elasticsearch for full-text search
-            Page<AuditLogDocument> esPage = elasticsearchRepository.searchByWorkspaceIdAndQuery(
-                request.getWorkspaceId().toString(), request.getQuery(), pageable);
+            Page<AuditLogDocument> esPage = elasticsearchRepository.searchMatching(request, pageable);
             return mapEsPageToResponse(esPage);
         }
 
-        // Use MySQL for structured queries
-        if (request.getActorId() != null) {
-            page = auditLogRepository.findByWorkspaceIdAndActorIdOrderByCreatedAtDesc(
-                request.getWorkspaceId(), request.getActorId(), pageable);
-        } else if (request.getResourceType() != null && request.getResourceId() != null) {
-            page = auditLogRepository.findByWorkspaceIdAndResourceTypeAndResourceIdOrderByCreatedAtDesc(
-                request.getWorkspaceId(), request.getResourceType(), request.getResourceId(), pageable);
-        } else if (request.getStartDate() != null && request.getEndDate() != null) {
-            page = auditLogRepository.findByWorkspaceIdAndDateRange(
-                request.getWorkspaceId(), request.getStartDate(), request.getEndDate(), pageable);
-        } else if (request.getCategory() != null) {
-            page = auditLogRepository.findByWorkspaceIdAndCategory(
-                request.getWorkspaceId(), request.getCategory(), pageable);
-        } else if (request.getSeverities() != null && !request.getSeverities().isEmpty()) {
-            page = auditLogRepository.findByWorkspaceIdAndSeverityIn(
-                request.getWorkspaceId(), new ArrayList<>(request.getSeverities()), pageable);
+        // Use MySQL for structured queries: every filter of the request in one predicate
+        Page<AuditLog> page = auditLogRepository.findAll(AuditLogSpecifications.matching(request),
+            PageRequest.of(request.getPage(), request.getSize(), AuditLogSpecifications.NEWEST_FIRST));
+        return mapPageToResponse(page);
+    }
+
+    /**
+     * Keyset paging: seeks past the cursor's (created_at, id) instead of skipping an offset, reads
+     * one row beyond the page to tell whether another follows, and counts only on request.
+     */
+    private PagedResponse<AuditLogResponse> searchAfterCursor(AuditLogSearchRequest request) {
+        RowKey after = request.getCursor().isBlank() ? null : AuditLogCursor.decode(request.getCursor());
+        int size = request.getSize();
+        List<AuditLogResponse> content;
+        String nextCursor = null;
+        Long total = null;
+
+        if (request.getQuery() != null && !request.getQuery().isBlank()) {
+            SearchHits<AuditLogDocument> hits = elasticsearchRepository.searchMatchingAfter(request, after, size + 1);
+            List<AuditLogDocument> documents = hits.getSearchHits().stream().map(SearchHit::getContent).toList();
+            if (documents.size() > size) {
+                documents = documents.subList(0, size);
+                AuditLogDocument last = documents.get(size - 1);
+                nextCursor = AuditLogCursor.encode(last.getCreatedAt(), UUID.fromString(last.getId()));
+            }
+            content = documents.stream().map(this::mapDocumentToResponse).toList();
+            if (request.isIncludeTotal()) {
+                total = hits.getTotalHits();
+            }
         } else {
-            page = auditLogRepository.findByWorkspaceIdOrderByCreatedAtDesc(request.getWorkspaceId(), pageable);
+            Specification<AuditLog> filters = AuditLogSpecifications.matching(request);
+            Specification<AuditLog> seek = after != null
+                ? filters.and(AuditLogSpecifications.olderThan(after.createdAt(), after.id()))
+                : filters;
+            List<AuditLog> rows = auditLogRepository.findBy(seek,
+                query -> query.sortBy(AuditLogSpecifications.NEWEST_FIRST).limit(size + 1).all());
+            if (rows.size() > size) {
+                rows = rows.subList(0, size);
+                AuditLog last = rows.get(size - 1);
+                nextCursor = AuditLogCursor.encode(last.getCreatedAt(), last.getId());
+            }
+            content = rows.stream().map(this::mapToResponse).toList();
+            if (request.isIncludeTotal()) {
+                total = auditLogRepository.count(filters);
+            }
         }
 
-        return mapPageToResponse(page);
+        return PagedResponse.<AuditLogResponse>builder()
+            .content(content)
+            .page(0)
+            .size(size)
+            .totalElements(total)
+            .totalPages(total != null ? (int) ((total + size - 1) / size) : null)
+            .first(after == null)
+            .last(nextCursor == null)
+            .nextCursor(nextCursor)
+            .build();
     }
 
     @Transactional(readOnly = true)
@@ -115,35 +204,119 @@ public class AuditLogService {
         return mapToResponse(auditLog);
     }
 
+    /**
+     * With {@code approximate}, top actors and resources come from mergeable per-day sketches
+     * instead of grouping every raw row of the range, and distinct actors and IP addresses are
+     * estimated as well. Totals are exact either way.
+     *
+     * The range is widened to whole hours, from the start of the hour of {@code startDate} up to
+     * the end of the hour of {@code endDate}, so that it is made of cacheable rollup buckets.
+     *
+     * The {@link StatisticsPlanner} picks Elasticsearch aggregations over the rollups while the
+     * index is fresh enough; should that search fail, the rollups answer instead.
+     */
     @Transactional(readOnly = true)
-    public AuditStatistics getStatistics(UUID workspaceId, Instant startDate, Instant endDate) {
+    public AuditStatistics getStatistics(UUID workspaceId, Instant startDate, Instant endDate, boolean approximate) {
         if (startDate == null) startDate = Instant.now().minus(30, ChronoUnit.DAYS);
         if (endDate == null) endDate = Instant.now();
+        Instant from = Granularity.HOURLY.bucketOf(startDate);
+        Instant to = Granularity.HOURLY.bucketOf(endDate).plus(Granularity.HOURLY.length());
+
+        if (statisticsPlanner.choose(from, to, approximate) == Backend.ELASTICSEARCH) {
+            try {
+                return aggregateStatistics(workspaceId, from, to, approximate);
+            } catch (RuntimeException e) {
+                log.warn("Failed to aggregate statistics of workspace {} in Elasticsearch, using rollups: {}",
+                    workspaceId, e.getMessage());
+            }
+        }
+
+        EventCounts counts = statisticsPlanner.count(workspaceId, from, to);
+        Rankings rankings = statisticsCache.topLists(workspaceId, from, to, approximate,
+            () -> approximate ? approximateRankings(workspaceId, from, to) : exactRankings(workspaceId, from, to));
+
+        return AuditStatistics.builder()
+            .workspaceId(workspaceId)
+            .periodStart(from)
+            .periodEnd(to)
+            .totalEvents(counts.total())
+            .eventsByAction(counts.byAction())
+            .eventsByCategory(counts.byCategory())
+            .eventsBySeverity(counts.bySeverity())
+            .topActors(rankings.topActors())
+            .topResources(rankings.topResources())
+            .approximate(approximate)
+            .uniqueActors(rankings.uniqueActors())
+            .uniqueIpAddresses(rankings.uniqueIpAddresses())
+            .distinctRelativeError(approximate ? HyperLogLog.RELATIVE_ERROR : null)
+            .backend(Backend.ROLLUPS.name())
+            .build();
+    }
+
+    /**
+     * Answers the counts from one aggregation search; they are exact. With {@code approximate}
+     * the top actors and resources come from its terms aggregations too, where a count may fall
+     * short by up to its {@code countError} when the range spans several shards. Otherwise they
+     * are ranked exactly by MySQL, as on the rollup path.
+     */
+    private AuditStatistics aggregateStatistics(UUID workspaceId, Instant from, Instant to, boolean approximate) {
+        AggregatedStatistics aggregated = elasticsearchRepository.aggregateStatistics(workspaceId.toString(), from, to, 10);
+        Rankings rankings = approximate
+            ? aggregatedRankings(aggregated)
+            : statisticsCache.topLists(workspaceId, from, to, false, () -> exactRankings(workspaceId, from, to));
+        return AuditStatistics.builder()
+            .workspaceId(workspaceId)
+            .periodStart(from)
+            .periodEnd(to)
+            .totalEvents(aggregated.total())
+            .eventsByAction(aggregated.byAction())
+            .eventsByCategory(aggregated.byCategory())
+            .eventsBySeverity(aggregated.bySeverity())
+            .topActors(rankings.topActors())
+            .topResources(rankings.topResources())
+            .approximate(approximate)
+            .uniqueActors(rankings.uniqueActors())
+            .uniqueIpAddresses(rankings.uniqueIpAddresses())
+            .backend(Backend.ELASTICSEARCH.name())
+            .build();
+    }
+
+    private Rankings aggregatedRankings(AggregatedStatistics aggregated) {
+        return new Rankings(
+            aggregated.topActors().stream()
+                .map(term -> TopActor.builder()
+                    .actorId(UUID.fromString(term.key()))
+                    .actorEmail(term.latest().get("actorEmail"))
+                    .actorName(term.latest().get("actorName"))
+                    .eventCount(term.count())
+                    .countError(term.countError())
+                    .build())
+                .toList(),
+            aggregated.topResources().stream()
+                .map(term -> TopResource.builder()
+                    .resourceType(term.latest().get("resourceType"))
+                    .resourceId(UUID.fromString(term.key()))
+                    .resourceName(term.latest().get("resourceName"))
+                    .eventCount(term.count())
+                    .countError(term.countError())
+                    .build())
+                .toList(),
+            aggregated.uniqueActors(),
+            aggregated.uniqueIpAddresses());
+    }
+
+    private Rankings approximateRankings(UUID workspaceId, Instant from, Instant to) {
+        AuditSketches sketches = statisticsPlanner.sketch(workspaceId, from, to);
+        return new Rankings(
+            sketches.topActors().top(10).stream().map(this::mapTopActor).toList(),
+            sketches.topResources().top(10).stream().map(this::mapTopResource).toList(),
+            sketches.actors().count(),
+            sketches.ipAddresses().count());
+    }
 
-        long totalEvents = auditLogRepository.countByWorkspaceIdAndDateRange(workspaceId, startDate, endDate);
-        List<Object[]> actionCounts = auditLogRepository.countByActionInDateRange(workspaceId, startDate, endDate);
-        List<Object[]> categoryCounts = auditLogRepository.countByCategoryInDateRange(workspaceId, startDate, endDate);
-        List<Object[]> severityCounts = auditLogRepository.countBySeverityInDateRange(workspaceId, startDate, endDate);
-        List<Object[]> topActors = auditLogRepository.findTopActorsInDateRange(workspaceId, startDate, endDate, PageRequest.of(0, 10));
-        List<Object[]> topResources = auditLogRepository.findTopResourcesInDateRange(workspaceId, startDate, endDate, PageRequest.of(0, 10));
-
-        Map<String, Long> eventsByAction = actionCounts.stream()
-            .collect(Collectors.toMap(
-                row -> (String) row[0],
-                row -> (Long) row[1]
-            ));
-
-        Map<String, Long> eventsByCategory = categoryCounts.stream()
-            .collect(Collectors.toMap(
-                row -> ((AuditLog.AuditCategory) row[0]).name(),
-                row -> (Long) row[1]
-            ));
-
-        Map<String, Long> eventsBySeverity = severityCounts.stream()
-            .collect(Collectors.toMap(
-                row -> ((AuditLog.AuditSeverity) row[0]).name(),
-                row -> (Long) row[1]
-            ));
+    private Rankings exactRankings(UUID workspaceId, Instant from, Instant to) {
+        List<Object[]> topActors = auditLogRepository.findTopActorsInDateRange(workspaceId, from, to, PageRequest.of(0, 10));
+        List<Object[]> topResources = auditLogRepository.findTopResourcesInDateRange(workspaceId, from, to, PageRequest.of(0, 10));
 
         List<TopActor> topActorList = topActors.stream()
             .map(row -> TopActor.builder()
@@ -163,16 +336,28 @@ public class AuditLogService {
                 .build())
             .toList();
 
-        return AuditStatistics.builder()
-            .workspaceId(workspaceId)
-            .periodStart(startDate)
-            .periodEnd(endDate)
-            .totalEvents(totalEvents)
-            .eventsByAction(eventsByAction)
-            .eventsByCategory(eventsByCategory)
-            .eventsBySeverity(eventsBySeverity)
-            .topActors(topActorList)
-            .topResources(topResourceList)
+        return new Rankings(topActorList, topResourceList, null, null);
+    }
+
+    private TopActor mapTopActor(SpaceSaving.Entry entry) {
+        String[] fields = AuditSketches.decode(entry.item());
+        return TopActor.builder()
+            .actorId(UUID.fromString(fields[0]))
+            .actorEmail(fields[1])
+            .actorName(fields[2])
+            .eventCount(entry.count())
+            .countError(entry.error())
+            .build();
+    }
+
+    private TopResource mapTopResource(SpaceSaving.Entry entry) {
+        String[] fields = AuditSketches.decode(entry.item());
+        return TopResource.builder()
+            .resourceType(fields[0])
+            .resourceId(UUID.fromString(fields[1]))
+            .resourceName(fields[2])
+            .eventCount(entry.count())
+            .countError(entry.error())
             .build();
     }
 
@@ -262,4 +447,11 @@ public class AuditLogService {
             return null;
         }
     }
+
+    /**
+     * The ranked parts of statistics, cached per range. The distinct counts are only estimated
+     * for approximate statistics.
+     */
+    private record Rankings(List<TopActor> topActors, List<TopResource> topResources,
+                            Long uniqueActors, Long uniqueIpAddresses) {}
 }
@@ -5,23 +5,27 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.quckapp.audit.domain.entity.AuditLog;
 import com.quckapp.audit.domain.entity.ComplianceReport;
 import com.quckapp.audit.domain.repository.AuditLogRepository;
+import com.quckapp.audit.domain.repository.AuditLogSpecifications;
 import com.quckapp.audit.domain.repository.ComplianceReportRepository;
 import com.quckapp.audit.dto.AuditDtos.*;
 import com.quckapp.audit.exception.ResourceNotFoundException;
 import com.quckapp.audit.service.report.ReportGenerator;
 import com.quckapp.audit.service.report.ReportGeneratorFactory;
+import com.quckapp.audit.service.report.ReportRunner;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -33,86 +37,92 @@ public class ComplianceReportService {
     private final AuditLogRepository auditLogRepository;
     private final ObjectMapper objectMapper;
     private final ReportGeneratorFactory reportGeneratorFactory;
-    private final CsvExportService csvExportService;
+    private final ReportRunner reportRunner;
 
+    /**
+     * Queues the report; a {@link com.quckapp.audit.service.report.ReportJobWorker} picks it up.
+     */
     public ComplianceReportResponse requestReport(CreateReportRequest request, UUID requestedBy) {
         ComplianceReport report = ComplianceReport.builder()
             .workspaceId(request.getWorkspaceId())
             .name(request.getName())
             .reportType(request.getReportType())
             .status(ComplianceReport.ReportStatus.PENDING)
+            .priority(request.getPriority())
             .periodStart(request.getPeriodStart())
             .periodEnd(request.getPeriodEnd())
             .requestedBy(requestedBy)
-            .parameters(toJson(request.getParameters()))
+            .parameters(toJson(parameters(request)))
             .build();
 
         report = reportRepository.save(report);
-        log.info("Created compliance report request: {} for workspace {}", report.getId(), report.getWorkspaceId());
-
-        // Generate report asynchronously
-        generateReportAsync(report.getId());
+        log.info("Queued compliance report: {} for workspace {} with priority {}",
+            report.getId(), report.getWorkspaceId(), report.getPriority());
 
         return mapToResponse(report);
     }
 
-    @Async
-    public void generateReportAsync(UUID reportId) {
+    private static Map<String, Object> parameters(CreateReportRequest request) {
+        if (!request.isApproximate()) {
+            return request.getParameters();
+        }
+        Map<String, Object> parameters = new HashMap<>();
+        if (request.getParameters() != null) {
+            parameters.putAll(request.getParameters());
+        }
+        parameters.put(ReportGenerator.APPROXIMATE, true);
+        return parameters;
+    }
+
+    /**
+     * Generates a report the worker has claimed. Runs outside of any transaction, as the slices
+     * open their own; the outcome is only recorded while the worker still holds the claim, so a
+     * report that was meanwhile recovered as orphaned and claimed again is left to its new owner.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void generateReport(UUID reportId, String workerId) {
         try {
             ComplianceReport report = reportRepository.findById(reportId)
                 .orElseThrow(() -> new ResourceNotFoundException("Report not found"));
-
-            report.setStatus(ComplianceReport.ReportStatus.PROCESSING);
-            reportRepository.save(report);
-
-            // Generate report based on type
-            Map<String, Object> summary = generateReportData(report);
-
-            // Get report data for CSV export
-            List<AuditLog> reportData = getReportDataInternal(report);
-
-            // Export to CSV
-            CsvExportService.ExportResult exportResult = csvExportService.exportToCsv(
-                reportData, report.getName(), report.getId());
-
-            report.setSummary(toJson(summary));
+            if (!isClaimedBy(report, workerId)) {
+                log.warn("Skipping compliance report {} no longer claimed by {}", reportId, workerId);
+                return;
+            }
+
+            // Each time slice is scanned once, feeding both the summary and the CSV export
+            ReportGenerator generator = reportGeneratorFactory.getGenerator(report.getReportType());
+            ReportRunner.ReportResult result = reportRunner.run(
+                generator, toContext(report), report.getName(), report.getId());
+            CsvExportService.ExportResult exportResult = result.export();
+
+            report = reportRepository.findById(reportId).orElse(null);
+            if (report == null || !isClaimedBy(report, workerId)) {
+                log.warn("Discarding result of compliance report {} no longer claimed by {}", reportId, workerId);
+                return;
+            }
+            report.setSummary(toJson(result.summary()));
             report.setFileUrl(exportResult.fileUrl());
             report.setFileSize(exportResult.fileSize());
             report.setStatus(ComplianceReport.ReportStatus.COMPLETED);
             report.setCompletedAt(Instant.now());
             reportRepository.save(report);
 
-            log.info("Completed compliance report: {} with {} records exported", reportId, reportData.size());
+            log.info("Completed compliance report: {} ({} bytes exported)", reportId, exportResult.fileSize());
         } catch (Exception e) {
             log.error("Failed to generate compliance report: {}", reportId, e);
-            reportRepository.findById(reportId).ifPresent(report -> {
-                report.setStatus(ComplianceReport.ReportStatus.FAILED);
-                report.setErrorMessage(e.getMessage());
-                reportRepository.save(report);
-            });
+            reportRepository.findById(reportId)
+                .filter(report -> isClaimedBy(report, workerId))
+                .ifPresent(report -> {
+                    report.setStatus(ComplianceReport.ReportStatus.FAILED);
+                    report.setErrorMessage(e.getMessage());
+                    reportRepository.save(report);
+                });
         }
     }
 
-    private List<AuditLog> getReportDataInternal(ComplianceReport report) {
-        ReportGenerator generator = reportGeneratorFactory.getGenerator(report.getReportType());
-        ReportGenerator.ReportContext context = new ReportGenerator.ReportContext(
-            report.getWorkspaceId(),
-            report.getPeriodStart(),
-            report.getPeriodEnd(),
-            fromJson(report.getParameters(), Map.class)
-        );
-        return generator.generateData(context);
-    }
-
-    private Map<String, Object> generateReportData(ComplianceReport report) {
-        ReportGenerator generator = reportGeneratorFactory.getGenerator(report.getReportType());
-        ReportGenerator.ReportContext context = new ReportGenerator.ReportContext(
-            report.getWorkspaceId(),
-            report.getPeriodStart(),
-            report.getPeriodEnd(),
-            fromJson(report.getParameters(), Map.class)
-        );
-        return generator.generateSummary(context);
+    private static boolean isClaimedBy(ComplianceReport report, String workerId) {
+        return report.getStatus() == ComplianceReport.ReportStatus.PROCESSING
+            && workerId.equals(report.getClaimedBy());
     }
 
     public List<AuditLog> getReportData(UUID reportId) {
@@ -120,13 +130,20 @@ public class ComplianceReportService {
             .orElseThrow(() -> new ResourceNotFoundException("Report not found"));
 
         ReportGenerator generator = reportGeneratorFactory.getGenerator(report.getReportType());
-        ReportGenerator.ReportContext context = new ReportGenerator.ReportContext(
+        try (Stream<AuditLog> logs = auditLogRepository.streamAll(
+                generator.criteria(toContext(report)), AuditLogSpecifications.NEWEST_FIRST)) {
+            return logs.filter(generator::includes).toList();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private ReportGenerator.ReportContext toContext(ComplianceReport report) {
+        return new ReportGenerator.ReportContext(
             report.getWorkspaceId(),
             report.getPeriodStart(),
             report.getPeriodEnd(),
             fromJson(report.getParameters(), Map.class)
         );
-        return generator.generateData(context);
     }
 
     @Transactional(readOnly = true)
@@ -160,6 +177,8 @@ public class ComplianceReportService {
             .name(report.getName())
             .reportType(report.getReportType())
             .status(report.getStatus())
+            .priority(report.getPriority())
+            .attempts(report.getAttempts())
             .periodStart(report.getPeriodStart())
             .periodEnd(report.getPeriodEnd())
             .requestedBy(report.getRequestedBy())
@@ -6,12 +6,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
-import java.io.FileWriter;
+import java.io.Closeable;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
@@ -29,7 +30,26 @@ public class CsvExportService {
         .ofPattern("yyyy-MM-dd HH:mm:ss")
         .withZone(ZoneId.of("UTC"));
 
+    static final String[] HEADER = {
+        "ID", "Workspace ID", "Actor ID", "Actor Email", "Actor Name",
+        "Action", "Resource Type", "Resource ID", "Resource Name",
+        "IP Address", "User Agent", "Session ID",
+        "Severity", "Category", "Created At"
+    };
+
     public ExportResult exportToCsv(List<AuditLog> auditLogs, String reportName, UUID reportId) throws IOException {
+        try (ReportCsv csv = openCsv(reportName, reportId)) {
+            for (AuditLog log : auditLogs) {
+                csv.append(log);
+            }
+            return csv.finish();
+        }
+    }
+
+    /**
+     * Starts a report's CSV file, written one row at a time as the report is generated.
+     */
+    public ReportCsv openCsv(String reportName, UUID reportId) throws IOException {
         Path exportDir = Paths.get(exportPath);
         if (!Files.exists(exportDir)) {
             Files.createDirectories(exportDir);
@@ -41,47 +61,46 @@ public class CsvExportService {
             System.currentTimeMillis());
 
         Path filePath = exportDir.resolve(filename);
-        File file = filePath.toFile();
-
-        try (CSVWriter writer = new CSVWriter(new FileWriter(file))) {
-            // Write header
-            String[] header = {
-                "ID", "Workspace ID", "Actor ID", "Actor Email", "Actor Name",
-                "Action", "Resource Type", "Resource ID", "Resource Name",
-                "IP Address", "User Agent", "Session ID",
-                "Severity", "Category", "Created At"
-            };
-            writer.writeNext(header);
-
-            // Write data rows
-            for (AuditLog log : auditLogs) {
-                String[] row = {
-                    log.getId().toString(),
-                    log.getWorkspaceId().toString(),
-                    log.getActorId().toString(),
-                    log.getActorEmail(),
-                    log.getActorName(),
-                    log.getAction(),
-                    log.getResourceType(),
-                    log.getResourceId().toString(),
-                    log.getResourceName(),
-                    log.getIpAddress(),
-                    log.getUserAgent(),
-                    log.getSessionId(),
-                    log.getSeverity().name(),
-                    log.getCategory().name(),
-                    formatInstant(log.getCreatedAt())
-                };
-                writer.writeNext(row);
-            }
-        }
-
-        long fileSize = Files.size(filePath);
-        String fileUrl = "/api/v1/audit/reports/" + reportId + "/download";
+        CSVWriter writer = new CSVWriter(Files.newBufferedWriter(filePath));
+        // Write header
+        writer.writeNext(HEADER);
+        return new ReportCsv(filePath, reportId, writer);
+    }
 
-        log.info("Exported {} audit logs to CSV: {} ({} bytes)", auditLogs.size(), filename, fileSize);
+    /**
+     * Starts one headerless part of a report's CSV file, for a slice of its rows written
+     * concurrently with the other parts.
+     */
+    public ReportCsv openCsvPart(UUID reportId, int part) throws IOException {
+        Path exportDir = Paths.get(exportPath);
+        if (!Files.exists(exportDir)) {
+            Files.createDirectories(exportDir);
+        }
+        Path filePath = exportDir.resolve(String.format(".%s_part%d_%d.tmp", reportId, part, System.currentTimeMillis()));
+        return new ReportCsv(filePath, reportId, new CSVWriter(Files.newBufferedWriter(filePath)));
+    }
 
-        return new ExportResult(filePath.toString(), fileUrl, fileSize);
+    /**
+     * Writes the report's CSV file as the header followed by the parts in the given order, and
+     * deletes the parts.
+     */
+    public ExportResult concatenate(String reportName, UUID reportId, List<ReportCsv> parts) throws IOException {
+        ReportCsv csv = openCsv(reportName, reportId);
+        csv.close();
+        try (FileChannel target = FileChannel.open(csv.filePath, StandardOpenOption.APPEND)) {
+            for (ReportCsv part : parts) {
+                part.close();
+                try (FileChannel source = FileChannel.open(part.filePath, StandardOpenOption.READ)) {
+                    long size = source.size();
+                    for (long position = 0; position < size; ) {
+                        position += source.transferTo(position, size - position, target);
+                    }
+                }
+                csv.rows += part.rows;
+                part.discard();
+            }
+        }
+        return csv.finish();
     }
 
     public Path getExportFilePath(String filename) {
@@ -99,10 +118,86 @@ public class CsvExportService {
             .substring(0, Math.min(name.length(), 50));
     }
 
-    private String formatInstant(Instant instant) {
+    /**
+     * One CSV record per audit log, in {@link #HEADER} order. Shared with the streaming export.
+     */
+    static String[] toRow(AuditLog log) {
+        return new String[] {
+            log.getId().toString(),
+            log.getWorkspaceId().toString(),
+            log.getActorId().toString(),
+            log.getActorEmail(),
+            log.getActorName(),
+            log.getAction(),
+            log.getResourceType(),
+            log.getResourceId().toString(),
+            log.getResourceName(),
+            log.getIpAddress(),
+            log.getUserAgent(),
+            log.getSessionId(),
+            log.getSeverity().name(),
+            log.getCategory().name(),
+            formatInstant(log.getCreatedAt())
+        };
+    }
+
+    private static String formatInstant(Instant instant) {
         if (instant == null) return "";
         return DATE_FORMATTER.format(instant);
     }
 
     public record ExportResult(String filePath, String fileUrl, long fileSize) {}
+
+    public static final class ReportCsv implements Closeable {
+
+        private final Path filePath;
+        private final UUID reportId;
+        private final CSVWriter writer;
+        private long rows;
+        private boolean closed;
+
+        private ReportCsv(Path filePath, UUID reportId, CSVWriter writer) {
+            this.filePath = filePath;
+            this.reportId = reportId;
+            this.writer = writer;
+        }
+
+        public void append(AuditLog auditLog) {
+            writer.writeNext(toRow(auditLog));
+            rows++;
+        }
+
+        public long rows() {
+            return rows;
+        }
+
+        /**
+         * Closes the file and describes it for download.
+         */
+        public ExportResult finish() throws IOException {
+            close();
+            long fileSize = Files.size(filePath);
+            String fileUrl = "/api/v1/audit/reports/" + reportId + "/download";
+
+            log.info("Exported {} audit logs to CSV: {} ({} bytes)", rows, filePath.getFileName(), fileSize);
+
+            return new ExportResult(filePath.toString(), fileUrl, fileSize);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                writer.close();
+            }
+        }
+
+        /**
+         * Closes and deletes the file, for parts that were concatenated or abandoned.
+         */
+        public void discard() throws IOException {
+            close();
+            Files.deleteIfExists(filePath);
+        }
+    }
 }
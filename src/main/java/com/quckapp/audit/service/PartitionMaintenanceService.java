@@ -0,0 +1,156 @@
+package com.quckapp.audit.service;
+
+import com.quckapp.audit.domain.repository.AuditLogPartitionRepository;
+import com.quckapp.audit.domain.repository.AuditLogPartitionRepository.PartitionInfo;
+import com.quckapp.audit.domain.repository.AuditLogRetentionRepository.RetentionCell;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Maintains the monthly range partitions of {@code audit_logs}.
+ *
+ * Keeps {@code months-ahead} months pre-created so inserts never fall into {@code p_future},
+ * and lets retention drop whole expired partitions instead of deleting their rows. Every
+ * operation is a no-op when the table is not partitioned (e.g. the H2 test schema).
+ *
+ * DDL commits implicitly in MySQL, so these methods run outside any caller transaction. DDL
+ * that times out waiting behind open transactions is skipped and retried on the next run.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class PartitionMaintenanceService {
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private final AuditLogPartitionRepository partitionRepository;
+
+    @Value("${audit.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            ensureFuturePartitions();
+        } catch (Exception e) {
+            log.error("Failed to pre-create audit_logs partitions on startup", e);
+        }
+    }
+
+    @Scheduled(cron = "${audit.partitions.maintenance-cron:0 0 1 * * ?}") // Daily at 1 AM
+    public void ensureFuturePartitions() {
+        List<PartitionInfo> partitions = partitionRepository.findPartitions();
+        if (partitions.isEmpty()) {
+            log.debug("audit_logs is not partitioned, skipping partition maintenance");
+            return;
+        }
+        if (!AuditLogPartitionRepository.FUTURE_PARTITION.equals(partitions.get(partitions.size() - 1).name())) {
+            log.warn("audit_logs has no trailing {} partition, cannot add monthly partitions",
+                AuditLogPartitionRepository.FUTURE_PARTITION);
+            return;
+        }
+
+        try {
+            partitionRepository.addPartitions(planMissingPartitions(partitions, YearMonth.now(ZoneOffset.UTC)));
+        } catch (CannotAcquireLockException e) {
+            log.warn("Timed out waiting for open transactions on audit_logs, adding partitions on the next run: {}",
+                e.getMessage());
+        }
+    }
+
+    /**
+     * Drops partitions whose rows would all be deleted anyway and returns them. {@code cutoffs}
+     * maps each retention cell whose rows may be dropped to its cutoff; a partition goes only if
+     * every cell it holds is mapped to a cutoff at or after the partition's upper bound. Whatever
+     * is left is removed by the row-level delete. Callers leave out cells that are archived
+     * before delete, since their rows need copying first.
+     *
+     * {@code beforeDrop} is called with each partition about to be dropped, to remove whatever
+     * else refers to its rows; if it throws, the partition is kept for the row-level delete.
+     */
+    public List<DroppedPartition> dropExpiredPartitions(Map<RetentionCell, Instant> cutoffs,
+                                                        Consumer<DroppedPartition> beforeDrop) {
+        Instant latestCutoff = cutoffs.values().stream().max(Comparator.naturalOrder()).orElse(null);
+        if (latestCutoff == null) {
+            return List.of();
+        }
+
+        List<DroppedPartition> dropped = new ArrayList<>();
+        for (PartitionInfo partition : partitionRepository.findPartitions()) {
+            if (partition.upperBound() == null || partition.upperBound().isAfter(latestCutoff)) {
+                break;
+            }
+            List<RetentionCell> cells = partitionRepository.findCells(partition.name());
+            boolean expired = cells.stream().allMatch(cell -> {
+                Instant cutoff = cutoffs.get(cell);
+                return cutoff != null && !partition.upperBound().isAfter(cutoff);
+            });
+            if (!expired) {
+                continue;
+            }
+            DroppedPartition candidate = new DroppedPartition(partition, cells);
+            try {
+                beforeDrop.accept(candidate);
+            } catch (RuntimeException e) {
+                log.warn("Keeping expired partition {} for the row-level delete: {}", partition.name(), e.getMessage());
+                continue;
+            }
+            try {
+                partitionRepository.dropPartition(partition.name());
+            } catch (CannotAcquireLockException e) {
+                log.warn("Timed out waiting for open transactions on audit_logs, keeping partition {} until the next run",
+                    partition.name());
+                continue;
+            }
+            dropped.add(candidate);
+            log.info("Retention dropped partition {} (~{} rows in {} cells, before {})",
+                partition.name(), partition.estimatedRows(), cells.size(), partition.upperBound());
+        }
+        return dropped;
+    }
+
+    /**
+     * Monthly partitions needed after the highest existing bound, up to {@code monthsAhead}
+     * months past {@code currentMonth}.
+     */
+    List<PartitionInfo> planMissingPartitions(List<PartitionInfo> existing, YearMonth currentMonth) {
+        YearMonth month = existing.stream()
+            .map(PartitionInfo::upperBound)
+            .filter(Objects::nonNull)
+            .max(Comparator.naturalOrder())
+            .map(bound -> YearMonth.from(bound.atOffset(ZoneOffset.UTC)))
+            .orElse(currentMonth);
+
+        List<PartitionInfo> missing = new ArrayList<>();
+        for (YearMonth target = currentMonth.plusMonths(monthsAhead); !month.isAfter(target); month = month.plusMonths(1)) {
+            Instant upperBound = month.plusMonths(1).atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+            missing.add(new PartitionInfo(month.format(PARTITION_NAME), upperBound, 0));
+        }
+        return missing;
+    }
+
+    /**
+     * @param cells the retention cells whose rows the partition held
+     */
+    public record DroppedPartition(PartitionInfo partition, List<RetentionCell> cells) {}
+}
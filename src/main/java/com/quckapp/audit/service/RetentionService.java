@@ -1,20 +1,20 @@
 package com.quckapp.audit.service;
 
-import com.quckapp.audit.domain.entity.AuditLog;
 import com.quckapp.audit.domain.entity.RetentionPolicy;
-import com.quckapp.audit.domain.repository.AuditLogRepository;
 import com.quckapp.audit.domain.repository.RetentionPolicyRepository;
 import com.quckapp.audit.dto.AuditDtos.*;
 import com.quckapp.audit.exception.DuplicateResourceException;
 import com.quckapp.audit.exception.ResourceNotFoundException;
+import com.quckapp.audit.service.retention.RetentionExecutor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -25,7 +25,7 @@ import java.util.UUID;
 public class RetentionService {
 
     private final RetentionPolicyRepository retentionPolicyRepository;
-    private final AuditLogRepository auditLogRepository;
+    private final RetentionExecutor retentionExecutor;
 
     public RetentionPolicyResponse createPolicy(CreateRetentionPolicyRequest request) {
         if (retentionPolicyRepository.existsByWorkspaceIdAndName(request.getWorkspaceId(), request.getName())) {
@@ -84,34 +84,67 @@ public class RetentionService {
         retentionPolicyRepository.deleteById(id);
     }
 
+    /**
+     * Executions run outside any surrounding transaction: the executor commits each delete
+     * chunk on its own so the nightly run never holds long-lived locks.
+     */
     @Scheduled(cron = "0 0 2 * * ?") // Run daily at 2 AM
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void applyRetentionPolicies() {
         log.info("Starting retention policy execution");
-        List<RetentionPolicy> policies = retentionPolicyRepository.findByEnabledTrue();
+        RetentionExecutionResult result = executeAllPolicies();
+        log.info("Completed retention policy execution: {} succeeded, {} failed",
+            result.getSuccessfulPolicies(), result.getFailedPolicies());
+    }
 
-        for (RetentionPolicy policy : policies) {
-            try {
-                applyPolicy(policy);
-            } catch (Exception e) {
-                log.error("Failed to apply retention policy: {}", policy.getId(), e);
-            }
-        }
-        log.info("Completed retention policy execution");
+    /**
+     * Executes every enabled policy in a single merged scan, so rows covered by overlapping
+     * policies are visited once.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public RetentionExecutionResult executeAllPolicies() {
+        List<RetentionPolicy> policies = retentionPolicyRepository.findByEnabledTrue();
+        List<PolicyExecutionDetail> details = execute(policies, policies);
+
+        int successful = (int) details.stream().filter(PolicyExecutionDetail::isSuccess).count();
+        return RetentionExecutionResult.builder()
+            .totalPoliciesExecuted(details.size())
+            .successfulPolicies(successful)
+            .failedPolicies(details.size() - successful)
+            .details(details)
+            .executedAt(Instant.now())
+            .build();
     }
 
-    private void applyPolicy(RetentionPolicy policy) {
-        Instant cutoffDate = Instant.now().minus(policy.getRetentionDays(), ChronoUnit.DAYS);
-        int deleted;
+    /**
+     * Executes one policy over the cells it governs. The plan still includes every enabled
+     * policy, so the policy only deletes what the nightly run would delete on its behalf.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public PolicyExecutionDetail executePolicyById(UUID id) {
+        RetentionPolicy policy = retentionPolicyRepository.findById(id)
+            .orElseThrow(() -> new ResourceNotFoundException("Retention policy not found"));
 
-        if (policy.getCategory() != null) {
-            deleted = auditLogRepository.deleteByCreatedAtBeforeAndCategory(cutoffDate, policy.getCategory());
-        } else {
-            deleted = auditLogRepository.deleteByCreatedAtBefore(cutoffDate);
-        }
+        List<RetentionPolicy> planned = new ArrayList<>(retentionPolicyRepository.findByEnabledTrue());
+        planned.removeIf(p -> p.getId().equals(id));
+        planned.add(policy);
+        return execute(planned, List.of(policy)).get(0);
+    }
 
-        if (deleted > 0) {
-            log.info("Retention policy {} deleted {} audit logs older than {} days",
-                policy.getName(), deleted, policy.getRetentionDays());
+    private List<PolicyExecutionDetail> execute(List<RetentionPolicy> planned, List<RetentionPolicy> policies) {
+        try {
+            return retentionExecutor.execute(policies, retentionExecutor.plan(planned));
+        } catch (Exception e) {
+            log.error("Failed to plan retention for {} policies", policies.size(), e);
+            return policies.stream()
+                .map(policy -> PolicyExecutionDetail.builder()
+                    .policyId(policy.getId())
+                    .policyName(policy.getName())
+                    .success(false)
+                    .errorMessage(e.getMessage())
+                    .executedAt(Instant.now())
+                    .build())
+                .toList();
         }
     }
 
@@ -0,0 +1,317 @@
+package com.quckapp.audit.service.archive;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quckapp.audit.domain.entity.ArchivedAuditLog;
+import com.quckapp.audit.domain.repository.ArchivedAuditLogRepository;
+import com.quckapp.audit.domain.repository.AuditLogSpecifications;
+import com.quckapp.audit.domain.repository.ColdArchiveSegmentRepository;
+import com.quckapp.audit.domain.repository.ColdArchiveSegmentRepository.ColdSegment;
+import com.quckapp.audit.domain.repository.ColdArchiveSegmentRepository.Status;
+import com.quckapp.audit.domain.repository.UuidBinary;
+import com.quckapp.audit.dto.AuditDtos.AuditLogResponse;
+import com.quckapp.audit.dto.AuditDtos.AuditLogSearchRequest;
+import com.quckapp.audit.dto.AuditDtos.PagedResponse;
+import com.quckapp.audit.exception.BadRequestException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.criteria.Predicate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Searches archived audit logs across both archive tiers: rows still in
+ * {@code archived_audit_logs} and the sealed cold-archive segments of the workspace. A segment
+ * is read as soon as it is sealed; until its purge completes, its rows are skipped in MySQL.
+ *
+ * Segments are pruned by the manifest (workspace and time range) and then by their footers
+ * (dictionaries and the actor/resource bloom filters). The remaining segments are scanned in
+ * parallel on a fixed pool of {@code query-threads} threads in two passes: the first decodes only
+ * the id, created_at and filter columns to count matches and keep the newest {@code (page + 1) * size}
+ * of each segment; the second materializes the columns of a response for the rows on the
+ * requested page alone. Results are ordered newest first, like the live audit log search.
+ *
+ * Free-text {@code query} is not supported on archived data and is ignored.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ColdArchiveQueryService {
+
+    private static final Comparator<Hit> NEWEST_FIRST = Comparator.comparing(Hit::createdAt)
+        .thenComparing(Hit::id, UuidBinary::compare)
+        .reversed();
+
+    private static final Set<SegmentColumn> KEY_COLUMNS = EnumSet.of(SegmentColumn.ID, SegmentColumn.CREATED_AT);
+
+    private static final Set<SegmentColumn> RESPONSE_COLUMNS = EnumSet.complementOf(EnumSet.of(
+        SegmentColumn.SESSION_ID, SegmentColumn.ARCHIVED_AT, SegmentColumn.ARCHIVED_BY_POLICY_ID));
+
+    private final ColdArchiveSegmentRepository segmentRepository;
+    private final ArchivedAuditLogRepository archivedAuditLogRepository;
+    private final ColdArchiveStore coldArchiveStore;
+    private final ObjectMapper objectMapper;
+
+    @Value("${audit.archive.cold.query-threads:0}")
+    private int queryThreads;
+
+    @Value("${audit.archive.cold.max-result-window:10000}")
+    private int maxResultWindow;
+
+    private ExecutorService scanExecutor;
+
+    @PostConstruct
+    public void start() {
+        int threads = queryThreads > 0 ? queryThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        scanExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "audit-archive-scan-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("Started cold-archive query engine with {} scan threads", threads);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        scanExecutor.shutdownNow();
+        scanExecutor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    public PagedResponse<AuditLogResponse> search(AuditLogSearchRequest request) {
+        if (request.getWorkspaceId() == null) {
+            throw new BadRequestException("workspaceId is required to search archived audit logs");
+        }
+        int page = request.getPage();
+        int size = request.getSize();
+        // Every scan keeps its newest (page + 1) * size matches in memory, so deep pages are refused
+        long window = (page + 1L) * size;
+        if (window > maxResultWindow) {
+            throw new BadRequestException("Archive searches cannot page past the first " + maxResultWindow
+                + " results; narrow the date range instead");
+        }
+        int limit = (int) window;
+        Instant from = request.getStartDate();
+        Instant to = request.getEndDate() != null ? request.getEndDate().plusNanos(1) : null;
+
+        List<ColdSegment> segments = segmentRepository.findReadable(request.getWorkspaceId(), from, to);
+        Specification<ArchivedAuditLog> hotSpec = AuditLogSpecifications.<ArchivedAuditLog>matching(request)
+            .and(notInSegments(segments.stream().filter(segment -> segment.status() == Status.SEALED).toList()));
+        Page<ArchivedAuditLog> hot = archivedAuditLogRepository.findAll(hotSpec,
+            PageRequest.of(0, limit, AuditLogSpecifications.NEWEST_FIRST));
+        long total = hot.getTotalElements();
+        List<Hit> hits = new ArrayList<>();
+        hot.getContent().forEach(row -> hits.add(new Hit(row.getCreatedAt(), row.getId(), null, row)));
+
+        SegmentScan keyScan = new SegmentScan(from, to, filters(request), KEY_COLUMNS);
+        List<Callable<SegmentHits>> scans = segments.stream()
+            .<Callable<SegmentHits>>map(segment -> () -> findHits(segment, keyScan, limit))
+            .toList();
+        for (SegmentHits segmentHits : runAll(scans)) {
+            total += segmentHits.matches();
+            hits.addAll(segmentHits.newest());
+        }
+
+        hits.sort(NEWEST_FIRST);
+        List<Hit> pageHits = hits.subList(Math.min(hits.size(), page * size), Math.min(hits.size(), limit));
+        Map<UUID, ArchivedAuditLog> rows = materialize(pageHits);
+        List<AuditLogResponse> content = pageHits.stream()
+            .map(hit -> hit.row() != null ? hit.row() : rows.get(hit.id()))
+            .map(this::mapToResponse)
+            .toList();
+
+        log.debug("Archive search for workspace {} matched {} rows ({} in MySQL, {} candidate segments)",
+            request.getWorkspaceId(), total, hot.getTotalElements(), segments.size());
+        int totalPages = (int) ((total + size - 1) / size);
+        return PagedResponse.<AuditLogResponse>builder()
+            .content(content)
+            .page(page)
+            .size(size)
+            .totalElements(total)
+            .totalPages(totalPages)
+            .first(page == 0)
+            .last(page >= totalPages - 1)
+            .build();
+    }
+
+    /**
+     * Skips the rows of sealed segments that their purge has not yet deleted from MySQL, so they
+     * are read from the segment alone: the rows of the segment's month archived before it was cut.
+     */
+    private static Specification<ArchivedAuditLog> notInSegments(List<ColdSegment> sealed) {
+        if (sealed.isEmpty()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.and(sealed.stream()
+            .map(segment -> cb.not(cb.and(
+                cb.greaterThanOrEqualTo(root.<Instant>get("createdAt"), monthStart(segment.month())),
+                cb.lessThan(root.<Instant>get("createdAt"), monthStart(segment.month().plusMonths(1))),
+                cb.lessThan(root.<Instant>get("archivedAt"), segment.archivedBefore()))))
+            .toArray(Predicate[]::new));
+    }
+
+    private static Instant monthStart(YearMonth month) {
+        return month.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    /**
+     * Counts the segment's matches and keeps the newest {@code limit} of them.
+     */
+    private SegmentHits findHits(ColdSegment segment, SegmentScan scan, int limit) throws IOException {
+        PriorityQueue<Hit> newest = new PriorityQueue<>(NEWEST_FIRST.reversed());
+        long[] matches = {0};
+        try (SegmentReader reader = coldArchiveStore.openReader(Path.of(segment.path()))) {
+            reader.scan(scan, row -> {
+                matches[0]++;
+                newest.add(new Hit(row.getCreatedAt(), row.getId(), segment, null));
+                if (newest.size() > limit) {
+                    newest.poll();
+                }
+            });
+        }
+        return new SegmentHits(matches[0], List.copyOf(newest));
+    }
+
+    /**
+     * Reads the full rows of the cold hits, one id-filtered scan per segment.
+     */
+    private Map<UUID, ArchivedAuditLog> materialize(List<Hit> hits) {
+        Map<ColdSegment, List<Hit>> bySegment = hits.stream()
+            .filter(hit -> hit.segment() != null)
+            .collect(Collectors.groupingBy(Hit::segment, LinkedHashMap::new, Collectors.toList()));
+        List<Callable<List<ArchivedAuditLog>>> reads = new ArrayList<>();
+        bySegment.forEach((segment, segmentHits) -> {
+            Instant from = segmentHits.stream().map(Hit::createdAt).min(Comparator.naturalOrder()).orElseThrow();
+            Instant to = segmentHits.stream().map(Hit::createdAt).max(Comparator.naturalOrder()).orElseThrow().plusNanos(1);
+            Set<UUID> ids = segmentHits.stream().map(Hit::id).collect(Collectors.toSet());
+            SegmentScan scan = new SegmentScan(from, to, Map.of(SegmentColumn.ID, ids), RESPONSE_COLUMNS);
+            reads.add(() -> {
+                List<ArchivedAuditLog> rows = new ArrayList<>();
+                try (SegmentReader reader = coldArchiveStore.openReader(Path.of(segment.path()))) {
+                    reader.scan(scan, rows::add);
+                }
+                return rows;
+            });
+        });
+
+        Map<UUID, ArchivedAuditLog> rows = new HashMap<>();
+        runAll(reads).forEach(segmentRows -> segmentRows.forEach(row -> rows.put(row.getId(), row)));
+        return rows;
+    }
+
+    private <T> List<T> runAll(List<Callable<T>> tasks) {
+        List<Future<T>> futures = tasks.stream().map(scanExecutor::submit).toList();
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while scanning cold-archive segments", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw new UncheckedIOException("Failed to read cold-archive segment", io);
+            }
+            throw new IllegalStateException("Failed to scan cold-archive segments", e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+        return results;
+    }
+
+    private static Map<SegmentColumn, Set<?>> filters(AuditLogSearchRequest request) {
+        Map<SegmentColumn, Set<?>> filters = new EnumMap<>(SegmentColumn.class);
+        if (request.getActorId() != null) {
+            filters.put(SegmentColumn.ACTOR_ID, Set.of(request.getActorId()));
+        }
+        if (request.getResourceId() != null) {
+            filters.put(SegmentColumn.RESOURCE_ID, Set.of(request.getResourceId()));
+        }
+        if (request.getAction() != null) {
+            filters.put(SegmentColumn.ACTION, Set.of(request.getAction()));
+        }
+        if (request.getResourceType() != null) {
+            filters.put(SegmentColumn.RESOURCE_TYPE, Set.of(request.getResourceType()));
+        }
+        if (request.getCategory() != null) {
+            filters.put(SegmentColumn.CATEGORY, Set.of(request.getCategory().name()));
+        }
+        if (request.getSeverities() != null && !request.getSeverities().isEmpty()) {
+            filters.put(SegmentColumn.SEVERITY,
+                request.getSeverities().stream().map(Enum::name).collect(Collectors.toUnmodifiableSet()));
+        }
+        return filters;
+    }
+
+    private AuditLogResponse mapToResponse(ArchivedAuditLog row) {
+        return AuditLogResponse.builder()
+            .id(row.getId())
+            .workspaceId(row.getWorkspaceId())
+            .actorId(row.getActorId())
+            .actorEmail(row.getActorEmail())
+            .actorName(row.getActorName())
+            .action(row.getAction())
+            .resourceType(row.getResourceType())
+            .resourceId(row.getResourceId())
+            .resourceName(row.getResourceName())
+            .metadata(fromJson(row.getMetadata()))
+            .previousState(row.getPreviousState())
+            .newState(row.getNewState())
+            .ipAddress(row.getIpAddress())
+            .userAgent(row.getUserAgent())
+            .severity(row.getSeverity())
+            .category(row.getCategory())
+            .createdAt(row.getCreatedAt())
+            .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> fromJson(String json) {
+        if (json == null) return null;
+        try {
+            return objectMapper.readValue(json, Map.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to deserialize from JSON", e);
+            return null;
+        }
+    }
+
+    /**
+     * A matching row: hot rows carry the row itself, cold rows the segment to read it from.
+     */
+    private record Hit(Instant createdAt, UUID id, ColdSegment segment, ArchivedAuditLog row) {}
+
+    private record SegmentHits(long matches, List<Hit> newest) {}
+}
@@ -0,0 +1,69 @@
+package com.quckapp.audit.service.archive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.YearMonth;
+import java.util.UUID;
+
+/**
+ * Filesystem layout of the cold-archive tier: {@code <path>/<workspaceId>/<yyyy-MM>/<segmentId>.seg}.
+ */
+@Component
+@Slf4j
+public class ColdArchiveStore {
+
+    private final Path root;
+    private final int rowGroupSize;
+
+    public ColdArchiveStore(@Value("${audit.archive.cold.path:./cold-archive}") String path,
+                            @Value("${audit.archive.cold.row-group-size:8192}") int rowGroupSize) {
+        this.root = Paths.get(path).toAbsolutePath().normalize();
+        this.rowGroupSize = rowGroupSize;
+    }
+
+    public Path segmentPath(UUID workspaceId, YearMonth month, UUID segmentId) {
+        return root.resolve(workspaceId.toString()).resolve(month.toString()).resolve(segmentId + ".seg");
+    }
+
+    public SegmentWriter openWriter(Path path, UUID workspaceId, YearMonth month) throws IOException {
+        return new SegmentWriter(checkInside(path), workspaceId, month, rowGroupSize);
+    }
+
+    public SegmentReader openReader(Path path) throws IOException {
+        return SegmentReader.open(checkInside(path));
+    }
+
+    public long size(Path path) throws IOException {
+        return Files.size(checkInside(path));
+    }
+
+    /**
+     * Removes a segment and any temporary file an interrupted write left behind.
+     */
+    public void delete(Path path) throws IOException {
+        Path segment = checkInside(path);
+        Files.deleteIfExists(segment.resolveSibling(segment.getFileName() + ".tmp"));
+        if (Files.exists(segment)) {
+            segment.toFile().setWritable(true);
+            Files.delete(segment);
+            log.info("Deleted cold-archive segment {}", segment);
+        }
+    }
+
+    /**
+     * Segment paths come from the manifest table, so never touch anything outside the root.
+     */
+    private Path checkInside(Path path) {
+        Path normalized = path.toAbsolutePath().normalize();
+        if (!normalized.startsWith(root)) {
+            throw new IllegalArgumentException("Segment path outside the cold archive: " + path);
+        }
+        return normalized;
+    }
+}
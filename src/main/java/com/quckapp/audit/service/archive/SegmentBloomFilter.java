@@ -0,0 +1,125 @@
+package com.quckapp.audit.service.archive;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Bloom filter over the UUIDs of one segment column, stored in the segment footer so a query
+ * for a single actor or resource can skip segments that cannot contain it without reading any
+ * row group. Uses double hashing over a 64-bit mix of the UUID.
+ */
+public final class SegmentBloomFilter {
+
+    static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final int MAX_HASHES = 16;
+
+    private final long[] bits;
+    private final int hashCount;
+
+    SegmentBloomFilter(long[] bits, int hashCount) {
+        if (bits.length == 0 || hashCount <= 0) {
+            throw new IllegalArgumentException("Bloom filter needs at least one word and one hash");
+        }
+        this.bits = bits;
+        this.hashCount = hashCount;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * False means the UUID was never added; true means it probably was.
+     */
+    public boolean mightContain(UUID value) {
+        long hash = hash(value);
+        long bitCount = (long) bits.length * Long.SIZE;
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            int combined = h1 + i * h2;
+            long bit = (combined & Integer.MAX_VALUE) % bitCount;
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long[] bits() {
+        return bits;
+    }
+
+    int hashCount() {
+        return hashCount;
+    }
+
+    private void put(long hash) {
+        long bitCount = (long) bits.length * Long.SIZE;
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            int combined = h1 + i * h2;
+            long bit = (combined & Integer.MAX_VALUE) % bitCount;
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    private static long hash(UUID value) {
+        return mix(value.getMostSignificantBits() ^ mix(value.getLeastSignificantBits()));
+    }
+
+    /**
+     * The splitmix64 finalizer.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Collects hashes while a segment is written and sizes the filter for the number of distinct
+     * values once the segment is sealed.
+     */
+    public static final class Builder {
+
+        private long[] hashes = new long[1024];
+        private int size;
+
+        private Builder() {
+        }
+
+        public void add(UUID value) {
+            if (value == null) {
+                return;
+            }
+            if (size == hashes.length) {
+                hashes = Arrays.copyOf(hashes, size * 2);
+            }
+            hashes[size++] = hash(value);
+        }
+
+        public SegmentBloomFilter build() {
+            long[] sorted = Arrays.copyOf(hashes, size);
+            Arrays.sort(sorted);
+            int distinct = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) {
+                    sorted[distinct++] = sorted[i];
+                }
+            }
+
+            int n = Math.max(1, distinct);
+            long bitCount = (long) Math.ceil(-n * Math.log(FALSE_POSITIVE_RATE) / (Math.log(2) * Math.log(2)));
+            int words = (int) Math.min(Integer.MAX_VALUE / Long.SIZE, Math.max(1, (bitCount + 63) / 64));
+            int hashCount = (int) Math.max(1, Math.min(MAX_HASHES, Math.round((double) words * Long.SIZE / n * Math.log(2))));
+
+            SegmentBloomFilter filter = new SegmentBloomFilter(new long[words], hashCount);
+            for (int i = 0; i < distinct; i++) {
+                filter.put(sorted[i]);
+            }
+            return filter;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.quckapp.audit.service.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Low-level encoding shared by {@link SegmentWriter} and {@link SegmentReader}: varints,
+ * nullable strings, UUIDs and per-block deflate compression.
+ */
+final class SegmentCodec {
+
+    static final int MAGIC = 0x51415347; // "QASG"
+    static final int VERSION = 1;
+    static final int TRAILER_LENGTH = Long.BYTES + Integer.BYTES + Integer.BYTES;
+
+    private SegmentCodec() {
+    }
+
+    static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint in segment");
+    }
+
+    static void writeZigZag(ByteArrayOutputStream out, long value) {
+        writeVarLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    static long readZigZag(ByteBuffer in) {
+        long raw = readVarLong(in);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    static void writeString(ByteArrayOutputStream out, String value) {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1L);
+        out.writeBytes(bytes);
+    }
+
+    static String readString(ByteBuffer in) {
+        int length = (int) readVarLong(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeUuid(ByteArrayOutputStream out, UUID value) {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.putLong(value.getMostSignificantBits()).putLong(value.getLeastSignificantBits());
+        out.writeBytes(buffer.array());
+    }
+
+    static UUID readUuid(ByteBuffer in) {
+        return new UUID(in.getLong(), in.getLong());
+    }
+
+    static void writeLong(ByteArrayOutputStream out, long value) {
+        out.writeBytes(ByteBuffer.allocate(Long.BYTES).putLong(value).array());
+    }
+
+    static byte[] compress(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    static ByteBuffer decompress(byte[] compressed, int rawLength) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] raw = new byte[rawLength];
+            int read = 0;
+            while (read < rawLength && !inflater.finished()) {
+                int n = inflater.inflate(raw, read, rawLength - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != rawLength) {
+                throw new IllegalStateException("Truncated segment block: expected " + rawLength + " bytes, got " + read);
+            }
+            return ByteBuffer.wrap(raw);
+        } catch (DataFormatException e) {
+            throw new UncheckedIOException(new IOException("Corrupt segment block", e));
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Writes {@code varint(rawLength) varint(compressedLength) compressed} and returns the bytes.
+     */
+    static byte[] block(byte[] raw) {
+        byte[] compressed = compress(raw);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(compressed.length + 10);
+        writeVarLong(out, raw.length);
+        writeVarLong(out, compressed.length);
+        out.writeBytes(compressed);
+        return out.toByteArray();
+    }
+
+    /**
+     * Reads one block written by {@link #block(byte[])} and returns its decompressed content.
+     */
+    static ByteBuffer readBlock(ByteBuffer in) {
+        try {
+            int rawLength = (int) readVarLong(in);
+            byte[] compressed = new byte[(int) readVarLong(in)];
+            in.get(compressed);
+            return decompress(compressed, rawLength);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalStateException("Truncated segment block", e);
+        }
+    }
+
+    /**
+     * Skips one block without decompressing it.
+     */
+    static void skipBlock(ByteBuffer in) {
+        readVarLong(in);
+        int compressedLength = (int) readVarLong(in);
+        in.position(in.position() + compressedLength);
+    }
+}
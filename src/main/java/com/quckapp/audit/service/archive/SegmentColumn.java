@@ -0,0 +1,47 @@
+package com.quckapp.audit.service.archive;
+
+/**
+ * Columns of a segment row group, in the order their blocks are written.
+ */
+public enum SegmentColumn {
+    ID(Encoding.UUID),
+    CREATED_AT(Encoding.TIMESTAMP_DELTA),
+    ACTOR_ID(Encoding.UUID),
+    ACTOR_EMAIL(Encoding.STRING),
+    ACTOR_NAME(Encoding.STRING),
+    ACTION(Encoding.DICTIONARY),
+    RESOURCE_TYPE(Encoding.DICTIONARY),
+    RESOURCE_ID(Encoding.UUID),
+    RESOURCE_NAME(Encoding.STRING),
+    METADATA(Encoding.STRING),
+    PREVIOUS_STATE(Encoding.STRING),
+    NEW_STATE(Encoding.STRING),
+    IP_ADDRESS(Encoding.STRING),
+    USER_AGENT(Encoding.STRING),
+    SESSION_ID(Encoding.STRING),
+    SEVERITY(Encoding.DICTIONARY),
+    CATEGORY(Encoding.DICTIONARY),
+    ARCHIVED_AT(Encoding.TIMESTAMP_DELTA),
+    ARCHIVED_BY_POLICY_ID(Encoding.DICTIONARY);
+
+    private final Encoding encoding;
+
+    SegmentColumn(Encoding encoding) {
+        this.encoding = encoding;
+    }
+
+    public Encoding encoding() {
+        return encoding;
+    }
+
+    public enum Encoding {
+        /** 16 raw bytes, most significant first. */
+        UUID,
+        /** Zigzag varint of the epoch-millisecond difference to the previous row. */
+        TIMESTAMP_DELTA,
+        /** Varint of the length plus one (0 is null), then UTF-8 bytes. */
+        STRING,
+        /** Varint code into the segment's dictionary for the column (0 is null). */
+        DICTIONARY
+    }
+}
@@ -0,0 +1,51 @@
+package com.quckapp.audit.service.archive;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Metadata written at the end of a sealed segment: what it holds, the per-column dictionaries,
+ * bloom filters and where each row group starts, so readers can prune by time and value without
+ * decompressing rows.
+ *
+ * @param dictionaries values of the dictionary-encoded columns, indexed by {@link SegmentColumn#ordinal()}
+ *                     of the column, in code order (code 0 is null, code n is element n - 1)
+ * @param bloomFilters filters over the values of some UUID columns
+ */
+public record SegmentFooter(
+    UUID workspaceId,
+    YearMonth month,
+    long rowCount,
+    Instant minCreatedAt,
+    Instant maxCreatedAt,
+    List<List<String>> dictionaries,
+    List<RowGroup> rowGroups,
+    Map<SegmentColumn, SegmentBloomFilter> bloomFilters
+) {
+
+    public List<String> dictionary(SegmentColumn column) {
+        return dictionaries.get(column.ordinal());
+    }
+
+    /**
+     * False if the segment certainly has no row with {@code value} in {@code column}.
+     */
+    public boolean mightContain(SegmentColumn column, UUID value) {
+        SegmentBloomFilter filter = bloomFilters.get(column);
+        return filter == null || filter.mightContain(value);
+    }
+
+    /**
+     * @param offset file offset of the row group's first column block
+     * @param length total bytes of the row group's column blocks
+     */
+    public record RowGroup(long offset, int length, int rowCount, Instant minCreatedAt, Instant maxCreatedAt) {
+
+        public boolean overlaps(Instant from, Instant to) {
+            return (from == null || !maxCreatedAt.isBefore(from)) && (to == null || minCreatedAt.isBefore(to));
+        }
+    }
+}
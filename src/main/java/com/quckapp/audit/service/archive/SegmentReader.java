@@ -0,0 +1,309 @@
+package com.quckapp.audit.service.archive;
+
+import com.quckapp.audit.domain.entity.ArchivedAuditLog;
+import com.quckapp.audit.domain.entity.AuditLog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Reads a sealed segment written by {@link SegmentWriter}. The footer is read on open; row
+ * groups are read only when a scan's time range overlaps them, and only the column blocks the
+ * scan needs are decompressed.
+ */
+public final class SegmentReader implements Closeable {
+
+    private final FileChannel channel;
+    private final SegmentFooter footer;
+
+    private SegmentReader(FileChannel channel, SegmentFooter footer) {
+        this.channel = channel;
+        this.footer = footer;
+    }
+
+    public static SegmentReader open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < 2 * Integer.BYTES + SegmentCodec.TRAILER_LENGTH) {
+                throw new IOException("Not a sealed segment: " + path);
+            }
+            ByteBuffer header = read(channel, 0, 2 * Integer.BYTES);
+            ByteBuffer trailer = read(channel, size - SegmentCodec.TRAILER_LENGTH, SegmentCodec.TRAILER_LENGTH);
+            long footerOffset = trailer.getLong();
+            int footerLength = trailer.getInt();
+            if (header.getInt() != SegmentCodec.MAGIC || trailer.getInt() != SegmentCodec.MAGIC) {
+                throw new IOException("Not a sealed segment: " + path);
+            }
+            int version = header.getInt();
+            if (version != SegmentCodec.VERSION) {
+                throw new IOException("Unsupported segment version " + version + ": " + path);
+            }
+            SegmentFooter footer = decodeFooter(SegmentCodec.readBlock(read(channel, footerOffset, footerLength)));
+            return new SegmentReader(channel, footer);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public SegmentFooter footer() {
+        return footer;
+    }
+
+    /**
+     * Passes every row with {@code from <= created_at < to} to {@code consumer}, in (created_at, id)
+     * order. Either bound may be null. Row groups outside the range are not read.
+     */
+    public void scan(Instant from, Instant to, Consumer<ArchivedAuditLog> consumer) throws IOException {
+        scan(SegmentScan.range(from, to), consumer);
+    }
+
+    /**
+     * Passes every row matching {@code scan} to {@code consumer}, in (created_at, id) order, with
+     * only the scan's columns set. Nothing is read when the footer rules the segment out. Within
+     * a row group, the created_at and filter column blocks are decompressed first and the
+     * remaining projected blocks only if some row matched; other blocks are skipped unread.
+     */
+    public void scan(SegmentScan scan, Consumer<ArchivedAuditLog> consumer) throws IOException {
+        if (!scan.mightMatch(footer)) {
+            return;
+        }
+        for (SegmentFooter.RowGroup rowGroup : footer.rowGroups()) {
+            if (rowGroup.overlaps(scan.from(), scan.to())) {
+                scanRowGroup(rowGroup, scan, consumer);
+            }
+        }
+    }
+
+    /**
+     * Iterates over every row with all columns set, in (created_at, id) order, decoding one row
+     * group at a time. Read failures surface as {@link UncheckedIOException}.
+     */
+    public Iterator<ArchivedAuditLog> rows() {
+        SegmentScan all = SegmentScan.range(null, null);
+        return new Iterator<>() {
+            private int nextRowGroup;
+            private Iterator<ArchivedAuditLog> current = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && nextRowGroup < footer.rowGroups().size()) {
+                    List<ArchivedAuditLog> rows = new ArrayList<>();
+                    try {
+                        scanRowGroup(footer.rowGroups().get(nextRowGroup++), all, rows::add);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    current = rows.iterator();
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public ArchivedAuditLog next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void scanRowGroup(SegmentFooter.RowGroup rowGroup, SegmentScan scan, Consumer<ArchivedAuditLog> consumer)
+            throws IOException {
+        ByteBuffer data = read(channel, rowGroup.offset(), rowGroup.length());
+        SegmentColumn[] columns = SegmentColumn.values();
+        int[] blockOffsets = new int[columns.length];
+        for (SegmentColumn column : columns) {
+            blockOffsets[column.ordinal()] = data.position();
+            SegmentCodec.skipBlock(data);
+        }
+
+        int rows = rowGroup.rowCount();
+        Object[][] decoded = new Object[columns.length][];
+        Object[] createdAt = decoded[SegmentColumn.CREATED_AT.ordinal()] =
+            decodeColumn(SegmentColumn.CREATED_AT, data, blockOffsets, rows);
+        BitSet selected = new BitSet(rows);
+        for (int i = 0; i < rows; i++) {
+            if (scan.inRange((Instant) createdAt[i])) {
+                selected.set(i);
+            }
+        }
+        for (Map.Entry<SegmentColumn, Set<?>> filter : scan.filters().entrySet()) {
+            if (selected.isEmpty()) {
+                return;
+            }
+            SegmentColumn column = filter.getKey();
+            Object[] values = decoded[column.ordinal()] = decodeColumn(column, data, blockOffsets, rows);
+            for (int i = selected.nextSetBit(0); i >= 0; i = selected.nextSetBit(i + 1)) {
+                if (values[i] == null || !filter.getValue().contains(values[i])) {
+                    selected.clear(i);
+                }
+            }
+        }
+        if (selected.isEmpty()) {
+            return;
+        }
+
+        List<ArchivedAuditLog> matches = new ArrayList<>(selected.cardinality());
+        for (int i = selected.nextSetBit(0); i >= 0; i = selected.nextSetBit(i + 1)) {
+            matches.add(ArchivedAuditLog.builder().workspaceId(footer.workspaceId()).build());
+        }
+        for (SegmentColumn column : scan.columns()) {
+            Object[] values = decoded[column.ordinal()];
+            if (values == null) {
+                values = decodeColumn(column, data, blockOffsets, rows);
+            }
+            int match = 0;
+            for (int i = selected.nextSetBit(0); i >= 0; i = selected.nextSetBit(i + 1)) {
+                set(column, matches.get(match++), values[i]);
+            }
+        }
+        matches.forEach(consumer);
+    }
+
+    /**
+     * Decompresses one column block into per-row values: UUIDs, instants or strings.
+     */
+    private Object[] decodeColumn(SegmentColumn column, ByteBuffer data, int[] blockOffsets, int rows) {
+        ByteBuffer block = SegmentCodec.readBlock(data.duplicate().position(blockOffsets[column.ordinal()]));
+        Object[] values = new Object[rows];
+        long previous = 0;
+        for (int i = 0; i < rows; i++) {
+            values[i] = switch (column.encoding()) {
+                case UUID -> SegmentCodec.readUuid(block);
+                case STRING -> SegmentCodec.readString(block);
+                case DICTIONARY -> {
+                    int code = (int) SegmentCodec.readVarLong(block);
+                    yield code == 0 ? null : footer.dictionary(column).get(code - 1);
+                }
+                case TIMESTAMP_DELTA -> {
+                    previous += SegmentCodec.readZigZag(block);
+                    yield Instant.ofEpochMilli(previous);
+                }
+            };
+        }
+        return values;
+    }
+
+    private static void set(SegmentColumn column, ArchivedAuditLog row, Object value) {
+        switch (column.encoding()) {
+            case UUID -> setUuid(column, row, (UUID) value);
+            case STRING, DICTIONARY -> setString(column, row, (String) value);
+            case TIMESTAMP_DELTA -> {
+                if (column == SegmentColumn.CREATED_AT) {
+                    row.setCreatedAt((Instant) value);
+                } else {
+                    row.setArchivedAt((Instant) value);
+                }
+            }
+        }
+    }
+
+    private static void setUuid(SegmentColumn column, ArchivedAuditLog row, UUID value) {
+        switch (column) {
+            case ID -> row.setId(value);
+            case ACTOR_ID -> row.setActorId(value);
+            case RESOURCE_ID -> row.setResourceId(value);
+            default -> throw new IllegalArgumentException(column + " is not a UUID column");
+        }
+    }
+
+    private static void setString(SegmentColumn column, ArchivedAuditLog row, String value) {
+        switch (column) {
+            case ACTOR_EMAIL -> row.setActorEmail(value);
+            case ACTOR_NAME -> row.setActorName(value);
+            case ACTION -> row.setAction(value);
+            case RESOURCE_TYPE -> row.setResourceType(value);
+            case RESOURCE_NAME -> row.setResourceName(value);
+            case METADATA -> row.setMetadata(value);
+            case PREVIOUS_STATE -> row.setPreviousState(value);
+            case NEW_STATE -> row.setNewState(value);
+            case IP_ADDRESS -> row.setIpAddress(value);
+            case USER_AGENT -> row.setUserAgent(value);
+            case SESSION_ID -> row.setSessionId(value);
+            case SEVERITY -> row.setSeverity(value != null ? AuditLog.AuditSeverity.valueOf(value) : null);
+            case CATEGORY -> row.setCategory(value != null ? AuditLog.AuditCategory.valueOf(value) : null);
+            case ARCHIVED_BY_POLICY_ID -> row.setArchivedByPolicyId(value != null ? UUID.fromString(value) : null);
+            default -> throw new IllegalArgumentException(column + " is not a string column");
+        }
+    }
+
+    private static SegmentFooter decodeFooter(ByteBuffer in) {
+        UUID workspaceId = SegmentCodec.readUuid(in);
+        YearMonth month = YearMonth.parse(SegmentCodec.readString(in));
+        long rowCount = SegmentCodec.readVarLong(in);
+        Instant minCreatedAt = Instant.ofEpochMilli(SegmentCodec.readZigZag(in));
+        Instant maxCreatedAt = Instant.ofEpochMilli(SegmentCodec.readZigZag(in));
+
+        int dictionaryCount = (int) SegmentCodec.readVarLong(in);
+        List<List<String>> dictionaries = new ArrayList<>(dictionaryCount);
+        for (int i = 0; i < dictionaryCount; i++) {
+            int size = (int) SegmentCodec.readVarLong(in);
+            List<String> values = new ArrayList<>(size);
+            for (int j = 0; j < size; j++) {
+                values.add(SegmentCodec.readString(in));
+            }
+            dictionaries.add(List.copyOf(values));
+        }
+
+        int rowGroupCount = (int) SegmentCodec.readVarLong(in);
+        List<SegmentFooter.RowGroup> rowGroups = new ArrayList<>(rowGroupCount);
+        for (int i = 0; i < rowGroupCount; i++) {
+            rowGroups.add(new SegmentFooter.RowGroup(
+                SegmentCodec.readVarLong(in),
+                (int) SegmentCodec.readVarLong(in),
+                (int) SegmentCodec.readVarLong(in),
+                Instant.ofEpochMilli(SegmentCodec.readZigZag(in)),
+                Instant.ofEpochMilli(SegmentCodec.readZigZag(in))));
+        }
+
+        Map<SegmentColumn, SegmentBloomFilter> bloomFilters = new EnumMap<>(SegmentColumn.class);
+        int bloomCount = (int) SegmentCodec.readVarLong(in);
+        for (int i = 0; i < bloomCount; i++) {
+            SegmentColumn column = SegmentColumn.values()[(int) SegmentCodec.readVarLong(in)];
+            int hashCount = (int) SegmentCodec.readVarLong(in);
+            long[] bits = new long[(int) SegmentCodec.readVarLong(in)];
+            for (int j = 0; j < bits.length; j++) {
+                bits[j] = in.getLong();
+            }
+            bloomFilters.put(column, new SegmentBloomFilter(bits, hashCount));
+        }
+        return new SegmentFooter(workspaceId, month, rowCount, minCreatedAt, maxCreatedAt,
+            List.copyOf(dictionaries), List.copyOf(rowGroups), bloomFilters);
+    }
+
+    private static ByteBuffer read(FileChannel channel, long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of segment at " + (offset + buffer.position()));
+            }
+        }
+        return buffer.flip();
+    }
+}
@@ -0,0 +1,65 @@
+package com.quckapp.audit.service.archive;
+
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * What a {@link SegmentReader} scan reads: a created_at range, filters pushed down to the column
+ * blocks and the columns to materialize. A row matches when {@code from <= created_at < to} and,
+ * for every filtered column, its value is one of the filter's values.
+ *
+ * @param filters accepted values per column: {@link UUID}s for UUID columns, strings (enum names
+ *                for severity and category) for string and dictionary columns
+ * @param columns columns set on the returned rows; {@code ID} and {@code CREATED_AT} are always set
+ */
+public record SegmentScan(Instant from, Instant to, Map<SegmentColumn, Set<?>> filters, Set<SegmentColumn> columns) {
+
+    public SegmentScan {
+        filters = Map.copyOf(filters);
+        columns = columns.isEmpty() ? EnumSet.noneOf(SegmentColumn.class) : EnumSet.copyOf(columns);
+        columns.add(SegmentColumn.ID);
+        columns.add(SegmentColumn.CREATED_AT);
+        filters.keySet().forEach(column -> {
+            if (column.encoding() == SegmentColumn.Encoding.TIMESTAMP_DELTA) {
+                throw new IllegalArgumentException("Filter timestamps by range, not by value: " + column);
+            }
+        });
+    }
+
+    /**
+     * Every column of every row in the range.
+     */
+    public static SegmentScan range(Instant from, Instant to) {
+        return new SegmentScan(from, to, Map.of(), EnumSet.allOf(SegmentColumn.class));
+    }
+
+    /**
+     * False if the footer proves that no row of the segment can match: the time ranges do not
+     * overlap, a dictionary column holds none of the filter's values, or a bloom filter rules out
+     * all of them.
+     */
+    public boolean mightMatch(SegmentFooter footer) {
+        if ((from != null && footer.maxCreatedAt().isBefore(from)) || (to != null && !footer.minCreatedAt().isBefore(to))) {
+            return false;
+        }
+        for (Map.Entry<SegmentColumn, Set<?>> filter : filters.entrySet()) {
+            SegmentColumn column = filter.getKey();
+            boolean possible = switch (column.encoding()) {
+                case DICTIONARY -> filter.getValue().stream().anyMatch(footer.dictionary(column)::contains);
+                case UUID -> filter.getValue().stream().anyMatch(value -> footer.mightContain(column, (UUID) value));
+                default -> !filter.getValue().isEmpty();
+            };
+            if (!possible) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean inRange(Instant createdAt) {
+        return (from == null || !createdAt.isBefore(from)) && (to == null || createdAt.isBefore(to));
+    }
+}
@@ -0,0 +1,271 @@
+package com.quckapp.audit.service.archive;
+
+import com.quckapp.audit.domain.entity.ArchivedAuditLog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Writes one immutable cold-archive segment: the archived audit logs of a single workspace and
+ * month, appended in (created_at, id) order.
+ *
+ * Rows are buffered into row groups of {@code rowGroupSize}. Each row group is stored column by
+ * column, every column block deflated on its own. Low-cardinality columns (action, resource type,
+ * severity, category and archiving policy) are dictionary-encoded. The dictionaries, bloom filters
+ * over the actor and resource ids, the time range and the row group index go into the footer. The file is written under a temporary name
+ * and only appears at its final path, read-only, once {@link #seal()} has forced it to disk.
+ */
+public final class SegmentWriter implements Closeable {
+
+    static final Set<SegmentColumn> BLOOM_COLUMNS = Set.of(SegmentColumn.ACTOR_ID, SegmentColumn.RESOURCE_ID);
+
+    private final Path target;
+    private final Path temp;
+    private final FileChannel channel;
+    private final UUID workspaceId;
+    private final YearMonth month;
+    private final int rowGroupSize;
+
+    private final List<ArchivedAuditLog> buffer = new ArrayList<>();
+    private final Map<SegmentColumn, Map<String, Integer>> dictionaries = new HashMap<>();
+    private final Map<SegmentColumn, SegmentBloomFilter.Builder> blooms = new EnumMap<>(SegmentColumn.class);
+    private final List<SegmentFooter.RowGroup> rowGroups = new ArrayList<>();
+    private long rowCount;
+    private Instant minCreatedAt;
+    private Instant maxCreatedAt;
+    private boolean sealed;
+
+    public SegmentWriter(Path target, UUID workspaceId, YearMonth month, int rowGroupSize) throws IOException {
+        if (rowGroupSize <= 0) {
+            throw new IllegalArgumentException("rowGroupSize must be positive");
+        }
+        this.target = target;
+        this.temp = target.resolveSibling(target.getFileName() + ".tmp");
+        this.workspaceId = workspaceId;
+        this.month = month;
+        this.rowGroupSize = rowGroupSize;
+        for (SegmentColumn column : SegmentColumn.values()) {
+            if (column.encoding() == SegmentColumn.Encoding.DICTIONARY) {
+                dictionaries.put(column, new HashMap<>());
+            }
+        }
+        BLOOM_COLUMNS.forEach(column -> blooms.put(column, SegmentBloomFilter.builder()));
+
+        Files.createDirectories(target.getParent());
+        this.channel = FileChannel.open(temp,
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        write(ByteBuffer.allocate(2 * Integer.BYTES).putInt(SegmentCodec.MAGIC).putInt(SegmentCodec.VERSION).flip());
+    }
+
+    public void append(ArchivedAuditLog row) throws IOException {
+        if (sealed) {
+            throw new IllegalStateException("Segment is already sealed");
+        }
+        if (!workspaceId.equals(row.getWorkspaceId())) {
+            throw new IllegalArgumentException("Row " + row.getId() + " belongs to another workspace");
+        }
+        if (maxCreatedAt != null && row.getCreatedAt().isBefore(maxCreatedAt)) {
+            throw new IllegalArgumentException("Rows must be appended in created_at order");
+        }
+        buffer.add(row);
+        blooms.forEach((column, bloom) -> bloom.add(uuidValue(column, row)));
+        rowCount++;
+        if (minCreatedAt == null) {
+            minCreatedAt = row.getCreatedAt();
+        }
+        maxCreatedAt = row.getCreatedAt();
+        if (buffer.size() >= rowGroupSize) {
+            flushRowGroup();
+        }
+    }
+
+    public long rowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Writes the last row group and the footer, forces the file to disk and moves it to its
+     * final, read-only path.
+     */
+    public SegmentFooter seal() throws IOException {
+        if (sealed) {
+            throw new IllegalStateException("Segment is already sealed");
+        }
+        if (rowCount == 0) {
+            throw new IllegalStateException("Cannot seal an empty segment");
+        }
+        flushRowGroup();
+
+        SegmentFooter footer = new SegmentFooter(workspaceId, month, rowCount, minCreatedAt, maxCreatedAt,
+            dictionaryValues(), List.copyOf(rowGroups), bloomFilters());
+        long footerOffset = channel.position();
+        byte[] footerBlock = SegmentCodec.block(encodeFooter(footer));
+        write(ByteBuffer.wrap(footerBlock));
+        write(ByteBuffer.allocate(SegmentCodec.TRAILER_LENGTH)
+            .putLong(footerOffset).putInt(footerBlock.length).putInt(SegmentCodec.MAGIC).flip());
+        channel.force(true);
+        channel.close();
+        sealed = true;
+
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        target.toFile().setReadOnly();
+        return footer;
+    }
+
+    /**
+     * Abandons an unsealed segment and removes its temporary file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!sealed) {
+            channel.close();
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void flushRowGroup() throws IOException {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        long offset = channel.position();
+        int length = 0;
+        for (SegmentColumn column : SegmentColumn.values()) {
+            byte[] block = SegmentCodec.block(encodeColumn(column));
+            write(ByteBuffer.wrap(block));
+            length += block.length;
+        }
+        rowGroups.add(new SegmentFooter.RowGroup(offset, length, buffer.size(),
+            buffer.get(0).getCreatedAt(), buffer.get(buffer.size() - 1).getCreatedAt()));
+        buffer.clear();
+    }
+
+    private byte[] encodeColumn(SegmentColumn column) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(buffer.size() * 8);
+        long previous = 0;
+        for (ArchivedAuditLog row : buffer) {
+            switch (column.encoding()) {
+                case UUID -> SegmentCodec.writeUuid(out, uuidValue(column, row));
+                case STRING -> SegmentCodec.writeString(out, stringValue(column, row));
+                case DICTIONARY -> SegmentCodec.writeVarLong(out, code(column, stringValue(column, row)));
+                case TIMESTAMP_DELTA -> {
+                    long millis = (column == SegmentColumn.CREATED_AT ? row.getCreatedAt() : row.getArchivedAt()).toEpochMilli();
+                    SegmentCodec.writeZigZag(out, millis - previous);
+                    previous = millis;
+                }
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private int code(SegmentColumn column, String value) {
+        if (value == null) {
+            return 0;
+        }
+        Map<String, Integer> dictionary = dictionaries.get(column);
+        return dictionary.computeIfAbsent(value, v -> dictionary.size() + 1);
+    }
+
+    private List<List<String>> dictionaryValues() {
+        List<List<String>> values = new ArrayList<>();
+        for (SegmentColumn column : SegmentColumn.values()) {
+            Map<String, Integer> dictionary = dictionaries.get(column);
+            if (dictionary == null) {
+                values.add(List.of());
+                continue;
+            }
+            String[] ordered = new String[dictionary.size()];
+            dictionary.forEach((value, code) -> ordered[code - 1] = value);
+            values.add(List.of(ordered));
+        }
+        return values;
+    }
+
+    private Map<SegmentColumn, SegmentBloomFilter> bloomFilters() {
+        Map<SegmentColumn, SegmentBloomFilter> filters = new EnumMap<>(SegmentColumn.class);
+        blooms.forEach((column, bloom) -> filters.put(column, bloom.build()));
+        return filters;
+    }
+
+    private static byte[] encodeFooter(SegmentFooter footer) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SegmentCodec.writeUuid(out, footer.workspaceId());
+        SegmentCodec.writeString(out, footer.month().toString());
+        SegmentCodec.writeVarLong(out, footer.rowCount());
+        SegmentCodec.writeZigZag(out, footer.minCreatedAt().toEpochMilli());
+        SegmentCodec.writeZigZag(out, footer.maxCreatedAt().toEpochMilli());
+        SegmentCodec.writeVarLong(out, footer.dictionaries().size());
+        for (List<String> dictionary : footer.dictionaries()) {
+            SegmentCodec.writeVarLong(out, dictionary.size());
+            dictionary.forEach(value -> SegmentCodec.writeString(out, value));
+        }
+        SegmentCodec.writeVarLong(out, footer.rowGroups().size());
+        for (SegmentFooter.RowGroup rowGroup : footer.rowGroups()) {
+            SegmentCodec.writeVarLong(out, rowGroup.offset());
+            SegmentCodec.writeVarLong(out, rowGroup.length());
+            SegmentCodec.writeVarLong(out, rowGroup.rowCount());
+            SegmentCodec.writeZigZag(out, rowGroup.minCreatedAt().toEpochMilli());
+            SegmentCodec.writeZigZag(out, rowGroup.maxCreatedAt().toEpochMilli());
+        }
+        SegmentCodec.writeVarLong(out, footer.bloomFilters().size());
+        footer.bloomFilters().forEach((column, filter) -> {
+            SegmentCodec.writeVarLong(out, column.ordinal());
+            SegmentCodec.writeVarLong(out, filter.hashCount());
+            SegmentCodec.writeVarLong(out, filter.bits().length);
+            for (long word : filter.bits()) {
+                SegmentCodec.writeLong(out, word);
+            }
+        });
+        return out.toByteArray();
+    }
+
+    private void write(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    static UUID uuidValue(SegmentColumn column, ArchivedAuditLog row) {
+        return switch (column) {
+            case ID -> row.getId();
+            case ACTOR_ID -> row.getActorId();
+            case RESOURCE_ID -> row.getResourceId();
+            default -> throw new IllegalArgumentException(column + " is not a UUID column");
+        };
+    }
+
+    static String stringValue(SegmentColumn column, ArchivedAuditLog row) {
+        return switch (column) {
+            case ACTOR_EMAIL -> row.getActorEmail();
+            case ACTOR_NAME -> row.getActorName();
+            case ACTION -> row.getAction();
+            case RESOURCE_TYPE -> row.getResourceType();
+            case RESOURCE_NAME -> row.getResourceName();
+            case METADATA -> row.getMetadata();
+            case PREVIOUS_STATE -> row.getPreviousState();
+            case NEW_STATE -> row.getNewState();
+            case IP_ADDRESS -> row.getIpAddress();
+            case USER_AGENT -> row.getUserAgent();
+            case SESSION_ID -> row.getSessionId();
+            case SEVERITY -> row.getSeverity() != null ? row.getSeverity().name() : null;
+            case CATEGORY -> row.getCategory() != null ? row.getCategory().name() : null;
+            case ARCHIVED_BY_POLICY_ID -> row.getArchivedByPolicyId() != null ? row.getArchivedByPolicyId().toString() : null;
+            default -> throw new IllegalArgumentException(column + " is not a string column");
+        };
+    }
+}
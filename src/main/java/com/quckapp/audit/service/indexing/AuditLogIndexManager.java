@@ -0,0 +1,333 @@
+package com.quckapp.audit.service.indexing;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.Level;
+import co.elastic.clients.elasticsearch._types.aggregations.StringTermsBucket;
+import co.elastic.clients.elasticsearch._types.mapping.RoutingField;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.indices.get_alias.IndexAliases;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quckapp.audit.domain.document.AuditLogDocument;
+import com.quckapp.audit.domain.entity.RetentionPolicy;
+import com.quckapp.audit.domain.repository.AuditLogIndices;
+import com.quckapp.audit.domain.repository.AuditLogIndices.IndexGeneration;
+import com.quckapp.audit.domain.repository.AuditLogIndices.TimeRange;
+import com.quckapp.audit.domain.repository.RetentionPolicyRepository;
+import com.quckapp.audit.domain.repository.SearchOutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bootstraps and maintains the rolling audit log indices described in {@link AuditLogIndices}.
+ *
+ * On startup the {@code audit-logs} index template is put, carrying the settings of
+ * {@code elasticsearch/settings.json}, the mapping of {@link AuditLogDocument} with required
+ * routing and the read alias, and a first write index is created if there is none. A write
+ * index created before routing is rolled over straight away, so that only routed documents are
+ * written from then on. Indices written before rollover are added to the read alias.
+ *
+ * With a {@code routing.partition-size} above 1, each workspace's documents spread over that
+ * many shards instead of one, which keeps very large workspaces from overloading a single
+ * shard. It applies to indices created from then on.
+ *
+ * Every {@code rollover-interval-ms} the write alias is rolled over once the month has changed
+ * or its primaries exceed {@code max-primary-size-gb}, and the time range of each index is
+ * refreshed for search. Once a day, rolled-over indices move through the lifecycle by the age
+ * of their newest document: they are force-merged to a single segment after
+ * {@code force-merge-after-days}, made read-only after {@code read-only-after-days} and
+ * deleted after {@code delete-after-days}, if set. An index is only made read-only once every
+ * enabled retention policy has expired all of its documents and the search outbox holds no
+ * entry queued before the run, since retention can no longer delete from it afterwards.
+ */
+@Component
+@Slf4j
+public class AuditLogIndexManager {
+
+    static final String TEMPLATE_NAME = "audit-logs";
+
+    private static final int MAX_INDICES = 10_000;
+
+    private final ElasticsearchClient elasticsearchClient;
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final AuditLogIndices indices;
+    private final RetentionPolicyRepository retentionPolicyRepository;
+    private final ObjectMapper objectMapper;
+    private final SearchOutboxRepository outboxRepository;
+
+    @Value("${audit.elasticsearch.routing.partition-size:1}")
+    private int routingPartitionSize;
+
+    @Value("${audit.elasticsearch.lifecycle.max-primary-size-gb:50}")
+    private long maxPrimarySizeGb;
+
+    @Value("${audit.elasticsearch.lifecycle.force-merge-after-days:2}")
+    private int forceMergeAfterDays;
+
+    @Value("${audit.elasticsearch.lifecycle.read-only-after-days:90}")
+    private int readOnlyAfterDays;
+
+    @Value("${audit.elasticsearch.lifecycle.delete-after-days:0}")
+    private int deleteAfterDays;
+
+    private volatile boolean bootstrapped;
+
+    public AuditLogIndexManager(ElasticsearchClient elasticsearchClient,
+                                ElasticsearchOperations elasticsearchOperations,
+                                AuditLogIndices indices,
+                                RetentionPolicyRepository retentionPolicyRepository,
+                                ObjectMapper objectMapper,
+                                SearchOutboxRepository outboxRepository) {
+        this.elasticsearchClient = elasticsearchClient;
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.indices = indices;
+        this.retentionPolicyRepository = retentionPolicyRepository;
+        this.objectMapper = objectMapper;
+        this.outboxRepository = outboxRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            bootstrap();
+            refreshRanges();
+        } catch (Exception e) {
+            log.error("Failed to bootstrap audit log indices on startup", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${audit.elasticsearch.lifecycle.rollover-interval-ms:300000}")
+    public void rollover() {
+        try {
+            if (!bootstrapped) {
+                bootstrap();
+            }
+            String writeIndex = findWriteIndex();
+            String target = rolloverTarget(writeIndex, YearMonth.now(ZoneOffset.UTC), primarySize(writeIndex));
+            if (target != null) {
+                elasticsearchClient.indices().rollover(r -> r.alias(AuditLogIndices.WRITE_ALIAS).newIndex(target));
+                log.info("Rolled over {} from {} to {}", AuditLogIndices.WRITE_ALIAS, writeIndex, target);
+            }
+            refreshRanges();
+        } catch (Exception e) {
+            log.warn("Failed to roll over audit log indices: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${audit.elasticsearch.lifecycle.maintenance-cron:0 30 1 * * ?}") // Daily at 1:30 AM
+    public void applyLifecycle() {
+        Map<String, TimeRange> ranges;
+        String writeIndex;
+        try {
+            writeIndex = findWriteIndex();
+            ranges = findRanges();
+        } catch (Exception e) {
+            log.warn("Failed to read audit log index ranges for lifecycle: {}", e.getMessage());
+            return;
+        }
+
+        Instant now = Instant.now();
+        Instant retainedAfter = now.minus(longestRetentionDays(), ChronoUnit.DAYS);
+        // Entries queued before now may still delete from any index; blocking it would fail them
+        boolean outboxDrained = outboxRepository.findOldestPendingCreatedAt()
+            .map(oldest -> oldest.isAfter(now))
+            .orElse(true);
+        ranges.forEach((index, range) -> {
+            if (index.equals(writeIndex)) {
+                return;
+            }
+            try {
+                applyLifecycle(index, range.newest(), now, retainedAfter, outboxDrained);
+            } catch (Exception e) {
+                log.warn("Failed to apply lifecycle to index {}: {}", index, e.getMessage());
+            }
+        });
+    }
+
+    void applyLifecycle(String index, Instant newest, Instant now, Instant retainedAfter, boolean outboxDrained)
+            throws IOException {
+        if (deleteAfterDays > 0 && newest.isBefore(now.minus(deleteAfterDays, ChronoUnit.DAYS))) {
+            elasticsearchClient.indices().delete(d -> d.index(index));
+            log.info("Deleted audit log index {} with newest document from {}", index, newest);
+            return;
+        }
+        if (newest.isBefore(now.minus(readOnlyAfterDays, ChronoUnit.DAYS)) && newest.isBefore(retainedAfter)
+                && outboxDrained) {
+            elasticsearchClient.indices().putSettings(p -> p.index(index).settings(s -> s.blocks(b -> b.write(true))));
+        }
+        if (newest.isBefore(now.minus(forceMergeAfterDays, ChronoUnit.DAYS)) && !isForceMerged(index)) {
+            elasticsearchClient.indices().forcemerge(f -> f.index(index).maxNumSegments(1L).waitForCompletion(false));
+            log.info("Force-merging audit log index {} to a single segment", index);
+        }
+    }
+
+    /**
+     * Puts the index template, creates the first write index if there is none and adds indices
+     * written before rollover to the read alias, leaving out rerouted copies still being built.
+     */
+    void bootstrap() throws IOException {
+        elasticsearchClient.indices().putIndexTemplate(t -> t
+            .name(TEMPLATE_NAME)
+            .withJson(new StringReader(templateJson())));
+
+        if (!elasticsearchClient.indices().existsAlias(a -> a.name(AuditLogIndices.WRITE_ALIAS)).value()) {
+            String first = AuditLogIndices.indexName(YearMonth.now(ZoneOffset.UTC), 1);
+            elasticsearchClient.indices().create(c -> c
+                .index(first)
+                .aliases(AuditLogIndices.WRITE_ALIAS, a -> a.isWriteIndex(true)));
+            log.info("Created audit log write index {}", first);
+        }
+        String writeIndex = findWriteIndex();
+        if (findUnroutedIndices().contains(writeIndex)) {
+            String target = rolloverTarget(writeIndex, YearMonth.now(ZoneOffset.UTC), Long.MAX_VALUE);
+            elasticsearchClient.indices().rollover(r -> r.alias(AuditLogIndices.WRITE_ALIAS).newIndex(target));
+            log.info("Rolled over unrouted write index {} to {}", writeIndex, target);
+        }
+        // Rerouted copies join the read alias when they are swapped in, not before they are complete
+        List<String> written = elasticsearchClient.indices().get(g -> g.index(AuditLogIndices.INDEX_PATTERN))
+            .result().keySet().stream()
+            .filter(index -> !AuditLogIndices.isReroutedCopy(index))
+            .toList();
+        if (!written.isEmpty()) {
+            elasticsearchClient.indices().updateAliases(u -> u.actions(a -> a.add(add -> add
+                .indices(written)
+                .alias(AuditLogIndices.READ_ALIAS))));
+        }
+        bootstrapped = true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private String templateJson() throws IOException {
+        Map<String, Object> settings;
+        try (InputStream in = new ClassPathResource("elasticsearch/settings.json").getInputStream()) {
+            settings = objectMapper.readValue(in, Map.class);
+        }
+        if (routingPartitionSize > 1) {
+            ((Map<String, Object>) settings.computeIfAbsent("index", key -> new HashMap<>()))
+                .put("routing_partition_size", routingPartitionSize);
+        }
+        Map<String, Object> mappings = elasticsearchOperations.indexOps(AuditLogDocument.class).createMapping();
+        mappings.put("_routing", Map.of("required", true));
+        return objectMapper.writeValueAsString(Map.of(
+            "index_patterns", new String[]{AuditLogIndices.INDEX_PATTERN},
+            "template", Map.of(
+                "settings", settings,
+                "mappings", mappings,
+                "aliases", Map.of(AuditLogIndices.READ_ALIAS, Map.of()))));
+    }
+
+    /**
+     * Refreshes the write index, the time range of every index and which of them are routed.
+     */
+    public void refreshRanges() throws IOException {
+        indices.update(findWriteIndex(), findRanges(), findUnroutedIndices());
+    }
+
+    /**
+     * The indices behind the read alias whose mapping does not require routing.
+     */
+    public Set<String> findUnroutedIndices() throws IOException {
+        Set<String> unrouted = new HashSet<>();
+        elasticsearchClient.indices().getMapping(m -> m.index(AuditLogIndices.READ_ALIAS)).result()
+            .forEach((index, mapping) -> {
+                RoutingField routing = mapping.mappings().routing();
+                if (routing == null || !routing.required()) {
+                    unrouted.add(index);
+                }
+            });
+        return unrouted;
+    }
+
+    public String findWriteIndex() throws IOException {
+        Map<String, IndexAliases> aliases = elasticsearchClient.indices()
+            .getAlias(a -> a.name(AuditLogIndices.WRITE_ALIAS)).result();
+        return aliases.entrySet().stream()
+            .filter(entry -> aliases.size() == 1
+                || Boolean.TRUE.equals(entry.getValue().aliases().get(AuditLogIndices.WRITE_ALIAS).isWriteIndex()))
+            .map(Map.Entry::getKey)
+            .findFirst()
+            .orElseThrow(() -> new IllegalStateException("No write index behind " + AuditLogIndices.WRITE_ALIAS));
+    }
+
+    /**
+     * The oldest and newest {@code createdAt} of every index with documents, in one request.
+     */
+    private Map<String, TimeRange> findRanges() throws IOException {
+        SearchResponse<Void> response = elasticsearchClient.search(s -> s
+            .index(AuditLogIndices.READ_ALIAS)
+            .size(0)
+            .aggregations("indices", a -> a
+                .terms(t -> t.field("_index").size(MAX_INDICES))
+                .aggregations("oldest", o -> o.min(m -> m.field("createdAt")))
+                .aggregations("newest", n -> n.max(m -> m.field("createdAt")))), Void.class);
+
+        Map<String, TimeRange> ranges = new HashMap<>();
+        for (StringTermsBucket bucket : response.aggregations().get("indices").sterms().buckets().array()) {
+            ranges.put(bucket.key().stringValue(), new TimeRange(
+                Instant.ofEpochMilli((long) bucket.aggregations().get("oldest").min().value()),
+                Instant.ofEpochMilli((long) bucket.aggregations().get("newest").max().value())));
+        }
+        return ranges;
+    }
+
+    /**
+     * Whether every primary shard of the index is down to a single segment. Asking the cluster
+     * rather than remembering our own requests also re-merges an index that retention deletes
+     * or a reroute wrote to after its merge.
+     */
+    private boolean isForceMerged(String index) throws IOException {
+        return elasticsearchClient.indices().stats(s -> s.index(index).metric("segments").level(Level.Shards))
+            .indices().get(index).shards().values().stream()
+            .flatMap(List::stream)
+            .filter(shard -> shard.routing().primary())
+            .allMatch(shard -> shard.segments().count() <= 1);
+    }
+
+    private long primarySize(String index) throws IOException {
+        return elasticsearchClient.indices().stats(s -> s.index(index).metric("store"))
+            .indices().get(index).primaries().store().sizeInBytes();
+    }
+
+    /**
+     * The longest retention of any enabled policy, or 0 if there is none.
+     */
+    private int longestRetentionDays() {
+        return retentionPolicyRepository.findByEnabledTrue().stream()
+            .mapToInt(RetentionPolicy::getRetentionDays)
+            .max()
+            .orElse(0);
+    }
+
+    /**
+     * The index to roll over to: the first of a new month, or the next of the current month once
+     * the write index has grown too large. Null to keep writing where we are.
+     */
+    String rolloverTarget(String writeIndex, YearMonth month, long primarySizeBytes) {
+        IndexGeneration generation = AuditLogIndices.generationOf(writeIndex);
+        if (generation == null || !generation.month().equals(month)) {
+            return AuditLogIndices.indexName(month, 1);
+        }
+        if (primarySizeBytes >= maxPrimarySizeGb << 30) {
+            return AuditLogIndices.indexName(month, generation.sequence() + 1);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,252 @@
+package com.quckapp.audit.service.indexing;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.indices.IndexSettings;
+import com.quckapp.audit.domain.repository.AuditLogIndices;
+import com.quckapp.audit.dto.AuditDtos.RerouteStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reindexes audit log indices written before routing by workspace, one at a time.
+ *
+ * Each index is blocked for writes and copied by {@code _reindex} into {@code <index>-routed},
+ * created from the index template, with each document's routing set to its workspace. Once the
+ * copy holds as many documents as the source, the read alias is switched over and the source
+ * removed in a single alias update, so searches never see both or neither. A failed index is
+ * left as it was and stops the run.
+ *
+ * Sources are tagged with the {@code audit-reroute-sources} alias for as long as they are blocked.
+ * A source that was already read-only is neither tagged nor unblocked, and its copy is made
+ * read-only when it is swapped in.
+ * On startup, unless a reindex is still running in the cluster, whatever an interrupted run left
+ * behind is undone: copies whose source was never swapped out are deleted and tagged sources are
+ * unblocked again. Retention keeps deleting while an index is blocked; those deletes fail and are
+ * retried by the search relay until the copy has been swapped in.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AuditLogRerouter {
+
+    static final String REROUTING_ALIAS = "audit-reroute-sources";
+
+    private static final String REINDEX_ACTION = "indices:data/write/reindex";
+
+    private static final String ROUTING_SCRIPT = "ctx._routing = ctx._source.workspaceId";
+
+    private final ElasticsearchClient elasticsearchClient;
+    private final AuditLogIndexManager indexManager;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "audit-es-reroute");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${audit.elasticsearch.routing.reroute-poll-interval-ms:5000}")
+    private long pollIntervalMs;
+
+    private RerouteStatus status = RerouteStatus.builder().pendingIndices(List.of()).reroutedIndices(List.of()).build();
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverOnStartup() {
+        try {
+            recoverInterruptedRun();
+        } catch (Exception e) {
+            log.warn("Failed to recover from an interrupted audit log reroute: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes copies whose source is still in place and lifts the write block of tagged sources.
+     */
+    void recoverInterruptedRun() throws IOException {
+        boolean reindexing = elasticsearchClient.tasks().list(l -> l.actions(REINDEX_ACTION)).nodes().values()
+            .stream()
+            .anyMatch(node -> !node.tasks().isEmpty());
+        if (reindexing) {
+            log.info("A reindex is running, leaving audit log reroute state as it is");
+            return;
+        }
+        Set<String> existing = elasticsearchClient.indices().get(g -> g.index(AuditLogIndices.INDEX_PATTERN))
+            .result().keySet();
+        for (String index : existing) {
+            if (AuditLogIndices.isReroutedCopy(index) && existing.contains(AuditLogIndices.sourceOf(index))) {
+                elasticsearchClient.indices().delete(d -> d.index(index));
+                log.warn("Deleted incomplete rerouted copy {}", index);
+            }
+        }
+        if (!elasticsearchClient.indices().existsAlias(a -> a.name(REROUTING_ALIAS)).value()) {
+            return;
+        }
+        for (String source : elasticsearchClient.indices().getAlias(a -> a.name(REROUTING_ALIAS)).result().keySet()) {
+            unblock(source);
+            log.warn("Lifted the write block an interrupted reroute left on {}", source);
+        }
+    }
+
+    /**
+     * Starts rerouting every unrouted index but the write index, unless a run is in progress.
+     */
+    public synchronized RerouteStatus start() throws IOException {
+        if (status.isRunning()) {
+            return getStatus();
+        }
+        indexManager.refreshRanges();
+        String writeIndex = indexManager.findWriteIndex();
+        List<String> pending = indexManager.findUnroutedIndices().stream()
+            .filter(index -> !index.equals(writeIndex))
+            .sorted()
+            .toList();
+        status = RerouteStatus.builder()
+            .running(!pending.isEmpty())
+            .pendingIndices(new ArrayList<>(pending))
+            .reroutedIndices(new ArrayList<>())
+            .build();
+        if (!pending.isEmpty()) {
+            executor.submit(() -> run(pending));
+            log.info("Started rerouting {} audit log indices", pending.size());
+        }
+        return getStatus();
+    }
+
+    public synchronized RerouteStatus getStatus() {
+        return RerouteStatus.builder()
+            .running(status.isRunning())
+            .pendingIndices(List.copyOf(status.getPendingIndices()))
+            .reroutedIndices(List.copyOf(status.getReroutedIndices()))
+            .currentIndex(status.getCurrentIndex())
+            .error(status.getError())
+            .build();
+    }
+
+    private void run(List<String> indices) {
+        try {
+            for (String index : indices) {
+                synchronized (this) {
+                    status.setCurrentIndex(index);
+                }
+                reroute(index);
+                synchronized (this) {
+                    status.getPendingIndices().remove(index);
+                    status.getReroutedIndices().add(index);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(new IllegalStateException("Interrupted while rerouting"));
+        } catch (Exception e) {
+            fail(e);
+        } finally {
+            synchronized (this) {
+                status.setRunning(false);
+                status.setCurrentIndex(null);
+            }
+            try {
+                indexManager.refreshRanges();
+            } catch (Exception e) {
+                log.warn("Failed to refresh audit log indices after rerouting: {}", e.getMessage());
+            }
+        }
+    }
+
+    private synchronized void fail(Exception e) {
+        log.error("Failed to reroute audit log index {}", status.getCurrentIndex(), e);
+        status.setError(e.getMessage());
+    }
+
+    void reroute(String source) throws IOException, InterruptedException {
+        String target = AuditLogIndices.reroutedCopyOf(source);
+        if (elasticsearchClient.indices().exists(e -> e.index(target)).value()) {
+            // Left behind by an interrupted run; the source is still complete
+            elasticsearchClient.indices().delete(d -> d.index(target));
+        }
+        // A source the lifecycle already made read-only stays blocked and is never tagged
+        boolean wasBlocked = isWriteBlocked(source);
+        if (!wasBlocked) {
+            // Tag the source first, so that a crash never leaves an untagged block behind
+            elasticsearchClient.indices().updateAliases(u -> u.actions(a -> a.add(add -> add
+                .index(source).alias(REROUTING_ALIAS))));
+            elasticsearchClient.indices().putSettings(p -> p.index(source).settings(s -> s.blocks(b -> b.write(true))));
+        }
+        try {
+            elasticsearchClient.indices().create(c -> c.index(target));
+            // The template adds the read alias; keep the copy out of searches until it is complete
+            elasticsearchClient.indices().updateAliases(u -> u.actions(a -> a.remove(r -> r
+                .index(target).alias(AuditLogIndices.READ_ALIAS))));
+
+            String task = elasticsearchClient.reindex(r -> r
+                .source(s -> s.index(source))
+                .dest(d -> d.index(target))
+                .script(s -> s.inline(i -> i.source(ROUTING_SCRIPT)))
+                .refresh(true)
+                .waitForCompletion(false)).task();
+            while (!elasticsearchClient.tasks().get(g -> g.taskId(task)).completed()) {
+                TimeUnit.MILLISECONDS.sleep(pollIntervalMs);
+            }
+
+            long expected = elasticsearchClient.count(c -> c.index(source)).count();
+            long copied = elasticsearchClient.count(c -> c.index(target)).count();
+            if (copied != expected) {
+                throw new IllegalStateException(
+                    "Reindexed " + copied + " of " + expected + " documents from " + source);
+            }
+            elasticsearchClient.indices().updateAliases(u -> u
+                .actions(a -> a.add(add -> add.index(target).alias(AuditLogIndices.READ_ALIAS)))
+                .actions(a -> a.removeIndex(r -> r.index(source))));
+            if (wasBlocked) {
+                elasticsearchClient.indices().putSettings(p -> p.index(target).settings(s -> s.blocks(b -> b.write(true))));
+            }
+            log.info("Rerouted {} audit logs from {} to {}", copied, source, target);
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            cleanUp(source, target, wasBlocked, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Best effort: drops the partial copy and lifts the write block again, unless the source was
+     * blocked before the reroute.
+     */
+    private void cleanUp(String source, String target, boolean wasBlocked, Exception failure) {
+        try {
+            elasticsearchClient.indices().delete(d -> d.index(target).ignoreUnavailable(true));
+            if (!wasBlocked) {
+                unblock(source);
+            }
+        } catch (Exception e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    private boolean isWriteBlocked(String index) throws IOException {
+        IndexSettings settings = elasticsearchClient.indices().getSettings(g -> g.index(index)).result()
+            .get(index).settings();
+        IndexSettings nested = settings != null && settings.index() != null ? settings.index() : settings;
+        return nested != null && nested.blocks() != null && Boolean.TRUE.equals(nested.blocks().write());
+    }
+
+    private void unblock(String source) throws IOException {
+        elasticsearchClient.indices().putSettings(p -> p.index(source).settings(s -> s.blocks(b -> b.write(false))));
+        elasticsearchClient.indices().updateAliases(u -> u.actions(a -> a.remove(r -> r
+            .index(source).alias(REROUTING_ALIAS))));
+    }
+}
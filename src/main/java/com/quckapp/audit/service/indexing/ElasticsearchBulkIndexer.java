@@ -0,0 +1,314 @@
+package com.quckapp.audit.service.indexing;
+
+import com.quckapp.audit.domain.document.AuditLogDocument;
+import com.quckapp.audit.domain.repository.AuditLogIndices;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
+import org.springframework.data.elasticsearch.core.query.IndexQueryBuilder;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous bulk indexing stage between ingest and Elasticsearch.
+ *
+ * Documents are serialized on submit and placed on a bounded queue. Worker threads drain
+ * the queue into {@code _bulk} requests capped by document count and payload bytes, and
+ * retry failed documents with exponential backoff and full jitter. When the queue is full,
+ * {@link #submit} blocks the caller for up to {@code offer-timeout-ms} before rejecting,
+ * which pushes back on ingest instead of buffering without bound.
+ *
+ * Documents go to {@link AuditLogIndices#WRITE_ALIAS}, routed by workspace. Until the indices have been
+ * bootstrapped, bulk requests fail and are retried rather than letting Elasticsearch create an
+ * index under the alias name.
+ */
+@Component
+@Slf4j
+public class ElasticsearchBulkIndexer {
+
+    private static final IndexCoordinates WRITE_INDEX = IndexCoordinates.of(AuditLogIndices.WRITE_ALIAS);
+
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final MeterRegistry meterRegistry;
+    private final AuditLogIndices indices;
+
+    @Value("${audit.elasticsearch.bulk.queue-capacity:50000}")
+    private int queueCapacity;
+
+    @Value("${audit.elasticsearch.bulk.workers:2}")
+    private int workers;
+
+    @Value("${audit.elasticsearch.bulk.max-documents:1000}")
+    private int maxDocuments;
+
+    @Value("${audit.elasticsearch.bulk.max-bytes:5242880}")
+    private long maxBytes;
+
+    @Value("${audit.elasticsearch.bulk.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${audit.elasticsearch.bulk.offer-timeout-ms:500}")
+    private long offerTimeoutMs;
+
+    @Value("${audit.elasticsearch.bulk.max-retries:5}")
+    private int maxRetries;
+
+    @Value("${audit.elasticsearch.bulk.initial-backoff-ms:100}")
+    private long initialBackoffMs;
+
+    @Value("${audit.elasticsearch.bulk.max-backoff-ms:10000}")
+    private long maxBackoffMs;
+
+    private BlockingQueue<PendingDocument> queue;
+    private final List<Thread> workerThreads = new ArrayList<>();
+    private volatile boolean running;
+
+    private Timer bulkLatency;
+    private DistributionSummary bulkSize;
+    private Counter indexedCounter;
+    private Counter failedCounter;
+    private Counter rejectedCounter;
+    private Counter retryCounter;
+
+    public ElasticsearchBulkIndexer(ElasticsearchOperations elasticsearchOperations, MeterRegistry meterRegistry,
+                                    AuditLogIndices indices) {
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.meterRegistry = meterRegistry;
+        this.indices = indices;
+    }
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("audit.es.queue.depth", queue, BlockingQueue::size)
+            .description("Documents waiting to be bulk indexed")
+            .register(meterRegistry);
+        bulkLatency = Timer.builder("audit.es.bulk.latency")
+            .description("Latency of a single _bulk request")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        bulkSize = meterRegistry.summary("audit.es.bulk.documents");
+        indexedCounter = meterRegistry.counter("audit.es.documents", "outcome", "indexed");
+        failedCounter = meterRegistry.counter("audit.es.documents", "outcome", "failed");
+        rejectedCounter = meterRegistry.counter("audit.es.documents", "outcome", "rejected");
+        retryCounter = meterRegistry.counter("audit.es.bulk.retries");
+
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            Thread thread = new Thread(this::runWorker, "audit-es-bulk-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            workerThreads.add(thread);
+        }
+        log.info("Started Elasticsearch bulk indexer with {} workers (queue capacity {})", workers, queueCapacity);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Thread thread : workerThreads) {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        if (!queue.isEmpty()) {
+            log.warn("Elasticsearch bulk indexer stopped with {} documents still queued", queue.size());
+        }
+    }
+
+    /**
+     * Queues a document for indexing. The returned future completes once the document has been
+     * acknowledged by Elasticsearch, or exceptionally if it was rejected or exhausted its retries.
+     */
+    public CompletableFuture<Void> submit(AuditLogDocument document) {
+        return submit(document, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(offerTimeoutMs));
+    }
+
+    /**
+     * Queues the documents, waiting at most {@code offer-timeout-ms} for room in the queue across
+     * the whole list; documents that find no room by then are rejected.
+     */
+    public List<CompletableFuture<Void>> submitAll(List<AuditLogDocument> documents) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(offerTimeoutMs);
+        List<CompletableFuture<Void>> futures = new ArrayList<>(documents.size());
+        for (AuditLogDocument document : documents) {
+            futures.add(submit(document, deadline));
+        }
+        return futures;
+    }
+
+    private CompletableFuture<Void> submit(AuditLogDocument document, long deadline) {
+        PendingDocument pending = toPending(document);
+        try {
+            long remaining = Math.max(0, deadline - System.nanoTime());
+            if (!running || !queue.offer(pending, remaining, TimeUnit.NANOSECONDS)) {
+                return reject(pending, "Elasticsearch indexing queue is full");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return reject(pending, "Interrupted while waiting for indexing queue");
+        }
+        return pending.future();
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private CompletableFuture<Void> reject(PendingDocument pending, String reason) {
+        rejectedCounter.increment();
+        log.warn("Rejected audit log {} for indexing: {}", pending.id(), reason);
+        pending.future().completeExceptionally(new RejectedExecutionException(reason));
+        return pending.future();
+    }
+
+    private PendingDocument toPending(AuditLogDocument document) {
+        String source = elasticsearchOperations.getElasticsearchConverter().mapObject(document).toJson();
+        return new PendingDocument(document.getId(), document.getWorkspaceId(), source,
+            source.getBytes(StandardCharsets.UTF_8).length, new CompletableFuture<>());
+    }
+
+    private void runWorker() {
+        List<PendingDocument> batch = new ArrayList<>(maxDocuments);
+        while (running || !queue.isEmpty()) {
+            try {
+                fillBatch(batch);
+                if (!batch.isEmpty()) {
+                    indexWithRetry(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Unexpected error in Elasticsearch bulk worker", e);
+                batch.forEach(pending -> pending.future().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Blocks for the first document, then keeps draining until the batch is full by count or
+     * bytes, or the flush interval has elapsed.
+     */
+    private void fillBatch(List<PendingDocument> batch) throws InterruptedException {
+        PendingDocument first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long bytes = first.bytes();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+
+        while (batch.size() < maxDocuments && bytes < maxBytes) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            PendingDocument next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+            bytes += next.bytes();
+        }
+    }
+
+    private void indexWithRetry(List<PendingDocument> batch) throws InterruptedException {
+        List<PendingDocument> remaining = batch;
+
+        for (int attempt = 0; ; attempt++) {
+            List<PendingDocument> failed = sendBulk(remaining);
+            int succeeded = remaining.size() - failed.size();
+            indexedCounter.increment(succeeded);
+
+            if (failed.isEmpty()) {
+                return;
+            }
+            if (attempt >= maxRetries) {
+                failedCounter.increment(failed.size());
+                log.error("Giving up indexing {} audit logs after {} attempts", failed.size(), attempt + 1);
+                RuntimeException cause = new IllegalStateException("Bulk indexing failed after retries");
+                failed.forEach(pending -> pending.future().completeExceptionally(cause));
+                return;
+            }
+
+            retryCounter.increment();
+            Thread.sleep(backoffWithJitter(attempt));
+            remaining = failed;
+        }
+    }
+
+    /**
+     * Sends one {@code _bulk} request and returns the documents that need to be retried.
+     */
+    private List<PendingDocument> sendBulk(List<PendingDocument> documents) {
+        if (!indices.isBootstrapped()) {
+            log.warn("Audit log indices are not bootstrapped yet, holding back {} documents", documents.size());
+            return documents;
+        }
+        List<IndexQuery> queries = documents.stream()
+            .map(pending -> new IndexQueryBuilder()
+                .withId(pending.id())
+                .withRouting(pending.routing())
+                .withSource(pending.source())
+                .build())
+            .toList();
+
+        bulkSize.record(documents.size());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            elasticsearchOperations.bulkIndex(queries, WRITE_INDEX);
+            documents.forEach(pending -> pending.future().complete(null));
+            return List.of();
+        } catch (BulkFailureException e) {
+            Set<String> failedIds = e.getFailedDocuments().keySet();
+            log.warn("Bulk request partially failed: {} of {} documents", failedIds.size(), documents.size());
+            List<PendingDocument> failed = new ArrayList<>(failedIds.size());
+            for (PendingDocument pending : documents) {
+                if (failedIds.contains(pending.id())) {
+                    failed.add(pending);
+                } else {
+                    pending.future().complete(null);
+                }
+            }
+            return failed;
+        } catch (Exception e) {
+            log.warn("Bulk request of {} documents failed: {}", documents.size(), e.getMessage());
+            return documents;
+        } finally {
+            sample.stop(bulkLatency);
+        }
+    }
+
+    /**
+     * Exponential backoff with full jitter: a uniform delay in {@code [0, min(max, initial * 2^attempt))}.
+     */
+    long backoffWithJitter(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private record PendingDocument(String id, String routing, String source, int bytes,
+                                   CompletableFuture<Void> future) {}
+}
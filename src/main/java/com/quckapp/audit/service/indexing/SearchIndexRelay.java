@@ -0,0 +1,341 @@
+package com.quckapp.audit.service.indexing;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.Conflicts;
+import co.elastic.clients.elasticsearch.core.DeleteByQueryResponse;
+import co.elastic.clients.json.JsonData;
+import com.quckapp.audit.domain.document.AuditLogDocument;
+import com.quckapp.audit.domain.entity.AuditLog;
+import com.quckapp.audit.domain.repository.AuditLogIndices;
+import com.quckapp.audit.domain.repository.AuditLogRepository;
+import com.quckapp.audit.domain.repository.AuditLogRetentionRepository.RetentionCell;
+import com.quckapp.audit.domain.repository.SearchOutboxRepository;
+import com.quckapp.audit.domain.repository.SearchOutboxRepository.OutboxEntry;
+import com.quckapp.audit.domain.repository.SearchOutboxRepository.RelayState;
+import com.quckapp.audit.domain.repository.SearchOutboxRepository.ReplayKey;
+import com.quckapp.audit.dto.AuditDtos.SearchIndexStatus;
+import com.quckapp.audit.exception.BadRequestException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Streams the search outbox into Elasticsearch through the {@link ElasticsearchBulkIndexer}.
+ *
+ * Each tick leases a batch of outbox rows in a short transaction, loads the audit logs and
+ * waits for the bulk indexer to acknowledge them with no transaction open, then deletes the
+ * acknowledged rows in a second short transaction. Rows whose documents failed are released
+ * and retried on the next tick, so an Elasticsearch outage only grows the backlog; rows of an
+ * instance that dies mid-batch are claimed again once their lease expires. Documents are keyed
+ * by {@code AuditLog.id}, which makes re-delivery harmless.
+ *
+ * Entries whose audit log is gone from MySQL, such as those retention queues for the rows it
+ * deletes, remove the document instead. They are only acknowledged once every copy is deleted;
+ * an index that is write-blocked while it is rerouted fails the delete, which is retried until
+ * the rerouted copy has been swapped in.
+ *
+ * A replay re-indexes every audit log created after a given instant, walking
+ * {@code audit_logs} in (created_at, id) order one chunk per tick alongside the outbox. Chunks
+ * are leased the same way, and the cursor only moves while the lease is still held.
+ */
+@Service
+@Slf4j
+public class SearchIndexRelay {
+
+    static final String RELAY_NAME = "elasticsearch";
+
+    private final SearchOutboxRepository outboxRepository;
+    private final AuditLogRepository auditLogRepository;
+    private final ElasticsearchBulkIndexer bulkIndexer;
+    private final ElasticsearchClient elasticsearchClient;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter relayedCounter;
+    private final Counter replayedCounter;
+
+    @Value("${audit.elasticsearch.outbox.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${audit.elasticsearch.outbox.replay-batch-size:2000}")
+    private int replayBatchSize;
+
+    @Value("${audit.elasticsearch.outbox.ack-timeout-ms:60000}")
+    private long ackTimeoutMs;
+
+    @Value("${audit.elasticsearch.outbox.claim-lease-ms:120000}")
+    private long claimLeaseMs;
+
+    private final String relayId = relayId();
+
+    public SearchIndexRelay(SearchOutboxRepository outboxRepository,
+                            AuditLogRepository auditLogRepository,
+                            ElasticsearchBulkIndexer bulkIndexer,
+                            ElasticsearchClient elasticsearchClient,
+                            TransactionTemplate transactionTemplate,
+                            MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.auditLogRepository = auditLogRepository;
+        this.bulkIndexer = bulkIndexer;
+        this.elasticsearchClient = elasticsearchClient;
+        this.transactionTemplate = transactionTemplate;
+        this.relayedCounter = meterRegistry.counter("audit.outbox.relayed");
+        this.replayedCounter = meterRegistry.counter("audit.outbox.replayed");
+    }
+
+    @Scheduled(fixedDelayString = "${audit.elasticsearch.outbox.poll-interval-ms:250}")
+    public void relay() {
+        try {
+            int relayed;
+            do {
+                relayed = relayOutboxBatch();
+            } while (relayed >= batchSize);
+            replayNextChunk();
+        } catch (Exception e) {
+            log.error("Search index relay failed, will retry on next tick", e);
+        }
+    }
+
+    /**
+     * Relays one batch of outbox rows and returns how many were acknowledged.
+     */
+    public int relayOutboxBatch() {
+        Instant now = Instant.now();
+        List<OutboxEntry> entries = transactionTemplate.execute(status ->
+            outboxRepository.claimBatch(batchSize, relayId, now, now.plusMillis(claimLeaseMs)));
+        if (entries == null || entries.isEmpty()) {
+            return 0;
+        }
+
+        Map<UUID, AuditLog> auditLogs = loadAuditLogs(entries.stream().map(OutboxEntry::auditLogId).toList());
+        Set<UUID> indexed = indexAndAwait(auditLogs.values());
+        boolean removed = deleteDocuments(entries.stream()
+            .map(OutboxEntry::auditLogId)
+            .filter(id -> !auditLogs.containsKey(id))
+            .collect(Collectors.toSet()));
+
+        List<Long> done = new ArrayList<>(entries.size());
+        List<Long> failed = new ArrayList<>();
+        long highWaterMark = 0;
+        for (OutboxEntry entry : entries) {
+            boolean relayed = auditLogs.containsKey(entry.auditLogId()) ? indexed.contains(entry.auditLogId()) : removed;
+            if (relayed) {
+                done.add(entry.id());
+                highWaterMark = Math.max(highWaterMark, entry.id());
+            } else {
+                failed.add(entry.id());
+            }
+        }
+
+        long acknowledged = highWaterMark;
+        transactionTemplate.executeWithoutResult(status -> {
+            outboxRepository.delete(done);
+            if (!done.isEmpty()) {
+                outboxRepository.advanceHighWaterMark(RELAY_NAME, acknowledged);
+            }
+            outboxRepository.release(failed, relayId);
+        });
+        if (!failed.isEmpty()) {
+            log.warn("{} of {} outbox entries were not indexed and will be retried", failed.size(), entries.size());
+        }
+        relayedCounter.increment(done.size());
+        return done.size();
+    }
+
+    /**
+     * Indexes the next chunk of an in-flight replay. The cursor only advances when the whole
+     * chunk was acknowledged, so a failed chunk is simply replayed again.
+     */
+    public int replayNextChunk() {
+        Instant now = Instant.now();
+        RelayState state = outboxRepository.claimReplay(RELAY_NAME, relayId, now, now.plusMillis(claimLeaseMs))
+            .orElse(null);
+        if (state == null) {
+            return 0;
+        }
+
+        List<ReplayKey> keys = outboxRepository.findReplayKeys(
+            state.replayCursorCreatedAt(), state.replayCursorId(), state.replayUntil(), replayBatchSize);
+        if (keys.isEmpty()) {
+            outboxRepository.finishReplay(RELAY_NAME, relayId);
+            log.info("Search index replay from {} finished after {} audit logs",
+                state.replayFrom(), state.replayedCount());
+            return 0;
+        }
+
+        Map<UUID, AuditLog> auditLogs = loadAuditLogs(keys.stream().map(ReplayKey::id).toList());
+        Set<UUID> indexed = indexAndAwait(auditLogs.values());
+        if (indexed.size() < auditLogs.size()) {
+            log.warn("Replay chunk partially failed ({} of {} indexed), retrying from {}",
+                indexed.size(), auditLogs.size(), state.replayCursorCreatedAt());
+            outboxRepository.releaseReplay(RELAY_NAME, relayId);
+            return 0;
+        }
+
+        ReplayKey last = keys.get(keys.size() - 1);
+        if (!outboxRepository.advanceReplayCursor(RELAY_NAME, relayId, last.createdAt(), last.id(), keys.size())) {
+            log.info("Lost the search index replay lease while indexing a chunk, leaving the cursor at {}",
+                state.replayCursorCreatedAt());
+            return 0;
+        }
+        replayedCounter.increment(keys.size());
+        return keys.size();
+    }
+
+    /**
+     * Schedules a rebuild of every audit log created at or after {@code from}. Rows created
+     * after the request are covered by the outbox, so the walk stops at the current instant.
+     */
+    public SearchIndexStatus startReplay(Instant from) {
+        Instant until = Instant.now();
+        if (from.isAfter(until)) {
+            throw new BadRequestException("Replay start must not be in the future");
+        }
+        transactionTemplate.executeWithoutResult(status -> outboxRepository.startReplay(RELAY_NAME, from, until));
+        log.info("Scheduled search index replay from {} to {}", from, until);
+        return getStatus();
+    }
+
+    /**
+     * How far the index trails MySQL: the age of the oldest audit log still in the outbox, zero
+     * when the outbox is empty. Null while a replay rebuilds the index, as it is then incomplete.
+     */
+    public Duration indexLag() {
+        RelayState state = outboxRepository.findState(RELAY_NAME).orElse(null);
+        if (state == null || state.isReplaying()) {
+            return null;
+        }
+        return outboxRepository.findOldestPendingCreatedAt()
+            .map(oldest -> Duration.between(oldest, Instant.now()))
+            .orElse(Duration.ZERO);
+    }
+
+    public SearchIndexStatus getStatus() {
+        RelayState state = outboxRepository.findState(RELAY_NAME)
+            .orElseThrow(() -> new IllegalStateException("Search relay state is missing"));
+        Instant oldestPending = outboxRepository.findOldestPendingCreatedAt().orElse(null);
+
+        return SearchIndexStatus.builder()
+            .highWaterMark(state.highWaterMark())
+            .pendingOutboxEntries(outboxRepository.countPending())
+            .oldestPendingAt(oldestPending)
+            .lagSeconds(oldestPending != null ? Duration.between(oldestPending, Instant.now()).toSeconds() : 0)
+            .queueDepth(bulkIndexer.getQueueDepth())
+            .replaying(state.isReplaying())
+            .replayFrom(state.replayFrom())
+            .replayUntil(state.replayUntil())
+            .replayPosition(state.replayCursorCreatedAt())
+            .replayedCount(state.replayedCount())
+            .build();
+    }
+
+    private Map<UUID, AuditLog> loadAuditLogs(List<UUID> ids) {
+        return auditLogRepository.findAllById(ids).stream()
+            .collect(Collectors.toMap(AuditLog::getId, Function.identity()));
+    }
+
+    /**
+     * Submits the audit logs to the bulk indexer and returns the ids Elasticsearch acknowledged
+     * within the ack timeout.
+     */
+    private Set<UUID> indexAndAwait(Collection<AuditLog> auditLogs) {
+        List<AuditLog> logs = List.copyOf(auditLogs);
+        List<CompletableFuture<Void>> futures = bulkIndexer.submitAll(
+            logs.stream().map(AuditLogDocument::fromEntity).toList());
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ackTimeoutMs);
+        Set<UUID> indexed = new HashSet<>();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                indexed.add(logs.get(i).getId());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.debug("Audit log {} was not indexed: {}", logs.get(i).getId(), e.getMessage());
+            }
+        }
+        return indexed;
+    }
+
+    /**
+     * Deletes the documents of audit logs removed from MySQL from every index behind the read
+     * alias, and returns whether none was left behind.
+     */
+    private boolean deleteDocuments(Set<UUID> auditLogIds) {
+        if (auditLogIds.isEmpty()) {
+            return true;
+        }
+        List<String> ids = auditLogIds.stream().map(UUID::toString).toList();
+        try {
+            DeleteByQueryResponse response = elasticsearchClient.deleteByQuery(d -> d
+                .index(AuditLogIndices.READ_ALIAS)
+                .query(q -> q.ids(i -> i.values(ids)))
+                .conflicts(Conflicts.Proceed));
+            if (!response.failures().isEmpty()) {
+                log.warn("Failed to delete {} removed audit logs from Elasticsearch: {}",
+                    ids.size(), response.failures().get(0).cause().reason());
+                return false;
+            }
+            return true;
+        } catch (Exception e) {
+            log.warn("Failed to delete {} removed audit logs from Elasticsearch: {}", ids.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Deletes the documents of a retention cell created before {@code before} from every index
+     * behind the read alias, for rows retention removes by dropping their partition rather than
+     * through the outbox. Returns the number of documents deleted.
+     *
+     * @throws IllegalStateException if a document could not be deleted, such as one in an index
+     * that is write-blocked while it is rerouted
+     */
+    public long deleteExpired(RetentionCell cell, Instant before) {
+        DeleteByQueryResponse response;
+        try {
+            response = elasticsearchClient.deleteByQuery(d -> d
+                .index(AuditLogIndices.READ_ALIAS)
+                .query(q -> q.bool(b -> b
+                    .filter(f -> f.term(t -> t.field("workspaceId").value(cell.workspaceId().toString())))
+                    .filter(f -> f.term(t -> t.field("category").value(cell.category().name())))
+                    .filter(f -> f.term(t -> t.field("severity").value(cell.severity().name())))
+                    .filter(f -> f.range(r -> r.field("createdAt").format("epoch_millis")
+                        .lt(JsonData.of(before.toEpochMilli()))))))
+                .conflicts(Conflicts.Proceed));
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to delete the documents of " + cell + " from Elasticsearch", e);
+        }
+        if (!response.failures().isEmpty()) {
+            throw new IllegalStateException("Failed to delete the documents of " + cell + " from Elasticsearch: "
+                + response.failures().get(0).cause().reason());
+        }
+        return response.deleted() != null ? response.deleted() : 0;
+    }
+
+    private static String relayId() {
+        String host = System.getenv().getOrDefault("HOSTNAME", "audit-service");
+        if (host.length() > 60) {
+            host = host.substring(0, 60);
+        }
+        return host + "-" + UUID.randomUUID();
+    }
+}
@@ -2,77 +2,94 @@ package com.quckapp.audit.service.report;
 
 import com.quckapp.audit.domain.entity.AuditLog;
 import com.quckapp.audit.domain.entity.ComplianceReport;
-import com.quckapp.audit.domain.repository.AuditLogRepository;
-import lombok.RequiredArgsConstructor;
+import com.quckapp.audit.domain.repository.AuditLogSpecifications;
+import com.quckapp.audit.service.sketch.DistinctCounter;
+import com.quckapp.audit.service.sketch.HyperLogLog;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 @Component
-@RequiredArgsConstructor
 public class AccessLogReportGenerator implements ReportGenerator {
 
-    private final AuditLogRepository auditLogRepository;
-
     @Override
     public ComplianceReport.ReportType getReportType() {
         return ComplianceReport.ReportType.ACCESS_LOG;
     }
 
     @Override
-    public Map<String, Object> generateSummary(ReportContext context) {
-        List<AuditLog> logs = generateData(context);
+    public Specification<AuditLog> criteria(ReportContext context) {
+        return context.inPeriod().and(AuditLogSpecifications.inCategory(AuditLog.AuditCategory.DATA_ACCESS));
+    }
 
-        Map<String, Object> summary = new HashMap<>();
-        summary.put("reportType", getReportType().name());
-        summary.put("periodStart", context.periodStart().toString());
-        summary.put("periodEnd", context.periodEnd().toString());
-        summary.put("totalEvents", logs.size());
+    @Override
+    public ReportVisitor newVisitor(ReportContext context) {
+        return new Visitor(context);
+    }
 
-        Set<String> uniqueUsers = logs.stream()
-            .filter(log -> log.getActorEmail() != null)
-            .map(AuditLog::getActorEmail)
-            .collect(Collectors.toSet());
-        summary.put("uniqueUsers", uniqueUsers.size());
+    private final class Visitor implements ReportVisitor {
 
-        Map<String, Long> byResourceType = logs.stream()
-            .collect(Collectors.groupingBy(
-                AuditLog::getResourceType,
-                Collectors.counting()
-            ));
-        summary.put("accessByResourceType", byResourceType);
+        private final ReportContext context;
+        private long totalEvents;
+        private long reads;
+        private long writes;
+        private final DistinctCounter uniqueUsers;
+        private final Map<String, Long> byResourceType = new HashMap<>();
+        private final Map<String, Long> byAction = new HashMap<>();
 
-        Map<String, Long> byAction = logs.stream()
-            .collect(Collectors.groupingBy(
-                AuditLog::getAction,
-                Collectors.counting()
-            ));
-        summary.put("eventsByAction", byAction);
+        private Visitor(ReportContext context) {
+            this.context = context;
+            this.uniqueUsers = DistinctCounter.create(context.approximate());
+        }
 
-        long reads = logs.stream()
-            .filter(log -> log.getAction().contains("READ") || log.getAction().contains("VIEW") || log.getAction().contains("GET"))
-            .count();
-        long writes = logs.stream()
-            .filter(log -> log.getAction().contains("WRITE") || log.getAction().contains("CREATE") ||
-                          log.getAction().contains("UPDATE") || log.getAction().contains("DELETE"))
-            .count();
-        summary.put("readOperations", reads);
-        summary.put("writeOperations", writes);
+        @Override
+        public void visit(AuditLog log) {
+            totalEvents++;
+            if (log.getActorEmail() != null) {
+                uniqueUsers.add(log.getActorEmail());
+            }
+            byResourceType.merge(log.getResourceType(), 1L, Long::sum);
+            byAction.merge(log.getAction(), 1L, Long::sum);
 
-        return summary;
-    }
+            String action = log.getAction();
+            if (action.contains("READ") || action.contains("VIEW") || action.contains("GET")) {
+                reads++;
+            }
+            if (action.contains("WRITE") || action.contains("CREATE") ||
+                    action.contains("UPDATE") || action.contains("DELETE")) {
+                writes++;
+            }
+        }
 
-    @Override
-    public List<AuditLog> generateData(ReportContext context) {
-        return auditLogRepository.findByWorkspaceIdAndCategoryAndDateRange(
-            context.workspaceId(),
-            AuditLog.AuditCategory.DATA_ACCESS,
-            context.periodStart(),
-            context.periodEnd()
-        );
+        @Override
+        public void merge(ReportVisitor other) {
+            Visitor that = (Visitor) other;
+            totalEvents += that.totalEvents;
+            reads += that.reads;
+            writes += that.writes;
+            uniqueUsers.merge(that.uniqueUsers);
+            ReportVisitor.addCounts(byResourceType, that.byResourceType);
+            ReportVisitor.addCounts(byAction, that.byAction);
+        }
+
+        @Override
+        public Map<String, Object> summary() {
+            Map<String, Object> summary = new HashMap<>();
+            summary.put("reportType", getReportType().name());
+            summary.put("periodStart", context.periodStart().toString());
+            summary.put("periodEnd", context.periodEnd().toString());
+            summary.put("totalEvents", totalEvents);
+            summary.put("uniqueUsers", uniqueUsers.count());
+            if (uniqueUsers.isApproximate()) {
+                summary.put("uniqueUsersRelativeError", HyperLogLog.RELATIVE_ERROR);
+            }
+            summary.put("accessByResourceType", byResourceType);
+            summary.put("eventsByAction", byAction);
+            summary.put("readOperations", reads);
+            summary.put("writeOperations", writes);
+            return summary;
+        }
     }
 }
@@ -2,83 +2,92 @@ package com.quckapp.audit.service.report;
 
 import com.quckapp.audit.domain.entity.AuditLog;
 import com.quckapp.audit.domain.entity.ComplianceReport;
-import com.quckapp.audit.domain.repository.AuditLogRepository;
-import lombok.RequiredArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.TreeSet;
 
 @Component
-@RequiredArgsConstructor
 public class AdminActionsReportGenerator implements ReportGenerator {
 
-    private final AuditLogRepository auditLogRepository;
-
     @Override
     public ComplianceReport.ReportType getReportType() {
         return ComplianceReport.ReportType.ADMIN_ACTIONS;
     }
 
     @Override
-    public Map<String, Object> generateSummary(ReportContext context) {
-        List<AuditLog> logs = generateData(context);
+    public Specification<AuditLog> criteria(ReportContext context) {
+        // Admin actions: configuration, security and authorization changes. LIKE ignores case under
+        // the column's collation, so the action patterns are matched exactly by includes
+        return context.inPeriod().and((root, query, cb) -> cb.or(
+            root.get("category").in(AuditLog.AuditCategory.CONFIGURATION, AuditLog.AuditCategory.AUTHORIZATION),
+            cb.like(root.<String>get("action"), "ADMIN\\_%", '\\'),
+            cb.like(root.<String>get("action"), "%ROLE%"),
+            cb.like(root.<String>get("action"), "%PERMISSION%")));
+    }
 
-        Map<String, Object> summary = new HashMap<>();
-        summary.put("reportType", getReportType().name());
-        summary.put("periodStart", context.periodStart().toString());
-        summary.put("periodEnd", context.periodEnd().toString());
-        summary.put("totalEvents", logs.size());
+    @Override
+    public boolean includes(AuditLog log) {
+        return log.getCategory() == AuditLog.AuditCategory.CONFIGURATION
+            || log.getCategory() == AuditLog.AuditCategory.AUTHORIZATION
+            || log.getAction().startsWith("ADMIN_")
+            || log.getAction().contains("ROLE")
+            || log.getAction().contains("PERMISSION");
+    }
 
-        Set<String> uniqueAdmins = logs.stream()
-            .filter(log -> log.getActorEmail() != null)
-            .map(AuditLog::getActorEmail)
-            .collect(Collectors.toSet());
-        summary.put("uniqueAdmins", uniqueAdmins.size());
-        summary.put("adminEmails", uniqueAdmins);
+    @Override
+    public ReportVisitor newVisitor(ReportContext context) {
+        return new Visitor(context);
+    }
 
-        Map<String, Long> actionsByAdmin = logs.stream()
-            .filter(log -> log.getActorEmail() != null)
-            .collect(Collectors.groupingBy(
-                AuditLog::getActorEmail,
-                Collectors.counting()
-            ));
-        summary.put("actionsByAdmin", actionsByAdmin);
+    private final class Visitor implements ReportVisitor {
 
-        Map<String, Long> byAction = logs.stream()
-            .collect(Collectors.groupingBy(
-                AuditLog::getAction,
-                Collectors.counting()
-            ));
-        summary.put("eventsByAction", byAction);
+        private final ReportContext context;
+        private long totalEvents;
+        private long configChanges;
+        private final Map<String, Long> actionsByAdmin = new HashMap<>();
+        private final Map<String, Long> byAction = new HashMap<>();
 
-        long configChanges = logs.stream()
-            .filter(log -> log.getCategory() == AuditLog.AuditCategory.CONFIGURATION)
-            .count();
-        summary.put("configurationChanges", configChanges);
+        private Visitor(ReportContext context) {
+            this.context = context;
+        }
 
-        return summary;
-    }
+        @Override
+        public void visit(AuditLog log) {
+            totalEvents++;
+            if (log.getActorEmail() != null) {
+                actionsByAdmin.merge(log.getActorEmail(), 1L, Long::sum);
+            }
+            byAction.merge(log.getAction(), 1L, Long::sum);
+            if (log.getCategory() == AuditLog.AuditCategory.CONFIGURATION) {
+                configChanges++;
+            }
+        }
 
-    @Override
-    public List<AuditLog> generateData(ReportContext context) {
-        List<AuditLog> allLogs = auditLogRepository.findByWorkspaceIdAndDateRange(
-            context.workspaceId(),
-            context.periodStart(),
-            context.periodEnd()
-        );
+        @Override
+        public void merge(ReportVisitor other) {
+            Visitor that = (Visitor) other;
+            totalEvents += that.totalEvents;
+            configChanges += that.configChanges;
+            ReportVisitor.addCounts(actionsByAdmin, that.actionsByAdmin);
+            ReportVisitor.addCounts(byAction, that.byAction);
+        }
 
-        // Filter for admin actions (configuration, security, and authorization changes)
-        return allLogs.stream()
-            .filter(log ->
-                log.getCategory() == AuditLog.AuditCategory.CONFIGURATION ||
-                log.getCategory() == AuditLog.AuditCategory.AUTHORIZATION ||
-                log.getAction().startsWith("ADMIN_") ||
-                log.getAction().contains("ROLE") ||
-                log.getAction().contains("PERMISSION"))
-            .toList();
+        @Override
+        public Map<String, Object> summary() {
+            Map<String, Object> summary = new HashMap<>();
+            summary.put("reportType", getReportType().name());
+            summary.put("periodStart", context.periodStart().toString());
+            summary.put("periodEnd", context.periodEnd().toString());
+            summary.put("totalEvents", totalEvents);
+            summary.put("uniqueAdmins", actionsByAdmin.size());
+            summary.put("adminEmails", new TreeSet<>(actionsByAdmin.keySet()));
+            summary.put("actionsByAdmin", actionsByAdmin);
+            summary.put("eventsByAction", byAction);
+            summary.put("configurationChanges", configChanges);
+            return summary;
+        }
     }
 }
@@ -2,105 +2,34 @@ package com.quckapp.audit.service.report;
 
 import com.quckapp.audit.domain.entity.AuditLog;
 import com.quckapp.audit.domain.entity.ComplianceReport;
-import com.quckapp.audit.domain.repository.AuditLogRepository;
-import lombok.RequiredArgsConstructor;
+import com.quckapp.audit.service.sketch.DistinctCounter;
+import com.quckapp.audit.service.sketch.HyperLogLog;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 @Component
-@RequiredArgsConstructor
 public class ComplianceSummaryReportGenerator implements ReportGenerator {
 
-    private final AuditLogRepository auditLogRepository;
-
     @Override
     public ComplianceReport.ReportType getReportType() {
         return ComplianceReport.ReportType.COMPLIANCE_SUMMARY;
     }
 
     @Override
-    public Map<String, Object> generateSummary(ReportContext context) {
-        List<AuditLog> logs = generateData(context);
-
-        Map<String, Object> summary = new HashMap<>();
-        summary.put("reportType", getReportType().name());
-        summary.put("periodStart", context.periodStart().toString());
-        summary.put("periodEnd", context.periodEnd().toString());
-        summary.put("totalEvents", logs.size());
-
-        // Category breakdown
-        Map<String, Long> byCategory = logs.stream()
-            .collect(Collectors.groupingBy(
-                log -> log.getCategory().name(),
-                Collectors.counting()
-            ));
-        summary.put("eventsByCategory", byCategory);
-
-        // Severity breakdown
-        Map<String, Long> bySeverity = logs.stream()
-            .collect(Collectors.groupingBy(
-                log -> log.getSeverity().name(),
-                Collectors.counting()
-            ));
-        summary.put("eventsBySeverity", bySeverity);
-
-        // Action breakdown
-        Map<String, Long> byAction = logs.stream()
-            .collect(Collectors.groupingBy(
-                AuditLog::getAction,
-                Collectors.counting()
-            ));
-        summary.put("eventsByAction", byAction);
-
-        // User activity summary
-        Set<String> uniqueUsers = logs.stream()
-            .filter(log -> log.getActorEmail() != null)
-            .map(AuditLog::getActorEmail)
-            .collect(Collectors.toSet());
-        summary.put("uniqueUsers", uniqueUsers.size());
-
-        // Security metrics
-        long criticalEvents = logs.stream()
-            .filter(log -> log.getSeverity() == AuditLog.AuditSeverity.CRITICAL)
-            .count();
-        long highEvents = logs.stream()
-            .filter(log -> log.getSeverity() == AuditLog.AuditSeverity.HIGH)
-            .count();
-        long securityEvents = logs.stream()
-            .filter(log -> log.getCategory() == AuditLog.AuditCategory.SECURITY)
-            .count();
-        long authEvents = logs.stream()
-            .filter(log -> log.getCategory() == AuditLog.AuditCategory.AUTHENTICATION)
-            .count();
-
-        summary.put("criticalEvents", criticalEvents);
-        summary.put("highSeverityEvents", highEvents);
-        summary.put("securityEvents", securityEvents);
-        summary.put("authenticationEvents", authEvents);
-
-        // Compliance score (basic calculation)
-        double complianceScore = calculateComplianceScore(logs, criticalEvents, highEvents);
-        summary.put("complianceScore", complianceScore);
-
-        return summary;
+    public Specification<AuditLog> criteria(ReportContext context) {
+        return context.inPeriod();
     }
 
     @Override
-    public List<AuditLog> generateData(ReportContext context) {
-        return auditLogRepository.findByWorkspaceIdAndDateRange(
-            context.workspaceId(),
-            context.periodStart(),
-            context.periodEnd()
-        );
+    public ReportVisitor newVisitor(ReportContext context) {
+        return new Visitor(context);
     }
 
-    private double calculateComplianceScore(List<AuditLog> logs, long criticalEvents, long highEvents) {
-        if (logs.isEmpty()) {
+    private double calculateComplianceScore(long totalEvents, long criticalEvents, long highEvents) {
+        if (totalEvents == 0) {
             return 100.0;
         }
 
@@ -115,4 +44,73 @@ public class ComplianceSummaryReportGenerator implements ReportGenerator {
 
         return Math.max(score, 0);
     }
+
+    private final class Visitor implements ReportVisitor {
+
+        private final ReportContext context;
+        private long totalEvents;
+        private final Map<String, Long> byCategory = new HashMap<>();
+        private final Map<String, Long> bySeverity = new HashMap<>();
+        private final Map<String, Long> byAction = new HashMap<>();
+        private final DistinctCounter uniqueUsers;
+
+        private Visitor(ReportContext context) {
+            this.context = context;
+            this.uniqueUsers = DistinctCounter.create(context.approximate());
+        }
+
+        @Override
+        public void visit(AuditLog log) {
+            totalEvents++;
+            byCategory.merge(log.getCategory().name(), 1L, Long::sum);
+            bySeverity.merge(log.getSeverity().name(), 1L, Long::sum);
+            byAction.merge(log.getAction(), 1L, Long::sum);
+            if (log.getActorEmail() != null) {
+                uniqueUsers.add(log.getActorEmail());
+            }
+        }
+
+        @Override
+        public void merge(ReportVisitor other) {
+            Visitor that = (Visitor) other;
+            totalEvents += that.totalEvents;
+            ReportVisitor.addCounts(byCategory, that.byCategory);
+            ReportVisitor.addCounts(bySeverity, that.bySeverity);
+            ReportVisitor.addCounts(byAction, that.byAction);
+            uniqueUsers.merge(that.uniqueUsers);
+        }
+
+        @Override
+        public Map<String, Object> summary() {
+            Map<String, Object> summary = new HashMap<>();
+            summary.put("reportType", getReportType().name());
+            summary.put("periodStart", context.periodStart().toString());
+            summary.put("periodEnd", context.periodEnd().toString());
+            summary.put("totalEvents", totalEvents);
+
+            // Category, severity and action breakdowns
+            summary.put("eventsByCategory", byCategory);
+            summary.put("eventsBySeverity", bySeverity);
+            summary.put("eventsByAction", byAction);
+
+            // User activity summary
+            summary.put("uniqueUsers", uniqueUsers.count());
+            if (uniqueUsers.isApproximate()) {
+                summary.put("uniqueUsersRelativeError", HyperLogLog.RELATIVE_ERROR);
+            }
+
+            // Security metrics
+            long criticalEvents = bySeverity.getOrDefault(AuditLog.AuditSeverity.CRITICAL.name(), 0L);
+            long highEvents = bySeverity.getOrDefault(AuditLog.AuditSeverity.HIGH.name(), 0L);
+            summary.put("criticalEvents", criticalEvents);
+            summary.put("highSeverityEvents", highEvents);
+            summary.put("securityEvents", byCategory.getOrDefault(AuditLog.AuditCategory.SECURITY.name(), 0L));
+            summary.put("authenticationEvents", byCategory.getOrDefault(AuditLog.AuditCategory.AUTHENTICATION.name(), 0L));
+
+            // Compliance score (basic calculation)
+            summary.put("complianceScore", calculateComplianceScore(totalEvents, criticalEvents, highEvents));
+
+            return summary;
+        }
+    }
 }
@@ -2,76 +2,83 @@ package com.quckapp.audit.service.report;
 
 import com.quckapp.audit.domain.entity.AuditLog;
 import com.quckapp.audit.domain.entity.ComplianceReport;
-import com.quckapp.audit.domain.repository.AuditLogRepository;
-import lombok.RequiredArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.TreeSet;
 
 @Component
-@RequiredArgsConstructor
 public class DataExportReportGenerator implements ReportGenerator {
 
-    private final AuditLogRepository auditLogRepository;
-
     @Override
     public ComplianceReport.ReportType getReportType() {
         return ComplianceReport.ReportType.DATA_EXPORT;
     }
 
     @Override
-    public Map<String, Object> generateSummary(ReportContext context) {
-        List<AuditLog> logs = generateData(context);
+    public Specification<AuditLog> criteria(ReportContext context) {
+        // Export-related actions. LIKE ignores case under the column's collation, so the patterns
+        // are matched exactly by includes
+        return context.inPeriod().and((root, query, cb) -> cb.or(
+            cb.like(root.<String>get("action"), "%EXPORT%"),
+            cb.like(root.<String>get("action"), "%DOWNLOAD%"),
+            cb.like(root.<String>get("action"), "%BULK\\_%", '\\')));
+    }
 
-        Map<String, Object> summary = new HashMap<>();
-        summary.put("reportType", getReportType().name());
-        summary.put("periodStart", context.periodStart().toString());
-        summary.put("periodEnd", context.periodEnd().toString());
-        summary.put("totalExports", logs.size());
+    @Override
+    public boolean includes(AuditLog log) {
+        return log.getAction().contains("EXPORT")
+            || log.getAction().contains("DOWNLOAD")
+            || log.getAction().contains("BULK_");
+    }
 
-        Set<String> uniqueExporters = logs.stream()
-            .filter(log -> log.getActorEmail() != null)
-            .map(AuditLog::getActorEmail)
-            .collect(Collectors.toSet());
-        summary.put("uniqueExporters", uniqueExporters.size());
-        summary.put("exporterEmails", uniqueExporters);
+    @Override
+    public ReportVisitor newVisitor(ReportContext context) {
+        return new Visitor(context);
+    }
 
-        Map<String, Long> exportsByUser = logs.stream()
-            .filter(log -> log.getActorEmail() != null)
-            .collect(Collectors.groupingBy(
-                AuditLog::getActorEmail,
-                Collectors.counting()
-            ));
-        summary.put("exportsByUser", exportsByUser);
+    private final class Visitor implements ReportVisitor {
 
-        Map<String, Long> byResourceType = logs.stream()
-            .collect(Collectors.groupingBy(
-                AuditLog::getResourceType,
-                Collectors.counting()
-            ));
-        summary.put("exportsByResourceType", byResourceType);
+        private final ReportContext context;
+        private long totalExports;
+        private final Map<String, Long> exportsByUser = new HashMap<>();
+        private final Map<String, Long> byResourceType = new HashMap<>();
 
-        return summary;
-    }
+        private Visitor(ReportContext context) {
+            this.context = context;
+        }
 
-    @Override
-    public List<AuditLog> generateData(ReportContext context) {
-        List<AuditLog> allLogs = auditLogRepository.findByWorkspaceIdAndDateRange(
-            context.workspaceId(),
-            context.periodStart(),
-            context.periodEnd()
-        );
+        @Override
+        public void visit(AuditLog log) {
+            totalExports++;
+            if (log.getActorEmail() != null) {
+                exportsByUser.merge(log.getActorEmail(), 1L, Long::sum);
+            }
+            byResourceType.merge(log.getResourceType(), 1L, Long::sum);
+        }
+
+        @Override
+        public void merge(ReportVisitor other) {
+            Visitor that = (Visitor) other;
+            totalExports += that.totalExports;
+            ReportVisitor.addCounts(exportsByUser, that.exportsByUser);
+            ReportVisitor.addCounts(byResourceType, that.byResourceType);
+        }
 
-        // Filter for export-related actions
-        return allLogs.stream()
-            .filter(log ->
-                log.getAction().contains("EXPORT") ||
-                log.getAction().contains("DOWNLOAD") ||
-                log.getAction().contains("BULK_"))
-            .toList();
+        @Override
+        public Map<String, Object> summary() {
+            Map<String, Object> summary = new HashMap<>();
+            summary.put("reportType", getReportType().name());
+            summary.put("periodStart", context.periodStart().toString());
+            summary.put("periodEnd", context.periodEnd().toString());
+            summary.put("totalExports", totalExports);
+            summary.put("uniqueExporters", exportsByUser.size());
+            summary.put("exporterEmails", new TreeSet<>(exportsByUser.keySet()));
+            summary.put("exportsByUser", exportsByUser);
+            summary.put("exportsByResourceType", byResourceType);
+            return summary;
+        }
     }
 }
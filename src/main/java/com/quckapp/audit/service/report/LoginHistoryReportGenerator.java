@@ -2,65 +2,80 @@ package com.quckapp.audit.service.report;
 
 import com.quckapp.audit.domain.entity.AuditLog;
 import com.quckapp.audit.domain.entity.ComplianceReport;
-import com.quckapp.audit.domain.repository.AuditLogRepository;
-import lombok.RequiredArgsConstructor;
+import com.quckapp.audit.domain.repository.AuditLogSpecifications;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @Component
-@RequiredArgsConstructor
 public class LoginHistoryReportGenerator implements ReportGenerator {
 
-    private final AuditLogRepository auditLogRepository;
-
     @Override
     public ComplianceReport.ReportType getReportType() {
         return ComplianceReport.ReportType.LOGIN_HISTORY;
     }
 
     @Override
-    public Map<String, Object> generateSummary(ReportContext context) {
-        List<AuditLog> logs = generateData(context);
+    public Specification<AuditLog> criteria(ReportContext context) {
+        return context.inPeriod().and(AuditLogSpecifications.inCategory(AuditLog.AuditCategory.AUTHENTICATION));
+    }
 
-        Map<String, Object> summary = new HashMap<>();
-        summary.put("reportType", getReportType().name());
-        summary.put("periodStart", context.periodStart().toString());
-        summary.put("periodEnd", context.periodEnd().toString());
-        summary.put("totalEvents", logs.size());
+    @Override
+    public ReportVisitor newVisitor(ReportContext context) {
+        return new Visitor(context);
+    }
 
-        long successfulLogins = logs.stream()
-            .filter(log -> "LOGIN_SUCCESS".equals(log.getAction()))
-            .count();
-        long failedLogins = logs.stream()
-            .filter(log -> "LOGIN_FAILED".equals(log.getAction()))
-            .count();
-        long logouts = logs.stream()
-            .filter(log -> "LOGOUT".equals(log.getAction()))
-            .count();
+    private final class Visitor implements ReportVisitor {
 
-        summary.put("successfulLogins", successfulLogins);
-        summary.put("failedLogins", failedLogins);
-        summary.put("logouts", logouts);
+        private final ReportContext context;
+        private long totalEvents;
+        private long successfulLogins;
+        private long failedLogins;
+        private long logouts;
+        private final Map<String, Long> loginsByUser = new HashMap<>();
 
-        Map<String, Long> loginsByUser = new HashMap<>();
-        logs.stream()
-            .filter(log -> log.getActorEmail() != null)
-            .forEach(log -> loginsByUser.merge(log.getActorEmail(), 1L, Long::sum));
-        summary.put("loginsByUser", loginsByUser);
+        private Visitor(ReportContext context) {
+            this.context = context;
+        }
 
-        return summary;
-    }
+        @Override
+        public void visit(AuditLog log) {
+            totalEvents++;
+            switch (log.getAction()) {
+                case "LOGIN_SUCCESS" -> successfulLogins++;
+                case "LOGIN_FAILED" -> failedLogins++;
+                case "LOGOUT" -> logouts++;
+                default -> { }
+            }
+            if (log.getActorEmail() != null) {
+                loginsByUser.merge(log.getActorEmail(), 1L, Long::sum);
+            }
+        }
 
-    @Override
-    public List<AuditLog> generateData(ReportContext context) {
-        return auditLogRepository.findByWorkspaceIdAndCategoryAndDateRange(
-            context.workspaceId(),
-            AuditLog.AuditCategory.AUTHENTICATION,
-            context.periodStart(),
-            context.periodEnd()
-        );
+        @Override
+        public void merge(ReportVisitor other) {
+            Visitor that = (Visitor) other;
+            totalEvents += that.totalEvents;
+            successfulLogins += that.successfulLogins;
+            failedLogins += that.failedLogins;
+            logouts += that.logouts;
+            ReportVisitor.addCounts(loginsByUser, that.loginsByUser);
+        }
+
+        @Override
+        public Map<String, Object> summary() {
+            Map<String, Object> summary = new HashMap<>();
+            summary.put("reportType", getReportType().name());
+            summary.put("periodStart", context.periodStart().toString());
+            summary.put("periodEnd", context.periodEnd().toString());
+            summary.put("totalEvents", totalEvents);
+            summary.put("successfulLogins", successfulLogins);
+            summary.put("failedLogins", failedLogins);
+            summary.put("logouts", logouts);
+            summary.put("loginsByUser", loginsByUser);
+            return summary;
+        }
     }
 }
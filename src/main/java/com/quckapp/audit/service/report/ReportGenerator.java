@@ -2,22 +2,84 @@ package com.quckapp.audit.service.report;
 
 import com.quckapp.audit.domain.entity.AuditLog;
 import com.quckapp.audit.domain.entity.ComplianceReport;
+import com.quckapp.audit.domain.repository.AuditLogSpecifications;
+import org.springframework.data.jpa.domain.Specification;
 
-import java.util.List;
 import java.util.Map;
 
+/**
+ * A report is generated in a single forward-only scan: the rows selected by {@link #criteria}
+ * are streamed once, and each is handed to the report's {@link ReportVisitor} and to the CSV
+ * export side by side. Visitors only keep aggregates, never the rows themselves, and those
+ * aggregates merge, so a period can be scanned as independent time slices.
+ */
 public interface ReportGenerator {
 
     ComplianceReport.ReportType getReportType();
 
-    Map<String, Object> generateSummary(ReportContext context);
+    /**
+     * The rows of the report, as one query. The query may select more rows than the report
+     * holds, when {@link #includes} refines it.
+     */
+    Specification<AuditLog> criteria(ReportContext context);
 
-    List<AuditLog> generateData(ReportContext context);
+    /**
+     * Whether a row selected by {@link #criteria} belongs to the report, for conditions the query
+     * can only approximate. Rows it rejects are neither visited nor exported.
+     */
+    default boolean includes(AuditLog log) {
+        return true;
+    }
+
+    /**
+     * A fresh visitor for one scan of the rows selected by {@link #criteria}, or a slice of them.
+     */
+    ReportVisitor newVisitor(ReportContext context);
+
+    interface ReportVisitor {
+
+        void visit(AuditLog log);
+
+        /**
+         * Adds in the rows visited by {@code other}, a visitor from the same generator and
+         * context that scanned a disjoint slice of the rows.
+         */
+        void merge(ReportVisitor other);
+
+        /**
+         * The summary of every row visited so far.
+         */
+        Map<String, Object> summary();
+
+        static <K> void addCounts(Map<K, Long> target, Map<K, Long> source) {
+            source.forEach((key, count) -> target.merge(key, count, Long::sum));
+        }
+    }
+
+    /** Report parameter asking for approximate distinct counts. */
+    String APPROXIMATE = "approximate";
 
     record ReportContext(
         java.util.UUID workspaceId,
         java.time.Instant periodStart,
         java.time.Instant periodEnd,
         Map<String, Object> parameters
-    ) {}
+    ) {
+
+        /**
+         * The workspace's rows created within the period, both ends inclusive.
+         */
+        public Specification<AuditLog> inPeriod() {
+            return Specification.<AuditLog>where(AuditLogSpecifications.inWorkspace(workspaceId))
+                .and(AuditLogSpecifications.createdFrom(periodStart))
+                .and(AuditLogSpecifications.createdUntil(periodEnd));
+        }
+
+        /**
+         * Whether the report was requested with approximate distinct counts.
+         */
+        public boolean approximate() {
+            return parameters != null && Boolean.TRUE.equals(parameters.get(APPROXIMATE));
+        }
+    }
 }
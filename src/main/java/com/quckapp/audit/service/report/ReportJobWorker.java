@@ -0,0 +1,233 @@
+package com.quckapp.audit.service.report;
+
+import com.quckapp.audit.domain.repository.ReportJobRepository;
+import com.quckapp.audit.domain.repository.ReportJobRepository.ReportJob;
+import com.quckapp.audit.service.ComplianceReportService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Claims queued compliance reports and generates them on a fixed pool of {@code workers} threads.
+ *
+ * Every instance polls the queue, so claims go through {@code FOR UPDATE SKIP LOCKED} and never
+ * hand the same report to two workers. A poll locks a few more candidates than it has free
+ * threads and skips those of workspaces already running {@code max-per-workspace} reports, so
+ * one workspace cannot hold up the others; the limit is checked at claim time and may be briefly
+ * exceeded by instances claiming for the same workspace at once. Running reports are kept alive
+ * with heartbeats; reports whose heartbeat went stale, such as those of a crashed instance, are
+ * queued again on startup and on every heartbeat, until they run out of attempts.
+ *
+ * Polls and heartbeats run on the worker's own scheduler threads rather than the shared
+ * {@code @Scheduled} pool, so a slow job elsewhere in the service cannot hold back a heartbeat
+ * long enough for running reports to look orphaned.
+ */
+@Component
+@Slf4j
+public class ReportJobWorker {
+
+    /** Candidates locked per free thread, to look past reports of busy workspaces. */
+    private static final int CANDIDATES_PER_SLOT = 4;
+
+    private final ReportJobRepository jobRepository;
+    private final ComplianceReportService reportService;
+    private final TransactionTemplate claimTransaction;
+    private final String workerId;
+    private final Set<UUID> running = ConcurrentHashMap.newKeySet();
+
+    @Value("${audit.reports.queue.workers:2}")
+    private int workers;
+
+    @Value("${audit.reports.queue.max-per-workspace:2}")
+    private int maxPerWorkspace;
+
+    @Value("${audit.reports.queue.stale-after-seconds:180}")
+    private long staleAfterSeconds;
+
+    @Value("${audit.reports.queue.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${audit.reports.queue.poll-interval-ms:2000}")
+    private long pollIntervalMs;
+
+    @Value("${audit.reports.queue.heartbeat-interval-ms:30000}")
+    private long heartbeatIntervalMs;
+
+    private ExecutorService jobExecutor;
+    private ScheduledExecutorService scheduler;
+    private volatile boolean stopped;
+
+    public ReportJobWorker(ReportJobRepository jobRepository,
+                           ComplianceReportService reportService,
+                           PlatformTransactionManager transactionManager) {
+        this.jobRepository = jobRepository;
+        this.reportService = reportService;
+        this.claimTransaction = new TransactionTemplate(transactionManager);
+        this.workerId = workerId();
+    }
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger counter = new AtomicInteger();
+        jobExecutor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "audit-report-worker-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // One thread each, so a poll stuck on the database does not hold back the heartbeat
+        AtomicInteger schedulerCounter = new AtomicInteger();
+        scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "audit-report-scheduler-" + schedulerCounter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("Started report worker {} with {} threads", workerId, workers);
+    }
+
+    /**
+     * Puts the running reports back in the queue for another instance, then stops them. Releasing
+     * first drops the claim, so the interrupted reports are not recorded as failed.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        stopped = true;
+        scheduler.shutdownNow();
+        if (!running.isEmpty()) {
+            int released = jobRepository.release(Set.copyOf(running), workerId);
+            log.info("Released {} compliance reports on shutdown", released);
+        }
+        jobExecutor.shutdownNow();
+        jobExecutor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverOnStartup() {
+        recoverOrphans();
+        schedule();
+    }
+
+    /**
+     * Starts polling the queue and heartbeating the running reports, each with a fixed delay.
+     */
+    public void schedule() {
+        scheduler.scheduleWithFixedDelay(this::poll, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::heartbeat, heartbeatIntervalMs, heartbeatIntervalMs,
+            TimeUnit.MILLISECONDS);
+    }
+
+    public void poll() {
+        try {
+            claim();
+        } catch (Exception e) {
+            log.error("Failed to claim compliance reports", e);
+        }
+    }
+
+    public void heartbeat() {
+        try {
+            if (!running.isEmpty()) {
+                jobRepository.heartbeat(Set.copyOf(running), workerId, Instant.now());
+            }
+            recoverOrphans();
+        } catch (Exception e) {
+            log.error("Failed to heartbeat compliance reports", e);
+        }
+    }
+
+    /**
+     * Claims as many queued reports as there are free threads and starts them. Returns the number
+     * of reports claimed.
+     */
+    public int claim() {
+        int free = workers - running.size();
+        if (stopped || free <= 0) {
+            return 0;
+        }
+        List<UUID> claimed = claimTransaction.execute(status -> {
+            List<ReportJob> candidates = jobRepository.lockPending(free * CANDIDATES_PER_SLOT);
+            if (candidates.isEmpty()) {
+                return List.of();
+            }
+            Map<UUID, Integer> processing = new HashMap<>(jobRepository.countProcessingByWorkspace(
+                candidates.stream().map(ReportJob::workspaceId).collect(Collectors.toSet())));
+            List<UUID> picked = new ArrayList<>(free);
+            for (ReportJob job : candidates) {
+                if (picked.size() == free) {
+                    break;
+                }
+                int active = processing.getOrDefault(job.workspaceId(), 0);
+                if (active < maxPerWorkspace) {
+                    picked.add(job.id());
+                    processing.put(job.workspaceId(), active + 1);
+                }
+            }
+            jobRepository.markClaimed(picked, workerId, Instant.now());
+            return picked;
+        });
+
+        for (UUID reportId : claimed) {
+            running.add(reportId);
+            jobExecutor.submit(() -> generate(reportId));
+        }
+        if (!claimed.isEmpty()) {
+            log.debug("Claimed {} compliance reports", claimed.size());
+        }
+        return claimed.size();
+    }
+
+    /**
+     * Queues orphaned reports again, or fails those that have used up their attempts.
+     */
+    public void recoverOrphans() {
+        Instant staleBefore = Instant.now().minusSeconds(staleAfterSeconds);
+        int failed = jobRepository.failOrphans(staleBefore, maxAttempts,
+            "Report generation was interrupted " + maxAttempts + " times");
+        int requeued = jobRepository.requeueOrphans(staleBefore, maxAttempts);
+        if (failed > 0 || requeued > 0) {
+            log.warn("Recovered orphaned compliance reports: {} queued again, {} failed", requeued, failed);
+        }
+    }
+
+    String getWorkerId() {
+        return workerId;
+    }
+
+    private void generate(UUID reportId) {
+        try {
+            reportService.generateReport(reportId, workerId);
+        } catch (Exception e) {
+            log.error("Report worker failed on compliance report {}", reportId, e);
+        } finally {
+            running.remove(reportId);
+        }
+    }
+
+    private static String workerId() {
+        String host = System.getenv().getOrDefault("HOSTNAME", "audit-service");
+        if (host.length() > 60) {
+            host = host.substring(0, 60);
+        }
+        return host + "-" + UUID.randomUUID();
+    }
+}
@@ -0,0 +1,206 @@
+package com.quckapp.audit.service.report;
+
+import com.quckapp.audit.domain.entity.AuditLog;
+import com.quckapp.audit.domain.repository.AuditLogRepository;
+import com.quckapp.audit.domain.repository.AuditLogSpecifications;
+import com.quckapp.audit.service.CsvExportService;
+import com.quckapp.audit.service.CsvExportService.ExportResult;
+import com.quckapp.audit.service.CsvExportService.ReportCsv;
+import com.quckapp.audit.service.report.ReportGenerator.ReportContext;
+import com.quckapp.audit.service.report.ReportGenerator.ReportVisitor;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Runs a report over its period as parallel time slices.
+ *
+ * The period is cut into slices of {@code slice-days}, newest first, and each slice is streamed
+ * in its own read-only transaction on a fixed pool of {@code parallelism} threads, so a report
+ * holds at most that many connections however long its period is. Every slice feeds its own
+ * visitor and its own CSV part; the visitors are then merged and the parts concatenated in
+ * slice order, which keeps the file newest first like a single scan would.
+ */
+@Component
+@Slf4j
+public class ReportRunner {
+
+    private final AuditLogRepository auditLogRepository;
+    private final CsvExportService csvExportService;
+    private final TransactionTemplate sliceTransaction;
+
+    @Value("${audit.reports.parallelism:4}")
+    private int parallelism;
+
+    @Value("${audit.reports.slice-days:7}")
+    private int sliceDays;
+
+    private ExecutorService sliceExecutor;
+
+    public ReportRunner(AuditLogRepository auditLogRepository,
+                        CsvExportService csvExportService,
+                        PlatformTransactionManager transactionManager) {
+        this.auditLogRepository = auditLogRepository;
+        this.csvExportService = csvExportService;
+        this.sliceTransaction = new TransactionTemplate(transactionManager);
+        this.sliceTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.sliceTransaction.setReadOnly(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger counter = new AtomicInteger();
+        sliceExecutor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "audit-report-slice-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("Started report runner with {} slice threads and {}-day slices", parallelism, sliceDays);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        sliceExecutor.shutdownNow();
+        sliceExecutor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    public ReportResult run(ReportGenerator generator, ReportContext context, String reportName, UUID reportId)
+            throws IOException {
+        List<Slice> slices = slices(context.periodStart(), context.periodEnd());
+        AtomicBoolean aborted = new AtomicBoolean();
+        List<Future<SliceResult>> futures = new ArrayList<>(slices.size());
+        for (int i = 0; i < slices.size(); i++) {
+            Slice slice = slices.get(i);
+            int part = i;
+            futures.add(sliceExecutor.submit(() -> scan(generator, context, slice, reportId, part, aborted)));
+        }
+
+        ReportVisitor visitor = generator.newVisitor(context);
+        List<ReportCsv> parts = new ArrayList<>(slices.size());
+        try {
+            for (Future<SliceResult> future : futures) {
+                SliceResult result = future.get();
+                visitor.merge(result.visitor());
+                parts.add(result.csv());
+            }
+        } catch (InterruptedException e) {
+            RuntimeException failure = abort(futures, aborted, new IllegalStateException("Interrupted while generating report", e));
+            Thread.currentThread().interrupt();
+            throw failure;
+        } catch (ExecutionException e) {
+            throw abort(futures, aborted, e.getCause() instanceof IOException io
+                ? new UncheckedIOException("Failed to write report slice", io)
+                : new IllegalStateException("Failed to scan report slice", e.getCause()));
+        }
+
+        ExportResult export = csvExportService.concatenate(reportName, reportId, parts);
+        log.debug("Generated report {} from {} slices", reportId, slices.size());
+        return new ReportResult(visitor.summary(), export);
+    }
+
+    /**
+     * Scans one slice into a fresh visitor and CSV part. Returns null without scanning if the
+     * report was aborted first, and stops mid-scan if it is aborted meanwhile.
+     */
+    private SliceResult scan(ReportGenerator generator, ReportContext context, Slice slice, UUID reportId, int part,
+                             AtomicBoolean aborted) throws IOException {
+        if (aborted.get()) {
+            return null;
+        }
+        Specification<AuditLog> criteria = generator.criteria(context)
+            .and(AuditLogSpecifications.createdFrom(slice.from()))
+            .and(AuditLogSpecifications.createdBefore(slice.to()));
+        ReportVisitor visitor = generator.newVisitor(context);
+        ReportCsv csv = csvExportService.openCsvPart(reportId, part);
+        try {
+            sliceTransaction.executeWithoutResult(status -> {
+                try (Stream<AuditLog> logs = auditLogRepository.streamAll(criteria, AuditLogSpecifications.NEWEST_FIRST)) {
+                    logs.forEach(auditLog -> {
+                        if (aborted.get()) {
+                            throw new CancellationException("Report generation was aborted");
+                        }
+                        if (generator.includes(auditLog)) {
+                            visitor.visit(auditLog);
+                            csv.append(auditLog);
+                        }
+                    });
+                }
+            });
+            csv.close();
+        } catch (IOException | RuntimeException e) {
+            csv.discard();
+            throw e;
+        }
+        return new SliceResult(visitor, csv);
+    }
+
+    /**
+     * Half-open slices of {@code slice-days} covering the period, newest first. The newest slice
+     * has no upper bound of its own, as the report's criteria already include the period end.
+     */
+    List<Slice> slices(Instant periodStart, Instant periodEnd) {
+        Duration length = Duration.ofDays(sliceDays);
+        List<Slice> slices = new ArrayList<>();
+        Instant to = null;
+        for (Instant from = periodEnd.minus(length); from.isAfter(periodStart); from = from.minus(length)) {
+            slices.add(new Slice(from, to));
+            to = from;
+        }
+        slices.add(new Slice(periodStart, to));
+        return slices;
+    }
+
+    /**
+     * Stops the remaining slices and waits for them, so that no slice still holds a connection
+     * or leaves a part behind once the report has failed.
+     */
+    private RuntimeException abort(List<Future<SliceResult>> futures, AtomicBoolean aborted, RuntimeException e) {
+        aborted.set(true);
+        for (Future<SliceResult> future : futures) {
+            try {
+                SliceResult result = future.get();
+                if (result != null) {
+                    result.csv().discard();
+                }
+            } catch (ExecutionException failed) {
+                // Failed slices discard their own part
+            } catch (IOException discardFailure) {
+                e.addSuppressed(discardFailure);
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return e;
+    }
+
+    record Slice(Instant from, Instant to) {}
+
+    private record SliceResult(ReportVisitor visitor, ReportCsv csv) {}
+
+    public record ReportResult(Map<String, Object> summary, ExportResult export) {}
+}
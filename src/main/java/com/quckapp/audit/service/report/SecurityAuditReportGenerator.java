@@ -2,70 +2,69 @@ package com.quckapp.audit.service.report;
 
 import com.quckapp.audit.domain.entity.AuditLog;
 import com.quckapp.audit.domain.entity.ComplianceReport;
-import com.quckapp.audit.domain.repository.AuditLogRepository;
-import lombok.RequiredArgsConstructor;
+import com.quckapp.audit.domain.repository.AuditLogSpecifications;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @Component
-@RequiredArgsConstructor
 public class SecurityAuditReportGenerator implements ReportGenerator {
 
-    private final AuditLogRepository auditLogRepository;
-
     @Override
     public ComplianceReport.ReportType getReportType() {
         return ComplianceReport.ReportType.SECURITY_AUDIT;
     }
 
     @Override
-    public Map<String, Object> generateSummary(ReportContext context) {
-        List<AuditLog> logs = generateData(context);
+    public Specification<AuditLog> criteria(ReportContext context) {
+        return context.inPeriod().and(AuditLogSpecifications.inCategory(AuditLog.AuditCategory.SECURITY));
+    }
 
-        Map<String, Object> summary = new HashMap<>();
-        summary.put("reportType", getReportType().name());
-        summary.put("periodStart", context.periodStart().toString());
-        summary.put("periodEnd", context.periodEnd().toString());
-        summary.put("totalEvents", logs.size());
+    @Override
+    public ReportVisitor newVisitor(ReportContext context) {
+        return new Visitor(context);
+    }
 
-        Map<String, Long> bySeverity = logs.stream()
-            .collect(Collectors.groupingBy(
-                log -> log.getSeverity().name(),
-                Collectors.counting()
-            ));
-        summary.put("eventsBySeverity", bySeverity);
+    private final class Visitor implements ReportVisitor {
 
-        long criticalEvents = logs.stream()
-            .filter(log -> log.getSeverity() == AuditLog.AuditSeverity.CRITICAL)
-            .count();
-        long highEvents = logs.stream()
-            .filter(log -> log.getSeverity() == AuditLog.AuditSeverity.HIGH)
-            .count();
+        private final ReportContext context;
+        private long totalEvents;
+        private final Map<String, Long> bySeverity = new HashMap<>();
+        private final Map<String, Long> byAction = new HashMap<>();
 
-        summary.put("criticalEvents", criticalEvents);
-        summary.put("highSeverityEvents", highEvents);
+        private Visitor(ReportContext context) {
+            this.context = context;
+        }
 
-        Map<String, Long> byAction = logs.stream()
-            .collect(Collectors.groupingBy(
-                AuditLog::getAction,
-                Collectors.counting()
-            ));
-        summary.put("eventsByAction", byAction);
+        @Override
+        public void visit(AuditLog log) {
+            totalEvents++;
+            bySeverity.merge(log.getSeverity().name(), 1L, Long::sum);
+            byAction.merge(log.getAction(), 1L, Long::sum);
+        }
 
-        return summary;
-    }
+        @Override
+        public void merge(ReportVisitor other) {
+            Visitor that = (Visitor) other;
+            totalEvents += that.totalEvents;
+            ReportVisitor.addCounts(bySeverity, that.bySeverity);
+            ReportVisitor.addCounts(byAction, that.byAction);
+        }
 
-    @Override
-    public List<AuditLog> generateData(ReportContext context) {
-        return auditLogRepository.findByWorkspaceIdAndCategoryAndDateRange(
-            context.workspaceId(),
-            AuditLog.AuditCategory.SECURITY,
-            context.periodStart(),
-            context.periodEnd()
-        );
+        @Override
+        public Map<String, Object> summary() {
+            Map<String, Object> summary = new HashMap<>();
+            summary.put("reportType", getReportType().name());
+            summary.put("periodStart", context.periodStart().toString());
+            summary.put("periodEnd", context.periodEnd().toString());
+            summary.put("totalEvents", totalEvents);
+            summary.put("eventsBySeverity", bySeverity);
+            summary.put("criticalEvents", bySeverity.getOrDefault(AuditLog.AuditSeverity.CRITICAL.name(), 0L));
+            summary.put("highSeverityEvents", bySeverity.getOrDefault(AuditLog.AuditSeverity.HIGH.name(), 0L));
+            summary.put("eventsByAction", byAction);
+            return summary;
+        }
     }
 }
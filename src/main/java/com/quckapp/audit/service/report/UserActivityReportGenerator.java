@@ -2,70 +2,79 @@ package com.quckapp.audit.service.report;
 
 import com.quckapp.audit.domain.entity.AuditLog;
 import com.quckapp.audit.domain.entity.ComplianceReport;
-import com.quckapp.audit.domain.repository.AuditLogRepository;
-import lombok.RequiredArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
 @Component
-@RequiredArgsConstructor
 public class UserActivityReportGenerator implements ReportGenerator {
 
-    private final AuditLogRepository auditLogRepository;
-
     @Override
     public ComplianceReport.ReportType getReportType() {
         return ComplianceReport.ReportType.USER_ACTIVITY;
     }
 
     @Override
-    public Map<String, Object> generateSummary(ReportContext context) {
-        List<AuditLog> logs = generateData(context);
+    public Specification<AuditLog> criteria(ReportContext context) {
+        return context.inPeriod();
+    }
 
-        Map<String, Object> summary = new HashMap<>();
-        summary.put("reportType", getReportType().name());
-        summary.put("periodStart", context.periodStart().toString());
-        summary.put("periodEnd", context.periodEnd().toString());
-        summary.put("totalEvents", logs.size());
+    @Override
+    public ReportVisitor newVisitor(ReportContext context) {
+        return new Visitor(context);
+    }
 
-        Set<UUID> uniqueUsers = logs.stream()
-            .map(AuditLog::getActorId)
-            .collect(Collectors.toSet());
-        summary.put("uniqueUsers", uniqueUsers.size());
+    private final class Visitor implements ReportVisitor {
 
-        Map<String, Long> activityByUser = logs.stream()
-            .filter(log -> log.getActorEmail() != null)
-            .collect(Collectors.groupingBy(
-                AuditLog::getActorEmail,
-                Collectors.counting()
-            ));
-        summary.put("activityByUser", activityByUser);
+        private final ReportContext context;
+        private long totalEvents;
+        private final Set<UUID> uniqueUsers = new HashSet<>();
+        private final Map<String, Long> activityByUser = new HashMap<>();
+        private final Map<String, Long> byAction = new HashMap<>();
+        private final Map<String, Long> byCategory = new HashMap<>();
 
-        Map<String, Long> byAction = logs.stream()
-            .collect(Collectors.groupingBy(
-                AuditLog::getAction,
-                Collectors.counting()
-            ));
-        summary.put("eventsByAction", byAction);
+        private Visitor(ReportContext context) {
+            this.context = context;
+        }
 
-        Map<String, Long> byCategory = logs.stream()
-            .collect(Collectors.groupingBy(
-                log -> log.getCategory().name(),
-                Collectors.counting()
-            ));
-        summary.put("eventsByCategory", byCategory);
+        @Override
+        public void visit(AuditLog log) {
+            totalEvents++;
+            uniqueUsers.add(log.getActorId());
+            if (log.getActorEmail() != null) {
+                activityByUser.merge(log.getActorEmail(), 1L, Long::sum);
+            }
+            byAction.merge(log.getAction(), 1L, Long::sum);
+            byCategory.merge(log.getCategory().name(), 1L, Long::sum);
+        }
 
-        return summary;
-    }
+        @Override
+        public void merge(ReportVisitor other) {
+            Visitor that = (Visitor) other;
+            totalEvents += that.totalEvents;
+            uniqueUsers.addAll(that.uniqueUsers);
+            ReportVisitor.addCounts(activityByUser, that.activityByUser);
+            ReportVisitor.addCounts(byAction, that.byAction);
+            ReportVisitor.addCounts(byCategory, that.byCategory);
+        }
 
-    @Override
-    public List<AuditLog> generateData(ReportContext context) {
-        return auditLogRepository.findByWorkspaceIdAndDateRange(
-            context.workspaceId(),
-            context.periodStart(),
-            context.periodEnd()
-        );
+        @Override
+        public Map<String, Object> summary() {
+            Map<String, Object> summary = new HashMap<>();
+            summary.put("reportType", getReportType().name());
+            summary.put("periodStart", context.periodStart().toString());
+            summary.put("periodEnd", context.periodEnd().toString());
+            summary.put("totalEvents", totalEvents);
+            summary.put("uniqueUsers", uniqueUsers.size());
+            summary.put("activityByUser", activityByUser);
+            summary.put("eventsByAction", byAction);
+            summary.put("eventsByCategory", byCategory);
+            return summary;
+        }
     }
 }
@@ -0,0 +1,370 @@
+package com.quckapp.audit.service.retention;
+
+import com.quckapp.audit.domain.entity.RetentionPolicy;
+import com.quckapp.audit.domain.repository.AuditLogRetentionRepository;
+import com.quckapp.audit.domain.repository.AuditLogRetentionRepository.RetentionCell;
+import com.quckapp.audit.domain.repository.AuditLogRetentionRepository.RowKey;
+import com.quckapp.audit.domain.repository.AuditRollupRepository;
+import com.quckapp.audit.domain.repository.AuditSketchRepository;
+import com.quckapp.audit.domain.repository.RetentionCheckpointRepository;
+import com.quckapp.audit.domain.repository.RetentionCheckpointRepository.RetentionCheckpoint;
+import com.quckapp.audit.domain.repository.SearchOutboxRepository;
+import com.quckapp.audit.dto.AuditDtos.PolicyExecutionDetail;
+import com.quckapp.audit.service.ArchiveService;
+import com.quckapp.audit.service.PartitionMaintenanceService;
+import com.quckapp.audit.service.PartitionMaintenanceService.DroppedPartition;
+import com.quckapp.audit.service.indexing.SearchIndexRelay;
+import com.quckapp.audit.service.statistics.StatisticsCache;
+import com.quckapp.audit.service.retention.RetentionPlanner.ScanRange;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Runs a retention scan plan in small, throttled chunks.
+ *
+ * Expired partitions are dropped first, once the documents of their cells have been deleted
+ * from Elasticsearch; a partition whose documents cannot be deleted is left to the row-level
+ * delete. The remaining expired rows of each planned cell are
+ * deleted in keyset chunks of {@code chunk-size}, each in its own short transaction that also
+ * archives the chunk when the governing policy asks for it and advances the policy's
+ * checkpoint, and the run is paced to {@code max-rows-per-second}. Only one chunk of keys is
+ * held in memory at a time, however many rows a policy covers. The chunk's ids are queued in
+ * the search outbox in the same transaction, and the search relay removes their documents
+ * from Elasticsearch, retrying until it succeeds, so a delete is never lost to an outage or to
+ * an index that is write-blocked while it is rerouted. Once a cell is done, the statistics
+ * rollups of its expired buckets are removed as well, and so are the sketches of the days it
+ * deleted rows from, since they name the actors of those rows; the sketch builder rebuilds them
+ * from the rows that remain.
+ * If the process dies mid-run, the next execution resumes each policy from its checkpoint with
+ * the original cutoff. A failing policy is reported and the remaining policies still run.
+ */
+@Component
+@Slf4j
+public class RetentionExecutor {
+
+    private final AuditLogRetentionRepository retentionRepository;
+    private final RetentionCheckpointRepository checkpointRepository;
+    private final RetentionPlanner retentionPlanner;
+    private final PartitionMaintenanceService partitionMaintenanceService;
+    private final ArchiveService archiveService;
+    private final SearchOutboxRepository outboxRepository;
+    private final SearchIndexRelay searchIndexRelay;
+    private final AuditRollupRepository rollupRepository;
+    private final AuditSketchRepository sketchRepository;
+    private final StatisticsCache statisticsCache;
+    private final TransactionTemplate chunkTransaction;
+
+    @Value("${audit.retention.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${audit.retention.max-rows-per-second:2000}")
+    private double maxRowsPerSecond;
+
+    public RetentionExecutor(AuditLogRetentionRepository retentionRepository,
+                             RetentionCheckpointRepository checkpointRepository,
+                             RetentionPlanner retentionPlanner,
+                             PartitionMaintenanceService partitionMaintenanceService,
+                             ArchiveService archiveService,
+                             SearchOutboxRepository outboxRepository,
+                             SearchIndexRelay searchIndexRelay,
+                             AuditRollupRepository rollupRepository,
+                             AuditSketchRepository sketchRepository,
+                             StatisticsCache statisticsCache,
+                             PlatformTransactionManager transactionManager) {
+        this.retentionRepository = retentionRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.retentionPlanner = retentionPlanner;
+        this.partitionMaintenanceService = partitionMaintenanceService;
+        this.archiveService = archiveService;
+        this.outboxRepository = outboxRepository;
+        this.searchIndexRelay = searchIndexRelay;
+        this.rollupRepository = rollupRepository;
+        this.sketchRepository = sketchRepository;
+        this.statisticsCache = statisticsCache;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Merges the policies into one scan plan over the workspaces that currently have audit logs.
+     */
+    public List<ScanRange> plan(Collection<RetentionPolicy> policies) {
+        return retentionPlanner.plan(policies, retentionRepository.findWorkspaceIds());
+    }
+
+    /**
+     * Executes the ranges of the plan governed by {@code policies} and returns one detail per
+     * policy, in the same order.
+     */
+    public List<PolicyExecutionDetail> execute(List<RetentionPolicy> policies, List<ScanRange> ranges) {
+        List<PolicyRun> runs = new ArrayList<>();
+        for (RetentionPolicy policy : policies) {
+            List<ScanRange> governed = ranges.stream()
+                .filter(range -> range.policy().getId().equals(policy.getId()))
+                .sorted(Comparator.comparing(ScanRange::cell, RetentionCell.ORDER))
+                .toList();
+            PolicyRun run = new PolicyRun(policy, governed);
+            runs.add(run);
+            try {
+                run.checkpoint = resumeOrStart(policy);
+            } catch (Exception e) {
+                run.fail(e);
+            }
+        }
+
+        dropExpiredPartitions(runs);
+
+        Throttle throttle = new Throttle(maxRowsPerSecond);
+        for (PolicyRun run : runs) {
+            if (run.error != null) {
+                continue;
+            }
+            try {
+                for (ScanRange range : run.ranges) {
+                    deleteRange(run, range, throttle);
+                    cleanupRollups(range.cell(), run.checkpoint.cutoff());
+                }
+                checkpointRepository.complete(run.policy.getId());
+                log.info("Retention policy {} deleted {} audit logs in {} cells older than {} and dropped {} partitions",
+                    run.policy.getName(), run.deleted, run.ranges.size(), run.checkpoint.cutoff(), run.droppedPartitions);
+            } catch (Exception e) {
+                run.fail(e);
+            }
+        }
+
+        return runs.stream().map(PolicyRun::toDetail).toList();
+    }
+
+    /**
+     * Resumes an interrupted run with its original cutoff, or starts a new one.
+     */
+    private RetentionCheckpoint resumeOrStart(RetentionPolicy policy) {
+        return checkpointRepository.findByPolicyId(policy.getId())
+            .filter(RetentionCheckpoint::running)
+            .map(checkpoint -> {
+                log.info("Resuming retention policy {} from {} ({} rows already deleted)",
+                    policy.getName(), checkpoint.cursorCreatedAt(), checkpoint.deletedCount());
+                return checkpoint;
+            })
+            .orElseGet(() -> checkpointRepository.start(policy.getId(),
+                Instant.now().minus(policy.getRetentionDays(), ChronoUnit.DAYS)));
+    }
+
+    /**
+     * Best effort: partitions that cannot be dropped are left to the row-level delete.
+     */
+    private void dropExpiredPartitions(List<PolicyRun> runs) {
+        Map<RetentionCell, Instant> cutoffs = new HashMap<>();
+        for (PolicyRun run : runs) {
+            if (run.error == null && !run.policy.isArchiveBeforeDelete()) {
+                run.ranges.forEach(range -> cutoffs.put(range.cell(), run.checkpoint.cutoff()));
+            }
+        }
+
+        Map<RetentionCell, Long> documentsDeleted = new HashMap<>();
+        List<DroppedPartition> dropped;
+        try {
+            dropped = partitionMaintenanceService.dropExpiredPartitions(cutoffs, partition -> {
+                for (RetentionCell cell : partition.cells()) {
+                    long deleted = searchIndexRelay.deleteExpired(cell, partition.partition().upperBound());
+                    documentsDeleted.merge(cell, deleted, Long::sum);
+                }
+            });
+        } catch (Exception e) {
+            log.warn("Failed to drop expired audit_logs partitions: {}", e.getMessage());
+            return;
+        }
+        for (DroppedPartition partition : dropped) {
+            partition.cells().stream().map(RetentionCell::workspaceId).distinct()
+                .forEach(workspaceId -> trimSketches(workspaceId, null, partition.partition().upperBound()));
+        }
+        for (PolicyRun run : runs) {
+            Set<RetentionCell> cells = run.ranges.stream().map(ScanRange::cell).collect(Collectors.toSet());
+            run.droppedPartitions = (int) dropped.stream()
+                .filter(partition -> partition.cells().stream().anyMatch(cells::contains))
+                .count();
+            run.esCleaned += (int) cells.stream().mapToLong(cell -> documentsDeleted.getOrDefault(cell, 0L)).sum();
+        }
+    }
+
+    /**
+     * Deletes the expired rows of one cell. Cells before the checkpoint's cell were finished by
+     * an earlier, interrupted run; the checkpoint's own cell continues after its cursor.
+     */
+    private void deleteRange(PolicyRun run, ScanRange range, Throttle throttle) {
+        RetentionCheckpoint checkpoint = run.checkpoint;
+        RowKey cursor = null;
+        if (checkpoint.cursorCell() != null) {
+            int position = RetentionCell.ORDER.compare(range.cell(), checkpoint.cursorCell());
+            if (position < 0) {
+                return;
+            }
+            if (position == 0) {
+                cursor = new RowKey(checkpoint.cursorId(), checkpoint.cursorCreatedAt());
+            }
+        }
+
+        // An interrupted run deleted rows up to its cursor, from wherever the cell started
+        boolean resumed = cursor != null;
+        Instant oldestDeleted = null;
+        Instant newestDeleted = resumed ? cursor.createdAt() : null;
+        while (true) {
+            RowKey after = cursor;
+            Chunk chunk = chunkTransaction.execute(status -> deleteChunk(run.policy, range.cell(), checkpoint.cutoff(), after));
+            if (chunk == null || chunk.keys().isEmpty()) {
+                break;
+            }
+            if (oldestDeleted == null) {
+                oldestDeleted = chunk.keys().get(0).createdAt();
+            }
+
+            run.deleted += chunk.deleted();
+            run.archived += chunk.archived();
+            run.esQueued += chunk.keys().size();
+            cursor = chunk.keys().get(chunk.keys().size() - 1);
+            newestDeleted = cursor.createdAt();
+            log.debug("Retention policy {} deleted {} rows of {} (total {})",
+                run.policy.getName(), chunk.deleted(), range.cell(), run.deleted);
+
+            if (chunk.keys().size() < chunkSize) {
+                break;
+            }
+            throttle.acquire(chunk.deleted());
+        }
+        if (newestDeleted != null) {
+            trimSketches(range.cell().workspaceId(), resumed ? null : oldestDeleted,
+                newestDeleted.truncatedTo(ChronoUnit.DAYS).plus(1, ChronoUnit.DAYS));
+        }
+    }
+
+    private Chunk deleteChunk(RetentionPolicy policy, RetentionCell cell, Instant cutoff, RowKey after) {
+        List<RowKey> keys = retentionRepository.findExpiredKeys(cell, cutoff, after, chunkSize);
+        if (keys.isEmpty()) {
+            return new Chunk(keys, 0, 0);
+        }
+        int archived = policy.isArchiveBeforeDelete() ? archiveService.archiveChunk(policy, keys) : 0;
+        int deleted = retentionRepository.deleteByKeys(keys);
+        outboxRepository.append(keys.stream().map(RowKey::id).toList());
+        RowKey last = keys.get(keys.size() - 1);
+        checkpointRepository.advance(policy.getId(), cell, last.createdAt(), last.id(), deleted, archived);
+        return new Chunk(keys, deleted, archived);
+    }
+
+    /**
+     * Best effort: a failure leaves the expired buckets counted in statistics until the next run.
+     */
+    private void cleanupRollups(RetentionCell cell, Instant cutoff) {
+        try {
+            rollupRepository.deleteExpired(cell, cutoff);
+            statisticsCache.evictBefore(cell.workspaceId(), cutoff);
+        } catch (Exception e) {
+            log.warn("Failed to remove expired rollups of {}: {}", cell, e.getMessage());
+        }
+    }
+
+    /**
+     * Best effort: a failure leaves the expired rows' actors in the sketches until the next run
+     * deletes rows from the same days.
+     */
+    private void trimSketches(UUID workspaceId, Instant from, Instant to) {
+        try {
+            sketchRepository.deleteDays(workspaceId, from != null ? from.truncatedTo(ChronoUnit.DAYS) : null, to);
+        } catch (Exception e) {
+            log.warn("Failed to remove the sketches of workspace {} before {}: {}", workspaceId, to, e.getMessage());
+        }
+    }
+
+    private record Chunk(List<RowKey> keys, int deleted, int archived) {}
+
+    /**
+     * Progress of one policy within a run.
+     */
+    private static final class PolicyRun {
+
+        private final RetentionPolicy policy;
+        private final List<ScanRange> ranges;
+        private RetentionCheckpoint checkpoint;
+        private long deleted;
+        private long archived;
+        private int esCleaned;
+        private int esQueued;
+        private int droppedPartitions;
+        private Exception error;
+
+        PolicyRun(RetentionPolicy policy, List<ScanRange> ranges) {
+            this.policy = policy;
+            this.ranges = ranges;
+        }
+
+        void fail(Exception e) {
+            log.error("Failed to apply retention policy: {}", policy.getId(), e);
+            error = e;
+        }
+
+        PolicyExecutionDetail toDetail() {
+            return PolicyExecutionDetail.builder()
+                .policyId(policy.getId())
+                .policyName(policy.getName())
+                .success(error == null)
+                .errorMessage(error != null ? error.getMessage() : null)
+                .archivedCount((int) (archived + (checkpoint != null ? checkpoint.archivedCount() : 0)))
+                .deletedCount((int) (deleted + (checkpoint != null ? checkpoint.deletedCount() : 0)))
+                .droppedPartitions(droppedPartitions)
+                .esCleanedCount(esCleaned)
+                .esQueuedCount(esQueued)
+                .executedAt(Instant.now())
+                .build();
+        }
+    }
+
+    /**
+     * Paces the run to an average rate since it started; a rate of zero or less disables pacing.
+     */
+    static final class Throttle {
+
+        private final double rowsPerSecond;
+        private final long startNanos = System.nanoTime();
+        private long rows;
+
+        Throttle(double rowsPerSecond) {
+            this.rowsPerSecond = rowsPerSecond;
+        }
+
+        void acquire(int processed) {
+            if (rowsPerSecond <= 0) {
+                return;
+            }
+            rows += processed;
+            long sleepNanos = delayNanos(rows, System.nanoTime() - startNanos);
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while throttling retention", e);
+                }
+            }
+        }
+
+        long delayNanos(long totalRows, long elapsedNanos) {
+            return (long) (totalRows / rowsPerSecond * 1_000_000_000L) - elapsedNanos;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.quckapp.audit.service.retention;
+
+import com.quckapp.audit.domain.entity.AuditLog.AuditCategory;
+import com.quckapp.audit.domain.entity.AuditLog.AuditSeverity;
+import com.quckapp.audit.domain.entity.RetentionPolicy;
+import com.quckapp.audit.domain.repository.AuditLogRetentionRepository.RetentionCell;
+import com.quckapp.audit.domain.repository.UuidBinary;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Merges the enabled retention policies into one scan plan.
+ *
+ * Every audit log falls into exactly one cell (workspace, category, severity). A policy
+ * matches a cell when it is scoped to the workspace, its category is unset or equal, and the
+ * severity is at least its {@code minSeverity}. Policies of the workspace itself take
+ * precedence over the defaults in {@link #DEFAULT_WORKSPACE_ID}; among the matching ones the
+ * longest retention governs the cell. Cells no policy matches are kept indefinitely.
+ *
+ * Each cell becomes one range scan on {@code idx_audit_retention}, so every row is visited
+ * at most once per run however many policies overlap. Ranges are planned in
+ * {@link RetentionCell#ORDER}, which is what lets a checkpoint resume mid-plan.
+ */
+@Component
+public class RetentionPlanner {
+
+    public static final UUID DEFAULT_WORKSPACE_ID = new UUID(0L, 0L);
+
+    /**
+     * Longest retention first; on a tie an archiving policy wins, so overlapping policies
+     * never skip an archive.
+     */
+    private static final Comparator<RetentionPolicy> STRONGEST = Comparator
+        .comparingInt(RetentionPolicy::getRetentionDays)
+        .thenComparing(RetentionPolicy::isArchiveBeforeDelete)
+        .thenComparing(RetentionPolicy::getId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    public List<ScanRange> plan(Collection<RetentionPolicy> policies, Collection<UUID> workspaceIds) {
+        List<RetentionPolicy> defaults = policies.stream()
+            .filter(policy -> DEFAULT_WORKSPACE_ID.equals(policy.getWorkspaceId()))
+            .toList();
+
+        List<ScanRange> ranges = new ArrayList<>();
+        for (UUID workspaceId : workspaceIds.stream().sorted(UuidBinary::compare).toList()) {
+            List<RetentionPolicy> own = policies.stream()
+                .filter(policy -> workspaceId.equals(policy.getWorkspaceId()))
+                .toList();
+            for (AuditCategory category : AuditCategory.values()) {
+                for (AuditSeverity severity : AuditSeverity.values()) {
+                    governing(own, category, severity)
+                        .or(() -> governing(defaults, category, severity))
+                        .ifPresent(policy -> ranges.add(
+                            new ScanRange(new RetentionCell(workspaceId, category, severity), policy)));
+                }
+            }
+        }
+        return ranges;
+    }
+
+    static boolean matches(RetentionPolicy policy, AuditCategory category, AuditSeverity severity) {
+        return (policy.getCategory() == null || policy.getCategory() == category)
+            && (policy.getMinSeverity() == null || severity.compareTo(policy.getMinSeverity()) >= 0);
+    }
+
+    private static Optional<RetentionPolicy> governing(List<RetentionPolicy> policies,
+                                                       AuditCategory category, AuditSeverity severity) {
+        return policies.stream()
+            .filter(policy -> matches(policy, category, severity))
+            .max(STRONGEST);
+    }
+
+    /**
+     * One cell of the plan and the policy whose retention applies to it.
+     */
+    public record ScanRange(RetentionCell cell, RetentionPolicy policy) {}
+}
@@ -0,0 +1,105 @@
+package com.quckapp.audit.service.sketch;
+
+import com.quckapp.audit.domain.repository.AuditSketchRepository.ActivityRow;
+import com.quckapp.audit.domain.repository.AuditSketchRepository.SketchRow;
+
+/**
+ * The sketches kept per workspace and day: distinct actors and IP addresses, and the top
+ * actors, resources and actions. Sketches of disjoint ranges merge into those of their union.
+ *
+ * Top actors and resources are keyed by all the fields the exact statistics group by, joined
+ * with a unit separator, so a key decodes back into the same response fields.
+ */
+public final class AuditSketches {
+
+    /** Counters kept per top-k summary; reported counts overstate by at most 1/64 of the events. */
+    public static final int TOP_CAPACITY = 64;
+
+    private static final String SEPARATOR = "\u001f";
+
+    private final HyperLogLog actors;
+    private final HyperLogLog ipAddresses;
+    private final SpaceSaving topActors;
+    private final SpaceSaving topResources;
+    private final SpaceSaving topActions;
+
+    public AuditSketches() {
+        this(new HyperLogLog(), new HyperLogLog(), new SpaceSaving(TOP_CAPACITY), new SpaceSaving(TOP_CAPACITY),
+            new SpaceSaving(TOP_CAPACITY));
+    }
+
+    public AuditSketches(HyperLogLog actors, HyperLogLog ipAddresses, SpaceSaving topActors,
+                         SpaceSaving topResources, SpaceSaving topActions) {
+        this.actors = actors;
+        this.ipAddresses = ipAddresses;
+        this.topActors = topActors;
+        this.topResources = topResources;
+        this.topActions = topActions;
+    }
+
+    public static AuditSketches fromRow(SketchRow row) {
+        return new AuditSketches(HyperLogLog.fromBytes(row.actors()), HyperLogLog.fromBytes(row.ipAddresses()),
+            SpaceSaving.fromBytes(row.topActors()), SpaceSaving.fromBytes(row.topResources()),
+            SpaceSaving.fromBytes(row.topActions()));
+    }
+
+    public SketchRow toRow() {
+        return new SketchRow(actors.toBytes(), ipAddresses.toBytes(), topActors.toBytes(), topResources.toBytes(),
+            topActions.toBytes());
+    }
+
+    public void add(ActivityRow row) {
+        actors.add(row.actorId().toString());
+        if (row.ipAddress() != null) {
+            ipAddresses.add(row.ipAddress());
+        }
+        topActors.add(encode(row.actorId().toString(), row.actorEmail(), row.actorName()));
+        topResources.add(encode(row.resourceType(), row.resourceId().toString(), row.resourceName()));
+        topActions.add(row.action());
+    }
+
+    public void merge(AuditSketches other) {
+        actors.merge(other.actors);
+        ipAddresses.merge(other.ipAddresses);
+        topActors.merge(other.topActors);
+        topResources.merge(other.topResources);
+        topActions.merge(other.topActions);
+    }
+
+    public HyperLogLog actors() {
+        return actors;
+    }
+
+    public HyperLogLog ipAddresses() {
+        return ipAddresses;
+    }
+
+    public SpaceSaving topActors() {
+        return topActors;
+    }
+
+    public SpaceSaving topResources() {
+        return topResources;
+    }
+
+    public SpaceSaving topActions() {
+        return topActions;
+    }
+
+    /**
+     * Splits a top actor or resource key back into its fields; absent fields are null.
+     */
+    public static String[] decode(String key) {
+        String[] fields = key.split(SEPARATOR, -1);
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i].isEmpty()) {
+                fields[i] = null;
+            }
+        }
+        return fields;
+    }
+
+    private static String encode(String first, String second, String third) {
+        return first + SEPARATOR + (second != null ? second : "") + SEPARATOR + (third != null ? third : "");
+    }
+}
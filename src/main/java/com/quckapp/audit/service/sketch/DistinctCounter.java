@@ -0,0 +1,54 @@
+package com.quckapp.audit.service.sketch;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Counts distinct values, exactly or with a {@link HyperLogLog}. Counters of the same kind merge,
+ * so distinct counts can be kept per slice or bucket and combined afterwards.
+ */
+public interface DistinctCounter {
+
+    void add(String value);
+
+    /**
+     * Adds in the values of {@code other}, a counter created with the same {@code approximate}.
+     */
+    void merge(DistinctCounter other);
+
+    long count();
+
+    boolean isApproximate();
+
+    static DistinctCounter create(boolean approximate) {
+        return approximate ? new HyperLogLog() : new Exact();
+    }
+
+    /**
+     * Keeps every value; memory grows with the number of distinct values.
+     */
+    final class Exact implements DistinctCounter {
+
+        private final Set<String> values = new HashSet<>();
+
+        @Override
+        public void add(String value) {
+            values.add(value);
+        }
+
+        @Override
+        public void merge(DistinctCounter other) {
+            values.addAll(((Exact) other).values);
+        }
+
+        @Override
+        public long count() {
+            return values.size();
+        }
+
+        @Override
+        public boolean isApproximate() {
+            return false;
+        }
+    }
+}
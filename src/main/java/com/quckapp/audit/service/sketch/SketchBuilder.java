@@ -0,0 +1,64 @@
+package com.quckapp.audit.service.sketch;
+
+import com.quckapp.audit.domain.repository.AuditSketchRepository;
+import com.quckapp.audit.domain.repository.AuditSketchRepository.WorkspaceDay;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Builds the sketches of closed days, a few days per run, oldest first; this also backfills the
+ * days from before sketches existed.
+ *
+ * A day is sketched once it has been over for {@code grace-period-minutes}, so events that
+ * arrive late within that period are still counted. Sketches are not rebuilt afterwards, except
+ * for the days retention deleted rows from: it drops their sketches, and the days that still have
+ * audit logs are sketched again from the remaining rows, so no expired actor survives in them.
+ * Instances building the same day at once just overwrite each other with the same result.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SketchBuilder {
+
+    private final AuditSketchRepository sketchRepository;
+
+    @Value("${audit.sketches.grace-period-minutes:60}")
+    private long gracePeriodMinutes;
+
+    @Value("${audit.sketches.days-per-run:50}")
+    private int daysPerRun;
+
+    @Scheduled(fixedDelayString = "${audit.sketches.build-interval-ms:300000}")
+    public void buildClosedDays() {
+        try {
+            build(Instant.now());
+        } catch (Exception e) {
+            log.error("Failed to build audit sketches", e);
+        }
+    }
+
+    /**
+     * Builds the unsketched days that were closed by {@code now}. Returns the number built.
+     */
+    public int build(Instant now) {
+        Instant startedBy = now.minus(Duration.ofDays(1)).minus(gracePeriodMinutes, ChronoUnit.MINUTES);
+        List<WorkspaceDay> days = sketchRepository.findUnsketchedDays(startedBy, daysPerRun);
+        for (WorkspaceDay day : days) {
+            AuditSketches sketches = new AuditSketches();
+            sketchRepository.scan(day.workspaceId(), day.day(), day.day().plus(1, ChronoUnit.DAYS), false, sketches::add);
+            sketchRepository.save(day.workspaceId(), day.day(), sketches.toRow());
+        }
+        if (!days.isEmpty()) {
+            log.info("Built audit sketches for {} workspace days", days.size());
+        }
+        return days.size();
+    }
+}
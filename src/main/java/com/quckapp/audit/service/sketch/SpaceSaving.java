@@ -0,0 +1,169 @@
+package com.quckapp.audit.service.sketch;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Space-Saving summary of the most frequent items, keeping at most {@code capacity} counters.
+ *
+ * When an unmonitored item arrives and the summary is full, it takes over the smallest counter
+ * and inherits its count as error. Every reported count therefore overstates the item's true
+ * count by at most its {@link Entry#error()}, which never exceeds total / capacity, and any item
+ * occurring more than total / capacity times is guaranteed to be reported. Summaries merge
+ * (Agarwal et al., "Mergeable Summaries") with the same bound over the combined total.
+ */
+public final class SpaceSaving {
+
+    private static final Comparator<Entry> BY_COUNT = Comparator.comparingLong(Entry::count).reversed()
+        .thenComparing(Entry::item);
+
+    private final int capacity;
+    private final Map<String, Counter> counters = new HashMap<>();
+    private long total;
+
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    public void add(String item) {
+        add(item, 1);
+    }
+
+    public void add(String item, long count) {
+        total += count;
+        Counter counter = counters.get(item);
+        if (counter != null) {
+            counter.count += count;
+        } else if (counters.size() < capacity) {
+            counters.put(item, new Counter(count, 0));
+        } else {
+            Map.Entry<String, Counter> smallest = smallest();
+            counters.remove(smallest.getKey());
+            long inherited = smallest.getValue().count;
+            counters.put(item, new Counter(inherited + count, inherited));
+        }
+    }
+
+    /**
+     * Adds in the items counted by {@code other}. An item missing from a full summary may have
+     * occurred up to that summary's smallest count, which is added to both its count and error.
+     */
+    public void merge(SpaceSaving other) {
+        long ourFloor = counters.size() < capacity ? 0 : smallest().getValue().count;
+        long theirFloor = other.counters.size() < other.capacity ? 0 : other.smallest().getValue().count;
+        Set<String> items = new HashSet<>(counters.keySet());
+        items.addAll(other.counters.keySet());
+
+        List<Entry> merged = new ArrayList<>(items.size());
+        for (String item : items) {
+            Counter ours = counters.get(item);
+            Counter theirs = other.counters.get(item);
+            merged.add(new Entry(item,
+                (ours != null ? ours.count : ourFloor) + (theirs != null ? theirs.count : theirFloor),
+                (ours != null ? ours.error : ourFloor) + (theirs != null ? theirs.error : theirFloor)));
+        }
+        merged.sort(BY_COUNT);
+
+        counters.clear();
+        for (Entry entry : merged.subList(0, Math.min(capacity, merged.size()))) {
+            counters.put(entry.item(), new Counter(entry.count(), entry.error()));
+        }
+        total += other.total;
+    }
+
+    /**
+     * The {@code k} items with the highest counts, highest first.
+     */
+    public List<Entry> top(int k) {
+        return counters.entrySet().stream()
+            .map(e -> new Entry(e.getKey(), e.getValue().count, e.getValue().error))
+            .sorted(BY_COUNT)
+            .limit(k)
+            .toList();
+    }
+
+    /**
+     * The number of items added, counting repeats.
+     */
+    public long total() {
+        return total;
+    }
+
+    /**
+     * The most any reported count can overstate the true count by: total / capacity.
+     */
+    public long maxError() {
+        return total / capacity;
+    }
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(capacity);
+            out.writeLong(total);
+            out.writeInt(counters.size());
+            for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeLong(entry.getValue().count);
+                out.writeLong(entry.getValue().error);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static SpaceSaving fromBytes(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            SpaceSaving summary = new SpaceSaving(in.readInt());
+            summary.total = in.readLong();
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                summary.counters.put(in.readUTF(), new Counter(in.readLong(), in.readLong()));
+            }
+            return summary;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed Space-Saving summary", e);
+        }
+    }
+
+    private Map.Entry<String, Counter> smallest() {
+        Map.Entry<String, Counter> smallest = null;
+        for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+            if (smallest == null || entry.getValue().count < smallest.getValue().count) {
+                smallest = entry;
+            }
+        }
+        return smallest;
+    }
+
+    /**
+     * An item with its estimated count; the true count lies within {@code [count - error, count]}.
+     */
+    public record Entry(String item, long count, long error) {}
+
+    private static final class Counter {
+
+        private long count;
+        private final long error;
+
+        private Counter(long count, long error) {
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
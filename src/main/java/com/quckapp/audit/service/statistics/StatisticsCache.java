@@ -0,0 +1,199 @@
+package com.quckapp.audit.service.statistics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.quckapp.audit.domain.entity.AuditLog;
+import com.quckapp.audit.domain.repository.AuditRollupRepository;
+import com.quckapp.audit.domain.repository.AuditRollupRepository.Granularity;
+import com.quckapp.audit.domain.repository.AuditRollupRepository.RollupCount;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * In-process cache of rollup buckets and of the ranked parts of statistics.
+ *
+ * Buckets are cached one by one, so ranges that share buckets share cache entries however
+ * their ends differ. A closed bucket no longer changes and is kept for
+ * {@code closed-bucket-ttl-hours}; the open bucket, the one events are still being added to,
+ * is kept for {@code open-bucket-ttl-seconds} and evicted as soon as this instance commits
+ * events into it. Events committed by other instances show up once it expires. A bucket stays
+ * open for {@code open-bucket-grace-seconds} after it ends, as transactions still running then
+ * may commit events stamped within it. The cache is bounded by the number of rollup rows it holds.
+ *
+ * Top actors and resources cannot be assembled from buckets and are cached per aligned range
+ * for {@code top-lists-ttl-seconds}.
+ */
+@Component
+@Slf4j
+public class StatisticsCache {
+
+    private final AuditRollupRepository rollupRepository;
+    private final Clock clock;
+    private final Cache<BucketKey, List<RollupCount>> buckets;
+    private final Cache<Object, Object> rankings;
+
+    public StatisticsCache(AuditRollupRepository rollupRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${audit.statistics.cache.max-rollup-rows:1000000}") long maxRollupRows,
+                           @Value("${audit.statistics.cache.closed-bucket-ttl-hours:24}") long closedBucketTtlHours,
+                           @Value("${audit.statistics.cache.open-bucket-ttl-seconds:15}") long openBucketTtlSeconds,
+                           @Value("${audit.statistics.cache.open-bucket-grace-seconds:60}") long openBucketGraceSeconds,
+                           @Value("${audit.statistics.cache.max-top-lists:10000}") long maxTopLists,
+                           @Value("${audit.statistics.cache.top-lists-ttl-seconds:60}") long topListsTtlSeconds) {
+        this(rollupRepository, meterRegistry, Clock.systemUTC(), maxRollupRows, Duration.ofHours(closedBucketTtlHours),
+            Duration.ofSeconds(openBucketTtlSeconds), Duration.ofSeconds(openBucketGraceSeconds), maxTopLists, Duration.ofSeconds(topListsTtlSeconds));
+    }
+
+    StatisticsCache(AuditRollupRepository rollupRepository, MeterRegistry meterRegistry, Clock clock,
+                    long maxRollupRows, Duration closedBucketTtl, Duration openBucketTtl, Duration openBucketGrace,
+                    long maxTopLists, Duration topListsTtl) {
+        this.rollupRepository = rollupRepository;
+        this.clock = clock;
+        this.buckets = Caffeine.newBuilder()
+            .maximumWeight(maxRollupRows)
+            .weigher((BucketKey key, List<RollupCount> rows) -> Math.max(rows.size(), 1))
+            .expireAfter(new BucketExpiry(clock, closedBucketTtl, openBucketTtl, openBucketGrace))
+            .recordStats()
+            .build();
+        this.rankings = Caffeine.newBuilder()
+            .maximumSize(maxTopLists)
+            .expireAfterWrite(topListsTtl)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, "audit.statistics.buckets");
+        CaffeineCacheMetrics.monitor(meterRegistry, rankings, "audit.statistics.top-lists");
+    }
+
+    /**
+     * The rollups of the buckets starting in {@code [from, to)}. Buckets missing from the cache
+     * are loaded with a single range query.
+     */
+    public List<RollupCount> buckets(Granularity granularity, UUID workspaceId, Instant from, Instant to) {
+        List<RollupCount> rows = new ArrayList<>();
+        bucketsByStart(granularity, workspaceId, from, to).values().forEach(rows::addAll);
+        return rows;
+    }
+
+    /**
+     * The rollups of the buckets starting in {@code [from, to)}, by bucket start. Every bucket
+     * is present, empty ones with no rows.
+     */
+    public Map<Instant, List<RollupCount>> bucketsByStart(Granularity granularity, UUID workspaceId,
+                                                         Instant from, Instant to) {
+        List<BucketKey> keys = new ArrayList<>();
+        for (Instant bucket = from; bucket.isBefore(to); bucket = bucket.plus(granularity.length())) {
+            keys.add(new BucketKey(workspaceId, granularity, bucket));
+        }
+        Map<BucketKey, List<RollupCount>> cached = buckets.getAll(keys, missing -> load(granularity, workspaceId, missing));
+
+        Map<Instant, List<RollupCount>> byStart = new TreeMap<>();
+        cached.forEach((key, rows) -> byStart.put(key.bucketStart(), rows));
+        return byStart;
+    }
+
+    /**
+     * The ranked lists of an aligned range, computed by {@code loader} on a miss.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T topLists(UUID workspaceId, Instant from, Instant to, boolean approximate, Supplier<T> loader) {
+        return (T) rankings.get(new RangeKey(workspaceId, from, to, approximate), key -> loader.get());
+    }
+
+    /**
+     * Evicts the buckets the given audit logs were added to, once the current transaction
+     * commits, so a read racing the commit cannot cache the counts from before it.
+     */
+    public void evictAfterCommit(Collection<AuditLog> auditLogs) {
+        Set<BucketKey> keys = new HashSet<>();
+        for (AuditLog auditLog : auditLogs) {
+            for (Granularity granularity : Granularity.values()) {
+                keys.add(new BucketKey(auditLog.getWorkspaceId(), granularity, granularity.bucketOf(auditLog.getCreatedAt())));
+            }
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    buckets.invalidateAll(keys);
+                }
+            });
+        } else {
+            buckets.invalidateAll(keys);
+        }
+    }
+
+    /**
+     * Evicts the workspace's buckets starting before {@code before}, and the top lists of ranges
+     * starting before it, once retention removed the rollups and events behind them. Closed
+     * buckets would otherwise keep serving the deleted counts for up to a day.
+     */
+    public void evictBefore(UUID workspaceId, Instant before) {
+        buckets.asMap().keySet().removeIf(key ->
+            key.workspaceId().equals(workspaceId) && key.bucketStart().isBefore(before));
+        rankings.asMap().keySet().removeIf(key -> key instanceof RangeKey range
+            && range.workspaceId().equals(workspaceId) && range.from().isBefore(before));
+    }
+
+    private Map<BucketKey, List<RollupCount>> load(Granularity granularity, UUID workspaceId,
+                                                   Set<? extends BucketKey> missing) {
+        Instant from = missing.stream().map(BucketKey::bucketStart).min(Instant::compareTo).orElseThrow();
+        Instant to = missing.stream().map(BucketKey::bucketStart).max(Instant::compareTo).orElseThrow()
+            .plus(granularity.length());
+        Map<Instant, List<RollupCount>> loaded = rollupRepository.findBuckets(granularity, workspaceId, from, to);
+
+        Map<BucketKey, List<RollupCount>> result = new HashMap<>();
+        for (BucketKey key : missing) {
+            result.put(key, List.copyOf(loaded.getOrDefault(key.bucketStart(), List.of())));
+        }
+        log.debug("Loaded {} {} buckets of workspace {}", missing.size(), granularity, workspaceId);
+        return result;
+    }
+
+    record BucketKey(UUID workspaceId, Granularity granularity, Instant bucketStart) {}
+
+    private record RangeKey(UUID workspaceId, Instant from, Instant to, boolean approximate) {}
+
+    /**
+     * Keeps closed buckets long and open buckets briefly; a bucket is open until the grace
+     * period after its end has passed.
+     */
+    record BucketExpiry(Clock clock, Duration closedTtl, Duration openTtl, Duration openGrace)
+            implements Expiry<BucketKey, List<RollupCount>> {
+
+        @Override
+        public long expireAfterCreate(BucketKey key, List<RollupCount> value, long currentTime) {
+            Instant closesAt = key.bucketStart().plus(key.granularity().length()).plus(openGrace);
+            return (closesAt.isAfter(clock.instant()) ? openTtl : closedTtl).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(BucketKey key, List<RollupCount> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(BucketKey key, List<RollupCount> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.quckapp.audit.service.statistics;
+
+import com.quckapp.audit.domain.repository.AuditLogIndices;
+import com.quckapp.audit.domain.repository.AuditRollupRepository;
+import com.quckapp.audit.domain.repository.AuditRollupRepository.Granularity;
+import com.quckapp.audit.domain.repository.AuditRollupRepository.RollupCount;
+import com.quckapp.audit.domain.repository.AuditSketchRepository;
+import com.quckapp.audit.domain.repository.AuditSketchRepository.SketchRow;
+import com.quckapp.audit.service.indexing.SearchIndexRelay;
+import com.quckapp.audit.service.sketch.AuditSketches;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Answers event counts for a time range from the rollups wherever whole buckets fit.
+ *
+ * A range is cut into whole UTC days, whole hours around them, and the partial hours at both
+ * ends. Days and hours are summed from their rollup tables; only the partial hours, at most two
+ * hours of rows, are grouped from raw audit logs. A 90-day range costs about 90 daily rollup
+ * rows per (action, category, severity) instead of a scan of every event in it.
+ *
+ * Approximate distinct counts and top lists are answered the same way from per-day sketches,
+ * with raw rows scanned for the partial days at the ends.
+ *
+ * Ranges are half-open. Rollup buckets are read through the {@link StatisticsCache}, so a range
+ * aligned to whole hours is answered from cached buckets alone.
+ *
+ * Whether a request is answered this way or by Elasticsearch aggregations is decided per request
+ * by {@link #choose}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StatisticsPlanner {
+
+    private final AuditRollupRepository rollupRepository;
+    private final AuditSketchRepository sketchRepository;
+    private final StatisticsCache statisticsCache;
+    private final SearchIndexRelay searchIndexRelay;
+    private final AuditLogIndices indices;
+
+    @Value("${audit.statistics.elasticsearch.enabled:true}")
+    private boolean elasticsearchEnabled;
+
+    @Value("${audit.statistics.elasticsearch.max-lag-seconds:10}")
+    private long maxLagSeconds;
+
+    /**
+     * Where to answer the statistics of {@code [start, end)} from.
+     *
+     * Elasticsearch answers the counts in one search, sparing MySQL the raw rows of the ragged
+     * edges, and the top lists too when approximate ones will do, but it trails MySQL by the outbox
+     * backlog. It is chosen when every event of the range is already indexed, or when the backlog
+     * is at most {@code max-lag-seconds} old, so that only the newest few seconds may be missing.
+     * Approximate statistics of whole days read no raw rows at all, so they stay on the rollups
+     * and sketches, as does everything while the index is being rebuilt.
+     */
+    public Backend choose(Instant start, Instant end, boolean approximate) {
+        if (!elasticsearchEnabled || !indices.isBootstrapped()) {
+            return Backend.ROLLUPS;
+        }
+        boolean wholeDays = start.equals(Granularity.DAILY.bucketOf(start)) && end.equals(Granularity.DAILY.bucketOf(end));
+        if (approximate && wholeDays) {
+            return Backend.ROLLUPS;
+        }
+        Duration lag = searchIndexRelay.indexLag();
+        if (lag == null) {
+            return Backend.ROLLUPS;
+        }
+        boolean indexed = !end.isAfter(Instant.now().minus(lag));
+        return indexed || lag.toSeconds() <= maxLagSeconds ? Backend.ELASTICSEARCH : Backend.ROLLUPS;
+    }
+
+    /**
+     * Where to bucket a histogram of {@code [start, end)} by {@code interval} from. Intervals of
+     * whole hours are sums of rollup buckets, by far the cheapest. Finer intervals need the
+     * events themselves: Elasticsearch buckets them when {@link #choose} would pick it, and MySQL
+     * rows are streamed otherwise.
+     */
+    public Backend chooseHistogram(Instant start, Instant end, Duration interval) {
+        if (interval.toSeconds() % Granularity.HOURLY.length().toSeconds() == 0) {
+            return Backend.ROLLUPS;
+        }
+        return choose(start, end, false) == Backend.ELASTICSEARCH ? Backend.ELASTICSEARCH : Backend.SCAN;
+    }
+
+    /**
+     * Counts of the workspace's events created in {@code [start, end)}.
+     */
+    public EventCounts count(UUID workspaceId, Instant start, Instant end) {
+        EventCounts counts = new EventCounts();
+        for (Segment segment : plan(start, end)) {
+            List<RollupCount> rows = segment.granularity() != null
+                ? statisticsCache.buckets(segment.granularity(), workspaceId, segment.from(), segment.to())
+                : rollupRepository.countRaw(workspaceId, segment.from(), segment.to(), false);
+            rows.forEach(counts::add);
+        }
+        return counts;
+    }
+
+    /**
+     * Sketches of the workspace's events created in {@code [start, end)}: the stored sketches of
+     * the whole days in the range, merged with sketches scanned from raw rows for the partial
+     * days at both ends and for days not sketched yet.
+     */
+    public AuditSketches sketch(UUID workspaceId, Instant start, Instant end) {
+        AuditSketches sketches = new AuditSketches();
+        if (!start.isBefore(end)) {
+            return sketches;
+        }
+        Instant firstDay = Granularity.DAILY.nextBoundary(start);
+        Instant lastDay = Granularity.DAILY.bucketOf(end);
+        if (!firstDay.isBefore(lastDay)) {
+            sketchRepository.scan(workspaceId, start, end, false, sketches::add);
+            return sketches;
+        }
+
+        if (start.isBefore(firstDay)) {
+            sketchRepository.scan(workspaceId, start, firstDay, false, sketches::add);
+        }
+        Map<Instant, SketchRow> stored = sketchRepository.findDays(workspaceId, firstDay, lastDay);
+        Instant unsketchedFrom = null;
+        for (Instant day = firstDay; day.isBefore(lastDay); day = day.plus(1, ChronoUnit.DAYS)) {
+            SketchRow row = stored.get(day);
+            if (row == null) {
+                unsketchedFrom = unsketchedFrom != null ? unsketchedFrom : day;
+                continue;
+            }
+            if (unsketchedFrom != null) {
+                sketchRepository.scan(workspaceId, unsketchedFrom, day, false, sketches::add);
+                unsketchedFrom = null;
+            }
+            sketches.merge(AuditSketches.fromRow(row));
+        }
+        Instant tailFrom = unsketchedFrom != null ? unsketchedFrom : lastDay;
+        if (tailFrom.isBefore(end)) {
+            sketchRepository.scan(workspaceId, tailFrom, end, false, sketches::add);
+        }
+        log.debug("Sketched workspace {} from {} stored days", workspaceId, stored.size());
+        return sketches;
+    }
+
+    /**
+     * Disjoint segments covering {@code [start, end)} in time order: raw rows up to the first
+     * hour boundary, hourly buckets up to the first day boundary, daily buckets, hourly buckets
+     * again and raw rows from the last hour boundary. Empty segments are left out.
+     */
+    List<Segment> plan(Instant start, Instant end) {
+        List<Segment> segments = new ArrayList<>();
+        Instant firstHour = Granularity.HOURLY.nextBoundary(start);
+        Instant lastHour = Granularity.HOURLY.bucketOf(end);
+        if (!firstHour.isBefore(lastHour)) {
+            addSegment(segments, null, start, end);
+            return segments;
+        }
+
+        Instant firstDay = Granularity.DAILY.nextBoundary(firstHour);
+        Instant lastDay = Granularity.DAILY.bucketOf(lastHour);
+        addSegment(segments, null, start, firstHour);
+        if (firstDay.isBefore(lastDay)) {
+            addSegment(segments, Granularity.HOURLY, firstHour, firstDay);
+            addSegment(segments, Granularity.DAILY, firstDay, lastDay);
+            addSegment(segments, Granularity.HOURLY, lastDay, lastHour);
+        } else {
+            addSegment(segments, Granularity.HOURLY, firstHour, lastHour);
+        }
+        addSegment(segments, null, lastHour, end);
+        return segments;
+    }
+
+    private static void addSegment(List<Segment> segments, Granularity granularity, Instant from, Instant to) {
+        if (from.isBefore(to)) {
+            segments.add(new Segment(granularity, from, to));
+        }
+    }
+
+    /**
+     * A part of the range read from the rollups of {@code granularity}, or from raw rows when it
+     * is null.
+     */
+    record Segment(Granularity granularity, Instant from, Instant to) {}
+
+    public enum Backend {
+        /** Rollups and sketches, with raw MySQL rows for what they do not cover. */
+        ROLLUPS,
+        /** Aggregations over the search index. */
+        ELASTICSEARCH,
+        /** Raw MySQL rows streamed from a cursor. */
+        SCAN
+    }
+
+    /**
+     * Totals of a range, per action, category and severity.
+     */
+    public static final class EventCounts {
+
+        private long total;
+        private final Map<String, Long> byAction = new HashMap<>();
+        private final Map<String, Long> byCategory = new HashMap<>();
+        private final Map<String, Long> bySeverity = new HashMap<>();
+
+        public void add(RollupCount row) {
+            total += row.count();
+            byAction.merge(row.action(), row.count(), Long::sum);
+            byCategory.merge(row.category().name(), row.count(), Long::sum);
+            bySeverity.merge(row.severity().name(), row.count(), Long::sum);
+        }
+
+        public long total() {
+            return total;
+        }
+
+        public Map<String, Long> byAction() {
+            return byAction;
+        }
+
+        public Map<String, Long> byCategory() {
+            return byCategory;
+        }
+
+        public Map<String, Long> bySeverity() {
+            return bySeverity;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+-- Event counts per workspace, UTC hour or day, action, category and severity.
+-- Incremented in the ingest transaction, so whole buckets of statistics are read from here
+-- instead of grouping raw audit_logs; only the partial buckets at the ends of a range are not.
+CREATE TABLE audit_rollups_hourly (
+    workspace_id BINARY(16) NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    action VARCHAR(100) NOT NULL,
+    category ENUM('AUTHENTICATION', 'AUTHORIZATION', 'DATA_ACCESS', 'DATA_MODIFICATION', 'CONFIGURATION', 'SECURITY', 'COMPLIANCE', 'SYSTEM') NOT NULL,
+    severity ENUM('LOW', 'MEDIUM', 'HIGH', 'CRITICAL') NOT NULL,
+    event_count BIGINT NOT NULL,
+    PRIMARY KEY (workspace_id, bucket_start, action, category, severity)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE TABLE audit_rollups_daily (
+    workspace_id BINARY(16) NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    action VARCHAR(100) NOT NULL,
+    category ENUM('AUTHENTICATION', 'AUTHORIZATION', 'DATA_ACCESS', 'DATA_MODIFICATION', 'CONFIGURATION', 'SECURITY', 'COMPLIANCE', 'SYSTEM') NOT NULL,
+    severity ENUM('LOW', 'MEDIUM', 'HIGH', 'CRITICAL') NOT NULL,
+    event_count BIGINT NOT NULL,
+    PRIMARY KEY (workspace_id, bucket_start, action, category, severity)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Backfill from the existing rows. Buckets are computed on epoch seconds so they are UTC
+-- whatever the session time zone.
+INSERT INTO audit_rollups_hourly (workspace_id, bucket_start, action, category, severity, event_count)
+SELECT workspace_id, FROM_UNIXTIME(UNIX_TIMESTAMP(created_at) DIV 3600 * 3600), action, category, severity, COUNT(*)
+FROM audit_logs
+GROUP BY workspace_id, FROM_UNIXTIME(UNIX_TIMESTAMP(created_at) DIV 3600 * 3600), action, category, severity;
+
+INSERT INTO audit_rollups_daily (workspace_id, bucket_start, action, category, severity, event_count)
+SELECT workspace_id, FROM_UNIXTIME(UNIX_TIMESTAMP(bucket_start) DIV 86400 * 86400), action, category, severity, SUM(event_count)
+FROM audit_rollups_hourly
+GROUP BY workspace_id, FROM_UNIXTIME(UNIX_TIMESTAMP(bucket_start) DIV 86400 * 86400), action, category, severity;
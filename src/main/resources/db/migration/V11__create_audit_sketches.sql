@@ -0,0 +1,15 @@
+-- Mergeable sketches per workspace and UTC day, for approximate statistics: HyperLogLog
+-- registers of distinct actors and IP addresses, and Space-Saving summaries of the top actors,
+-- resources and actions. Built by SketchBuilder once a day is closed; days without a sketch
+-- are scanned from audit_logs instead.
+CREATE TABLE audit_sketches (
+    workspace_id BINARY(16) NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    actors VARBINARY(4096) NOT NULL,
+    ip_addresses VARBINARY(4096) NOT NULL,
+    top_actors MEDIUMBLOB NOT NULL,
+    top_resources MEDIUMBLOB NOT NULL,
+    top_actions MEDIUMBLOB NOT NULL,
+    built_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (workspace_id, bucket_start)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,10 @@
+-- The search relay claims outbox rows and replay chunks with a lease instead of holding row
+-- locks while it waits on Elasticsearch: a claim stamps the owner and an expiry in a short
+-- transaction, and rows whose lease expired, such as those of a crashed instance, are claimed again.
+ALTER TABLE audit_log_outbox
+    ADD COLUMN claimed_by VARCHAR(100) NULL,
+    ADD COLUMN claimed_until TIMESTAMP(3) NULL;
+
+ALTER TABLE search_relay_state
+    ADD COLUMN replay_claimed_by VARCHAR(100) NULL,
+    ADD COLUMN replay_claimed_until TIMESTAMP(3) NULL;
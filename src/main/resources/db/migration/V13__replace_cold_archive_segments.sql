@@ -0,0 +1,5 @@
+-- Each sealing run merges a month's new archived rows into the month's existing segment instead of
+-- adding another file. REPLACED: the rows live in the segment that merged them; the file is deleted
+-- by the next run, so readers that listed it before the swap can still finish.
+ALTER TABLE cold_archive_segments
+    MODIFY status ENUM('WRITING', 'SEALED', 'PURGED', 'REPLACED') NOT NULL;
@@ -0,0 +1,24 @@
+-- Transactional outbox feeding the Elasticsearch index.
+-- A row is written in the same transaction as each audit_logs insert and deleted
+-- once the search relay has indexed the audit log.
+CREATE TABLE audit_log_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    audit_log_id BINARY(16) NOT NULL,
+    created_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    INDEX idx_outbox_created (created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Progress of the search relay: highest outbox id relayed, plus the keyset cursor
+-- of an in-flight "replay from timestamp" rebuild.
+CREATE TABLE search_relay_state (
+    relay_name VARCHAR(50) PRIMARY KEY,
+    high_water_mark BIGINT NOT NULL DEFAULT 0,
+    replay_from TIMESTAMP NULL,
+    replay_until TIMESTAMP NULL,
+    replay_cursor_created_at TIMESTAMP NULL,
+    replay_cursor_id BINARY(16) NULL,
+    replayed_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+INSERT INTO search_relay_state (relay_name, high_water_mark) VALUES ('elasticsearch', 0);
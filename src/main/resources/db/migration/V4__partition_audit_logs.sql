@@ -0,0 +1,16 @@
+-- Range-partition audit_logs by month on created_at.
+-- MySQL requires the partitioning column in every unique key, so the primary key becomes (id, created_at).
+-- Existing rows land in p_history; monthly partitions are split out of p_future by
+-- PartitionMaintenanceService, which keeps a few months pre-created ahead of time.
+-- Bounds are epoch seconds at UTC month starts (TIMESTAMPDIFF keeps them independent of the session time zone).
+SET @current_month_start = TIMESTAMPDIFF(SECOND, '1970-01-01 00:00:00', DATE_FORMAT(UTC_DATE(), '%Y-%m-01'));
+
+SET @ddl = CONCAT(
+    'ALTER TABLE audit_logs DROP PRIMARY KEY, ADD PRIMARY KEY (id, created_at) ',
+    'PARTITION BY RANGE (UNIX_TIMESTAMP(created_at)) (',
+    'PARTITION p_history VALUES LESS THAN (', @current_month_start, '), ',
+    'PARTITION p_future VALUES LESS THAN MAXVALUE)');
+
+PREPARE partition_audit_logs FROM @ddl;
+EXECUTE partition_audit_logs;
+DEALLOCATE PREPARE partition_audit_logs;
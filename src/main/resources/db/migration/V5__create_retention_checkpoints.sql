@@ -0,0 +1,13 @@
+-- Progress of chunked retention runs, one row per policy.
+-- The cursor is the (created_at, id) of the last row deleted; a RUNNING row is resumed after a crash.
+CREATE TABLE retention_checkpoints (
+    policy_id BINARY(16) PRIMARY KEY,
+    status ENUM('RUNNING', 'COMPLETED') NOT NULL,
+    cutoff TIMESTAMP NOT NULL,
+    cursor_created_at TIMESTAMP NULL,
+    cursor_id BINARY(16) NULL,
+    deleted_count BIGINT NOT NULL DEFAULT 0,
+    archived_count BIGINT NOT NULL DEFAULT 0,
+    started_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,12 @@
+-- Retention evaluates policies per (workspace, category, severity) cell; with this index each
+-- cell's expired rows are a single range scan in (created_at, id) order.
+-- Its leading column also serves every lookup idx_audit_workspace did, so that index is dropped.
+ALTER TABLE audit_logs
+    ADD INDEX idx_audit_retention (workspace_id, category, severity, created_at),
+    DROP INDEX idx_audit_workspace;
+
+-- A policy's run now spans several cells; the checkpoint records which cell the cursor is in.
+ALTER TABLE retention_checkpoints
+    ADD COLUMN cursor_workspace_id BINARY(16) NULL AFTER cutoff,
+    ADD COLUMN cursor_category VARCHAR(30) NULL AFTER cursor_workspace_id,
+    ADD COLUMN cursor_severity VARCHAR(20) NULL AFTER cursor_category;
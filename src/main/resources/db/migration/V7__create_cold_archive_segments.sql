@@ -0,0 +1,24 @@
+-- Manifest of the cold-archive segment files (one immutable file per workspace, month and sealing run).
+-- WRITING: file being written, archived rows untouched; SEALED: file durable, archived rows not yet purged;
+-- PURGED: the rows now live only in the file.
+CREATE TABLE cold_archive_segments (
+    id BINARY(16) PRIMARY KEY,
+    workspace_id BINARY(16) NOT NULL,
+    month CHAR(7) NOT NULL,
+    path VARCHAR(512) NOT NULL,
+    status ENUM('WRITING', 'SEALED', 'PURGED') NOT NULL,
+    archived_before TIMESTAMP NOT NULL,
+    row_count BIGINT NOT NULL DEFAULT 0,
+    size_bytes BIGINT NOT NULL DEFAULT 0,
+    min_created_at TIMESTAMP(3) NULL,
+    max_created_at TIMESTAMP(3) NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    sealed_at TIMESTAMP NULL,
+    INDEX idx_segment_workspace_month (workspace_id, month),
+    INDEX idx_segment_status (status)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Sealing reads and purges archived rows one workspace-month at a time.
+ALTER TABLE archived_audit_logs
+    ADD INDEX idx_archived_workspace_created (workspace_id, created_at),
+    DROP INDEX idx_archived_workspace;
@@ -0,0 +1,23 @@
+-- Searches combine any of the request's filters in one WHERE clause, always within a workspace
+-- and newest first. Each index leads with workspace_id, follows with the equality filters it
+-- serves and ends with created_at, so the optimizer can pick the most selective one for the
+-- combination and read it in created_at order without a filesort. Category and severity are
+-- served by idx_audit_retention.
+-- The single-column indexes are superseded: every query that used them is workspace-scoped.
+ALTER TABLE audit_logs
+    ADD INDEX idx_audit_workspace_created (workspace_id, created_at),
+    ADD INDEX idx_audit_workspace_actor (workspace_id, actor_id, created_at),
+    ADD INDEX idx_audit_workspace_action (workspace_id, action, created_at),
+    ADD INDEX idx_audit_workspace_resource (workspace_id, resource_type, resource_id, created_at),
+    DROP INDEX idx_audit_actor,
+    DROP INDEX idx_audit_action,
+    DROP INDEX idx_audit_resource,
+    DROP INDEX idx_audit_severity,
+    DROP INDEX idx_audit_category;
+
+-- Archive searches use the same filters.
+ALTER TABLE archived_audit_logs
+    ADD INDEX idx_archived_workspace_actor (workspace_id, actor_id, created_at),
+    ADD INDEX idx_archived_workspace_resource (workspace_id, resource_type, resource_id, created_at),
+    DROP INDEX idx_archived_actor,
+    DROP INDEX idx_archived_resource;
@@ -0,0 +1,11 @@
+-- compliance_reports doubles as the report job queue. Workers on every instance claim PENDING
+-- rows with FOR UPDATE SKIP LOCKED, highest priority first, and heartbeat them while PROCESSING;
+-- a PROCESSING row whose heartbeat went stale belongs to a dead worker and is queued again.
+ALTER TABLE compliance_reports
+    ADD COLUMN priority INT NOT NULL DEFAULT 0,
+    ADD COLUMN attempts INT NOT NULL DEFAULT 0,
+    ADD COLUMN claimed_by VARCHAR(100) NULL,
+    ADD COLUMN heartbeat_at TIMESTAMP NULL,
+    ADD INDEX idx_report_queue (status, priority DESC, created_at),
+    ADD INDEX idx_report_status_workspace (status, workspace_id),
+    DROP INDEX idx_report_status;
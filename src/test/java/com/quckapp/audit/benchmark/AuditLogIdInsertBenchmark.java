@@ -0,0 +1,108 @@
+package com.quckapp.audit.benchmark;
+
+import com.quckapp.audit.domain.id.UuidV7;
+import com.quckapp.audit.domain.repository.UuidBinary;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Insert throughput of random (v4) versus time-ordered (v7) BINARY(16) primary keys on MySQL.
+ *
+ * Not part of the regular test run (the class name does not match the surefire includes) and
+ * only enabled against a real MySQL instance:
+ * <pre>
+ * mvn test -Dtest=AuditLogIdInsertBenchmark \
+ *     -Daudit.benchmark.jdbc-url=jdbc:mysql://localhost:3310/audit_bench \
+ *     -Daudit.benchmark.username=root -Daudit.benchmark.password=root_secret \
+ *     -Daudit.benchmark.rows=20000000
+ * </pre>
+ * Prints rows/s per window so the drop-off once the clustered index outgrows the buffer pool
+ * is visible; size {@code rows} well past {@code innodb_buffer_pool_size} to see it.
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "audit.benchmark.jdbc-url", matches = ".+")
+class AuditLogIdInsertBenchmark {
+
+    private static final int ROWS_PER_STATEMENT = 500;
+    private static final int REPORT_EVERY = 1_000_000;
+
+    private final String url = System.getProperty("audit.benchmark.jdbc-url");
+    private final String username = System.getProperty("audit.benchmark.username", "root");
+    private final String password = System.getProperty("audit.benchmark.password", "");
+    private final long rows = Long.getLong("audit.benchmark.rows", 5_000_000L);
+
+    @Test
+    @DisplayName("random v4 ids vs time-ordered v7 ids")
+    void compareIdSchemes() throws Exception {
+        try (Connection connection = DriverManager.getConnection(url, username, password)) {
+            double v4 = run(connection, "bench_audit_logs_v4", UUID::randomUUID);
+            double v7 = run(connection, "bench_audit_logs_v7", UuidV7::generate);
+            System.out.printf("%n%,d rows: v4 %,.0f rows/s, v7 %,.0f rows/s (%.2fx)%n", rows, v4, v7, v7 / v4);
+        }
+    }
+
+    private double run(Connection connection, String table, Supplier<UUID> ids) throws Exception {
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE IF EXISTS " + table);
+            // Same key and secondary index layout as audit_logs, with the wide columns collapsed
+            ddl.execute("CREATE TABLE " + table + " (" +
+                "id BINARY(16) PRIMARY KEY, workspace_id BINARY(16) NOT NULL, actor_id BINARY(16) NOT NULL, " +
+                "action VARCHAR(100) NOT NULL, resource_type VARCHAR(50) NOT NULL, resource_id BINARY(16) NOT NULL, " +
+                "metadata JSON, created_at TIMESTAMP NOT NULL, " +
+                "INDEX idx_workspace (workspace_id), INDEX idx_actor (actor_id), " +
+                "INDEX idx_resource (resource_type, resource_id), INDEX idx_created (created_at)" +
+                ") ENGINE=InnoDB");
+        }
+
+        String sql = "INSERT INTO " + table + " VALUES " +
+            String.join(", ", Collections.nCopies(ROWS_PER_STATEMENT, "(?, ?, ?, ?, ?, ?, ?, ?)"));
+        UUID[] workspaces = new UUID[100];
+        for (int i = 0; i < workspaces.length; i++) {
+            workspaces[i] = UUID.randomUUID();
+        }
+
+        connection.setAutoCommit(false);
+        long start = System.nanoTime();
+        long windowStart = start;
+        try (PreparedStatement insert = connection.prepareStatement(sql)) {
+            for (long inserted = 0; inserted < rows; inserted += ROWS_PER_STATEMENT) {
+                int p = 1;
+                for (int r = 0; r < ROWS_PER_STATEMENT; r++) {
+                    insert.setBytes(p++, UuidBinary.toBytes(ids.get()));
+                    insert.setBytes(p++, UuidBinary.toBytes(workspaces[(int) ((inserted + r) % workspaces.length)]));
+                    insert.setBytes(p++, UuidBinary.toBytes(UUID.randomUUID()));
+                    insert.setString(p++, "USER_UPDATED");
+                    insert.setString(p++, "USER");
+                    insert.setBytes(p++, UuidBinary.toBytes(UUID.randomUUID()));
+                    insert.setString(p++, "{\"source\":\"benchmark\"}");
+                    insert.setTimestamp(p++, Timestamp.from(Instant.now()));
+                }
+                insert.executeUpdate();
+                connection.commit();
+
+                long done = inserted + ROWS_PER_STATEMENT;
+                if (done % REPORT_EVERY == 0) {
+                    long now = System.nanoTime();
+                    System.out.printf("%s %,d rows: %,.0f rows/s%n", table, done,
+                        REPORT_EVERY / ((now - windowStart) / 1e9));
+                    windowStart = now;
+                }
+            }
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        return rows / ((System.nanoTime() - start) / 1e9);
+    }
+}
@@ -4,8 +4,13 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.quckapp.audit.domain.entity.AuditLog.AuditCategory;
 import com.quckapp.audit.domain.entity.AuditLog.AuditSeverity;
 import com.quckapp.audit.dto.AuditDtos.*;
+import com.quckapp.audit.exception.BadRequestException;
 import com.quckapp.audit.exception.GlobalExceptionHandler;
 import com.quckapp.audit.exception.ResourceNotFoundException;
+import com.quckapp.audit.service.ActivityHistogramService;
+import com.quckapp.audit.service.AuditLogBulkIngestService;
+import com.quckapp.audit.service.AuditLogExportService;
+import com.quckapp.audit.service.AuditLogExportService.ExportFormat;
 import com.quckapp.audit.service.AuditLogService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -18,8 +23,10 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 
+import java.io.OutputStream;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
@@ -27,6 +34,7 @@ import java.util.UUID;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -50,6 +58,15 @@ class AuditLogControllerTest {
     @MockBean
     private AuditLogService auditLogService;
 
+    @MockBean
+    private AuditLogExportService auditLogExportService;
+
+    @MockBean
+    private ActivityHistogramService activityHistogramService;
+
+    @MockBean
+    private AuditLogBulkIngestService auditLogBulkIngestService;
+
     private UUID workspaceId;
     private UUID actorId;
     private UUID resourceId;
@@ -126,7 +143,7 @@ class AuditLogControllerTest {
                 .content(List.of(sampleResponse))
                 .page(0)
                 .size(20)
-                .totalElements(1)
+                .totalElements(1L)
                 .totalPages(1)
                 .first(true)
                 .last(true)
@@ -144,6 +161,49 @@ class AuditLogControllerTest {
         }
     }
 
+    @Nested
+    @DisplayName("Export Audit Logs")
+    class ExportAuditLogsTests {
+
+        @Test
+        @DisplayName("POST /api/v1/audit/logs/export - should stream the export as an attachment")
+        void shouldStreamExport() throws Exception {
+            AuditLogSearchRequest request = AuditLogSearchRequest.builder().workspaceId(workspaceId).build();
+            when(auditLogExportService.export(any(), eq(ExportFormat.CSV), eq(true), any())).thenAnswer(inv -> {
+                inv.getArgument(3, OutputStream.class).write("gzipped".getBytes());
+                return 1L;
+            });
+
+            MvcResult result = mockMvc.perform(post("/api/v1/audit/logs/export")
+                    .param("format", "CSV")
+                    .param("gzip", "true")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+            mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/gzip"))
+                .andExpect(header().string("Content-Disposition", containsString("audit-logs.csv.gz")))
+                .andExpect(content().string("gzipped"));
+        }
+
+        @Test
+        @DisplayName("POST /api/v1/audit/logs/export - should reject an invalid export before streaming")
+        void shouldRejectInvalidExport() throws Exception {
+            doThrow(new BadRequestException("workspaceId is required to export audit logs"))
+                .when(auditLogExportService).validate(any());
+
+            mockMvc.perform(post("/api/v1/audit/logs/export")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{}"))
+                .andExpect(status().isBadRequest());
+
+            verify(auditLogExportService, never()).export(any(), any(), anyBoolean(), any());
+        }
+    }
+
     @Nested
     @DisplayName("Get Audit Log By ID")
     class GetAuditLogByIdTests {
@@ -183,7 +243,7 @@ class AuditLogControllerTest {
                 .content(List.of(sampleResponse))
                 .page(0)
                 .size(20)
-                .totalElements(1)
+                .totalElements(1L)
                 .totalPages(1)
                 .first(true)
                 .last(true)
@@ -200,6 +260,45 @@ class AuditLogControllerTest {
         }
     }
 
+    @Nested
+    @DisplayName("Bulk Create Audit Logs")
+    class BulkCreateAuditLogsTests {
+
+        @Test
+        @DisplayName("POST /api/v1/audit/logs/bulk - should return the ingest summary")
+        void shouldReturnSummary() throws Exception {
+            BulkIngestResult result = BulkIngestResult.builder()
+                .received(3).inserted(2).rejected(1).lastCommittedLine(3)
+                .errors(List.of(new BulkIngestError(2, "Malformed JSON")))
+                .build();
+            when(auditLogBulkIngestService.ingest(any())).thenReturn(result);
+
+            mockMvc.perform(post("/api/v1/audit/logs/bulk")
+                    .contentType("application/x-ndjson")
+                    .content("{}\n{}\n{}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.inserted").value(2))
+                .andExpect(jsonPath("$.data.errors[0].line").value(2));
+        }
+
+        @Test
+        @DisplayName("POST /api/v1/audit/logs/bulk - should return 503 when a batch failed to insert")
+        void shouldReturnUnavailableWhenAborted() throws Exception {
+            BulkIngestResult result = BulkIngestResult.builder()
+                .received(1000).inserted(500).lastCommittedLine(500).aborted(true).abortReason("connection lost")
+                .errors(List.of())
+                .build();
+            when(auditLogBulkIngestService.ingest(any())).thenReturn(result);
+
+            mockMvc.perform(post("/api/v1/audit/logs/bulk")
+                    .contentType("application/x-ndjson")
+                    .content("{}\n"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.data.lastCommittedLine").value(500));
+        }
+    }
+
     @Nested
     @DisplayName("Get Statistics")
     class GetStatisticsTests {
@@ -219,7 +318,7 @@ class AuditLogControllerTest {
                 .topResources(List.of())
                 .build();
 
-            when(auditLogService.getStatistics(eq(workspaceId), any(), any())).thenReturn(statistics);
+            when(auditLogService.getStatistics(eq(workspaceId), any(), any(), eq(false))).thenReturn(statistics);
 
             mockMvc.perform(get("/api/v1/audit/logs/statistics/workspace/{workspaceId}", workspaceId))
                 .andExpect(status().isOk())
@@ -227,5 +326,29 @@ class AuditLogControllerTest {
                 .andExpect(jsonPath("$.data.totalEvents").value(100))
                 .andExpect(jsonPath("$.data.eventsByAction.USER_CREATED").value(50));
         }
+
+        @Test
+        @DisplayName("GET /api/v1/audit/logs/statistics/workspace/{workspaceId}/histogram - should get dense buckets")
+        void shouldGetHistogram() throws Exception {
+            ActivityHistogram histogram = ActivityHistogram.builder()
+                .workspaceId(workspaceId)
+                .interval("1h")
+                .intervalSeconds(3600)
+                .groupBy("CATEGORY")
+                .totals(new long[]{3, 0})
+                .groups(List.of("SECURITY"))
+                .counts(List.of(new long[]{3, 0}))
+                .build();
+
+            when(activityHistogramService.getHistogram(eq(workspaceId), any(), any(), eq("1h"), eq("category")))
+                .thenReturn(histogram);
+
+            mockMvc.perform(get("/api/v1/audit/logs/statistics/workspace/{workspaceId}/histogram", workspaceId)
+                    .param("interval", "1h")
+                    .param("groupBy", "category"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.totals[0]").value(3))
+                .andExpect(jsonPath("$.data.counts[0][1]").value(0));
+        }
     }
 }
@@ -112,7 +112,7 @@ class ComplianceReportControllerTest {
                 .content(List.of(sampleReportResponse))
                 .page(0)
                 .size(20)
-                .totalElements(1)
+                .totalElements(1L)
                 .totalPages(1)
                 .first(true)
                 .last(true)
@@ -201,7 +201,7 @@ class RetentionPolicyControllerTest {
                 .success(true)
                 .deletedCount(50)
                 .archivedCount(0)
-                .esCleanedCount(50)
+                .esQueuedCount(50)
                 .executedAt(Instant.now())
                 .build();
 
@@ -211,7 +211,8 @@ class RetentionPolicyControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.data.success").value(true))
-                .andExpect(jsonPath("$.data.deletedCount").value(50));
+                .andExpect(jsonPath("$.data.deletedCount").value(50))
+                .andExpect(jsonPath("$.data.esQueuedCount").value(50));
         }
     }
 }
@@ -0,0 +1,77 @@
+package com.quckapp.audit.domain.id;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+class UuidV7Test {
+
+    private static final Comparator<UUID> BINARY_ORDER = (a, b) -> {
+        int cmp = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return cmp != 0 ? cmp : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    };
+
+    @Test
+    @DisplayName("should produce RFC 9562 version 7 UUIDs")
+    void shouldProduceVersion7() {
+        UUID uuid = UuidV7.generate();
+
+        assertThat(uuid.version()).isEqualTo(7);
+        assertThat(uuid.variant()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("should embed the generation time")
+    void shouldEmbedGenerationTime() {
+        Instant before = Instant.now();
+        UUID uuid = UuidV7.generate();
+
+        assertThat(UuidV7.timestampOf(uuid)).isBetween(before.minusMillis(1), Instant.now().plusSeconds(1));
+    }
+
+    @Test
+    @DisplayName("should be strictly increasing in binary order, even within one millisecond")
+    void shouldBeMonotonic() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            ids.add(UuidV7.generate());
+        }
+
+        assertThat(ids).isSortedAccordingTo(BINARY_ORDER).doesNotHaveDuplicates();
+    }
+
+    @Test
+    @DisplayName("should keep increasing when the clock moves backwards")
+    void shouldNotGoBackwardsWithClock() {
+        long now = System.currentTimeMillis();
+        long first = UuidV7.nextTick(now);
+        long second = UuidV7.nextTick(now - 5_000);
+
+        assertThat(second).isGreaterThan(first);
+    }
+
+    @Test
+    @DisplayName("should sort lower bound before ids generated at that instant")
+    void shouldSortLowerBoundFirst() {
+        Instant now = Instant.now();
+        UUID bound = UuidV7.lowerBound(now.minusMillis(1));
+
+        assertThat(BINARY_ORDER.compare(bound, UuidV7.generate())).isNegative();
+        assertThat(UuidV7.timestampOf(bound)).isEqualTo(now.minusMillis(1).truncatedTo(ChronoUnit.MILLIS));
+    }
+
+    @Test
+    @DisplayName("should reject timestamp extraction from random UUIDs")
+    void shouldRejectVersion4() {
+        assertThatThrownBy(() -> UuidV7.timestampOf(UUID.randomUUID()))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,82 @@
+package com.quckapp.audit.domain.repository;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import com.quckapp.audit.domain.entity.AuditLog.AuditCategory;
+import com.quckapp.audit.domain.entity.AuditLog.AuditSeverity;
+import com.quckapp.audit.dto.AuditDtos.AuditLogSearchRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+class AuditLogFullTextSearchImplTest {
+
+    private final UUID workspaceId = UUID.randomUUID();
+
+    @Nested
+    @DisplayName("matching")
+    class MatchingTests {
+
+        @Test
+        @DisplayName("should narrow the full-text match by every filter of the request")
+        void shouldApplyEveryFilter() {
+            UUID actorId = UUID.randomUUID();
+            UUID resourceId = UUID.randomUUID();
+            Instant from = Instant.parse("2025-01-01T00:00:00Z");
+            Instant until = Instant.parse("2025-01-31T00:00:00Z");
+            AuditLogSearchRequest request = AuditLogSearchRequest.builder()
+                .workspaceId(workspaceId)
+                .query("report")
+                .actorId(actorId)
+                .action("FILE_READ")
+                .resourceType("FILE")
+                .resourceId(resourceId)
+                .category(AuditCategory.DATA_ACCESS)
+                .severities(Set.of(AuditSeverity.HIGH))
+                .startDate(from)
+                .endDate(Instant.parse("2025-02-01T00:00:00Z"))
+                .build();
+
+            Query query = AuditLogFullTextSearchImpl.matching(request, until);
+
+            Map<String, String> terms = query.bool().filter().stream()
+                .filter(Query::isTerm)
+                .collect(Collectors.toMap(f -> f.term().field(), f -> f.term().value().stringValue()));
+            assertThat(terms).containsOnly(
+                entry("actorId", actorId.toString()),
+                entry("action", "FILE_READ"),
+                entry("resourceType", "FILE"),
+                entry("resourceId", resourceId.toString()),
+                entry("category", "DATA_ACCESS"));
+            assertThat(query.bool().filter()).filteredOn(Query::isTerms).singleElement().satisfies(f -> {
+                assertThat(f.terms().field()).isEqualTo("severity");
+                assertThat(f.terms().terms().value()).extracting(FieldValue::stringValue).containsExactly("HIGH");
+            });
+            assertThat(query.bool().filter()).filteredOn(Query::isRange).singleElement().satisfies(f -> {
+                assertThat(f.range().gte().to(Long.class)).isEqualTo(from.toEpochMilli());
+                assertThat(f.range().lte().to(Long.class)).isEqualTo(until.toEpochMilli());
+            });
+            assertThat(query.bool().must()).filteredOn(Query::isMultiMatch).singleElement()
+                .satisfies(m -> assertThat(m.multiMatch().query()).isEqualTo("report"));
+        }
+
+        @Test
+        @DisplayName("should only scope by workspace when no other filter is set")
+        void shouldOnlyScopeByWorkspace() {
+            Query query = AuditLogFullTextSearchImpl.matching(
+                AuditLogSearchRequest.builder().workspaceId(workspaceId).query("report").build(), null);
+
+            assertThat(query.bool().filter()).isEmpty();
+            assertThat(query.bool().must()).filteredOn(Query::isTerm).singleElement()
+                .satisfies(m -> assertThat(m.term().value().stringValue()).isEqualTo(workspaceId.toString()));
+        }
+    }
+}
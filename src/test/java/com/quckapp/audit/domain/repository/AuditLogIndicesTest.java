@@ -0,0 +1,105 @@
+package com.quckapp.audit.domain.repository;
+
+import com.quckapp.audit.domain.repository.AuditLogIndices.IndexGeneration;
+import com.quckapp.audit.domain.repository.AuditLogIndices.TimeRange;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+class AuditLogIndicesTest {
+
+    private final AuditLogIndices indices = new AuditLogIndices();
+
+    private static Instant at(String instant) {
+        return Instant.parse(instant);
+    }
+
+    @Nested
+    @DisplayName("index names")
+    class IndexNameTests {
+
+        @Test
+        @DisplayName("should name indices by month and sequence and parse them back")
+        void shouldRoundTripIndexNames() {
+            String name = AuditLogIndices.indexName(YearMonth.of(2026, 1), 2);
+
+            assertThat(name).isEqualTo("audit-logs-2026.01-000002");
+            assertThat(AuditLogIndices.generationOf(name)).isEqualTo(new IndexGeneration(YearMonth.of(2026, 1), 2));
+        }
+
+        @Test
+        @DisplayName("should not parse the fixed monthly indices written before rollover")
+        void shouldIgnoreLegacyIndices() {
+            assertThat(AuditLogIndices.generationOf("audit-logs-2026-01")).isNull();
+        }
+
+        @Test
+        @DisplayName("should tell rerouted copies from the indices they were made from")
+        void shouldNameReroutedCopies() {
+            String copy = AuditLogIndices.reroutedCopyOf("audit-logs-2026-01");
+
+            assertThat(AuditLogIndices.isReroutedCopy(copy)).isTrue();
+            assertThat(AuditLogIndices.isReroutedCopy("audit-logs-2026-01")).isFalse();
+            assertThat(AuditLogIndices.sourceOf(copy)).isEqualTo("audit-logs-2026-01");
+        }
+    }
+
+    @Nested
+    @DisplayName("forRange")
+    class ForRangeTests {
+
+        @Test
+        @DisplayName("should search the read alias until the ranges are known")
+        void shouldFallBackToReadAlias() {
+            assertThat(indices.isBootstrapped()).isFalse();
+            assertThat(indices.forRange(at("2026-01-01T00:00:00Z"), null).getIndexNames())
+                .containsExactly(AuditLogIndices.READ_ALIAS);
+        }
+
+        @Test
+        @DisplayName("should search only the indices overlapping the range and always the write index")
+        void shouldPruneIndices() {
+            indices.update("audit-logs-2026.03-000001", Map.of(
+                "audit-logs-2026-01", new TimeRange(at("2026-01-01T00:00:00Z"), at("2026-01-31T23:59:59Z")),
+                "audit-logs-2026.02-000001", new TimeRange(at("2026-02-01T00:00:00Z"), at("2026-02-28T23:59:59Z")),
+                "audit-logs-2026.03-000001", new TimeRange(at("2026-03-01T00:00:00Z"), at("2026-03-10T00:00:00Z"))),
+                Set.of());
+
+            assertThat(indices.forRange(at("2026-02-10T00:00:00Z"), at("2026-02-20T00:00:00Z")).getIndexNames())
+                .containsExactlyInAnyOrder(AuditLogIndices.WRITE_ALIAS, "audit-logs-2026.03-000001",
+                    "audit-logs-2026.02-000001");
+            assertThat(indices.forRange(null, at("2026-01-15T00:00:00Z")).getIndexNames())
+                .containsExactlyInAnyOrder(AuditLogIndices.WRITE_ALIAS, "audit-logs-2026.03-000001",
+                    "audit-logs-2026-01");
+            assertThat(indices.forRange(null, null).getIndexNames()).containsExactly(AuditLogIndices.READ_ALIAS);
+        }
+    }
+
+    @Nested
+    @DisplayName("isRouted")
+    class IsRoutedTests {
+
+        @Test
+        @DisplayName("should route only searches that hit no index written before routing")
+        void shouldRouteOnlyRoutedIndices() {
+            indices.update("audit-logs-2026.03-000002", Map.of(), Set.of("audit-logs-2026-01"));
+
+            assertThat(indices.isRouted(IndexCoordinates.of("audit-logs-2026.03-000002", "audit-logs-2026.02-000001"))).isTrue();
+            assertThat(indices.isRouted(IndexCoordinates.of("audit-logs-2026.03-000002", "audit-logs-2026-01"))).isFalse();
+            assertThat(indices.isRouted(IndexCoordinates.of(AuditLogIndices.READ_ALIAS))).isFalse();
+            assertThat(indices.isRouted(IndexCoordinates.of(AuditLogIndices.WRITE_ALIAS))).isTrue();
+
+            indices.update("audit-logs-2026.03-000002", Map.of(), Set.of());
+
+            assertThat(indices.isRouted(IndexCoordinates.of(AuditLogIndices.READ_ALIAS))).isTrue();
+        }
+    }
+}
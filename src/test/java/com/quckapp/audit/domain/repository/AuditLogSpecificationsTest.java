@@ -0,0 +1,105 @@
+package com.quckapp.audit.domain.repository;
+
+import com.quckapp.audit.domain.entity.AuditLog;
+import com.quckapp.audit.domain.entity.AuditLog.AuditCategory;
+import com.quckapp.audit.domain.entity.AuditLog.AuditSeverity;
+import com.quckapp.audit.dto.AuditDtos.AuditLogSearchRequest;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AuditLogSpecificationsTest {
+
+    @Mock
+    private Root<AuditLog> root;
+
+    @Mock
+    private CriteriaQuery<?> query;
+
+    @Mock(answer = Answers.RETURNS_MOCKS)
+    private CriteriaBuilder cb;
+
+    private final UUID workspaceId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        when(root.get(anyString())).thenAnswer(inv -> mock(Path.class, inv.getArgument(0, String.class)));
+    }
+
+    @Test
+    @DisplayName("should only filter on the workspace when nothing else is set")
+    void shouldFilterOnWorkspaceOnly() {
+        AuditLogSearchRequest request = AuditLogSearchRequest.builder().workspaceId(workspaceId).build();
+
+        AuditLogSpecifications.<AuditLog>matching(request).toPredicate(root, query, cb);
+
+        verify(cb).equal(any(), eq(workspaceId));
+        verify(root).get("workspaceId");
+        verifyNoMoreInteractions(root);
+    }
+
+    @Test
+    @DisplayName("should combine every filter of the request")
+    void shouldCombineAllFilters() {
+        UUID actorId = UUID.randomUUID();
+        UUID resourceId = UUID.randomUUID();
+        Instant start = Instant.parse("2025-01-01T00:00:00Z");
+        Instant end = Instant.parse("2025-02-01T00:00:00Z");
+        AuditLogSearchRequest request = AuditLogSearchRequest.builder()
+            .workspaceId(workspaceId)
+            .actorId(actorId)
+            .action("FILE_READ")
+            .resourceType("FILE")
+            .resourceId(resourceId)
+            .category(AuditCategory.DATA_ACCESS)
+            .severities(Set.of(AuditSeverity.HIGH))
+            .startDate(start)
+            .endDate(end)
+            .build();
+
+        AuditLogSpecifications.<AuditLog>matching(request).toPredicate(root, query, cb);
+
+        verify(cb).equal(any(), eq(workspaceId));
+        verify(cb).equal(any(), eq(actorId));
+        verify(cb).equal(any(), eq("FILE_READ"));
+        verify(cb).equal(any(), eq("FILE"));
+        verify(cb).equal(any(), eq(resourceId));
+        verify(cb).equal(any(), eq(AuditCategory.DATA_ACCESS));
+        verify(cb).equal(any(), eq(AuditSeverity.HIGH));
+        verify(cb).greaterThanOrEqualTo(any(), eq(start));
+        verify(cb).lessThanOrEqualTo(any(), eq(end));
+        verify(cb, times(8)).and(any(Predicate.class), any(Predicate.class));
+    }
+
+    @Test
+    @DisplayName("should use IN for several severities")
+    void shouldUseInForSeveralSeverities() {
+        Path<Object> severity = mock(Path.class);
+        when(root.get("severity")).thenReturn(severity);
+
+        AuditLogSpecifications.<AuditLog>withSeverityIn(Set.of(AuditSeverity.HIGH, AuditSeverity.CRITICAL))
+            .toPredicate(root, query, cb);
+
+        verify(severity).in(Set.of(AuditSeverity.HIGH, AuditSeverity.CRITICAL));
+    }
+}
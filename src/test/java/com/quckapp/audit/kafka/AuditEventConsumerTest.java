@@ -5,6 +5,10 @@ import com.quckapp.audit.domain.entity.AuditLog.AuditCategory;
 import com.quckapp.audit.domain.entity.AuditLog.AuditSeverity;
 import com.quckapp.audit.dto.AuditDtos.CreateAuditLogRequest;
 import com.quckapp.audit.service.AuditLogService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -16,7 +20,10 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DeadlockLoserDataAccessException;
 
+import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.*;
@@ -32,6 +39,12 @@ class AuditEventConsumerTest {
     @Spy
     private ObjectMapper objectMapper = new ObjectMapper();
 
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private AuditEventConsumer consumer;
 
@@ -83,6 +96,88 @@ class AuditEventConsumerTest {
         }
     }
 
+    @Nested
+    @DisplayName("consumeAuditEvents")
+    class ConsumeAuditEventsTests {
+
+        @Captor
+        private ArgumentCaptor<List<CreateAuditLogRequest>> batchCaptor;
+
+        private String validEvent(String action) throws Exception {
+            return objectMapper.writeValueAsString(CreateAuditLogRequest.builder()
+                .workspaceId(workspaceId)
+                .actorId(actorId)
+                .action(action)
+                .resourceType("DOCUMENT")
+                .resourceId(UUID.randomUUID())
+                .severity(AuditSeverity.LOW)
+                .category(AuditCategory.DATA_ACCESS)
+                .build());
+        }
+
+        @Test
+        @DisplayName("should insert whole poll with a single batch call")
+        void shouldInsertWholePollWithSingleBatchCall() throws Exception {
+            when(auditLogService.createAuditLogs(anyList())).thenReturn(3);
+
+            consumer.consumeAuditEvents(List.of(validEvent("A"), validEvent("B"), validEvent("C")));
+
+            verify(auditLogService).createAuditLogs(batchCaptor.capture());
+            verify(auditLogService, never()).createAuditLog(any());
+            assertThat(batchCaptor.getValue()).extracting(CreateAuditLogRequest::getAction)
+                .containsExactly("A", "B", "C");
+            assertThat(meterRegistry.counter("audit.ingest.events", "mode", "batch").count()).isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("should drop malformed and invalid events without failing the batch")
+        void shouldDropMalformedAndInvalidEvents() throws Exception {
+            String missingAction = objectMapper.writeValueAsString(CreateAuditLogRequest.builder()
+                .workspaceId(workspaceId)
+                .actorId(actorId)
+                .resourceType("DOCUMENT")
+                .resourceId(UUID.randomUUID())
+                .severity(AuditSeverity.LOW)
+                .category(AuditCategory.DATA_ACCESS)
+                .build());
+            when(auditLogService.createAuditLogs(anyList())).thenReturn(1);
+
+            consumer.consumeAuditEvents(List.of("invalid json", missingAction, validEvent("OK")));
+
+            verify(auditLogService).createAuditLogs(batchCaptor.capture());
+            assertThat(batchCaptor.getValue()).hasSize(1);
+            assertThat(batchCaptor.getValue().get(0).getAction()).isEqualTo("OK");
+        }
+
+        @Test
+        @DisplayName("should propagate database failures so the poll is retried")
+        void shouldPropagateDatabaseFailures() throws Exception {
+            when(auditLogService.createAuditLogs(anyList())).thenThrow(new DeadlockLoserDataAccessException("Deadlock", null));
+
+            assertThatThrownBy(() -> consumer.consumeAuditEvents(List.of(validEvent("A"))))
+                .hasMessageContaining("Deadlock");
+            verify(auditLogService, times(1)).createAuditLogs(anyList());
+        }
+
+        @Test
+        @DisplayName("should insert a refused batch event by event and drop only the refused events")
+        void shouldDropOnlyRefusedEvents() throws Exception {
+            when(auditLogService.createAuditLogs(anyList())).thenAnswer(inv -> {
+                List<CreateAuditLogRequest> batch = inv.getArgument(0);
+                if (batch.stream().anyMatch(request -> request.getAction().equals("BAD"))) {
+                    throw new DataIntegrityViolationException("Data too long for column 'ip_address'");
+                }
+                return batch.size();
+            });
+
+            consumer.consumeAuditEvents(List.of(validEvent("A"), validEvent("BAD"), validEvent("C")));
+
+            verify(auditLogService, times(4)).createAuditLogs(anyList());
+            assertThat(meterRegistry.counter("audit.ingest.events", "mode", "batch").count()).isEqualTo(2);
+            assertThat(meterRegistry.counter("audit.ingest.rejected", "mode", "batch").count()).isEqualTo(1);
+        }
+    }
+
     @Nested
     @DisplayName("consumeUserEvent")
     class ConsumeUserEventTests {
@@ -0,0 +1,112 @@
+package com.quckapp.audit.security.jwt;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "bG9jYWwtZGV2LXNlY3JldC1rZXktZm9yLXRlc3Rpbmctb25seS0zMi1jaGFycw==";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+    private final UUID userId = UUID.randomUUID();
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService(meterRegistry);
+        ReflectionTestUtils.setField(jwtService, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtService, "principalCacheMaxSize", 100L);
+        ReflectionTestUtils.setField(jwtService, "principalCacheMaxTtlSeconds", 300L);
+        jwtService.init();
+    }
+
+    private String token(String issuer, String type, Instant expiresAt, SecretKey signingKey) {
+        return Jwts.builder()
+            .subject(userId.toString())
+            .issuer(issuer)
+            .claim("type", type)
+            .claim("email", "alice@example.com")
+            .claim("sessionId", "session-1")
+            .expiration(expiresAt != null ? Date.from(expiresAt) : null)
+            .signWith(signingKey)
+            .compact();
+    }
+
+    private String accessToken() {
+        return token("quckapp-auth-local", "access", Instant.now().plus(15, ChronoUnit.MINUTES), key);
+    }
+
+    private double principalCacheHits() {
+        return meterRegistry.get("cache.gets").tag("cache", "jwt.principals").tag("result", "hit")
+            .functionCounter().count();
+    }
+
+    @Nested
+    @DisplayName("authenticate")
+    class AuthenticateTests {
+
+        @Test
+        @DisplayName("should build the principal from a valid access token")
+        void shouldAuthenticateAccessToken() {
+            JwtUserPrincipal principal = jwtService.authenticate(accessToken());
+
+            assertThat(principal.getUserId()).isEqualTo(userId);
+            assertThat(principal.getEmail()).isEqualTo("alice@example.com");
+            assertThat(principal.getSessionId()).isEqualTo("session-1");
+        }
+
+        @Test
+        @DisplayName("should serve a token seen before from the cache")
+        void shouldCacheVerifiedPrincipals() {
+            String token = accessToken();
+
+            JwtUserPrincipal first = jwtService.authenticate(token);
+            JwtUserPrincipal second = jwtService.authenticate(token);
+
+            assertThat(second).isSameAs(first);
+            assertThat(principalCacheHits()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should reject tokens that are not valid access tokens")
+        void shouldRejectInvalidTokens() {
+            Instant later = Instant.now().plus(15, ChronoUnit.MINUTES);
+            SecretKey otherKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET.replace('b', 'c')));
+
+            assertThat(jwtService.authenticate(token("quckapp-auth-local", "refresh", later, key))).isNull();
+            assertThat(jwtService.authenticate(token("someone-else", "access", later, key))).isNull();
+            assertThat(jwtService.authenticate(token("quckapp-auth-local", "access", Instant.now().minusSeconds(60), key))).isNull();
+            assertThat(jwtService.authenticate(token("quckapp-auth-local", "access", null, key))).isNull();
+            assertThat(jwtService.authenticate(token("quckapp-auth-local", "access", later, otherKey))).isNull();
+            assertThat(jwtService.authenticate("not-a-token")).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("validateToken")
+    class ValidateTokenTests {
+
+        @Test
+        @DisplayName("should accept a signed token from the auth service")
+        void shouldValidateToken() {
+            assertThat(jwtService.validateToken(accessToken())).isTrue();
+            assertThat(jwtService.extractUserId(accessToken())).isEqualTo(userId.toString());
+        }
+    }
+}
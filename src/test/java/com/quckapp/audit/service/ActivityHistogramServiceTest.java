@@ -0,0 +1,195 @@
+package com.quckapp.audit.service;
+
+import com.quckapp.audit.domain.entity.AuditLog.AuditCategory;
+import com.quckapp.audit.domain.entity.AuditLog.AuditSeverity;
+import com.quckapp.audit.domain.repository.AuditLogAggregations.HistogramBucket;
+import com.quckapp.audit.domain.repository.AuditLogElasticsearchRepository;
+import com.quckapp.audit.domain.repository.AuditRollupRepository;
+import com.quckapp.audit.domain.repository.AuditRollupRepository.Granularity;
+import com.quckapp.audit.domain.repository.AuditRollupRepository.RawEvent;
+import com.quckapp.audit.domain.repository.AuditRollupRepository.RollupCount;
+import com.quckapp.audit.dto.AuditDtos.ActivityHistogram;
+import com.quckapp.audit.exception.BadRequestException;
+import com.quckapp.audit.service.statistics.StatisticsCache;
+import com.quckapp.audit.service.statistics.StatisticsPlanner;
+import com.quckapp.audit.service.statistics.StatisticsPlanner.Backend;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ActivityHistogramServiceTest {
+
+    @Mock
+    private StatisticsPlanner statisticsPlanner;
+
+    @Mock
+    private StatisticsCache statisticsCache;
+
+    @Mock
+    private AuditRollupRepository rollupRepository;
+
+    @Mock
+    private AuditLogElasticsearchRepository elasticsearchRepository;
+
+    @InjectMocks
+    private ActivityHistogramService histogramService;
+
+    private final UUID workspaceId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(histogramService, "maxBuckets", 5000);
+    }
+
+    private static Instant at(String instant) {
+        return Instant.parse(instant);
+    }
+
+    @Nested
+    @DisplayName("getHistogram")
+    class GetHistogramTests {
+
+        @Test
+        @DisplayName("should sum hourly rollups into dense arrays per category")
+        void shouldSumHourlyRollups() {
+            Instant from = at("2025-01-01T08:00:00Z");
+            Instant to = at("2025-01-01T11:00:00Z");
+            when(statisticsPlanner.chooseHistogram(from, to, Duration.ofHours(1))).thenReturn(Backend.ROLLUPS);
+            Map<Instant, List<RollupCount>> buckets = new TreeMap<>();
+            buckets.put(from, List.of(
+                new RollupCount("LOGIN_FAILED", AuditCategory.SECURITY, AuditSeverity.HIGH, 3),
+                new RollupCount("LOGIN_SUCCESS", AuditCategory.AUTHENTICATION, AuditSeverity.LOW, 5)));
+            buckets.put(at("2025-01-01T09:00:00Z"), List.of());
+            buckets.put(at("2025-01-01T10:00:00Z"), List.of(
+                new RollupCount("LOGIN_FAILED", AuditCategory.SECURITY, AuditSeverity.HIGH, 1)));
+            when(statisticsCache.bucketsByStart(Granularity.HOURLY, workspaceId, from, to)).thenReturn(buckets);
+
+            ActivityHistogram histogram = histogramService.getHistogram(
+                workspaceId, at("2025-01-01T08:20:00Z"), at("2025-01-01T10:05:00Z"), "1h", "category");
+
+            assertThat(histogram.getStart()).isEqualTo(from);
+            assertThat(histogram.getEnd()).isEqualTo(to);
+            assertThat(histogram.getTotals()).containsExactly(8, 0, 1);
+            assertThat(histogram.getGroups()).hasSize(AuditCategory.values().length);
+            int security = histogram.getGroups().indexOf("SECURITY");
+            assertThat(histogram.getCounts().get(security)).containsExactly(3, 0, 1);
+            int compliance = histogram.getGroups().indexOf("COMPLIANCE");
+            assertThat(histogram.getCounts().get(compliance)).containsExactly(0, 0, 0);
+            assertThat(histogram.getBackend()).isEqualTo("ROLLUPS");
+        }
+
+        @Test
+        @DisplayName("should bucket finer intervals with a date histogram in Elasticsearch")
+        void shouldUseElasticsearchForFineIntervals() {
+            Instant from = at("2025-01-01T08:00:00Z");
+            Instant to = at("2025-01-01T08:30:00Z");
+            when(statisticsPlanner.chooseHistogram(from, to, Duration.ofMinutes(15))).thenReturn(Backend.ELASTICSEARCH);
+            when(elasticsearchRepository.histogram(workspaceId.toString(), from, to, Duration.ofMinutes(15), null))
+                .thenReturn(List.of(new HistogramBucket(at("2025-01-01T08:15:00Z"), 7, Map.of())));
+
+            ActivityHistogram histogram = histogramService.getHistogram(
+                workspaceId, at("2025-01-01T08:05:00Z"), at("2025-01-01T08:20:00Z"), "15m", null);
+
+            assertThat(histogram.getTotals()).containsExactly(0, 7);
+            assertThat(histogram.getGroups()).isNull();
+            assertThat(histogram.getBackend()).isEqualTo("ELASTICSEARCH");
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        @DisplayName("should stream MySQL rows when the Elasticsearch search fails")
+        void shouldScanWhenElasticsearchFails() {
+            Instant from = at("2025-01-01T08:00:00Z");
+            Instant to = at("2025-01-01T08:10:00Z");
+            when(statisticsPlanner.chooseHistogram(from, to, Duration.ofMinutes(5))).thenReturn(Backend.ELASTICSEARCH);
+            when(elasticsearchRepository.histogram(any(), any(), any(), any(), any()))
+                .thenThrow(new IllegalStateException("cluster unavailable"));
+            doAnswer(inv -> {
+                Consumer<RawEvent> consumer = inv.getArgument(3);
+                consumer.accept(new RawEvent(at("2025-01-01T08:01:00Z"), "FILE_READ", AuditCategory.DATA_ACCESS, AuditSeverity.LOW));
+                consumer.accept(new RawEvent(at("2025-01-01T08:07:00Z"), "FILE_DELETED", AuditCategory.DATA_MODIFICATION, AuditSeverity.HIGH));
+                consumer.accept(new RawEvent(at("2025-01-01T08:09:59Z"), "FILE_READ", AuditCategory.DATA_ACCESS, AuditSeverity.LOW));
+                return null;
+            }).when(rollupRepository).scanRaw(eq(workspaceId), eq(from), eq(to), any(Consumer.class));
+
+            ActivityHistogram histogram = histogramService.getHistogram(
+                workspaceId, at("2025-01-01T08:00:00Z"), at("2025-01-01T08:09:00Z"), "5m", "action");
+
+            assertThat(histogram.getTotals()).containsExactly(1, 2);
+            assertThat(histogram.getGroups()).containsExactly("FILE_DELETED", "FILE_READ");
+            assertThat(histogram.getCounts().get(1)).containsExactly(1, 1);
+            assertThat(histogram.getBackend()).isEqualTo("SCAN");
+        }
+
+        @Test
+        @DisplayName("should reject ranges with too many buckets")
+        void shouldRejectTooManyBuckets() {
+            assertThatThrownBy(() -> histogramService.getHistogram(
+                    workspaceId, at("2025-01-01T00:00:00Z"), at("2025-03-01T00:00:00Z"), "1m", null))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("buckets");
+            verifyNoInteractions(statisticsPlanner);
+        }
+
+        @Test
+        @DisplayName("should reject unknown groupings")
+        void shouldRejectUnknownGrouping() {
+            assertThatThrownBy(() -> histogramService.getHistogram(workspaceId, null, null, "1h", "actor"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("groupBy");
+        }
+    }
+
+    @Nested
+    @DisplayName("parseInterval")
+    class ParseIntervalTests {
+
+        @Test
+        @DisplayName("should parse minutes, hours and days")
+        void shouldParseUnits() {
+            assertThat(ActivityHistogramService.parseInterval("5m")).isEqualTo(Duration.ofMinutes(5));
+            assertThat(ActivityHistogramService.parseInterval("1h")).isEqualTo(Duration.ofHours(1));
+            assertThat(ActivityHistogramService.parseInterval("7d")).isEqualTo(Duration.ofDays(7));
+        }
+
+        @Test
+        @DisplayName("should reject malformed and empty intervals")
+        void shouldRejectMalformedIntervals() {
+            assertThatThrownBy(() -> ActivityHistogramService.parseInterval("30s"))
+                .isInstanceOf(BadRequestException.class);
+            assertThatThrownBy(() -> ActivityHistogramService.parseInterval("0h"))
+                .isInstanceOf(BadRequestException.class);
+        }
+
+        @Test
+        @DisplayName("should reject intervals too long for the bucket arithmetic")
+        void shouldRejectOverlongIntervals() {
+            assertThat(ActivityHistogramService.parseInterval("366d")).isEqualTo(Duration.ofDays(366));
+            assertThatThrownBy(() -> ActivityHistogramService.parseInterval("367d"))
+                .isInstanceOf(BadRequestException.class);
+            assertThatThrownBy(() -> ActivityHistogramService.parseInterval("9999999999999d"))
+                .isInstanceOf(BadRequestException.class);
+            assertThatThrownBy(() -> ActivityHistogramService.parseInterval("99999999999999999999m"))
+                .isInstanceOf(BadRequestException.class);
+        }
+    }
+}
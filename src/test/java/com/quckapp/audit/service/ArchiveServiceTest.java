@@ -1,24 +1,39 @@
 package com.quckapp.audit.service;
 
 import com.quckapp.audit.domain.entity.ArchivedAuditLog;
-import com.quckapp.audit.domain.entity.AuditLog;
 import com.quckapp.audit.domain.entity.AuditLog.AuditCategory;
 import com.quckapp.audit.domain.entity.AuditLog.AuditSeverity;
 import com.quckapp.audit.domain.entity.RetentionPolicy;
 import com.quckapp.audit.domain.repository.ArchivedAuditLogRepository;
-import com.quckapp.audit.domain.repository.AuditLogRepository;
+import com.quckapp.audit.domain.repository.ArchivedAuditLogSealingRepository;
+import com.quckapp.audit.domain.repository.ArchivedAuditLogSealingRepository.WorkspaceRange;
+import com.quckapp.audit.domain.repository.AuditLogRetentionRepository;
+import com.quckapp.audit.domain.repository.AuditLogRetentionRepository.RowKey;
+import com.quckapp.audit.domain.repository.ColdArchiveSegmentRepository;
+import com.quckapp.audit.domain.repository.ColdArchiveSegmentRepository.ColdSegment;
+import com.quckapp.audit.domain.repository.ColdArchiveSegmentRepository.Status;
+import com.quckapp.audit.service.archive.ColdArchiveStore;
+import com.quckapp.audit.service.archive.SegmentReader;
+import com.quckapp.audit.service.archive.SegmentWriter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
-import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Instant;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -30,30 +45,30 @@ import static org.mockito.Mockito.*;
 class ArchiveServiceTest {
 
     @Mock
-    private AuditLogRepository auditLogRepository;
+    private AuditLogRetentionRepository retentionRepository;
 
     @Mock
     private ArchivedAuditLogRepository archivedAuditLogRepository;
 
+    @Mock
+    private ArchivedAuditLogSealingRepository sealingRepository;
+
+    @Mock
+    private ColdArchiveSegmentRepository segmentRepository;
+
     @InjectMocks
     private ArchiveService archiveService;
 
-    @Captor
-    private ArgumentCaptor<List<ArchivedAuditLog>> archivedLogsCaptor;
-
-    private UUID workspaceId;
     private UUID policyId;
     private RetentionPolicy samplePolicy;
-    private AuditLog sampleAuditLog;
 
     @BeforeEach
     void setUp() {
-        workspaceId = UUID.randomUUID();
         policyId = UUID.randomUUID();
 
         samplePolicy = RetentionPolicy.builder()
             .id(policyId)
-            .workspaceId(workspaceId)
+            .workspaceId(UUID.randomUUID())
             .name("Test Policy")
             .retentionDays(90)
             .category(AuditCategory.DATA_ACCESS)
@@ -61,200 +76,190 @@ class ArchiveServiceTest {
             .enabled(true)
             .archiveBeforeDelete(true)
             .build();
-
-        sampleAuditLog = AuditLog.builder()
-            .id(UUID.randomUUID())
-            .workspaceId(workspaceId)
-            .actorId(UUID.randomUUID())
-            .actorEmail("test@example.com")
-            .actorName("Test User")
-            .action("DATA_READ")
-            .resourceType("FILE")
-            .resourceId(UUID.randomUUID())
-            .resourceName("test-file.txt")
-            .ipAddress("192.168.1.1")
-            .userAgent("Mozilla/5.0")
-            .severity(AuditSeverity.LOW)
-            .category(AuditCategory.DATA_ACCESS)
-            .createdAt(Instant.now().minusSeconds(7776000)) // 90 days ago
-            .build();
     }
 
     @Nested
-    @DisplayName("archiveAuditLogs")
-    class ArchiveAuditLogsTests {
-
-        @Test
-        @DisplayName("should archive logs with category and severity filter")
-        void shouldArchiveLogsWithCategoryAndSeverityFilter() {
-            List<AuditLog> logsToArchive = List.of(sampleAuditLog);
-
-            when(auditLogRepository.findByCreatedAtBeforeAndCategoryAndSeverityLessThan(
-                any(), eq(AuditCategory.DATA_ACCESS), eq(AuditSeverity.MEDIUM)))
-                .thenReturn(logsToArchive);
-            when(archivedAuditLogRepository.saveAll(anyList()))
-                .thenAnswer(inv -> inv.getArgument(0));
-
-            int count = archiveService.archiveAuditLogs(samplePolicy);
-
-            assertThat(count).isEqualTo(1);
-            verify(archivedAuditLogRepository).saveAll(archivedLogsCaptor.capture());
-
-            List<ArchivedAuditLog> archived = archivedLogsCaptor.getValue();
-            assertThat(archived).hasSize(1);
-            assertThat(archived.get(0).getArchivedByPolicyId()).isEqualTo(policyId);
-            assertThat(archived.get(0).getActorEmail()).isEqualTo("test@example.com");
-        }
+    @DisplayName("archiveChunk")
+    class ArchiveChunkTests {
 
         @Test
-        @DisplayName("should archive logs with only category filter")
-        void shouldArchiveLogsWithOnlyCategoryFilter() {
-            samplePolicy.setMinSeverity(null);
-            List<AuditLog> logsToArchive = List.of(sampleAuditLog);
+        @DisplayName("should archive the chunk's keys under the policy")
+        void shouldArchiveChunkKeys() {
+            List<RowKey> keys = List.of(
+                new RowKey(UUID.randomUUID(), Instant.now().minusSeconds(7776000)),
+                new RowKey(UUID.randomUUID(), Instant.now().minusSeconds(7775000)));
+            when(retentionRepository.archiveByKeys(keys, policyId)).thenReturn(2);
 
-            when(auditLogRepository.findByCreatedAtBeforeAndCategory(any(), eq(AuditCategory.DATA_ACCESS)))
-                .thenReturn(logsToArchive);
-            when(archivedAuditLogRepository.saveAll(anyList()))
-                .thenAnswer(inv -> inv.getArgument(0));
+            int count = archiveService.archiveChunk(samplePolicy, keys);
 
-            int count = archiveService.archiveAuditLogs(samplePolicy);
-
-            assertThat(count).isEqualTo(1);
-            verify(auditLogRepository).findByCreatedAtBeforeAndCategory(any(), eq(AuditCategory.DATA_ACCESS));
+            assertThat(count).isEqualTo(2);
+            verify(retentionRepository).archiveByKeys(keys, policyId);
         }
 
         @Test
-        @DisplayName("should archive logs with only severity filter")
-        void shouldArchiveLogsWithOnlySeverityFilter() {
-            samplePolicy.setCategory(null);
-            samplePolicy.setMinSeverity(AuditSeverity.HIGH);
-            List<AuditLog> logsToArchive = List.of(sampleAuditLog);
-
-            when(auditLogRepository.findByCreatedAtBeforeAndSeverityLessThan(any(), eq(AuditSeverity.HIGH)))
-                .thenReturn(logsToArchive);
-            when(archivedAuditLogRepository.saveAll(anyList()))
-                .thenAnswer(inv -> inv.getArgument(0));
+        @DisplayName("should report rows archived by an earlier attempt as not archived again")
+        void shouldReportOnlyNewlyArchivedRows() {
+            List<RowKey> keys = List.of(new RowKey(UUID.randomUUID(), Instant.now().minusSeconds(7776000)));
+            when(retentionRepository.archiveByKeys(keys, policyId)).thenReturn(0);
 
-            int count = archiveService.archiveAuditLogs(samplePolicy);
-
-            assertThat(count).isEqualTo(1);
-            verify(auditLogRepository).findByCreatedAtBeforeAndSeverityLessThan(any(), eq(AuditSeverity.HIGH));
+            assertThat(archiveService.archiveChunk(samplePolicy, keys)).isZero();
         }
+    }
 
-        @Test
-        @DisplayName("should archive all logs when no filters")
-        void shouldArchiveAllLogsWhenNoFilters() {
-            samplePolicy.setCategory(null);
-            samplePolicy.setMinSeverity(null);
-            List<AuditLog> logsToArchive = List.of(sampleAuditLog);
-
-            when(auditLogRepository.findByCreatedAtBefore(any()))
-                .thenReturn(logsToArchive);
-            when(archivedAuditLogRepository.saveAll(anyList()))
-                .thenAnswer(inv -> inv.getArgument(0));
-
-            int count = archiveService.archiveAuditLogs(samplePolicy);
-
-            assertThat(count).isEqualTo(1);
-            verify(auditLogRepository).findByCreatedAtBefore(any());
-        }
-
-        @Test
-        @DisplayName("should return zero when no logs to archive")
-        void shouldReturnZeroWhenNoLogsToArchive() {
-            when(auditLogRepository.findByCreatedAtBeforeAndCategoryAndSeverityLessThan(any(), any(), any()))
-                .thenReturn(List.of());
-
-            int count = archiveService.archiveAuditLogs(samplePolicy);
-
-            assertThat(count).isZero();
-            verify(archivedAuditLogRepository, never()).saveAll(anyList());
+    @Nested
+    @DisplayName("sealColdSegments")
+    class SealColdSegmentsTests {
+
+        @TempDir
+        Path coldArchiveDir;
+
+        private ArchiveService sealingService;
+        private final UUID workspaceId = UUID.randomUUID();
+        private final Instant january = Instant.parse("2025-01-10T00:00:00Z");
+
+        @BeforeEach
+        void setUp() {
+            sealingService = new ArchiveService(retentionRepository, archivedAuditLogRepository, sealingRepository,
+                segmentRepository, new ColdArchiveStore(coldArchiveDir.toString(), 100));
+            ReflectionTestUtils.setField(sealingService, "coldArchiveEnabled", true);
+            ReflectionTestUtils.setField(sealingService, "chunkSize", 2);
+            ReflectionTestUtils.setField(sealingService, "sealGraceMinutes", 60L);
+            lenient().when(segmentRepository.findByStatus(any())).thenReturn(List.of());
         }
 
-        @Test
-        @DisplayName("should archive multiple logs")
-        void shouldArchiveMultipleLogs() {
-            AuditLog log2 = AuditLog.builder()
+        private ArchivedAuditLog archived(Instant createdAt) {
+            return ArchivedAuditLog.builder()
                 .id(UUID.randomUUID())
                 .workspaceId(workspaceId)
                 .actorId(UUID.randomUUID())
-                .actorEmail("user2@example.com")
-                .action("DATA_WRITE")
+                .action("DATA_READ")
                 .resourceType("FILE")
                 .resourceId(UUID.randomUUID())
                 .severity(AuditSeverity.LOW)
                 .category(AuditCategory.DATA_ACCESS)
-                .createdAt(Instant.now().minusSeconds(7776000))
-                .build();
-
-            AuditLog log3 = AuditLog.builder()
-                .id(UUID.randomUUID())
-                .workspaceId(workspaceId)
-                .actorId(UUID.randomUUID())
-                .actorEmail("user3@example.com")
-                .action("DATA_DELETE")
-                .resourceType("FILE")
-                .resourceId(UUID.randomUUID())
-                .severity(AuditSeverity.LOW)
-                .category(AuditCategory.DATA_ACCESS)
-                .createdAt(Instant.now().minusSeconds(7776000))
+                .createdAt(createdAt)
+                .archivedAt(Instant.now().minus(1, ChronoUnit.DAYS))
+                .archivedByPolicyId(policyId)
                 .build();
+        }
 
-            List<AuditLog> logsToArchive = List.of(sampleAuditLog, log2, log3);
+        @Test
+        @DisplayName("should seal each month into a segment file and purge the sealed rows")
+        void shouldSealAndPurge() throws IOException {
+            List<ArchivedAuditLog> rows = List.of(archived(january), archived(january.plusSeconds(60)), archived(january.plusSeconds(120)));
+            when(sealingRepository.findWorkspaceRanges(any()))
+                .thenReturn(List.of(new WorkspaceRange(workspaceId, january, january.plusSeconds(120), 3)));
+            when(sealingRepository.findChunk(eq(workspaceId), any(), any(), any(), isNull(), eq(2)))
+                .thenReturn(rows.subList(0, 2));
+            when(sealingRepository.findChunk(eq(workspaceId), any(), any(), any(), notNull(), eq(2)))
+                .thenReturn(rows.subList(2, 3));
+            when(sealingRepository.purgeChunk(eq(workspaceId), any(), any(), any(), eq(2))).thenReturn(2, 1);
+
+            int sealed = sealingService.sealColdSegments();
+
+            assertThat(sealed).isEqualTo(1);
+            ArgumentCaptor<String> path = ArgumentCaptor.forClass(String.class);
+            verify(segmentRepository).insertWriting(any(), eq(workspaceId), eq(YearMonth.of(2025, 1)), path.capture(), any());
+            verify(segmentRepository).markSealed(any(), eq(3L), anyLong(), eq(january), eq(january.plusSeconds(120)), eq(List.of()));
+            verify(sealingRepository, times(2)).purgeChunk(eq(workspaceId), any(), any(), any(), eq(2));
+            verify(segmentRepository).markPurged(any());
+
+            List<ArchivedAuditLog> read = new ArrayList<>();
+            try (SegmentReader reader = SegmentReader.open(Path.of(path.getValue()))) {
+                reader.scan(null, null, read::add);
+            }
+            assertThat(read).extracting(ArchivedAuditLog::getId).containsExactlyElementsOf(rows.stream().map(ArchivedAuditLog::getId).toList());
+        }
 
-            when(auditLogRepository.findByCreatedAtBeforeAndCategoryAndSeverityLessThan(any(), any(), any()))
-                .thenReturn(logsToArchive);
-            when(archivedAuditLogRepository.saveAll(anyList()))
-                .thenAnswer(inv -> inv.getArgument(0));
+        @Test
+        @DisplayName("should merge new rows into the month's segment and replace it")
+        void shouldMergeIntoExistingSegment() throws IOException {
+            YearMonth month = YearMonth.of(2025, 1);
+            List<ArchivedAuditLog> sealedRows = List.of(archived(january), archived(january.plusSeconds(120)));
+            UUID previousId = UUID.randomUUID();
+            Path previousPath = new ColdArchiveStore(coldArchiveDir.toString(), 100).segmentPath(workspaceId, month, previousId);
+            try (SegmentWriter writer = new SegmentWriter(previousPath, workspaceId, month, 100)) {
+                for (ArchivedAuditLog row : sealedRows) {
+                    writer.append(row);
+                }
+                writer.seal();
+            }
+            ColdSegment previous = new ColdSegment(previousId, workspaceId, month, previousPath.toString(), Status.PURGED,
+                january, 2, 100, january, january.plusSeconds(120));
+            ArchivedAuditLog late = archived(january.plusSeconds(60));
+            when(sealingRepository.findWorkspaceRanges(any()))
+                .thenReturn(List.of(new WorkspaceRange(workspaceId, late.getCreatedAt(), late.getCreatedAt(), 1)));
+            when(sealingRepository.findChunk(eq(workspaceId), any(), any(), any(), isNull(), eq(2))).thenReturn(List.of(late));
+            when(segmentRepository.findPurged(workspaceId, month)).thenReturn(List.of(previous));
+            when(sealingRepository.purgeChunk(eq(workspaceId), any(), any(), any(), eq(2))).thenReturn(1);
+
+            assertThat(sealingService.sealColdSegments()).isEqualTo(1);
+
+            ArgumentCaptor<String> path = ArgumentCaptor.forClass(String.class);
+            verify(segmentRepository).insertWriting(any(), eq(workspaceId), eq(month), path.capture(), any());
+            verify(segmentRepository).markSealed(any(), eq(3L), anyLong(), eq(january), eq(january.plusSeconds(120)),
+                eq(List.of(previousId)));
+            List<ArchivedAuditLog> read = new ArrayList<>();
+            try (SegmentReader reader = SegmentReader.open(Path.of(path.getValue()))) {
+                reader.scan(null, null, read::add);
+            }
+            assertThat(read).extracting(ArchivedAuditLog::getId)
+                .containsExactly(sealedRows.get(0).getId(), late.getId(), sealedRows.get(1).getId());
+        }
 
-            int count = archiveService.archiveAuditLogs(samplePolicy);
+        @Test
+        @DisplayName("should delete the segments the previous run replaced")
+        void shouldDeleteReplacedSegments() throws IOException {
+            Path file = Files.createFile(coldArchiveDir.resolve("replaced.seg"));
+            ColdSegment replaced = new ColdSegment(UUID.randomUUID(), workspaceId, YearMonth.of(2025, 1),
+                file.toString(), Status.REPLACED, january, 2, 100, january, january);
+            when(segmentRepository.findByStatus(Status.REPLACED)).thenReturn(List.of(replaced));
+            when(sealingRepository.findWorkspaceRanges(any())).thenReturn(List.of());
+
+            sealingService.sealColdSegments();
+
+            assertThat(file).doesNotExist();
+            verify(segmentRepository).delete(replaced.id());
+        }
 
-            assertThat(count).isEqualTo(3);
-            verify(archivedAuditLogRepository).saveAll(archivedLogsCaptor.capture());
+        @Test
+        @DisplayName("should drop the manifest entry of a month without sealable rows")
+        void shouldSkipEmptyMonths() {
+            when(sealingRepository.findWorkspaceRanges(any()))
+                .thenReturn(List.of(new WorkspaceRange(workspaceId, january, january.plus(40, ChronoUnit.DAYS), 2)));
+            when(sealingRepository.findChunk(any(), any(), any(), any(), any(), anyInt())).thenReturn(List.of());
+
+            assertThat(sealingService.sealColdSegments()).isZero();
+            verify(segmentRepository, times(2)).delete(any());
+            verify(segmentRepository, never()).markSealed(any(), anyLong(), anyLong(), any(), any(), any());
+            verify(sealingRepository, never()).purgeChunk(any(), any(), any(), any(), anyInt());
+        }
 
-            List<ArchivedAuditLog> archived = archivedLogsCaptor.getValue();
-            assertThat(archived).hasSize(3);
-            assertThat(archived).allMatch(a -> a.getArchivedByPolicyId().equals(policyId));
+        @Test
+        @DisplayName("should finish purging sealed segments and discard incomplete ones first")
+        void shouldRecoverInterruptedSegments() {
+            ColdSegment writing = new ColdSegment(UUID.randomUUID(), workspaceId, YearMonth.of(2025, 1),
+                coldArchiveDir.resolve("writing.seg").toString(), Status.WRITING, january, 0, 0, null, null);
+            ColdSegment sealed = new ColdSegment(UUID.randomUUID(), workspaceId, YearMonth.of(2025, 2),
+                coldArchiveDir.resolve("sealed.seg").toString(), Status.SEALED, january, 10, 100, january, january);
+            when(segmentRepository.findByStatus(Status.WRITING)).thenReturn(List.of(writing));
+            when(segmentRepository.findByStatus(Status.SEALED)).thenReturn(List.of(sealed));
+            when(sealingRepository.purgeChunk(eq(workspaceId), any(), any(), eq(january), eq(2))).thenReturn(1);
+            when(sealingRepository.findWorkspaceRanges(any())).thenReturn(List.of());
+
+            sealingService.sealColdSegments();
+
+            verify(segmentRepository).delete(writing.id());
+            verify(segmentRepository).markPurged(sealed.id());
         }
 
         @Test
-        @DisplayName("should preserve all audit log fields in archive")
-        void shouldPreserveAllFieldsInArchive() {
-            sampleAuditLog.setMetadata("{\"key\":\"value\"}");
-            sampleAuditLog.setPreviousState("{\"old\":true}");
-            sampleAuditLog.setNewState("{\"new\":true}");
-            sampleAuditLog.setSessionId("session-123");
-
-            when(auditLogRepository.findByCreatedAtBeforeAndCategoryAndSeverityLessThan(any(), any(), any()))
-                .thenReturn(List.of(sampleAuditLog));
-            when(archivedAuditLogRepository.saveAll(anyList()))
-                .thenAnswer(inv -> inv.getArgument(0));
-
-            archiveService.archiveAuditLogs(samplePolicy);
-
-            verify(archivedAuditLogRepository).saveAll(archivedLogsCaptor.capture());
-            ArchivedAuditLog archived = archivedLogsCaptor.getValue().get(0);
-
-            assertThat(archived.getId()).isEqualTo(sampleAuditLog.getId());
-            assertThat(archived.getWorkspaceId()).isEqualTo(sampleAuditLog.getWorkspaceId());
-            assertThat(archived.getActorId()).isEqualTo(sampleAuditLog.getActorId());
-            assertThat(archived.getActorEmail()).isEqualTo(sampleAuditLog.getActorEmail());
-            assertThat(archived.getActorName()).isEqualTo(sampleAuditLog.getActorName());
-            assertThat(archived.getAction()).isEqualTo(sampleAuditLog.getAction());
-            assertThat(archived.getResourceType()).isEqualTo(sampleAuditLog.getResourceType());
-            assertThat(archived.getResourceId()).isEqualTo(sampleAuditLog.getResourceId());
-            assertThat(archived.getResourceName()).isEqualTo(sampleAuditLog.getResourceName());
-            assertThat(archived.getMetadata()).isEqualTo(sampleAuditLog.getMetadata());
-            assertThat(archived.getPreviousState()).isEqualTo(sampleAuditLog.getPreviousState());
-            assertThat(archived.getNewState()).isEqualTo(sampleAuditLog.getNewState());
-            assertThat(archived.getIpAddress()).isEqualTo(sampleAuditLog.getIpAddress());
-            assertThat(archived.getUserAgent()).isEqualTo(sampleAuditLog.getUserAgent());
-            assertThat(archived.getSessionId()).isEqualTo(sampleAuditLog.getSessionId());
-            assertThat(archived.getSeverity()).isEqualTo(sampleAuditLog.getSeverity());
-            assertThat(archived.getCategory()).isEqualTo(sampleAuditLog.getCategory());
-            assertThat(archived.getCreatedAt()).isEqualTo(sampleAuditLog.getCreatedAt());
-            assertThat(archived.getArchivedByPolicyId()).isEqualTo(policyId);
-            assertThat(archived.getArchivedAt()).isNotNull();
+        @DisplayName("should do nothing when the cold archive is disabled")
+        void shouldDoNothingWhenDisabled() {
+            ReflectionTestUtils.setField(sealingService, "coldArchiveEnabled", false);
+
+            assertThat(sealingService.sealColdSegments()).isZero();
+            verifyNoInteractions(sealingRepository, segmentRepository);
         }
     }
 
@@ -0,0 +1,196 @@
+package com.quckapp.audit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quckapp.audit.domain.entity.AuditLog.AuditCategory;
+import com.quckapp.audit.domain.entity.AuditLog.AuditSeverity;
+import com.quckapp.audit.dto.AuditDtos.BulkIngestResult;
+import com.quckapp.audit.dto.AuditDtos.CreateAuditLogRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuditLogBulkIngestServiceTest {
+
+    @Mock
+    private AuditLogService auditLogService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private AuditLogBulkIngestService bulkIngestService;
+
+    private final UUID workspaceId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(bulkIngestService, "batchSize", 2);
+        ReflectionTestUtils.setField(bulkIngestService, "maxLineLength", 1024);
+        ReflectionTestUtils.setField(bulkIngestService, "maxReportedErrors", 100);
+    }
+
+    private String event(String action) throws IOException {
+        return objectMapper.writeValueAsString(CreateAuditLogRequest.builder()
+            .workspaceId(workspaceId)
+            .actorId(UUID.randomUUID())
+            .action(action)
+            .resourceType("FILE")
+            .resourceId(UUID.randomUUID())
+            .severity(AuditSeverity.LOW)
+            .category(AuditCategory.DATA_ACCESS)
+            .build());
+    }
+
+    private BulkIngestResult ingest(String body) throws IOException {
+        return bulkIngestService.ingest(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Nested
+    @DisplayName("ingest")
+    class IngestTests {
+
+        @Test
+        @DisplayName("should insert valid lines in batches and reject the others by line")
+        void shouldInsertInBatches() throws IOException {
+            List<List<String>> batches = new ArrayList<>();
+            when(auditLogService.createAuditLogs(anyList())).thenAnswer(inv -> {
+                List<CreateAuditLogRequest> batch = inv.getArgument(0);
+                batches.add(batch.stream().map(CreateAuditLogRequest::getAction).toList());
+                return batch.size();
+            });
+
+            BulkIngestResult result = ingest(
+                event("A") + "\n" +
+                "{not json\n" +
+                "\n" +
+                event("B") + "\r\n" +
+                "{\"workspaceId\":\"" + workspaceId + "\"}\n" +
+                event("C"));
+
+            assertThat(batches).containsExactly(List.of("A", "B"), List.of("C"));
+            assertThat(result.getReceived()).isEqualTo(5);
+            assertThat(result.getInserted()).isEqualTo(3);
+            assertThat(result.getRejected()).isEqualTo(2);
+            assertThat(result.getLastCommittedLine()).isEqualTo(6);
+            assertThat(result.isAborted()).isFalse();
+            assertThat(result.getErrors()).extracting("line").containsExactly(2L, 5L);
+            assertThat(result.getErrors().get(0).getError()).startsWith("Malformed JSON");
+            assertThat(result.getErrors().get(1).getError()).contains("action").contains("actorId");
+        }
+
+        @Test
+        @DisplayName("should reject overlong lines without buffering them")
+        void shouldRejectOverlongLines() throws IOException {
+            when(auditLogService.createAuditLogs(anyList())).thenAnswer(inv -> inv.<List<?>>getArgument(0).size());
+
+            BulkIngestResult result = ingest("x".repeat(5000) + "\n" + event("A") + "\n");
+
+            assertThat(result.getInserted()).isEqualTo(1);
+            assertThat(result.getErrors()).singleElement().satisfies(error -> {
+                assertThat(error.getLine()).isEqualTo(1);
+                assertThat(error.getError()).contains("longer than 1024");
+            });
+        }
+
+        @Test
+        @DisplayName("should stop at the first batch that fails to insert transiently")
+        void shouldStopWhenBatchFails() throws IOException {
+            when(auditLogService.createAuditLogs(anyList()))
+                .thenReturn(2)
+                .thenThrow(new CannotGetJdbcConnectionException("connection lost"));
+
+            BulkIngestResult result = ingest(String.join("\n",
+                event("A"), event("B"), event("C"), event("D"), event("E"), event("F")));
+
+            assertThat(result.isAborted()).isTrue();
+            assertThat(result.getAbortReason()).isEqualTo("connection lost");
+            assertThat(result.getInserted()).isEqualTo(2);
+            assertThat(result.getLastCommittedLine()).isEqualTo(2);
+            assertThat(result.getReceived()).isEqualTo(4);
+            verify(auditLogService, times(2)).createAuditLogs(anyList());
+        }
+
+        @Test
+        @DisplayName("should retry a batch the database refuses line by line and reject only the failing lines")
+        void shouldRetryRefusedBatchByLine() throws IOException {
+            when(auditLogService.createAuditLogs(anyList())).thenAnswer(inv -> {
+                List<CreateAuditLogRequest> batch = inv.getArgument(0);
+                if (batch.stream().anyMatch(request -> request.getAction().equals("B"))) {
+                    throw new DataIntegrityViolationException("Data too long for column 'action'");
+                }
+                return batch.size();
+            });
+
+            BulkIngestResult result = ingest(String.join("\n", event("A"), event("B"), event("C")));
+
+            assertThat(result.isAborted()).isFalse();
+            assertThat(result.getInserted()).isEqualTo(2);
+            assertThat(result.getRejected()).isEqualTo(1);
+            assertThat(result.getLastCommittedLine()).isEqualTo(3);
+            assertThat(result.getErrors()).singleElement().satisfies(error -> {
+                assertThat(error.getLine()).isEqualTo(2);
+                assertThat(error.getError()).contains("Data too long");
+            });
+        }
+
+        @Test
+        @DisplayName("should stop before the line whose retry fails transiently")
+        void shouldStopWhenLineRetryFails() throws IOException {
+            when(auditLogService.createAuditLogs(anyList()))
+                .thenThrow(new DataIntegrityViolationException("duplicate"))
+                .thenReturn(1)
+                .thenThrow(new QueryTimeoutException("timeout"));
+
+            BulkIngestResult result = ingest(String.join("\n", event("A"), event("B"), event("C")));
+
+            assertThat(result.isAborted()).isTrue();
+            assertThat(result.getInserted()).isEqualTo(1);
+            assertThat(result.getLastCommittedLine()).isEqualTo(1);
+            assertThat(result.getAbortReason()).isEqualTo("timeout");
+        }
+
+        @Test
+        @DisplayName("should cap the reported errors but count every rejected line")
+        void shouldCapReportedErrors() throws IOException {
+            ReflectionTestUtils.setField(bulkIngestService, "maxReportedErrors", 2);
+
+            BulkIngestResult result = ingest("{\n{\n{\n");
+
+            assertThat(result.getRejected()).isEqualTo(3);
+            assertThat(result.getErrors()).hasSize(2);
+            verify(auditLogService, never()).createAuditLogs(anyList());
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.quckapp.audit.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quckapp.audit.domain.entity.AuditLog;
+import com.quckapp.audit.domain.entity.AuditLog.AuditCategory;
+import com.quckapp.audit.domain.entity.AuditLog.AuditSeverity;
+import com.quckapp.audit.domain.repository.AuditLogRepository;
+import com.quckapp.audit.domain.repository.AuditLogSpecifications;
+import com.quckapp.audit.dto.AuditDtos.AuditLogSearchRequest;
+import com.quckapp.audit.exception.BadRequestException;
+import com.quckapp.audit.service.AuditLogExportService.ExportFormat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuditLogExportServiceTest {
+
+    @Mock
+    private AuditLogRepository auditLogRepository;
+
+    private AuditLogExportService exportService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final UUID workspaceId = UUID.randomUUID();
+    private final AtomicBoolean streamClosed = new AtomicBoolean();
+
+    @BeforeEach
+    void setUp() {
+        exportService = new AuditLogExportService(auditLogRepository, objectMapper);
+    }
+
+    private AuditLog row(String action, String metadata) {
+        return AuditLog.builder()
+            .id(UUID.randomUUID())
+            .workspaceId(workspaceId)
+            .actorId(UUID.randomUUID())
+            .actorEmail("test@example.com")
+            .actorName("Test, \"User\"")
+            .action(action)
+            .resourceType("FILE")
+            .resourceId(UUID.randomUUID())
+            .metadata(metadata)
+            .severity(AuditSeverity.LOW)
+            .category(AuditCategory.DATA_ACCESS)
+            .createdAt(Instant.parse("2024-01-15T10:30:00Z"))
+            .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void rows(AuditLog... rows) {
+        when(auditLogRepository.streamAll(any(Specification.class), eq(AuditLogSpecifications.NEWEST_FIRST)))
+            .thenReturn(Stream.of(rows).onClose(() -> streamClosed.set(true)));
+    }
+
+    private AuditLogSearchRequest request() {
+        return AuditLogSearchRequest.builder().workspaceId(workspaceId).build();
+    }
+
+    @Nested
+    @DisplayName("export")
+    class ExportTests {
+
+        @Test
+        @DisplayName("should write one JSON object per line and close the cursor")
+        void shouldWriteNdjson() throws IOException {
+            AuditLog first = row("FILE_READ", "{\"source\":\"api\",\"size\":3}");
+            first.setPreviousState("{\"name\":\"a.txt\"}");
+            first.setNewState("{\"name\":\"b.txt\"}");
+            first.setSessionId("session-1");
+            AuditLog second = row("FILE_DELETED", null);
+            rows(first, second);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            long written = exportService.export(request(), ExportFormat.NDJSON, false, out);
+
+            List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+            assertThat(written).isEqualTo(2);
+            assertThat(lines).hasSize(2);
+            JsonNode json = objectMapper.readTree(lines.get(0));
+            assertThat(json.get("id").asText()).isEqualTo(first.getId().toString());
+            assertThat(json.get("workspace_id").asText()).isEqualTo(workspaceId.toString());
+            assertThat(json.get("metadata").get("size").asInt()).isEqualTo(3);
+            assertThat(json.get("previous_state").get("name").asText()).isEqualTo("a.txt");
+            assertThat(json.get("new_state").get("name").asText()).isEqualTo("b.txt");
+            assertThat(json.get("session_id").asText()).isEqualTo("session-1");
+            assertThat(json.get("created_at").asText()).isEqualTo("2024-01-15T10:30:00Z");
+            JsonNode empty = objectMapper.readTree(lines.get(1));
+            assertThat(empty.get("metadata").isNull()).isTrue();
+            assertThat(empty.get("previous_state").isNull()).isTrue();
+            assertThat(empty.get("session_id").isNull()).isTrue();
+            assertThat(streamClosed).isTrue();
+        }
+
+        @Test
+        @DisplayName("should write CSV with the report header")
+        void shouldWriteCsv() throws IOException {
+            rows(row("FILE_READ", null));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            exportService.export(request(), ExportFormat.CSV, false, out);
+
+            List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+            assertThat(lines).hasSize(2);
+            assertThat(lines.get(0)).startsWith("\"ID\",\"Workspace ID\"");
+            assertThat(lines.get(1)).contains("\"Test, \"\"User\"\"\"", "\"FILE_READ\"", "\"2024-01-15 10:30:00\"");
+        }
+
+        @Test
+        @DisplayName("should gzip the output when asked")
+        void shouldGzip() throws IOException {
+            rows(row("FILE_READ", "{}"));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            exportService.export(request(), ExportFormat.NDJSON, true, out);
+
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+                String body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                assertThat(body).contains("\"action\":\"FILE_READ\"").endsWith("\n");
+            }
+        }
+
+        @Test
+        @DisplayName("should reject free-text queries and missing workspaces")
+        void shouldRejectUnsupportedRequests() {
+            assertThatThrownBy(() -> exportService.export(AuditLogSearchRequest.builder().build(),
+                ExportFormat.NDJSON, false, new ByteArrayOutputStream()))
+                .isInstanceOf(BadRequestException.class);
+            assertThatThrownBy(() -> exportService.validate(
+                AuditLogSearchRequest.builder().workspaceId(workspaceId).query("alice").build()))
+                .isInstanceOf(BadRequestException.class);
+            verifyNoInteractions(auditLogRepository);
+        }
+    }
+}
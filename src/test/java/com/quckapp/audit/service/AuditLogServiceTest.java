@@ -1,29 +1,49 @@
 package com.quckapp.audit.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quckapp.audit.domain.document.AuditLogDocument;
 import com.quckapp.audit.domain.entity.AuditLog;
 import com.quckapp.audit.domain.entity.AuditLog.AuditCategory;
 import com.quckapp.audit.domain.entity.AuditLog.AuditSeverity;
+import com.quckapp.audit.domain.repository.AuditLogAggregations.AggregatedStatistics;
+import com.quckapp.audit.domain.repository.AuditLogAggregations.TopTerm;
+import com.quckapp.audit.domain.repository.AuditLogBatchRepository;
 import com.quckapp.audit.domain.repository.AuditLogElasticsearchRepository;
 import com.quckapp.audit.domain.repository.AuditLogRepository;
+import com.quckapp.audit.domain.repository.AuditLogSpecifications;
+import com.quckapp.audit.domain.repository.AuditRollupRepository;
+import com.quckapp.audit.domain.repository.AuditRollupRepository.RollupCount;
+import com.quckapp.audit.domain.repository.AuditSketchRepository.ActivityRow;
+import com.quckapp.audit.domain.repository.SearchOutboxRepository;
 import com.quckapp.audit.dto.AuditDtos.*;
+import com.quckapp.audit.exception.BadRequestException;
 import com.quckapp.audit.exception.ResourceNotFoundException;
+import com.quckapp.audit.service.sketch.AuditSketches;
+import com.quckapp.audit.service.statistics.StatisticsCache;
+import com.quckapp.audit.service.statistics.StatisticsPlanner;
+import com.quckapp.audit.service.statistics.StatisticsPlanner.Backend;
+import com.quckapp.audit.service.statistics.StatisticsPlanner.EventCounts;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -41,6 +61,21 @@ class AuditLogServiceTest {
     @Mock
     private ObjectMapper objectMapper;
 
+    @Mock
+    private AuditLogBatchRepository auditLogBatchRepository;
+
+    @Mock
+    private SearchOutboxRepository searchOutboxRepository;
+
+    @Mock
+    private AuditRollupRepository auditRollupRepository;
+
+    @Mock
+    private StatisticsPlanner statisticsPlanner;
+
+    @Mock
+    private StatisticsCache statisticsCache;
+
     @InjectMocks
     private AuditLogService auditLogService;
 
@@ -108,6 +143,10 @@ class AuditLogServiceTest {
             assertThat(response.getCategory()).isEqualTo(AuditCategory.DATA_MODIFICATION);
 
             verify(auditLogRepository).save(any(AuditLog.class));
+            verify(searchOutboxRepository).append(List.of(sampleAuditLog.getId()));
+            verify(auditRollupRepository).increment(List.of(sampleAuditLog));
+            verify(statisticsCache).evictAfterCommit(List.of(sampleAuditLog));
+            verifyNoInteractions(elasticsearchRepository);
         }
 
         @Test
@@ -136,137 +175,240 @@ class AuditLogServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("createAuditLogs")
+    class CreateAuditLogsTests {
+
+        @Test
+        @DisplayName("should assign ids and timestamps and insert in one batch")
+        @SuppressWarnings("unchecked")
+        void shouldAssignIdsAndInsertInOneBatch() {
+            CreateAuditLogRequest request = CreateAuditLogRequest.builder()
+                .workspaceId(workspaceId)
+                .actorId(actorId)
+                .action("USER_CREATED")
+                .resourceType("USER")
+                .resourceId(resourceId)
+                .severity(AuditSeverity.LOW)
+                .category(AuditCategory.DATA_MODIFICATION)
+                .build();
+            when(auditLogBatchRepository.insertAll(anyList())).thenReturn(2);
+
+            int inserted = auditLogService.createAuditLogs(List.of(request, request));
+
+            ArgumentCaptor<List<AuditLog>> captor = ArgumentCaptor.forClass(List.class);
+            verify(auditLogBatchRepository).insertAll(captor.capture());
+            verify(auditLogRepository, never()).save(any());
+            assertThat(inserted).isEqualTo(2);
+            assertThat(captor.getValue()).hasSize(2)
+                .allSatisfy(log -> {
+                    assertThat(log.getId()).isNotNull();
+                    assertThat(log.getCreatedAt()).isNotNull();
+                });
+            assertThat(captor.getValue().get(0).getId()).isNotEqualTo(captor.getValue().get(1).getId());
+            verify(searchOutboxRepository).append(captor.getValue().stream().map(AuditLog::getId).toList());
+            verify(auditRollupRepository).increment(captor.getValue());
+            verify(statisticsCache).evictAfterCommit(captor.getValue());
+        }
+
+        @Test
+        @DisplayName("should skip database round trip for empty batch")
+        void shouldSkipEmptyBatch() {
+            assertThat(auditLogService.createAuditLogs(List.of())).isZero();
+
+            verifyNoInteractions(auditLogBatchRepository, searchOutboxRepository, auditRollupRepository);
+        }
+    }
+
     @Nested
     @DisplayName("searchAuditLogs")
     class SearchAuditLogsTests {
 
+        @SuppressWarnings("unchecked")
+        private ArgumentCaptor<Pageable> stubSearch() {
+            ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+            when(auditLogRepository.findAll(any(Specification.class), pageable.capture()))
+                .thenReturn(new PageImpl<>(List.of(sampleAuditLog), PageRequest.of(0, 20), 1));
+            return pageable;
+        }
+
         @Test
-        @DisplayName("should search audit logs by workspace")
+        @DisplayName("should search audit logs by workspace newest first")
         void shouldSearchAuditLogsByWorkspace() {
             AuditLogSearchRequest request = AuditLogSearchRequest.builder()
                 .workspaceId(workspaceId)
                 .page(0)
                 .size(20)
                 .build();
-
-            Page<AuditLog> page = new PageImpl<>(List.of(sampleAuditLog), PageRequest.of(0, 20), 1);
-            when(auditLogRepository.findByWorkspaceIdOrderByCreatedAtDesc(eq(workspaceId), any(Pageable.class)))
-                .thenReturn(page);
+            ArgumentCaptor<Pageable> pageable = stubSearch();
 
             PagedResponse<AuditLogResponse> response = auditLogService.searchAuditLogs(request);
 
             assertThat(response.getContent()).hasSize(1);
             assertThat(response.getTotalElements()).isEqualTo(1);
             assertThat(response.getPage()).isZero();
+            assertThat(pageable.getValue().getSort()).isEqualTo(AuditLogSpecifications.NEWEST_FIRST);
         }
 
         @Test
-        @DisplayName("should search audit logs by actor")
-        void shouldSearchAuditLogsByActor() {
+        @DisplayName("should reject a search without a workspace")
+        void shouldRejectSearchWithoutWorkspace() {
             AuditLogSearchRequest request = AuditLogSearchRequest.builder()
-                .workspaceId(workspaceId)
                 .actorId(actorId)
                 .page(0)
                 .size(20)
                 .build();
 
-            Page<AuditLog> page = new PageImpl<>(List.of(sampleAuditLog), PageRequest.of(0, 20), 1);
-            when(auditLogRepository.findByWorkspaceIdAndActorIdOrderByCreatedAtDesc(
-                eq(workspaceId), eq(actorId), any(Pageable.class)))
-                .thenReturn(page);
-
-            PagedResponse<AuditLogResponse> response = auditLogService.searchAuditLogs(request);
+            assertThatThrownBy(() -> auditLogService.searchAuditLogs(request))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("workspaceId");
 
-            assertThat(response.getContent()).hasSize(1);
-            verify(auditLogRepository).findByWorkspaceIdAndActorIdOrderByCreatedAtDesc(
-                eq(workspaceId), eq(actorId), any(Pageable.class));
+            verifyNoInteractions(auditLogRepository, elasticsearchRepository);
         }
 
         @Test
-        @DisplayName("should search audit logs by resource type and id")
-        void shouldSearchAuditLogsByResourceTypeAndId() {
+        @DisplayName("should combine every filter into a single query")
+        @SuppressWarnings("unchecked")
+        void shouldCombineFilters() {
             AuditLogSearchRequest request = AuditLogSearchRequest.builder()
                 .workspaceId(workspaceId)
+                .actorId(actorId)
                 .resourceType("USER")
                 .resourceId(resourceId)
-                .page(0)
-                .size(20)
+                .category(AuditCategory.AUTHENTICATION)
+                .severities(Set.of(AuditSeverity.HIGH, AuditSeverity.CRITICAL))
+                .startDate(Instant.now().minus(7, ChronoUnit.DAYS))
+                .endDate(Instant.now())
+                .page(2)
+                .size(10)
                 .build();
+            ArgumentCaptor<Pageable> pageable = stubSearch();
 
-            Page<AuditLog> page = new PageImpl<>(List.of(sampleAuditLog), PageRequest.of(0, 20), 1);
-            when(auditLogRepository.findByWorkspaceIdAndResourceTypeAndResourceIdOrderByCreatedAtDesc(
-                eq(workspaceId), eq("USER"), eq(resourceId), any(Pageable.class)))
-                .thenReturn(page);
-
-            PagedResponse<AuditLogResponse> response = auditLogService.searchAuditLogs(request);
+            auditLogService.searchAuditLogs(request);
 
-            assertThat(response.getContent()).hasSize(1);
+            verify(auditLogRepository).findAll(any(Specification.class), any(Pageable.class));
+            verifyNoMoreInteractions(auditLogRepository);
+            assertThat(pageable.getValue().getPageNumber()).isEqualTo(2);
+            assertThat(pageable.getValue().getPageSize()).isEqualTo(10);
         }
 
         @Test
-        @DisplayName("should search audit logs by date range")
-        void shouldSearchAuditLogsByDateRange() {
-            Instant startDate = Instant.now().minus(7, ChronoUnit.DAYS);
-            Instant endDate = Instant.now();
-
+        @DisplayName("should use Elasticsearch for free-text queries")
+        void shouldUseElasticsearchForQuery() {
             AuditLogSearchRequest request = AuditLogSearchRequest.builder()
                 .workspaceId(workspaceId)
-                .startDate(startDate)
-                .endDate(endDate)
+                .query("report.pdf")
                 .page(0)
                 .size(20)
                 .build();
-
-            Page<AuditLog> page = new PageImpl<>(List.of(sampleAuditLog), PageRequest.of(0, 20), 1);
-            when(auditLogRepository.findByWorkspaceIdAndDateRange(
-                eq(workspaceId), eq(startDate), eq(endDate), any(Pageable.class)))
-                .thenReturn(page);
+            when(elasticsearchRepository.searchMatching(eq(request), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(), PageRequest.of(0, 20), 0));
 
             PagedResponse<AuditLogResponse> response = auditLogService.searchAuditLogs(request);
 
-            assertThat(response.getContent()).hasSize(1);
+            assertThat(response.getContent()).isEmpty();
+            verifyNoInteractions(auditLogRepository);
         }
+    }
 
-        @Test
-        @DisplayName("should search audit logs by category")
-        void shouldSearchAuditLogsByCategory() {
-            AuditLogSearchRequest request = AuditLogSearchRequest.builder()
+    @Nested
+    @DisplayName("searchAuditLogs with a cursor")
+    class CursorSearchTests {
+
+        private AuditLog auditLog(Instant createdAt) {
+            return AuditLog.builder()
+                .id(UUID.randomUUID())
                 .workspaceId(workspaceId)
-                .category(AuditCategory.AUTHENTICATION)
-                .page(0)
-                .size(20)
+                .actorId(actorId)
+                .action("USER_CREATED")
+                .resourceType("USER")
+                .resourceId(resourceId)
+                .severity(AuditSeverity.LOW)
+                .category(AuditCategory.DATA_MODIFICATION)
+                .createdAt(createdAt)
                 .build();
+        }
 
-            Page<AuditLog> page = new PageImpl<>(List.of(sampleAuditLog), PageRequest.of(0, 20), 1);
-            when(auditLogRepository.findByWorkspaceIdAndCategory(
-                eq(workspaceId), eq(AuditCategory.AUTHENTICATION), any(Pageable.class)))
-                .thenReturn(page);
-
-            PagedResponse<AuditLogResponse> response = auditLogService.searchAuditLogs(request);
+        private AuditLogSearchRequest.AuditLogSearchRequestBuilder request(String cursor) {
+            return AuditLogSearchRequest.builder().workspaceId(workspaceId).size(2).cursor(cursor);
+        }
 
-            assertThat(response.getContent()).hasSize(1);
+        @Test
+        @DisplayName("should return a next cursor without counting when more rows follow")
+        @SuppressWarnings("unchecked")
+        void shouldReturnNextCursor() {
+            Instant now = Instant.now();
+            List<AuditLog> rows = List.of(auditLog(now), auditLog(now.minusSeconds(1)), auditLog(now.minusSeconds(2)));
+            when(auditLogRepository.findBy(any(Specification.class), any())).thenReturn(rows);
+
+            PagedResponse<AuditLogResponse> response = auditLogService.searchAuditLogs(request("").build());
+
+            assertThat(response.getContent()).extracting(AuditLogResponse::getId)
+                .containsExactly(rows.get(0).getId(), rows.get(1).getId());
+            assertThat(response.getNextCursor())
+                .isEqualTo(AuditLogCursor.encode(rows.get(1).getCreatedAt(), rows.get(1).getId()));
+            assertThat(response.isFirst()).isTrue();
+            assertThat(response.isLast()).isFalse();
+            assertThat(response.getTotalElements()).isNull();
+            verify(auditLogRepository, never()).count(any(Specification.class));
         }
 
         @Test
-        @DisplayName("should search audit logs by severities")
-        void shouldSearchAuditLogsBySeverities() {
-            Set<AuditSeverity> severities = Set.of(AuditSeverity.HIGH, AuditSeverity.CRITICAL);
+        @DisplayName("should end at the last page and count only on request")
+        @SuppressWarnings("unchecked")
+        void shouldCountOnRequest() {
+            AuditLog last = auditLog(Instant.now());
+            when(auditLogRepository.findBy(any(Specification.class), any())).thenReturn(List.of(last));
+            when(auditLogRepository.count(any(Specification.class))).thenReturn(3L);
+            String cursor = AuditLogCursor.encode(Instant.now(), UUID.randomUUID());
 
-            AuditLogSearchRequest request = AuditLogSearchRequest.builder()
-                .workspaceId(workspaceId)
-                .severities(severities)
-                .page(0)
-                .size(20)
-                .build();
+            PagedResponse<AuditLogResponse> response = auditLogService.searchAuditLogs(
+                request(cursor).includeTotal(true).build());
 
-            Page<AuditLog> page = new PageImpl<>(List.of(sampleAuditLog), PageRequest.of(0, 20), 1);
-            when(auditLogRepository.findByWorkspaceIdAndSeverityIn(
-                eq(workspaceId), anyList(), any(Pageable.class)))
-                .thenReturn(page);
+            assertThat(response.getContent()).hasSize(1);
+            assertThat(response.getNextCursor()).isNull();
+            assertThat(response.isFirst()).isFalse();
+            assertThat(response.isLast()).isTrue();
+            assertThat(response.getTotalElements()).isEqualTo(3);
+            assertThat(response.getTotalPages()).isEqualTo(2);
+        }
 
-            PagedResponse<AuditLogResponse> response = auditLogService.searchAuditLogs(request);
+        @Test
+        @DisplayName("should page full-text results with search_after")
+        @SuppressWarnings("unchecked")
+        void shouldUseSearchAfterForQuery() {
+            AuditLog newest = auditLog(Instant.now());
+            AuditLog older = auditLog(Instant.now().minusSeconds(1));
+            SearchHits<AuditLogDocument> hits = mock(SearchHits.class);
+            List<SearchHit<AuditLogDocument>> searchHits = Stream.of(newest, older, auditLog(Instant.now().minusSeconds(2)))
+                .map(AuditLogDocument::fromEntity)
+                .map(doc -> {
+                    SearchHit<AuditLogDocument> hit = mock(SearchHit.class);
+                    when(hit.getContent()).thenReturn(doc);
+                    return hit;
+                })
+                .toList();
+            when(hits.getSearchHits()).thenReturn(searchHits);
+            String cursor = AuditLogCursor.encode(Instant.now(), UUID.randomUUID());
+            when(elasticsearchRepository.searchMatchingAfter(
+                argThat(request -> "report".equals(request.getQuery())), eq(AuditLogCursor.decode(cursor)), eq(3)))
+                .thenReturn(hits);
+
+            PagedResponse<AuditLogResponse> response = auditLogService.searchAuditLogs(request(cursor).query("report").build());
+
+            assertThat(response.getContent()).extracting(AuditLogResponse::getId)
+                .containsExactly(newest.getId(), older.getId());
+            assertThat(response.getNextCursor()).isEqualTo(AuditLogCursor.encode(older.getCreatedAt(), older.getId()));
+            verifyNoInteractions(auditLogRepository);
+        }
 
-            assertThat(response.getContent()).hasSize(1);
+        @Test
+        @DisplayName("should reject a cursor it did not issue")
+        void shouldRejectInvalidCursor() {
+            assertThatThrownBy(() -> auditLogService.searchAuditLogs(request("not-a-cursor").build()))
+                .isInstanceOf(BadRequestException.class);
+            assertThatThrownBy(() -> auditLogService.searchAuditLogs(request("not base64!").build()))
+                .isInstanceOf(BadRequestException.class);
         }
     }
 
@@ -302,21 +444,24 @@ class AuditLogServiceTest {
     @DisplayName("getStatistics")
     class GetStatisticsTests {
 
-        @Test
-        @DisplayName("should return statistics for workspace")
-        void shouldReturnStatisticsForWorkspace() {
-            Instant startDate = Instant.now().minus(30, ChronoUnit.DAYS);
-            Instant endDate = Instant.now();
+        private final Instant startDate = Instant.parse("2025-01-01T08:20:00Z");
+        private final Instant endDate = Instant.parse("2025-01-31T10:05:00Z");
+        private final Instant from = Instant.parse("2025-01-01T08:00:00Z");
+        private final Instant to = Instant.parse("2025-01-31T11:00:00Z");
 
-            List<Object[]> actionCounts = new ArrayList<>();
-            actionCounts.add(new Object[]{"USER_CREATED", 50L});
-            actionCounts.add(new Object[]{"USER_UPDATED", 50L});
+        @BeforeEach
+        void setUp() {
+            lenient().when(statisticsCache.topLists(any(), any(), any(), anyBoolean(), any()))
+                .thenAnswer(inv -> inv.<Supplier<?>>getArgument(4).get());
+        }
 
-            List<Object[]> categoryCounts = new ArrayList<>();
-            categoryCounts.add(new Object[]{AuditCategory.DATA_MODIFICATION, 100L});
+        @Test
+        @DisplayName("should return statistics for workspace over whole hours")
+        void shouldReturnStatisticsForWorkspace() {
 
-            List<Object[]> severityCounts = new ArrayList<>();
-            severityCounts.add(new Object[]{AuditSeverity.MEDIUM, 100L});
+            EventCounts counts = new EventCounts();
+            counts.add(new RollupCount("USER_CREATED", AuditCategory.DATA_MODIFICATION, AuditSeverity.MEDIUM, 50L));
+            counts.add(new RollupCount("USER_UPDATED", AuditCategory.DATA_MODIFICATION, AuditSeverity.MEDIUM, 50L));
 
             List<Object[]> topActors = new ArrayList<>();
             topActors.add(new Object[]{actorId, "test@example.com", "Test User", 100L});
@@ -324,22 +469,17 @@ class AuditLogServiceTest {
             List<Object[]> topResources = new ArrayList<>();
             topResources.add(new Object[]{"USER", resourceId, "Test Resource", 100L});
 
-            when(auditLogRepository.countByWorkspaceIdAndDateRange(workspaceId, startDate, endDate))
-                .thenReturn(100L);
-            when(auditLogRepository.countByActionInDateRange(eq(workspaceId), eq(startDate), eq(endDate)))
-                .thenReturn(actionCounts);
-            when(auditLogRepository.countByCategoryInDateRange(eq(workspaceId), eq(startDate), eq(endDate)))
-                .thenReturn(categoryCounts);
-            when(auditLogRepository.countBySeverityInDateRange(eq(workspaceId), eq(startDate), eq(endDate)))
-                .thenReturn(severityCounts);
-            when(auditLogRepository.findTopActorsInDateRange(eq(workspaceId), eq(startDate), eq(endDate), any()))
+            when(statisticsPlanner.count(workspaceId, from, to)).thenReturn(counts);
+            when(auditLogRepository.findTopActorsInDateRange(eq(workspaceId), eq(from), eq(to), any()))
                 .thenReturn(topActors);
-            when(auditLogRepository.findTopResourcesInDateRange(eq(workspaceId), eq(startDate), eq(endDate), any()))
+            when(auditLogRepository.findTopResourcesInDateRange(eq(workspaceId), eq(from), eq(to), any()))
                 .thenReturn(topResources);
 
-            AuditStatistics statistics = auditLogService.getStatistics(workspaceId, startDate, endDate);
+            AuditStatistics statistics = auditLogService.getStatistics(workspaceId, startDate, endDate, false);
 
             assertThat(statistics).isNotNull();
+            assertThat(statistics.getPeriodStart()).isEqualTo(from);
+            assertThat(statistics.getPeriodEnd()).isEqualTo(to);
             assertThat(statistics.getTotalEvents()).isEqualTo(100);
             assertThat(statistics.getEventsByAction()).containsEntry("USER_CREATED", 50L);
             assertThat(statistics.getEventsByCategory()).containsEntry("DATA_MODIFICATION", 100L);
@@ -348,25 +488,123 @@ class AuditLogServiceTest {
             assertThat(statistics.getTopResources()).hasSize(1);
         }
 
+        @Test
+        @DisplayName("should answer top lists and distinct counts from sketches when approximate")
+        void shouldUseSketchesWhenApproximate() {
+            AuditSketches sketches = new AuditSketches();
+            for (String ip : List.of("10.0.0.1", "10.0.0.2", "10.0.0.2")) {
+                sketches.add(new ActivityRow(actorId, "test@example.com", "Test User", ip,
+                    "USER", resourceId, "Test Resource", "USER_CREATED"));
+            }
+            when(statisticsPlanner.count(workspaceId, from, to)).thenReturn(new EventCounts());
+            when(statisticsPlanner.sketch(workspaceId, from, to)).thenReturn(sketches);
+
+            AuditStatistics statistics = auditLogService.getStatistics(workspaceId, startDate, endDate, true);
+
+            assertThat(statistics.isApproximate()).isTrue();
+            assertThat(statistics.getUniqueActors()).isEqualTo(1);
+            assertThat(statistics.getUniqueIpAddresses()).isEqualTo(2);
+            assertThat(statistics.getTopActors()).singleElement().satisfies(actor -> {
+                assertThat(actor.getActorId()).isEqualTo(actorId);
+                assertThat(actor.getActorEmail()).isEqualTo("test@example.com");
+                assertThat(actor.getEventCount()).isEqualTo(3);
+                assertThat(actor.getCountError()).isZero();
+            });
+            assertThat(statistics.getTopResources()).singleElement()
+                .satisfies(resource -> assertThat(resource.getResourceId()).isEqualTo(resourceId));
+            verify(auditLogRepository, never()).findTopActorsInDateRange(any(), any(), any(), any());
+            verify(statisticsCache).topLists(eq(workspaceId), eq(from), eq(to), eq(true), any());
+        }
+
+        private AggregatedStatistics aggregated() {
+            return new AggregatedStatistics(100,
+                Map.of("USER_CREATED", 100L), Map.of("DATA_MODIFICATION", 100L), Map.of("MEDIUM", 100L),
+                List.of(new TopTerm(actorId.toString(), 100, 3,
+                    Map.of("actorEmail", "test@example.com", "actorName", "Test User"))),
+                List.of(new TopTerm(resourceId.toString(), 100, 0,
+                    Map.of("resourceType", "USER", "resourceName", "Test Resource"))),
+                1, 1);
+        }
+
+        @Test
+        @DisplayName("should answer from Elasticsearch aggregations when the planner picks them")
+        void shouldAggregateInElasticsearch() {
+            when(statisticsPlanner.choose(from, to, true)).thenReturn(Backend.ELASTICSEARCH);
+            when(elasticsearchRepository.aggregateStatistics(workspaceId.toString(), from, to, 10)).thenReturn(aggregated());
+
+            AuditStatistics statistics = auditLogService.getStatistics(workspaceId, startDate, endDate, true);
+
+            assertThat(statistics.getBackend()).isEqualTo("ELASTICSEARCH");
+            assertThat(statistics.getTotalEvents()).isEqualTo(100);
+            assertThat(statistics.getEventsByCategory()).containsEntry("DATA_MODIFICATION", 100L);
+            assertThat(statistics.getTopActors()).singleElement().satisfies(actor -> {
+                assertThat(actor.getActorId()).isEqualTo(actorId);
+                assertThat(actor.getActorEmail()).isEqualTo("test@example.com");
+                assertThat(actor.getCountError()).isEqualTo(3);
+            });
+            assertThat(statistics.getTopResources()).singleElement()
+                .satisfies(resource -> assertThat(resource.getResourceType()).isEqualTo("USER"));
+            assertThat(statistics.getUniqueActors()).isEqualTo(1);
+            verify(statisticsPlanner, never()).count(any(), any(), any());
+            verify(auditLogRepository, never()).findTopActorsInDateRange(any(), any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("should rank top actors and resources exactly next to Elasticsearch counts unless approximate")
+        void shouldRankExactlyWithElasticsearchCounts() {
+            List<Object[]> topActors = new ArrayList<>();
+            topActors.add(new Object[]{actorId, "test@example.com", "Test User", 120L});
+            List<Object[]> topResources = new ArrayList<>();
+            topResources.add(new Object[]{"USER", resourceId, "Test Resource", 110L});
+            when(statisticsPlanner.choose(from, to, false)).thenReturn(Backend.ELASTICSEARCH);
+            when(elasticsearchRepository.aggregateStatistics(workspaceId.toString(), from, to, 10)).thenReturn(aggregated());
+            when(auditLogRepository.findTopActorsInDateRange(eq(workspaceId), eq(from), eq(to), any())).thenReturn(topActors);
+            when(auditLogRepository.findTopResourcesInDateRange(eq(workspaceId), eq(from), eq(to), any()))
+                .thenReturn(topResources);
+
+            AuditStatistics statistics = auditLogService.getStatistics(workspaceId, startDate, endDate, false);
+
+            assertThat(statistics.getBackend()).isEqualTo("ELASTICSEARCH");
+            assertThat(statistics.getTotalEvents()).isEqualTo(100);
+            assertThat(statistics.getTopActors()).singleElement().satisfies(actor -> {
+                assertThat(actor.getEventCount()).isEqualTo(120);
+                assertThat(actor.getCountError()).isNull();
+            });
+            assertThat(statistics.getTopResources()).singleElement()
+                .satisfies(resource -> assertThat(resource.getEventCount()).isEqualTo(110));
+            assertThat(statistics.getUniqueActors()).isNull();
+            verify(statisticsCache).topLists(eq(workspaceId), eq(from), eq(to), eq(false), any());
+        }
+
+        @Test
+        @DisplayName("should fall back to rollups when the aggregation search fails")
+        void shouldFallBackToRollups() {
+            when(statisticsPlanner.choose(from, to, false)).thenReturn(Backend.ELASTICSEARCH);
+            when(elasticsearchRepository.aggregateStatistics(any(), any(), any(), anyInt()))
+                .thenThrow(new IllegalStateException("cluster unavailable"));
+            when(statisticsPlanner.count(workspaceId, from, to)).thenReturn(new EventCounts());
+            when(auditLogRepository.findTopActorsInDateRange(eq(workspaceId), eq(from), eq(to), any()))
+                .thenReturn(Collections.emptyList());
+            when(auditLogRepository.findTopResourcesInDateRange(eq(workspaceId), eq(from), eq(to), any()))
+                .thenReturn(Collections.emptyList());
+
+            AuditStatistics statistics = auditLogService.getStatistics(workspaceId, startDate, endDate, false);
+
+            assertThat(statistics.getBackend()).isEqualTo("ROLLUPS");
+        }
+
         @Test
         @DisplayName("should use default date range when not provided")
         void shouldUseDefaultDateRangeWhenNotProvided() {
             List<Object[]> emptyObjectArrayList = Collections.emptyList();
 
-            when(auditLogRepository.countByWorkspaceIdAndDateRange(eq(workspaceId), any(), any()))
-                .thenReturn(50L);
-            when(auditLogRepository.countByActionInDateRange(eq(workspaceId), any(), any()))
-                .thenReturn(emptyObjectArrayList);
-            when(auditLogRepository.countByCategoryInDateRange(eq(workspaceId), any(), any()))
-                .thenReturn(emptyObjectArrayList);
-            when(auditLogRepository.countBySeverityInDateRange(eq(workspaceId), any(), any()))
-                .thenReturn(emptyObjectArrayList);
+            when(statisticsPlanner.count(eq(workspaceId), any(), any())).thenReturn(new EventCounts());
             when(auditLogRepository.findTopActorsInDateRange(eq(workspaceId), any(), any(), any()))
                 .thenReturn(emptyObjectArrayList);
             when(auditLogRepository.findTopResourcesInDateRange(eq(workspaceId), any(), any(), any()))
                 .thenReturn(emptyObjectArrayList);
 
-            AuditStatistics statistics = auditLogService.getStatistics(workspaceId, null, null);
+            AuditStatistics statistics = auditLogService.getStatistics(workspaceId, null, null, false);
 
             assertThat(statistics).isNotNull();
             assertThat(statistics.getPeriodStart()).isNotNull();
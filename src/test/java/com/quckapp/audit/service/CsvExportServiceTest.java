@@ -219,6 +219,29 @@ class CsvExportServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("openCsv")
+    class OpenCsvTests {
+
+        @Test
+        @DisplayName("should append rows one at a time and describe the file on finish")
+        void shouldAppendRowsIncrementally() throws IOException {
+            ExportResult result;
+            try (CsvExportService.ReportCsv csv = csvExportService.openCsv("Streamed Report", reportId)) {
+                csv.append(sampleAuditLog);
+                csv.append(sampleAuditLog);
+                assertThat(csv.rows()).isEqualTo(2);
+                result = csv.finish();
+            }
+
+            List<String> lines = Files.readAllLines(Path.of(result.filePath()));
+            assertThat(lines).hasSize(3);
+            assertThat(lines.get(1)).contains("USER_LOGIN");
+            assertThat(result.fileSize()).isEqualTo(Files.size(Path.of(result.filePath())));
+            assertThat(result.fileUrl()).isEqualTo("/api/v1/audit/reports/" + reportId + "/download");
+        }
+    }
+
     @Nested
     @DisplayName("exportExists")
     class ExportExistsTests {
@@ -0,0 +1,190 @@
+package com.quckapp.audit.service;
+
+import com.quckapp.audit.domain.entity.AuditLog.AuditCategory;
+import com.quckapp.audit.domain.entity.AuditLog.AuditSeverity;
+import com.quckapp.audit.domain.repository.AuditLogPartitionRepository;
+import com.quckapp.audit.domain.repository.AuditLogPartitionRepository.PartitionInfo;
+import com.quckapp.audit.domain.repository.AuditLogRetentionRepository.RetentionCell;
+import com.quckapp.audit.service.PartitionMaintenanceService.DroppedPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PartitionMaintenanceServiceTest {
+
+    @Mock
+    private AuditLogPartitionRepository partitionRepository;
+
+    @InjectMocks
+    private PartitionMaintenanceService partitionMaintenanceService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(partitionMaintenanceService, "monthsAhead", 2);
+    }
+
+    private static Instant monthStart(int year, int month) {
+        return YearMonth.of(year, month).atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    private static PartitionInfo future() {
+        return new PartitionInfo(AuditLogPartitionRepository.FUTURE_PARTITION, null, 0);
+    }
+
+    @Nested
+    @DisplayName("planMissingPartitions")
+    class PlanMissingPartitionsTests {
+
+        @Test
+        @DisplayName("should add the current month and the months ahead after p_history")
+        void shouldPlanFromHistoryBound() {
+            List<PartitionInfo> existing = List.of(new PartitionInfo("p_history", monthStart(2026, 10), 1000), future());
+
+            List<PartitionInfo> planned = partitionMaintenanceService.planMissingPartitions(existing, YearMonth.of(2026, 10));
+
+            assertThat(planned).extracting(PartitionInfo::name).containsExactly("p202610", "p202611", "p202612");
+            assertThat(planned).extracting(PartitionInfo::upperBound)
+                .containsExactly(monthStart(2026, 11), monthStart(2026, 12), monthStart(2027, 1));
+        }
+
+        @Test
+        @DisplayName("should plan nothing when enough months exist")
+        void shouldPlanNothingWhenUpToDate() {
+            List<PartitionInfo> existing = List.of(
+                new PartitionInfo("p202610", monthStart(2026, 11), 10),
+                new PartitionInfo("p202611", monthStart(2026, 12), 0),
+                new PartitionInfo("p202612", monthStart(2027, 1), 0),
+                future());
+
+            assertThat(partitionMaintenanceService.planMissingPartitions(existing, YearMonth.of(2026, 10))).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("ensureFuturePartitions")
+    class EnsureFuturePartitionsTests {
+
+        @Test
+        @DisplayName("should do nothing when the table is not partitioned")
+        void shouldSkipUnpartitionedTable() {
+            when(partitionRepository.findPartitions()).thenReturn(List.of());
+
+            partitionMaintenanceService.ensureFuturePartitions();
+
+            verify(partitionRepository, never()).addPartitions(anyList());
+        }
+    }
+
+    @Nested
+    @DisplayName("dropExpiredPartitions")
+    class DropExpiredPartitionsTests {
+
+        private final Instant cutoff = monthStart(2026, 3).plusSeconds(3600);
+
+        private final List<PartitionInfo> partitions = List.of(
+            new PartitionInfo("p202601", monthStart(2026, 2), 100),
+            new PartitionInfo("p202602", monthStart(2026, 3), 100),
+            new PartitionInfo("p202603", monthStart(2026, 4), 100),
+            future());
+
+        private final UUID workspaceId = UUID.randomUUID();
+        private final RetentionCell dataAccess = new RetentionCell(workspaceId, AuditCategory.DATA_ACCESS, AuditSeverity.LOW);
+        private final RetentionCell security = new RetentionCell(workspaceId, AuditCategory.SECURITY, AuditSeverity.HIGH);
+
+        @Test
+        @DisplayName("should drop every partition entirely before the cutoff of all its cells")
+        void shouldDropPartitionsBeforeCutoff() {
+            when(partitionRepository.findPartitions()).thenReturn(partitions);
+            when(partitionRepository.findCells(anyString())).thenReturn(List.of(dataAccess));
+
+            List<DroppedPartition> dropped = partitionMaintenanceService.dropExpiredPartitions(Map.of(dataAccess, cutoff), partition -> {});
+
+            assertThat(dropped).extracting(d -> d.partition().name()).containsExactly("p202601", "p202602");
+            verify(partitionRepository).dropPartition("p202601");
+            verify(partitionRepository).dropPartition("p202602");
+            verify(partitionRepository, never()).dropPartition("p202603");
+        }
+
+        @Test
+        @DisplayName("should keep partitions holding rows of cells without an expired cutoff")
+        void shouldKeepPartitionsWithOtherCells() {
+            when(partitionRepository.findPartitions()).thenReturn(partitions);
+            when(partitionRepository.findCells("p202601")).thenReturn(List.of(dataAccess, security));
+            when(partitionRepository.findCells("p202602")).thenReturn(List.of(dataAccess));
+
+            List<DroppedPartition> dropped = partitionMaintenanceService.dropExpiredPartitions(Map.of(dataAccess, cutoff), partition -> {});
+
+            assertThat(dropped).extracting(d -> d.partition().name()).containsExactly("p202602");
+            verify(partitionRepository, never()).dropPartition("p202601");
+        }
+
+        @Test
+        @DisplayName("should keep partitions reaching past the cutoff of one of their cells")
+        void shouldRespectPerCellCutoffs() {
+            when(partitionRepository.findPartitions()).thenReturn(partitions);
+            when(partitionRepository.findCells(anyString())).thenReturn(List.of(dataAccess, security));
+
+            List<DroppedPartition> dropped = partitionMaintenanceService.dropExpiredPartitions(
+                Map.of(dataAccess, cutoff, security, monthStart(2026, 2)), partition -> {});
+
+            assertThat(dropped).extracting(d -> d.partition().name()).containsExactly("p202601");
+        }
+
+        @Test
+        @DisplayName("should keep a partition whose rows could not be cleaned up elsewhere")
+        void shouldKeepPartitionWhenCleanupFails() {
+            when(partitionRepository.findPartitions()).thenReturn(partitions);
+            when(partitionRepository.findCells(anyString())).thenReturn(List.of(dataAccess));
+
+            List<DroppedPartition> dropped = partitionMaintenanceService.dropExpiredPartitions(Map.of(dataAccess, cutoff),
+                partition -> {
+                    if (partition.partition().name().equals("p202601")) {
+                        throw new IllegalStateException("index is write-blocked");
+                    }
+                });
+
+            assertThat(dropped).extracting(d -> d.partition().name()).containsExactly("p202602");
+            verify(partitionRepository, never()).dropPartition("p202601");
+        }
+
+        @Test
+        @DisplayName("should keep a partition whose drop timed out behind open transactions and go on")
+        void shouldSkipPartitionOnLockTimeout() {
+            when(partitionRepository.findPartitions()).thenReturn(partitions);
+            when(partitionRepository.findCells(anyString())).thenReturn(List.of(dataAccess));
+            doThrow(new CannotAcquireLockException("Lock wait timeout exceeded")).when(partitionRepository).dropPartition("p202601");
+
+            List<DroppedPartition> dropped = partitionMaintenanceService.dropExpiredPartitions(Map.of(dataAccess, cutoff),
+                partition -> {});
+
+            assertThat(dropped).extracting(d -> d.partition().name()).containsExactly("p202602");
+        }
+
+        @Test
+        @DisplayName("should do nothing without droppable cells")
+        void shouldDoNothingWithoutCells() {
+            assertThat(partitionMaintenanceService.dropExpiredPartitions(Map.of(), partition -> {})).isEmpty();
+
+            verifyNoInteractions(partitionRepository);
+        }
+    }
+}
@@ -3,12 +3,13 @@ package com.quckapp.audit.service;
 import com.quckapp.audit.domain.entity.AuditLog.AuditCategory;
 import com.quckapp.audit.domain.entity.AuditLog.AuditSeverity;
 import com.quckapp.audit.domain.entity.RetentionPolicy;
-import com.quckapp.audit.domain.repository.AuditLogElasticsearchRepository;
-import com.quckapp.audit.domain.repository.AuditLogRepository;
+import com.quckapp.audit.domain.repository.AuditLogRetentionRepository.RetentionCell;
 import com.quckapp.audit.domain.repository.RetentionPolicyRepository;
 import com.quckapp.audit.dto.AuditDtos.*;
 import com.quckapp.audit.exception.DuplicateResourceException;
 import com.quckapp.audit.exception.ResourceNotFoundException;
+import com.quckapp.audit.service.retention.RetentionExecutor;
+import com.quckapp.audit.service.retention.RetentionPlanner.ScanRange;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -34,13 +35,7 @@ class RetentionServiceTest {
     private RetentionPolicyRepository retentionPolicyRepository;
 
     @Mock
-    private AuditLogRepository auditLogRepository;
-
-    @Mock
-    private AuditLogElasticsearchRepository elasticsearchRepository;
-
-    @Mock
-    private ArchiveService archiveService;
+    private RetentionExecutor retentionExecutor;
 
     @InjectMocks
     private RetentionService retentionService;
@@ -295,8 +290,17 @@ class RetentionServiceTest {
     @DisplayName("executeAllPolicies")
     class ExecuteAllPoliciesTests {
 
+        private PolicyExecutionDetail detail(RetentionPolicy policy, boolean success, int deleted) {
+            return PolicyExecutionDetail.builder()
+                .policyId(policy.getId())
+                .policyName(policy.getName())
+                .success(success)
+                .deletedCount(deleted)
+                .build();
+        }
+
         @Test
-        @DisplayName("should execute all enabled policies")
+        @DisplayName("should execute all enabled policies in one merged plan")
         void shouldExecuteAllEnabledPolicies() {
             RetentionPolicy policy2 = RetentionPolicy.builder()
                 .id(UUID.randomUUID())
@@ -306,78 +310,62 @@ class RetentionServiceTest {
                 .enabled(true)
                 .archiveBeforeDelete(false)
                 .build();
+            List<ScanRange> plan = List.of(new ScanRange(
+                new RetentionCell(workspaceId, AuditCategory.DATA_ACCESS, AuditSeverity.LOW), samplePolicy));
 
             when(retentionPolicyRepository.findByEnabledTrue())
                 .thenReturn(List.of(samplePolicy, policy2));
-            when(auditLogRepository.findIdsByCreatedAtBeforeAndCategoryAndSeverityLessThan(any(), any(), any()))
-                .thenReturn(List.of(UUID.randomUUID(), UUID.randomUUID()));
-            when(auditLogRepository.deleteByCreatedAtBeforeAndCategoryAndSeverityLessThan(any(), any(), any()))
-                .thenReturn(5);
-            when(auditLogRepository.findIdsByCreatedAtBefore(any()))
-                .thenReturn(List.of(UUID.randomUUID()));
-            when(auditLogRepository.deleteByCreatedAtBefore(any()))
-                .thenReturn(3);
+            when(retentionExecutor.plan(List.of(samplePolicy, policy2))).thenReturn(plan);
+            when(retentionExecutor.execute(List.of(samplePolicy, policy2), plan))
+                .thenReturn(List.of(detail(samplePolicy, true, 5), detail(policy2, true, 3)));
 
             RetentionExecutionResult result = retentionService.executeAllPolicies();
 
             assertThat(result.getTotalPoliciesExecuted()).isEqualTo(2);
             assertThat(result.getSuccessfulPolicies()).isEqualTo(2);
             assertThat(result.getFailedPolicies()).isZero();
-            assertThat(result.getDetails()).hasSize(2);
+            assertThat(result.getDetails()).hasSize(2)
+                .extracting(PolicyExecutionDetail::getDeletedCount).containsExactly(5, 3);
         }
 
         @Test
-        @DisplayName("should handle policy execution failure")
-        void shouldHandlePolicyExecutionFailure() {
-            when(retentionPolicyRepository.findByEnabledTrue())
-                .thenReturn(List.of(samplePolicy));
-            when(auditLogRepository.findIdsByCreatedAtBeforeAndCategoryAndSeverityLessThan(any(), any(), any()))
-                .thenThrow(new RuntimeException("Database error"));
-
-            RetentionExecutionResult result = retentionService.executeAllPolicies();
-
-            assertThat(result.getTotalPoliciesExecuted()).isEqualTo(1);
-            assertThat(result.getSuccessfulPolicies()).isZero();
-            assertThat(result.getFailedPolicies()).isEqualTo(1);
-            assertThat(result.getDetails().get(0).isSuccess()).isFalse();
-            assertThat(result.getDetails().get(0).getErrorMessage()).contains("Database error");
-        }
-
-        @Test
-        @DisplayName("should archive before delete when configured")
-        void shouldArchiveBeforeDeleteWhenConfigured() {
-            samplePolicy.setArchiveBeforeDelete(true);
+        @DisplayName("should count failed policies")
+        void shouldCountFailedPolicies() {
+            RetentionPolicy policy2 = RetentionPolicy.builder()
+                .id(UUID.randomUUID())
+                .workspaceId(workspaceId)
+                .name("Policy 2")
+                .retentionDays(60)
+                .enabled(true)
+                .build();
 
             when(retentionPolicyRepository.findByEnabledTrue())
-                .thenReturn(List.of(samplePolicy));
-            when(auditLogRepository.findIdsByCreatedAtBeforeAndCategoryAndSeverityLessThan(any(), any(), any()))
-                .thenReturn(List.of(UUID.randomUUID()));
-            when(archiveService.archiveAuditLogs(samplePolicy)).thenReturn(10);
-            when(auditLogRepository.deleteByCreatedAtBeforeAndCategoryAndSeverityLessThan(any(), any(), any()))
-                .thenReturn(10);
+                .thenReturn(List.of(samplePolicy, policy2));
+            when(retentionExecutor.plan(anyList())).thenReturn(List.of());
+            when(retentionExecutor.execute(anyList(), anyList()))
+                .thenReturn(List.of(detail(samplePolicy, false, 0), detail(policy2, true, 3)));
 
             RetentionExecutionResult result = retentionService.executeAllPolicies();
 
-            verify(archiveService).archiveAuditLogs(samplePolicy);
-            assertThat(result.getDetails().get(0).getArchivedCount()).isEqualTo(10);
+            assertThat(result.getSuccessfulPolicies()).isEqualTo(1);
+            assertThat(result.getFailedPolicies()).isEqualTo(1);
         }
 
         @Test
-        @DisplayName("should not archive when not configured")
-        void shouldNotArchiveWhenNotConfigured() {
-            samplePolicy.setArchiveBeforeDelete(false);
-
+        @DisplayName("should fail every policy when planning fails")
+        void shouldHandlePlanningFailure() {
             when(retentionPolicyRepository.findByEnabledTrue())
                 .thenReturn(List.of(samplePolicy));
-            when(auditLogRepository.findIdsByCreatedAtBeforeAndCategoryAndSeverityLessThan(any(), any(), any()))
-                .thenReturn(List.of(UUID.randomUUID()));
-            when(auditLogRepository.deleteByCreatedAtBeforeAndCategoryAndSeverityLessThan(any(), any(), any()))
-                .thenReturn(5);
+            when(retentionExecutor.plan(anyList()))
+                .thenThrow(new RuntimeException("Database error"));
 
             RetentionExecutionResult result = retentionService.executeAllPolicies();
 
-            verify(archiveService, never()).archiveAuditLogs(any());
-            assertThat(result.getDetails().get(0).getArchivedCount()).isZero();
+            assertThat(result.getTotalPoliciesExecuted()).isEqualTo(1);
+            assertThat(result.getSuccessfulPolicies()).isZero();
+            assertThat(result.getFailedPolicies()).isEqualTo(1);
+            assertThat(result.getDetails().get(0).isSuccess()).isFalse();
+            assertThat(result.getDetails().get(0).getErrorMessage()).contains("Database error");
         }
     }
 
@@ -386,14 +374,28 @@ class RetentionServiceTest {
     class ExecutePolicyByIdTests {
 
         @Test
-        @DisplayName("should execute single policy by id")
+        @DisplayName("should execute single policy against the plan of all enabled policies")
         void shouldExecuteSinglePolicyById() {
+            RetentionPolicy other = RetentionPolicy.builder()
+                .id(UUID.randomUUID())
+                .workspaceId(workspaceId)
+                .name("Other Policy")
+                .retentionDays(365)
+                .enabled(true)
+                .build();
+            List<ScanRange> plan = List.of();
+
             when(retentionPolicyRepository.findById(policyId))
                 .thenReturn(Optional.of(samplePolicy));
-            when(auditLogRepository.findIdsByCreatedAtBeforeAndCategoryAndSeverityLessThan(any(), any(), any()))
-                .thenReturn(List.of(UUID.randomUUID(), UUID.randomUUID()));
-            when(auditLogRepository.deleteByCreatedAtBeforeAndCategoryAndSeverityLessThan(any(), any(), any()))
-                .thenReturn(5);
+            when(retentionPolicyRepository.findByEnabledTrue())
+                .thenReturn(List.of(samplePolicy, other));
+            when(retentionExecutor.plan(List.of(other, samplePolicy))).thenReturn(plan);
+            when(retentionExecutor.execute(List.of(samplePolicy), plan)).thenReturn(List.of(PolicyExecutionDetail.builder()
+                .policyId(policyId)
+                .policyName("Test Policy")
+                .success(true)
+                .deletedCount(5)
+                .build()));
 
             PolicyExecutionDetail result = retentionService.executePolicyById(policyId);
 
@@ -412,146 +414,7 @@ class RetentionServiceTest {
 
             assertThatThrownBy(() -> retentionService.executePolicyById(unknownId))
                 .isInstanceOf(ResourceNotFoundException.class);
-        }
-    }
-
-    @Nested
-    @DisplayName("Severity Filtering")
-    class SeverityFilteringTests {
-
-        @Test
-        @DisplayName("should delete with category and severity filter")
-        void shouldDeleteWithCategoryAndSeverityFilter() {
-            samplePolicy.setCategory(AuditCategory.DATA_ACCESS);
-            samplePolicy.setMinSeverity(AuditSeverity.MEDIUM);
-
-            when(retentionPolicyRepository.findByEnabledTrue())
-                .thenReturn(List.of(samplePolicy));
-            when(auditLogRepository.findIdsByCreatedAtBeforeAndCategoryAndSeverityLessThan(any(), any(), any()))
-                .thenReturn(List.of(UUID.randomUUID()));
-            when(auditLogRepository.deleteByCreatedAtBeforeAndCategoryAndSeverityLessThan(any(), any(), any()))
-                .thenReturn(3);
-
-            RetentionExecutionResult result = retentionService.executeAllPolicies();
-
-            verify(auditLogRepository).deleteByCreatedAtBeforeAndCategoryAndSeverityLessThan(
-                any(), eq(AuditCategory.DATA_ACCESS), eq(AuditSeverity.MEDIUM));
-            assertThat(result.getDetails().get(0).getDeletedCount()).isEqualTo(3);
-        }
-
-        @Test
-        @DisplayName("should delete with only category filter")
-        void shouldDeleteWithOnlyCategoryFilter() {
-            samplePolicy.setCategory(AuditCategory.AUTHENTICATION);
-            samplePolicy.setMinSeverity(null);
-
-            when(retentionPolicyRepository.findByEnabledTrue())
-                .thenReturn(List.of(samplePolicy));
-            when(auditLogRepository.findIdsByCreatedAtBeforeAndCategory(any(), any()))
-                .thenReturn(List.of(UUID.randomUUID()));
-            when(auditLogRepository.deleteByCreatedAtBeforeAndCategory(any(), any()))
-                .thenReturn(7);
-
-            RetentionExecutionResult result = retentionService.executeAllPolicies();
-
-            verify(auditLogRepository).deleteByCreatedAtBeforeAndCategory(
-                any(), eq(AuditCategory.AUTHENTICATION));
-            assertThat(result.getDetails().get(0).getDeletedCount()).isEqualTo(7);
-        }
-
-        @Test
-        @DisplayName("should delete with only severity filter")
-        void shouldDeleteWithOnlySeverityFilter() {
-            samplePolicy.setCategory(null);
-            samplePolicy.setMinSeverity(AuditSeverity.HIGH);
-
-            when(retentionPolicyRepository.findByEnabledTrue())
-                .thenReturn(List.of(samplePolicy));
-            when(auditLogRepository.findIdsByCreatedAtBeforeAndSeverityLessThan(any(), any()))
-                .thenReturn(List.of(UUID.randomUUID()));
-            when(auditLogRepository.deleteByCreatedAtBeforeAndSeverityLessThan(any(), any()))
-                .thenReturn(4);
-
-            RetentionExecutionResult result = retentionService.executeAllPolicies();
-
-            verify(auditLogRepository).deleteByCreatedAtBeforeAndSeverityLessThan(
-                any(), eq(AuditSeverity.HIGH));
-        }
-
-        @Test
-        @DisplayName("should delete without filters when none specified")
-        void shouldDeleteWithoutFiltersWhenNoneSpecified() {
-            samplePolicy.setCategory(null);
-            samplePolicy.setMinSeverity(null);
-
-            when(retentionPolicyRepository.findByEnabledTrue())
-                .thenReturn(List.of(samplePolicy));
-            when(auditLogRepository.findIdsByCreatedAtBefore(any()))
-                .thenReturn(List.of(UUID.randomUUID()));
-            when(auditLogRepository.deleteByCreatedAtBefore(any()))
-                .thenReturn(10);
-
-            RetentionExecutionResult result = retentionService.executeAllPolicies();
-
-            verify(auditLogRepository).deleteByCreatedAtBefore(any());
-        }
-    }
-
-    @Nested
-    @DisplayName("Elasticsearch Cleanup")
-    class ElasticsearchCleanupTests {
-
-        @Test
-        @DisplayName("should cleanup elasticsearch after delete")
-        void shouldCleanupElasticsearchAfterDelete() {
-            List<UUID> idsToDelete = List.of(UUID.randomUUID(), UUID.randomUUID());
-
-            when(retentionPolicyRepository.findByEnabledTrue())
-                .thenReturn(List.of(samplePolicy));
-            when(auditLogRepository.findIdsByCreatedAtBeforeAndCategoryAndSeverityLessThan(any(), any(), any()))
-                .thenReturn(idsToDelete);
-            when(auditLogRepository.deleteByCreatedAtBeforeAndCategoryAndSeverityLessThan(any(), any(), any()))
-                .thenReturn(2);
-
-            RetentionExecutionResult result = retentionService.executeAllPolicies();
-
-            verify(elasticsearchRepository).deleteAllById(anyList());
-            assertThat(result.getDetails().get(0).getEsCleanedCount()).isEqualTo(2);
-        }
-
-        @Test
-        @DisplayName("should handle elasticsearch cleanup failure gracefully")
-        void shouldHandleEsCleanupFailureGracefully() {
-            List<UUID> idsToDelete = List.of(UUID.randomUUID());
-
-            when(retentionPolicyRepository.findByEnabledTrue())
-                .thenReturn(List.of(samplePolicy));
-            when(auditLogRepository.findIdsByCreatedAtBeforeAndCategoryAndSeverityLessThan(any(), any(), any()))
-                .thenReturn(idsToDelete);
-            when(auditLogRepository.deleteByCreatedAtBeforeAndCategoryAndSeverityLessThan(any(), any(), any()))
-                .thenReturn(1);
-            doThrow(new RuntimeException("ES unavailable")).when(elasticsearchRepository).deleteAllById(anyList());
-
-            RetentionExecutionResult result = retentionService.executeAllPolicies();
-
-            // Should still succeed even if ES cleanup fails
-            assertThat(result.getDetails().get(0).isSuccess()).isTrue();
-            assertThat(result.getDetails().get(0).getEsCleanedCount()).isZero();
-        }
-
-        @Test
-        @DisplayName("should skip elasticsearch cleanup when no ids to delete")
-        void shouldSkipEsCleanupWhenNoIdsToDelete() {
-            when(retentionPolicyRepository.findByEnabledTrue())
-                .thenReturn(List.of(samplePolicy));
-            when(auditLogRepository.findIdsByCreatedAtBeforeAndCategoryAndSeverityLessThan(any(), any(), any()))
-                .thenReturn(List.of());
-            when(auditLogRepository.deleteByCreatedAtBeforeAndCategoryAndSeverityLessThan(any(), any(), any()))
-                .thenReturn(0);
-
-            RetentionExecutionResult result = retentionService.executeAllPolicies();
-
-            verify(elasticsearchRepository, never()).deleteAllById(anyList());
+            verifyNoInteractions(retentionExecutor);
         }
     }
 }
@@ -0,0 +1,241 @@
+package com.quckapp.audit.service.archive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quckapp.audit.domain.entity.ArchivedAuditLog;
+import com.quckapp.audit.domain.entity.AuditLog.AuditCategory;
+import com.quckapp.audit.domain.entity.AuditLog.AuditSeverity;
+import com.quckapp.audit.domain.repository.ArchivedAuditLogRepository;
+import com.quckapp.audit.domain.repository.ColdArchiveSegmentRepository;
+import com.quckapp.audit.domain.repository.ColdArchiveSegmentRepository.ColdSegment;
+import com.quckapp.audit.domain.repository.ColdArchiveSegmentRepository.Status;
+import com.quckapp.audit.dto.AuditDtos.AuditLogResponse;
+import com.quckapp.audit.dto.AuditDtos.AuditLogSearchRequest;
+import com.quckapp.audit.dto.AuditDtos.PagedResponse;
+import com.quckapp.audit.exception.BadRequestException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ColdArchiveQueryServiceTest {
+
+    @TempDir
+    Path dir;
+
+    @Mock
+    private ColdArchiveSegmentRepository segmentRepository;
+
+    @Mock
+    private ArchivedAuditLogRepository archivedAuditLogRepository;
+
+    private ColdArchiveStore coldArchiveStore;
+    private ColdArchiveQueryService queryService;
+
+    private final UUID workspaceId = UUID.randomUUID();
+    private final UUID actorId = UUID.randomUUID();
+    private final List<ColdSegment> segments = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        coldArchiveStore = new ColdArchiveStore(dir.toString(), 50);
+        queryService = new ColdArchiveQueryService(segmentRepository, archivedAuditLogRepository,
+            coldArchiveStore, new ObjectMapper());
+        ReflectionTestUtils.setField(queryService, "queryThreads", 2);
+        ReflectionTestUtils.setField(queryService, "maxResultWindow", 10000);
+        queryService.start();
+
+        when(segmentRepository.findReadable(eq(workspaceId), any(), any())).thenReturn(segments);
+        hotRows(List.of());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        queryService.stop();
+    }
+
+    private ArchivedAuditLog row(Instant createdAt, UUID actor) {
+        return ArchivedAuditLog.builder()
+            .id(UUID.randomUUID())
+            .workspaceId(workspaceId)
+            .actorId(actor)
+            .action("FILE_READ")
+            .resourceType("FILE")
+            .resourceId(UUID.randomUUID())
+            .metadata("{\"source\":\"cold\"}")
+            .severity(AuditSeverity.LOW)
+            .category(AuditCategory.DATA_ACCESS)
+            .createdAt(createdAt)
+            .archivedAt(Instant.parse("2025-06-01T00:00:00Z"))
+            .build();
+    }
+
+    /**
+     * Writes one purged segment with a row every hour of the month, every tenth row by {@link #actorId}.
+     */
+    private List<ArchivedAuditLog> segment(YearMonth month, int rowCount) throws IOException {
+        return segment(month, rowCount, Status.PURGED);
+    }
+
+    private List<ArchivedAuditLog> segment(YearMonth month, int rowCount, Status status) throws IOException {
+        UUID segmentId = UUID.randomUUID();
+        Path path = coldArchiveStore.segmentPath(workspaceId, month, segmentId);
+        Instant start = month.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        List<ArchivedAuditLog> rows = new ArrayList<>();
+        try (SegmentWriter writer = coldArchiveStore.openWriter(path, workspaceId, month)) {
+            for (int i = 0; i < rowCount; i++) {
+                ArchivedAuditLog row = row(start.plus(i, ChronoUnit.HOURS), i % 10 == 0 ? actorId : UUID.randomUUID());
+                writer.append(row);
+                rows.add(row);
+            }
+            writer.seal();
+        }
+        segments.add(new ColdSegment(segmentId, workspaceId, month, path.toString(), status,
+            Instant.now(), rowCount, 0, rows.get(0).getCreatedAt(), rows.get(rowCount - 1).getCreatedAt()));
+        return rows;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void hotRows(List<ArchivedAuditLog> rows) {
+        when(archivedAuditLogRepository.findAll(any(Specification.class), any(Pageable.class)))
+            .thenAnswer(inv -> {
+                Pageable pageable = inv.getArgument(1);
+                List<ArchivedAuditLog> sorted = rows.stream()
+                    .sorted((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()))
+                    .limit(pageable.getPageSize())
+                    .toList();
+                return (Page<ArchivedAuditLog>) new PageImpl<>(sorted, pageable, rows.size());
+            });
+    }
+
+    private AuditLogSearchRequest.AuditLogSearchRequestBuilder request() {
+        return AuditLogSearchRequest.builder().workspaceId(workspaceId).size(20);
+    }
+
+    @Nested
+    @DisplayName("search")
+    class SearchTests {
+
+        @Test
+        @DisplayName("should merge segments and MySQL rows newest first")
+        void shouldMergeTiersNewestFirst() throws IOException {
+            segment(YearMonth.of(2024, 1), 300);
+            List<ArchivedAuditLog> february = segment(YearMonth.of(2024, 2), 300);
+            ArchivedAuditLog hot = row(Instant.parse("2024-03-05T00:00:00Z"), UUID.randomUUID());
+            hotRows(List.of(hot));
+
+            PagedResponse<AuditLogResponse> response = queryService.search(request().size(5).build());
+
+            assertThat(response.getTotalElements()).isEqualTo(601);
+            assertThat(response.getTotalPages()).isEqualTo(121);
+            assertThat(response.getContent()).extracting(AuditLogResponse::getId).containsExactly(
+                hot.getId(), february.get(299).getId(), february.get(298).getId(),
+                february.get(297).getId(), february.get(296).getId());
+            assertThat(response.getContent().get(1).getMetadata()).containsEntry("source", "cold");
+        }
+
+        @Test
+        @DisplayName("should page across segment boundaries")
+        void shouldPageAcrossSegments() throws IOException {
+            List<ArchivedAuditLog> january = segment(YearMonth.of(2024, 1), 30);
+            List<ArchivedAuditLog> february = segment(YearMonth.of(2024, 2), 30);
+
+            PagedResponse<AuditLogResponse> response = queryService.search(request().page(1).size(20).build());
+
+            assertThat(response.getContent()).extracting(AuditLogResponse::getId).containsExactlyElementsOf(
+                Stream.concat(february.subList(0, 10).stream(), january.subList(20, 30).stream())
+                    .sorted((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()))
+                    .map(ArchivedAuditLog::getId)
+                    .toList());
+            assertThat(response.isLast()).isFalse();
+        }
+
+        @Test
+        @DisplayName("should push actor and time filters down to the segments")
+        void shouldFilterByActorAndTime() throws IOException {
+            List<ArchivedAuditLog> january = segment(YearMonth.of(2024, 1), 300);
+            segment(YearMonth.of(2024, 2), 300);
+            Instant from = january.get(100).getCreatedAt();
+            Instant to = january.get(199).getCreatedAt();
+
+            PagedResponse<AuditLogResponse> response = queryService.search(
+                request().actorId(actorId).startDate(from).endDate(to).build());
+
+            assertThat(response.getTotalElements()).isEqualTo(10);
+            assertThat(response.getContent()).allSatisfy(entry -> {
+                assertThat(entry.getActorId()).isEqualTo(actorId);
+                assertThat(entry.getCreatedAt()).isBetween(from, to);
+            });
+        }
+
+        @Test
+        @DisplayName("should read sealed segments whose purge has not finished")
+        void shouldReadSealedSegments() throws IOException {
+            segment(YearMonth.of(2024, 1), 30);
+            List<ArchivedAuditLog> february = segment(YearMonth.of(2024, 2), 30, Status.SEALED);
+
+            PagedResponse<AuditLogResponse> response = queryService.search(request().size(5).build());
+
+            assertThat(response.getTotalElements()).isEqualTo(60);
+            assertThat(response.getContent()).extracting(AuditLogResponse::getId)
+                .containsExactly(february.get(29).getId(), february.get(28).getId(), february.get(27).getId(),
+                    february.get(26).getId(), february.get(25).getId());
+        }
+
+        @Test
+        @DisplayName("should return nothing when no row matches")
+        void shouldReturnEmptyPage() throws IOException {
+            segment(YearMonth.of(2024, 1), 100);
+
+            PagedResponse<AuditLogResponse> response = queryService.search(request().action("USER_DELETED").build());
+
+            assertThat(response.getTotalElements()).isZero();
+            assertThat(response.getContent()).isEmpty();
+            assertThat(response.isLast()).isTrue();
+        }
+
+        @Test
+        @DisplayName("should require a workspace")
+        void shouldRequireWorkspace() {
+            assertThatThrownBy(() -> queryService.search(AuditLogSearchRequest.builder().size(20).build()))
+                .isInstanceOf(BadRequestException.class);
+            verifyNoInteractions(segmentRepository);
+        }
+
+        @Test
+        @DisplayName("should refuse pages past the result window before scanning")
+        void shouldRefuseDeepPages() {
+            assertThatThrownBy(() -> queryService.search(request().page(1_000_000).size(100).build()))
+                .isInstanceOf(BadRequestException.class);
+            verifyNoInteractions(segmentRepository, archivedAuditLogRepository);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.quckapp.audit.service.archive;
+
+import com.quckapp.audit.domain.entity.ArchivedAuditLog;
+import com.quckapp.audit.domain.entity.AuditLog.AuditCategory;
+import com.quckapp.audit.domain.entity.AuditLog.AuditSeverity;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SegmentWriterTest {
+
+    @TempDir
+    Path dir;
+
+    private final UUID workspaceId = UUID.randomUUID();
+    private final UUID policyId = UUID.randomUUID();
+    private final YearMonth month = YearMonth.of(2025, 1);
+    private final Instant start = Instant.parse("2025-01-01T00:00:00Z");
+
+    private List<ArchivedAuditLog> rows(int count) {
+        List<ArchivedAuditLog> rows = new ArrayList<>();
+        String[] actions = {"USER_LOGIN", "FILE_READ", "FILE_WRITE"};
+        for (int i = 0; i < count; i++) {
+            rows.add(ArchivedAuditLog.builder()
+                .id(UUID.randomUUID())
+                .workspaceId(workspaceId)
+                .actorId(UUID.randomUUID())
+                .actorEmail("user" + (i % 10) + "@example.com")
+                .actorName(i % 3 == 0 ? null : "User " + (i % 10))
+                .action(actions[i % actions.length])
+                .resourceType("FILE")
+                .resourceId(UUID.randomUUID())
+                .resourceName("file-" + i + ".txt")
+                .metadata("{\"i\":" + i + "}")
+                .ipAddress("10.0.0." + (i % 255))
+                .sessionId("session-" + (i % 5))
+                .severity(AuditSeverity.values()[i % AuditSeverity.values().length])
+                .category(AuditCategory.DATA_ACCESS)
+                .createdAt(start.plus(i, ChronoUnit.MINUTES))
+                .archivedAt(Instant.parse("2025-06-01T00:00:00Z"))
+                .archivedByPolicyId(policyId)
+                .build());
+        }
+        return rows;
+    }
+
+    private Path write(List<ArchivedAuditLog> rows, int rowGroupSize) throws IOException {
+        Path path = dir.resolve(workspaceId.toString()).resolve(month.toString()).resolve("segment.seg");
+        try (SegmentWriter writer = new SegmentWriter(path, workspaceId, month, rowGroupSize)) {
+            for (ArchivedAuditLog row : rows) {
+                writer.append(row);
+            }
+            writer.seal();
+        }
+        return path;
+    }
+
+    private List<ArchivedAuditLog> scan(Path path, Instant from, Instant to) throws IOException {
+        List<ArchivedAuditLog> rows = new ArrayList<>();
+        try (SegmentReader reader = SegmentReader.open(path)) {
+            reader.scan(from, to, rows::add);
+        }
+        return rows;
+    }
+
+    @Nested
+    @DisplayName("round trip")
+    class RoundTripTests {
+
+        @Test
+        @DisplayName("should read back every column of every row in order")
+        void shouldRoundTripRows() throws IOException {
+            List<ArchivedAuditLog> rows = rows(250);
+
+            List<ArchivedAuditLog> read = scan(write(rows, 100), null, null);
+
+            assertThat(read).hasSize(250);
+            assertThat(read).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(rows);
+        }
+
+        @Test
+        @DisplayName("should write dictionaries, time range and row groups to the footer")
+        void shouldWriteFooter() throws IOException {
+            Path path = write(rows(250), 100);
+
+            try (SegmentReader reader = SegmentReader.open(path)) {
+                SegmentFooter footer = reader.footer();
+                assertThat(footer.workspaceId()).isEqualTo(workspaceId);
+                assertThat(footer.month()).isEqualTo(month);
+                assertThat(footer.rowCount()).isEqualTo(250);
+                assertThat(footer.minCreatedAt()).isEqualTo(start);
+                assertThat(footer.maxCreatedAt()).isEqualTo(start.plus(249, ChronoUnit.MINUTES));
+                assertThat(footer.dictionary(SegmentColumn.ACTION)).containsExactly("USER_LOGIN", "FILE_READ", "FILE_WRITE");
+                assertThat(footer.dictionary(SegmentColumn.RESOURCE_TYPE)).containsExactly("FILE");
+                assertThat(footer.dictionary(SegmentColumn.CATEGORY)).containsExactly("DATA_ACCESS");
+                assertThat(footer.dictionary(SegmentColumn.SEVERITY)).hasSize(4);
+                assertThat(footer.rowGroups()).extracting(SegmentFooter.RowGroup::rowCount).containsExactly(100, 100, 50);
+            }
+        }
+
+        @Test
+        @DisplayName("should only return rows inside the scanned range")
+        void shouldScanTimeRange() throws IOException {
+            Path path = write(rows(250), 100);
+
+            List<ArchivedAuditLog> read = scan(path, start.plus(120, ChronoUnit.MINUTES), start.plus(130, ChronoUnit.MINUTES));
+
+            assertThat(read).hasSize(10);
+            assertThat(read.get(0).getCreatedAt()).isEqualTo(start.plus(120, ChronoUnit.MINUTES));
+        }
+    }
+
+    @Nested
+    @DisplayName("predicate pushdown")
+    class PushdownTests {
+
+        private List<ArchivedAuditLog> scan(Path path, SegmentScan scan) throws IOException {
+            List<ArchivedAuditLog> rows = new ArrayList<>();
+            try (SegmentReader reader = SegmentReader.open(path)) {
+                reader.scan(scan, rows::add);
+            }
+            return rows;
+        }
+
+        @Test
+        @DisplayName("should filter on column values and set only the projected columns")
+        void shouldFilterAndProject() throws IOException {
+            Path path = write(rows(250), 100);
+            SegmentScan scan = new SegmentScan(null, null,
+                Map.of(SegmentColumn.ACTION, Set.of("FILE_READ"), SegmentColumn.SEVERITY, Set.of("LOW", "HIGH")),
+                EnumSet.of(SegmentColumn.ACTION, SegmentColumn.SEVERITY));
+
+            List<ArchivedAuditLog> read = scan(path, scan);
+
+            List<ArchivedAuditLog> expected = rows(250).stream()
+                .filter(row -> row.getAction().equals("FILE_READ"))
+                .filter(row -> row.getSeverity() == AuditSeverity.LOW || row.getSeverity() == AuditSeverity.HIGH)
+                .toList();
+            assertThat(read).extracting(ArchivedAuditLog::getCreatedAt)
+                .containsExactlyElementsOf(expected.stream().map(ArchivedAuditLog::getCreatedAt).toList());
+            assertThat(read).allSatisfy(row -> {
+                assertThat(row.getId()).isNotNull();
+                assertThat(row.getAction()).isEqualTo("FILE_READ");
+                assertThat(row.getMetadata()).isNull();
+                assertThat(row.getActorId()).isNull();
+            });
+        }
+
+        @Test
+        @DisplayName("should find a single actor through its bloom filter")
+        void shouldFindActor() throws IOException {
+            List<ArchivedAuditLog> rows = rows(250);
+            Path path = write(rows, 100);
+            UUID actorId = rows.get(137).getActorId();
+
+            List<ArchivedAuditLog> read = scan(path, new SegmentScan(null, null,
+                Map.of(SegmentColumn.ACTOR_ID, Set.of(actorId)), EnumSet.allOf(SegmentColumn.class)));
+
+            assertThat(read).singleElement().usingRecursiveComparison().isEqualTo(rows.get(137));
+        }
+
+        @Test
+        @DisplayName("should rule out segments from the footer alone")
+        void shouldPruneSegments() throws IOException {
+            List<ArchivedAuditLog> rows = rows(1000);
+            Path path = write(rows, 100);
+
+            try (SegmentReader reader = SegmentReader.open(path)) {
+                SegmentFooter footer = reader.footer();
+                assertThat(rows).allMatch(row -> footer.mightContain(SegmentColumn.ACTOR_ID, row.getActorId())
+                    && footer.mightContain(SegmentColumn.RESOURCE_ID, row.getResourceId()));
+                long falsePositives = IntStream.range(0, 10_000)
+                    .filter(i -> footer.mightContain(SegmentColumn.ACTOR_ID, UUID.randomUUID()))
+                    .count();
+                assertThat(falsePositives).isLessThan(300);
+
+                assertThat(new SegmentScan(null, null, Map.of(SegmentColumn.ACTION, Set.of("USER_DELETED")),
+                    Set.of()).mightMatch(footer)).isFalse();
+                assertThat(SegmentScan.range(start.minus(1, ChronoUnit.DAYS), start).mightMatch(footer)).isFalse();
+                assertThat(SegmentScan.range(start, start.plusSeconds(1)).mightMatch(footer)).isTrue();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("sealing")
+    class SealingTests {
+
+        @Test
+        @DisplayName("should leave no file behind when abandoned before sealing")
+        void shouldRemoveAbandonedSegment() throws IOException {
+            Path path = dir.resolve("abandoned.seg");
+            try (SegmentWriter writer = new SegmentWriter(path, workspaceId, month, 10)) {
+                writer.append(rows(1).get(0));
+            }
+
+            assertThat(path).doesNotExist();
+            assertThat(dir.resolve("abandoned.seg.tmp")).doesNotExist();
+        }
+
+        @Test
+        @DisplayName("should reject rows out of created_at order")
+        void shouldRejectOutOfOrderRows() throws IOException {
+            List<ArchivedAuditLog> rows = rows(2);
+            try (SegmentWriter writer = new SegmentWriter(dir.resolve("order.seg"), workspaceId, month, 10)) {
+                writer.append(rows.get(1));
+
+                assertThatThrownBy(() -> writer.append(rows.get(0))).isInstanceOf(IllegalArgumentException.class);
+            }
+        }
+
+        @Test
+        @DisplayName("should store repetitive rows far smaller than their raw size")
+        void shouldCompress() throws IOException {
+            Path path = write(rows(5000), 1000);
+
+            assertThat(Files.size(path)).isLessThan(5000L * 100);
+        }
+
+        @Test
+        @DisplayName("should reject files that are not sealed segments")
+        void shouldRejectForeignFiles() throws IOException {
+            Path path = Files.writeString(dir.resolve("foreign.seg"), "not a segment, just some text");
+
+            assertThatThrownBy(() -> SegmentReader.open(path)).isInstanceOf(IOException.class);
+        }
+    }
+}
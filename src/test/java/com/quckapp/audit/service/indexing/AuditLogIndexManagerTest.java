@@ -0,0 +1,114 @@
+package com.quckapp.audit.service.indexing;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.indices.ElasticsearchIndicesClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quckapp.audit.domain.repository.AuditLogIndices;
+import com.quckapp.audit.domain.repository.RetentionPolicyRepository;
+import com.quckapp.audit.domain.repository.SearchOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuditLogIndexManagerTest {
+
+    @Mock
+    private ElasticsearchClient elasticsearchClient;
+
+    @Mock
+    private ElasticsearchOperations elasticsearchOperations;
+
+    @Mock
+    private RetentionPolicyRepository retentionPolicyRepository;
+
+    @Mock
+    private SearchOutboxRepository outboxRepository;
+
+    @Mock
+    private ElasticsearchIndicesClient indicesClient;
+
+    private AuditLogIndexManager indexManager;
+    private final YearMonth march = YearMonth.of(2026, 3);
+
+    @BeforeEach
+    void setUp() {
+        indexManager = new AuditLogIndexManager(elasticsearchClient, elasticsearchOperations, new AuditLogIndices(),
+            retentionPolicyRepository, new ObjectMapper(), outboxRepository);
+        ReflectionTestUtils.setField(indexManager, "maxPrimarySizeGb", 50L);
+    }
+
+    @Nested
+    @DisplayName("rolloverTarget")
+    class RolloverTargetTests {
+
+        @Test
+        @DisplayName("should keep writing to a small index of the current month")
+        void shouldKeepCurrentIndex() {
+            assertThat(indexManager.rolloverTarget("audit-logs-2026.03-000001", march, 1L << 30)).isNull();
+        }
+
+        @Test
+        @DisplayName("should roll over to the first index of a new month")
+        void shouldRollOverMonthly() {
+            assertThat(indexManager.rolloverTarget("audit-logs-2026.02-000003", march, 0))
+                .isEqualTo("audit-logs-2026.03-000001");
+        }
+
+        @Test
+        @DisplayName("should roll over to the next index of the month once the primaries are too large")
+        void shouldRollOverBySize() {
+            assertThat(indexManager.rolloverTarget("audit-logs-2026.03-000001", march, 50L << 30))
+                .isEqualTo("audit-logs-2026.03-000002");
+        }
+    }
+
+    @Nested
+    @DisplayName("applyLifecycle")
+    class ApplyLifecycleTests {
+
+        private final Instant now = Instant.parse("2026-06-01T00:00:00Z");
+        private final Instant newest = now.minus(120, ChronoUnit.DAYS);
+
+        @BeforeEach
+        void setUp() {
+            ReflectionTestUtils.setField(indexManager, "readOnlyAfterDays", 90);
+            ReflectionTestUtils.setField(indexManager, "forceMergeAfterDays", Integer.MAX_VALUE);
+            lenient().when(elasticsearchClient.indices()).thenReturn(indicesClient);
+        }
+
+        @Test
+        @DisplayName("should make an expired index read-only once the outbox is drained")
+        @SuppressWarnings("unchecked")
+        void shouldBlockDrainedIndex() throws IOException {
+            indexManager.applyLifecycle("audit-logs-2026.01-000001", newest, now, now, true);
+
+            verify(indicesClient).putSettings(any(Function.class));
+        }
+
+        @Test
+        @DisplayName("should leave an expired index writable while older outbox entries are pending")
+        @SuppressWarnings("unchecked")
+        void shouldNotBlockWithPendingOutbox() throws IOException {
+            indexManager.applyLifecycle("audit-logs-2026.01-000001", newest, now, now, false);
+
+            verify(indicesClient, never()).putSettings(any(Function.class));
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.quckapp.audit.service.indexing;
+
+import com.quckapp.audit.domain.document.AuditLogDocument;
+import com.quckapp.audit.domain.repository.AuditLogIndices;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.convert.ElasticsearchConverter;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ElasticsearchBulkIndexerTest {
+
+    @Mock
+    private ElasticsearchOperations elasticsearchOperations;
+
+    @Mock
+    private ElasticsearchConverter elasticsearchConverter;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ElasticsearchBulkIndexer indexer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        when(elasticsearchOperations.getElasticsearchConverter()).thenReturn(elasticsearchConverter);
+        when(elasticsearchConverter.mapObject(any())).thenReturn(Document.from(Map.of("action", "TEST")));
+        AuditLogIndices indices = new AuditLogIndices();
+        indices.update("audit-logs-2025.01-000001", Map.of(), Set.of());
+
+        indexer = new ElasticsearchBulkIndexer(elasticsearchOperations, meterRegistry, indices);
+        ReflectionTestUtils.setField(indexer, "queueCapacity", 100);
+        ReflectionTestUtils.setField(indexer, "workers", 1);
+        ReflectionTestUtils.setField(indexer, "maxDocuments", 10);
+        ReflectionTestUtils.setField(indexer, "maxBytes", 1_000_000L);
+        ReflectionTestUtils.setField(indexer, "flushIntervalMs", 20L);
+        ReflectionTestUtils.setField(indexer, "offerTimeoutMs", 10L);
+        ReflectionTestUtils.setField(indexer, "maxRetries", 3);
+        ReflectionTestUtils.setField(indexer, "initialBackoffMs", 1L);
+        ReflectionTestUtils.setField(indexer, "maxBackoffMs", 5L);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        indexer.stop();
+    }
+
+    private final String workspaceId = UUID.randomUUID().toString();
+
+    private AuditLogDocument document() {
+        return AuditLogDocument.builder().id(UUID.randomUUID().toString()).workspaceId(workspaceId).action("TEST").build();
+    }
+
+    @Test
+    @DisplayName("should index queued documents in bulk and complete their futures")
+    void shouldIndexQueuedDocumentsInBulk() throws Exception {
+        indexer.start();
+
+        List<CompletableFuture<Void>> futures = indexer.submitAll(List.of(document(), document(), document()));
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        verify(elasticsearchOperations, atMost(3)).bulkIndex(anyList(), any(IndexCoordinates.class));
+        assertThat(meterRegistry.counter("audit.es.documents", "outcome", "indexed").count()).isEqualTo(3);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    @DisplayName("should route documents by workspace through the write alias")
+    void shouldRouteByWorkspace() throws Exception {
+        indexer.start();
+
+        indexer.submit(document()).get(5, TimeUnit.SECONDS);
+
+        ArgumentCaptor<List<IndexQuery>> queries = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<IndexCoordinates> index = ArgumentCaptor.forClass(IndexCoordinates.class);
+        verify(elasticsearchOperations).bulkIndex(queries.capture(), index.capture());
+        assertThat(index.getValue().getIndexName()).isEqualTo(AuditLogIndices.WRITE_ALIAS);
+        assertThat(queries.getValue()).singleElement()
+            .satisfies(query -> assertThat(query.getRouting()).isEqualTo(workspaceId));
+    }
+
+    @Test
+    @DisplayName("should retry a failed bulk request")
+    void shouldRetryFailedBulkRequest() throws Exception {
+        when(elasticsearchOperations.bulkIndex(anyList(), any(IndexCoordinates.class)))
+            .thenThrow(new RuntimeException("es_rejected_execution_exception"))
+            .thenReturn(List.of());
+        indexer.start();
+
+        indexer.submit(document()).get(5, TimeUnit.SECONDS);
+
+        verify(elasticsearchOperations, times(2)).bulkIndex(anyList(), any(IndexCoordinates.class));
+        assertThat(meterRegistry.counter("audit.es.bulk.retries").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should fail documents once retries are exhausted")
+    void shouldFailDocumentsAfterRetriesExhausted() {
+        when(elasticsearchOperations.bulkIndex(anyList(), any(IndexCoordinates.class)))
+            .thenThrow(new RuntimeException("cluster unavailable"));
+        indexer.start();
+
+        CompletableFuture<Void> future = indexer.submit(document());
+
+        assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+        verify(elasticsearchOperations, times(4)).bulkIndex(anyList(), any(IndexCoordinates.class));
+        assertThat(meterRegistry.counter("audit.es.documents", "outcome", "failed").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should reject documents when the queue stays full")
+    void shouldRejectWhenQueueFull() {
+        ReflectionTestUtils.setField(indexer, "queueCapacity", 1);
+        ReflectionTestUtils.setField(indexer, "workers", 0);
+        indexer.start();
+
+        CompletableFuture<Void> accepted = indexer.submit(document());
+        CompletableFuture<Void> rejected = indexer.submit(document());
+
+        assertThat(accepted).isNotDone();
+        assertThat(rejected).isCompletedExceptionally();
+        assertThatThrownBy(rejected::join).hasCauseInstanceOf(RejectedExecutionException.class);
+        assertThat(indexer.getQueueDepth()).isEqualTo(1);
+        assertThat(meterRegistry.counter("audit.es.documents", "outcome", "rejected").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should wait for a full queue at most once per batch")
+    void shouldBoundBatchWaitByOneTimeout() {
+        ReflectionTestUtils.setField(indexer, "queueCapacity", 1);
+        ReflectionTestUtils.setField(indexer, "workers", 0);
+        ReflectionTestUtils.setField(indexer, "offerTimeoutMs", 200L);
+        indexer.start();
+
+        long started = System.nanoTime();
+        List<CompletableFuture<Void>> futures = indexer.submitAll(
+            List.of(document(), document(), document(), document(), document(), document()));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        assertThat(elapsedMs).isLessThan(600);
+        assertThat(futures.subList(1, futures.size())).allMatch(CompletableFuture::isCompletedExceptionally);
+        assertThat(meterRegistry.counter("audit.es.documents", "outcome", "rejected").count()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("should keep jittered backoff within the configured ceiling")
+    void shouldBoundJitteredBackoff() {
+        for (int attempt = 0; attempt < 30; attempt++) {
+            assertThat(indexer.backoffWithJitter(attempt)).isBetween(0L, 5L);
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.quckapp.audit.service.indexing;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.DeleteByQueryResponse;
+import com.quckapp.audit.domain.document.AuditLogDocument;
+import com.quckapp.audit.domain.entity.AuditLog;
+import com.quckapp.audit.domain.entity.AuditLog.AuditCategory;
+import com.quckapp.audit.domain.entity.AuditLog.AuditSeverity;
+import com.quckapp.audit.domain.repository.AuditLogRepository;
+import com.quckapp.audit.domain.repository.SearchOutboxRepository;
+import com.quckapp.audit.domain.repository.SearchOutboxRepository.OutboxEntry;
+import com.quckapp.audit.domain.repository.SearchOutboxRepository.RelayState;
+import com.quckapp.audit.domain.repository.SearchOutboxRepository.ReplayKey;
+import com.quckapp.audit.exception.BadRequestException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class SearchIndexRelayTest {
+
+    @Mock
+    private SearchOutboxRepository outboxRepository;
+
+    @Mock
+    private AuditLogRepository auditLogRepository;
+
+    @Mock
+    private ElasticsearchBulkIndexer bulkIndexer;
+
+    @Mock
+    private ElasticsearchClient elasticsearchClient;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private SearchIndexRelay relay;
+    private final AtomicBoolean inTransaction = new AtomicBoolean();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(transactionTemplate.execute(any())).thenAnswer(inv -> {
+            inTransaction.set(true);
+            try {
+                return ((TransactionCallback<Object>) inv.getArgument(0)).doInTransaction(null);
+            } finally {
+                inTransaction.set(false);
+            }
+        });
+        doAnswer(inv -> {
+            inTransaction.set(true);
+            try {
+                ((Consumer<Object>) inv.getArgument(0)).accept(null);
+            } finally {
+                inTransaction.set(false);
+            }
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        relay = new SearchIndexRelay(outboxRepository, auditLogRepository, bulkIndexer, elasticsearchClient,
+            transactionTemplate, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(relay, "batchSize", 100);
+        ReflectionTestUtils.setField(relay, "replayBatchSize", 100);
+        ReflectionTestUtils.setField(relay, "ackTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(relay, "claimLeaseMs", 2000L);
+    }
+
+    private AuditLog auditLog(UUID id) {
+        return AuditLog.builder()
+            .id(id)
+            .workspaceId(UUID.randomUUID())
+            .actorId(UUID.randomUUID())
+            .action("USER_CREATED")
+            .resourceType("USER")
+            .resourceId(UUID.randomUUID())
+            .severity(AuditSeverity.LOW)
+            .category(AuditCategory.DATA_MODIFICATION)
+            .createdAt(Instant.now())
+            .build();
+    }
+
+    @Nested
+    @DisplayName("relayOutboxBatch")
+    class RelayOutboxBatchTests {
+
+        @Test
+        @DisplayName("should delete acknowledged entries and advance the high-water mark")
+        void shouldDeleteAcknowledgedEntries() {
+            UUID first = UUID.randomUUID();
+            UUID second = UUID.randomUUID();
+            when(outboxRepository.claimBatch(eq(100), anyString(), any(), any()))
+                .thenReturn(List.of(new OutboxEntry(7, first), new OutboxEntry(8, second)));
+            when(auditLogRepository.findAllById(anyList())).thenReturn(List.of(auditLog(first), auditLog(second)));
+            when(bulkIndexer.submitAll(anyList())).thenReturn(List.of(
+                CompletableFuture.completedFuture(null), CompletableFuture.completedFuture(null)));
+
+            int relayed = relay.relayOutboxBatch();
+
+            assertThat(relayed).isEqualTo(2);
+            verify(outboxRepository).delete(List.of(7L, 8L));
+            verify(outboxRepository).advanceHighWaterMark(SearchIndexRelay.RELAY_NAME, 8L);
+        }
+
+        @Test
+        @DisplayName("should keep entries whose documents failed to index")
+        void shouldKeepFailedEntries() {
+            UUID indexed = UUID.randomUUID();
+            UUID failed = UUID.randomUUID();
+            when(outboxRepository.claimBatch(eq(100), anyString(), any(), any()))
+                .thenReturn(List.of(new OutboxEntry(1, indexed), new OutboxEntry(2, failed)));
+            when(auditLogRepository.findAllById(anyList())).thenReturn(List.of(auditLog(indexed), auditLog(failed)));
+            when(bulkIndexer.submitAll(anyList())).thenAnswer(inv -> {
+                List<?> docs = inv.getArgument(0);
+                return docs.stream()
+                    .map(doc -> ((AuditLogDocument) doc).getId().equals(failed.toString())
+                        ? CompletableFuture.<Void>failedFuture(new IllegalStateException("es down"))
+                        : CompletableFuture.<Void>completedFuture(null))
+                    .toList();
+            });
+
+            int relayed = relay.relayOutboxBatch();
+
+            assertThat(relayed).isEqualTo(1);
+            verify(outboxRepository).delete(List.of(1L));
+            verify(outboxRepository).advanceHighWaterMark(SearchIndexRelay.RELAY_NAME, 1L);
+            verify(outboxRepository).release(eq(List.of(2L)), anyString());
+        }
+
+        @Test
+        @DisplayName("should wait on Elasticsearch with no transaction open")
+        void shouldIndexOutsideTransaction() {
+            UUID id = UUID.randomUUID();
+            AtomicBoolean indexedInTransaction = new AtomicBoolean(true);
+            when(outboxRepository.claimBatch(eq(100), anyString(), any(), any()))
+                .thenReturn(List.of(new OutboxEntry(5, id)));
+            when(auditLogRepository.findAllById(anyList())).thenReturn(List.of(auditLog(id)));
+            when(bulkIndexer.submitAll(anyList())).thenAnswer(inv -> {
+                indexedInTransaction.set(inTransaction.get());
+                return List.of(CompletableFuture.completedFuture(null));
+            });
+
+            assertThat(relay.relayOutboxBatch()).isEqualTo(1);
+            assertThat(indexedInTransaction).isFalse();
+            verify(transactionTemplate).execute(any());
+            verify(transactionTemplate).executeWithoutResult(any());
+        }
+
+        @Test
+        @DisplayName("should lease the claimed entries beyond the ack timeout")
+        void shouldLeaseClaimedEntries() {
+            ArgumentCaptor<Instant> now = ArgumentCaptor.forClass(Instant.class);
+            ArgumentCaptor<Instant> leaseUntil = ArgumentCaptor.forClass(Instant.class);
+            when(outboxRepository.claimBatch(eq(100), anyString(), now.capture(), leaseUntil.capture()))
+                .thenReturn(List.of());
+
+            relay.relayOutboxBatch();
+
+            assertThat(Duration.between(now.getValue(), leaseUntil.getValue())).isEqualTo(Duration.ofMillis(2000));
+        }
+
+        @Test
+        @DisplayName("should delete the documents of audit logs that no longer exist")
+        @SuppressWarnings("unchecked")
+        void shouldDeleteDocumentsOfRemovedAuditLogs() throws IOException {
+            when(outboxRepository.claimBatch(eq(100), anyString(), any(), any()))
+                .thenReturn(List.of(new OutboxEntry(3, UUID.randomUUID())));
+            when(auditLogRepository.findAllById(anyList())).thenReturn(List.of());
+            when(bulkIndexer.submitAll(anyList())).thenReturn(List.of());
+            when(elasticsearchClient.deleteByQuery(any(Function.class))).thenReturn(mock(DeleteByQueryResponse.class));
+
+            assertThat(relay.relayOutboxBatch()).isEqualTo(1);
+            verify(elasticsearchClient).deleteByQuery(any(Function.class));
+            verify(outboxRepository).delete(List.of(3L));
+        }
+
+        @Test
+        @DisplayName("should retry deletes that Elasticsearch rejected")
+        @SuppressWarnings("unchecked")
+        void shouldRetryRejectedDeletes() throws IOException {
+            when(outboxRepository.claimBatch(eq(100), anyString(), any(), any()))
+                .thenReturn(List.of(new OutboxEntry(4, UUID.randomUUID())));
+            when(auditLogRepository.findAllById(anyList())).thenReturn(List.of());
+            when(bulkIndexer.submitAll(anyList())).thenReturn(List.of());
+            when(elasticsearchClient.deleteByQuery(any(Function.class)))
+                .thenThrow(new IOException("index [audit-logs-2026.01-000001] blocked by: [FORBIDDEN/8/index write (api)]"));
+
+            assertThat(relay.relayOutboxBatch()).isZero();
+            verify(outboxRepository).delete(List.of());
+            verify(outboxRepository).release(eq(List.of(4L)), anyString());
+        }
+
+        @Test
+        @DisplayName("should do nothing when the outbox is empty")
+        void shouldDoNothingWhenEmpty() {
+            when(outboxRepository.claimBatch(eq(100), anyString(), any(), any()))
+                .thenReturn(List.of());
+
+            assertThat(relay.relayOutboxBatch()).isZero();
+            verifyNoInteractions(bulkIndexer);
+            verify(outboxRepository, never()).delete(anyList());
+            verify(transactionTemplate, never()).executeWithoutResult(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("replayNextChunk")
+    class ReplayNextChunkTests {
+
+        private final Instant from = Instant.now().minus(1, ChronoUnit.DAYS);
+        private final Instant until = Instant.now();
+
+        private RelayState replaying() {
+            return new RelayState(10, from, until, from, new UUID(0, 0), 0);
+        }
+
+        @Test
+        @DisplayName("should advance the cursor after a fully indexed chunk")
+        void shouldAdvanceCursor() {
+            UUID id = UUID.randomUUID();
+            Instant createdAt = from.plusSeconds(60);
+            when(outboxRepository.claimReplay(eq(SearchIndexRelay.RELAY_NAME), anyString(), any(), any()))
+                .thenReturn(Optional.of(replaying()));
+            when(outboxRepository.findReplayKeys(from, new UUID(0, 0), until, 100))
+                .thenReturn(List.of(new ReplayKey(id, createdAt)));
+            when(auditLogRepository.findAllById(anyList())).thenReturn(List.of(auditLog(id)));
+            when(bulkIndexer.submitAll(anyList())).thenReturn(List.of(CompletableFuture.completedFuture(null)));
+            when(outboxRepository.advanceReplayCursor(any(), any(), any(), any(), anyInt())).thenReturn(true);
+
+            assertThat(relay.replayNextChunk()).isEqualTo(1);
+            verify(outboxRepository).advanceReplayCursor(eq(SearchIndexRelay.RELAY_NAME), anyString(),
+                eq(createdAt), eq(id), eq(1));
+        }
+
+        @Test
+        @DisplayName("should not advance the cursor when part of the chunk failed")
+        void shouldRetryFailedChunk() {
+            UUID id = UUID.randomUUID();
+            when(outboxRepository.claimReplay(eq(SearchIndexRelay.RELAY_NAME), anyString(), any(), any()))
+                .thenReturn(Optional.of(replaying()));
+            when(outboxRepository.findReplayKeys(any(), any(), any(), anyInt()))
+                .thenReturn(List.of(new ReplayKey(id, from.plusSeconds(1))));
+            when(auditLogRepository.findAllById(anyList())).thenReturn(List.of(auditLog(id)));
+            when(bulkIndexer.submitAll(anyList()))
+                .thenReturn(List.of(CompletableFuture.failedFuture(new IllegalStateException("es down"))));
+
+            assertThat(relay.replayNextChunk()).isZero();
+            verify(outboxRepository, never()).advanceReplayCursor(any(), any(), any(), any(), anyInt());
+            verify(outboxRepository).releaseReplay(eq(SearchIndexRelay.RELAY_NAME), anyString());
+        }
+
+        @Test
+        @DisplayName("should not count a chunk whose lease was lost while indexing")
+        void shouldNotCountChunkAfterLostLease() {
+            UUID id = UUID.randomUUID();
+            when(outboxRepository.claimReplay(eq(SearchIndexRelay.RELAY_NAME), anyString(), any(), any()))
+                .thenReturn(Optional.of(replaying()));
+            when(outboxRepository.findReplayKeys(any(), any(), any(), anyInt()))
+                .thenReturn(List.of(new ReplayKey(id, from.plusSeconds(1))));
+            when(auditLogRepository.findAllById(anyList())).thenReturn(List.of(auditLog(id)));
+            when(bulkIndexer.submitAll(anyList())).thenReturn(List.of(CompletableFuture.completedFuture(null)));
+            when(outboxRepository.advanceReplayCursor(any(), any(), any(), any(), anyInt())).thenReturn(false);
+
+            assertThat(relay.replayNextChunk()).isZero();
+            verifyNoInteractions(transactionTemplate);
+        }
+
+        @Test
+        @DisplayName("should finish the replay when no rows remain")
+        void shouldFinishReplay() {
+            when(outboxRepository.claimReplay(eq(SearchIndexRelay.RELAY_NAME), anyString(), any(), any()))
+                .thenReturn(Optional.of(replaying()));
+            when(outboxRepository.findReplayKeys(any(), any(), any(), anyInt())).thenReturn(List.of());
+
+            assertThat(relay.replayNextChunk()).isZero();
+            verify(outboxRepository).finishReplay(eq(SearchIndexRelay.RELAY_NAME), anyString());
+        }
+
+        @Test
+        @DisplayName("should skip when another instance holds the replay lease")
+        void shouldSkipWhenLocked() {
+            when(outboxRepository.claimReplay(eq(SearchIndexRelay.RELAY_NAME), anyString(), any(), any()))
+                .thenReturn(Optional.empty());
+
+            assertThat(relay.replayNextChunk()).isZero();
+            verify(outboxRepository, never()).findReplayKeys(any(), any(), any(), anyInt());
+        }
+    }
+
+    @Nested
+    @DisplayName("startReplay")
+    class StartReplayTests {
+
+        @Test
+        @DisplayName("should record the replay window")
+        void shouldRecordReplayWindow() {
+            Instant from = Instant.now().minus(7, ChronoUnit.DAYS);
+            when(outboxRepository.findState(SearchIndexRelay.RELAY_NAME))
+                .thenReturn(Optional.of(new RelayState(0, from, Instant.now(), from, new UUID(0, 0), 0)));
+            when(outboxRepository.findOldestPendingCreatedAt()).thenReturn(Optional.empty());
+
+            assertThat(relay.startReplay(from).isReplaying()).isTrue();
+            verify(outboxRepository).startReplay(eq(SearchIndexRelay.RELAY_NAME), eq(from), any(Instant.class));
+        }
+
+        @Test
+        @DisplayName("should reject a start in the future")
+        void shouldRejectFutureStart() {
+            assertThatThrownBy(() -> relay.startReplay(Instant.now().plus(1, ChronoUnit.HOURS)))
+                .isInstanceOf(BadRequestException.class);
+            verify(outboxRepository, never()).startReplay(any(), any(), any());
+        }
+    }
+}
@@ -4,20 +4,22 @@ import com.quckapp.audit.domain.entity.AuditLog;
 import com.quckapp.audit.domain.entity.AuditLog.AuditCategory;
 import com.quckapp.audit.domain.entity.AuditLog.AuditSeverity;
 import com.quckapp.audit.domain.entity.ComplianceReport;
-import com.quckapp.audit.domain.repository.AuditLogRepository;
 import com.quckapp.audit.service.report.ReportGenerator.ReportContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.Answers;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
-import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -28,11 +30,7 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class LoginHistoryReportGeneratorTest {
 
-    @Mock
-    private AuditLogRepository auditLogRepository;
-
-    @InjectMocks
-    private LoginHistoryReportGenerator generator;
+    private final LoginHistoryReportGenerator generator = new LoginHistoryReportGenerator();
 
     private UUID workspaceId;
     private ReportContext context;
@@ -93,51 +91,52 @@ class LoginHistoryReportGeneratorTest {
         assertThat(generator.getReportType()).isEqualTo(ComplianceReport.ReportType.LOGIN_HISTORY);
     }
 
+    private Map<String, Object> summarize(AuditLog... logs) {
+        ReportGenerator.ReportVisitor visitor = generator.newVisitor(context);
+        for (AuditLog log : logs) {
+            visitor.visit(log);
+        }
+        return visitor.summary();
+    }
+
     @Nested
-    @DisplayName("generateData")
-    class GenerateDataTests {
+    @DisplayName("criteria")
+    class CriteriaTests {
 
-        @Test
-        @DisplayName("should fetch authentication logs for workspace and period")
-        void shouldFetchAuthenticationLogs() {
-            when(auditLogRepository.findByWorkspaceIdAndCategoryAndDateRange(
-                eq(workspaceId), eq(AuditCategory.AUTHENTICATION), any(), any()))
-                .thenReturn(List.of(loginSuccessLog, loginFailedLog, logoutLog));
-
-            List<AuditLog> result = generator.generateData(context);
-
-            assertThat(result).hasSize(3);
-            verify(auditLogRepository).findByWorkspaceIdAndCategoryAndDateRange(
-                eq(workspaceId), eq(AuditCategory.AUTHENTICATION),
-                eq(context.periodStart()), eq(context.periodEnd()));
-        }
+        @Mock
+        private Root<AuditLog> root;
+
+        @Mock
+        private CriteriaQuery<?> query;
+
+        @Mock(answer = Answers.RETURNS_MOCKS)
+        private CriteriaBuilder cb;
 
         @Test
-        @DisplayName("should return empty list when no logs found")
-        void shouldReturnEmptyListWhenNoLogs() {
-            when(auditLogRepository.findByWorkspaceIdAndCategoryAndDateRange(any(), any(), any(), any()))
-                .thenReturn(List.of());
+        @DisplayName("should select authentication logs of the workspace in the period")
+        void shouldSelectAuthenticationLogs() {
+            when(root.get(anyString())).thenAnswer(inv -> mock(Path.class));
 
-            List<AuditLog> result = generator.generateData(context);
+            generator.criteria(context).toPredicate(root, query, cb);
 
-            assertThat(result).isEmpty();
+            verify(cb).equal(any(), eq(workspaceId));
+            verify(cb).equal(any(), eq(AuditCategory.AUTHENTICATION));
+            verify(cb).greaterThanOrEqualTo(any(), eq(context.periodStart()));
+            verify(cb).lessThanOrEqualTo(any(), eq(context.periodEnd()));
         }
     }
 
     @Nested
-    @DisplayName("generateSummary")
-    class GenerateSummaryTests {
+    @DisplayName("newVisitor")
+    class VisitorTests {
 
         @Test
         @DisplayName("should generate summary with login statistics")
         void shouldGenerateSummaryWithLoginStatistics() {
-            when(auditLogRepository.findByWorkspaceIdAndCategoryAndDateRange(any(), any(), any(), any()))
-                .thenReturn(List.of(loginSuccessLog, loginFailedLog, logoutLog));
-
-            Map<String, Object> summary = generator.generateSummary(context);
+            Map<String, Object> summary = summarize(loginSuccessLog, loginFailedLog, logoutLog);
 
             assertThat(summary).containsEntry("reportType", "LOGIN_HISTORY");
-            assertThat(summary).containsEntry("totalEvents", 3);
+            assertThat(summary).containsEntry("totalEvents", 3L);
             assertThat(summary).containsEntry("successfulLogins", 1L);
             assertThat(summary).containsEntry("failedLogins", 1L);
             assertThat(summary).containsEntry("logouts", 1L);
@@ -159,10 +158,7 @@ class LoginHistoryReportGeneratorTest {
                 .createdAt(Instant.now())
                 .build();
 
-            when(auditLogRepository.findByWorkspaceIdAndCategoryAndDateRange(any(), any(), any(), any()))
-                .thenReturn(List.of(loginSuccessLog, anotherLoginSuccess, loginFailedLog));
-
-            Map<String, Object> summary = generator.generateSummary(context);
+            Map<String, Object> summary = summarize(loginSuccessLog, anotherLoginSuccess, loginFailedLog);
 
             @SuppressWarnings("unchecked")
             Map<String, Long> loginsByUser = (Map<String, Long>) summary.get("loginsByUser");
@@ -173,10 +169,7 @@ class LoginHistoryReportGeneratorTest {
         @Test
         @DisplayName("should include period dates in summary")
         void shouldIncludePeriodDatesInSummary() {
-            when(auditLogRepository.findByWorkspaceIdAndCategoryAndDateRange(any(), any(), any(), any()))
-                .thenReturn(List.of());
-
-            Map<String, Object> summary = generator.generateSummary(context);
+            Map<String, Object> summary = summarize();
 
             assertThat(summary.get("periodStart")).isEqualTo(context.periodStart().toString());
             assertThat(summary.get("periodEnd")).isEqualTo(context.periodEnd().toString());
@@ -185,15 +178,41 @@ class LoginHistoryReportGeneratorTest {
         @Test
         @DisplayName("should handle empty logs gracefully")
         void shouldHandleEmptyLogsGracefully() {
-            when(auditLogRepository.findByWorkspaceIdAndCategoryAndDateRange(any(), any(), any(), any()))
-                .thenReturn(List.of());
+            Map<String, Object> summary = summarize();
 
-            Map<String, Object> summary = generator.generateSummary(context);
-
-            assertThat(summary).containsEntry("totalEvents", 0);
+            assertThat(summary).containsEntry("totalEvents", 0L);
             assertThat(summary).containsEntry("successfulLogins", 0L);
             assertThat(summary).containsEntry("failedLogins", 0L);
             assertThat(summary).containsEntry("logouts", 0L);
         }
+
+        @Test
+        @DisplayName("should keep visitors of separate scans independent")
+        void shouldKeepVisitorsIndependent() {
+            summarize(loginSuccessLog, loginFailedLog);
+
+            assertThat(summarize(logoutLog)).containsEntry("totalEvents", 1L);
+        }
+
+        @Test
+        @DisplayName("should merge visitors of separate slices")
+        void shouldMergeVisitors() {
+            ReportGenerator.ReportVisitor newer = generator.newVisitor(context);
+            newer.visit(loginSuccessLog);
+            newer.visit(logoutLog);
+            ReportGenerator.ReportVisitor older = generator.newVisitor(context);
+            older.visit(loginFailedLog);
+            older.visit(loginSuccessLog);
+
+            newer.merge(older);
+
+            Map<String, Object> summary = newer.summary();
+            assertThat(summary).containsEntry("totalEvents", 4L);
+            assertThat(summary).containsEntry("successfulLogins", 2L);
+            assertThat(summary).containsEntry("failedLogins", 1L);
+            @SuppressWarnings("unchecked")
+            Map<String, Long> loginsByUser = (Map<String, Long>) summary.get("loginsByUser");
+            assertThat(loginsByUser).containsEntry("user1@example.com", 3L);
+        }
     }
 }
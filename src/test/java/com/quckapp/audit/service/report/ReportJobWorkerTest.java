@@ -0,0 +1,186 @@
+package com.quckapp.audit.service.report;
+
+import com.quckapp.audit.domain.repository.ReportJobRepository;
+import com.quckapp.audit.domain.repository.ReportJobRepository.ReportJob;
+import com.quckapp.audit.service.ComplianceReportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ReportJobWorkerTest {
+
+    @Mock
+    private ReportJobRepository jobRepository;
+
+    @Mock
+    private ComplianceReportService reportService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ReportJobWorker worker;
+    private final CountDownLatch finish = new CountDownLatch(1);
+
+    private void startWorker(int workers, int maxPerWorkspace) {
+        worker = new ReportJobWorker(jobRepository, reportService, transactionManager);
+        ReflectionTestUtils.setField(worker, "workers", workers);
+        ReflectionTestUtils.setField(worker, "maxPerWorkspace", maxPerWorkspace);
+        ReflectionTestUtils.setField(worker, "staleAfterSeconds", 180L);
+        ReflectionTestUtils.setField(worker, "maxAttempts", 3);
+        worker.start();
+    }
+
+    private void blockReports() {
+        doAnswer(inv -> {
+            finish.await();
+            return null;
+        }).when(reportService).generateReport(any(), any());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        finish.countDown();
+        if (worker != null) {
+            worker.stop();
+        }
+    }
+
+    @Nested
+    @DisplayName("claim")
+    class ClaimTests {
+
+        @Test
+        @DisplayName("should claim up to the free threads and generate the claimed reports")
+        void shouldClaimUpToFreeThreads() {
+            startWorker(2, 5);
+            blockReports();
+            UUID workspace = UUID.randomUUID();
+            ReportJob first = new ReportJob(UUID.randomUUID(), workspace);
+            ReportJob second = new ReportJob(UUID.randomUUID(), workspace);
+            ReportJob third = new ReportJob(UUID.randomUUID(), workspace);
+            when(jobRepository.lockPending(8)).thenReturn(List.of(first, second, third));
+
+            int claimed = worker.claim();
+
+            assertThat(claimed).isEqualTo(2);
+            verify(jobRepository).markClaimed(eq(List.of(first.id(), second.id())), eq(worker.getWorkerId()), any());
+            verify(reportService, timeout(1000)).generateReport(first.id(), worker.getWorkerId());
+            verify(reportService, timeout(1000)).generateReport(second.id(), worker.getWorkerId());
+            assertThat(worker.claim()).isZero();
+            verify(jobRepository, times(1)).lockPending(anyInt());
+        }
+
+        @Test
+        @DisplayName("should skip reports of workspaces at their limit")
+        void shouldSkipBusyWorkspaces() {
+            startWorker(2, 1);
+            blockReports();
+            UUID busy = UUID.randomUUID();
+            UUID idle = UUID.randomUUID();
+            ReportJob busyJob = new ReportJob(UUID.randomUUID(), busy);
+            ReportJob idleJob = new ReportJob(UUID.randomUUID(), idle);
+            ReportJob idleJob2 = new ReportJob(UUID.randomUUID(), idle);
+            when(jobRepository.lockPending(anyInt())).thenReturn(List.of(busyJob, idleJob, idleJob2));
+            when(jobRepository.countProcessingByWorkspace(Set.of(busy, idle))).thenReturn(Map.of(busy, 1));
+
+            int claimed = worker.claim();
+
+            assertThat(claimed).isEqualTo(1);
+            verify(jobRepository).markClaimed(eq(List.of(idleJob.id())), any(), any());
+        }
+
+        @Test
+        @DisplayName("should free the thread once a report is done")
+        void shouldFreeThreadWhenDone() {
+            startWorker(1, 1);
+            ReportJob first = new ReportJob(UUID.randomUUID(), UUID.randomUUID());
+            ReportJob second = new ReportJob(UUID.randomUUID(), UUID.randomUUID());
+            when(jobRepository.lockPending(anyInt())).thenReturn(List.of(first), List.of(second));
+
+            assertThat(worker.claim()).isEqualTo(1);
+
+            long deadline = System.currentTimeMillis() + 1000;
+            while (worker.claim() == 0) {
+                assertThat(System.currentTimeMillis()).isLessThan(deadline);
+                Thread.onSpinWait();
+            }
+            verify(reportService, timeout(1000)).generateReport(second.id(), worker.getWorkerId());
+        }
+    }
+
+    @Nested
+    @DisplayName("heartbeat and recovery")
+    class HeartbeatTests {
+
+        @Test
+        @DisplayName("should heartbeat running reports and recover orphans")
+        void shouldHeartbeatRunningReports() {
+            startWorker(1, 1);
+            blockReports();
+            ReportJob job = new ReportJob(UUID.randomUUID(), UUID.randomUUID());
+            when(jobRepository.lockPending(anyInt())).thenReturn(List.of(job));
+            worker.claim();
+
+            worker.heartbeat();
+
+            verify(jobRepository).heartbeat(eq(Set.of(job.id())), eq(worker.getWorkerId()), any());
+            verify(jobRepository).failOrphans(any(), eq(3), anyString());
+            verify(jobRepository).requeueOrphans(any(), eq(3));
+        }
+
+        @Test
+        @DisplayName("should keep heartbeating while a poll is blocked")
+        void shouldHeartbeatWhilePollIsBlocked() throws InterruptedException {
+            startWorker(1, 1);
+            ReflectionTestUtils.setField(worker, "pollIntervalMs", 10L);
+            ReflectionTestUtils.setField(worker, "heartbeatIntervalMs", 20L);
+            CountDownLatch polling = new CountDownLatch(1);
+            when(jobRepository.lockPending(anyInt())).thenAnswer(inv -> {
+                polling.countDown();
+                finish.await();
+                return List.of();
+            });
+
+            worker.schedule();
+
+            assertThat(polling.await(2, TimeUnit.SECONDS)).isTrue();
+            verify(jobRepository, timeout(2000).atLeast(3)).failOrphans(any(), eq(3), anyString());
+        }
+
+        @Test
+        @DisplayName("should release running reports on shutdown and stop claiming")
+        void shouldReleaseOnShutdown() throws InterruptedException {
+            startWorker(1, 1);
+            blockReports();
+            ReportJob job = new ReportJob(UUID.randomUUID(), UUID.randomUUID());
+            when(jobRepository.lockPending(anyInt())).thenReturn(List.of(job));
+            worker.claim();
+
+            worker.stop();
+
+            verify(jobRepository).release(Set.of(job.id()), worker.getWorkerId());
+            assertThat(worker.claim()).isZero();
+        }
+    }
+}
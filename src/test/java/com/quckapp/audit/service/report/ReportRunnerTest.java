@@ -0,0 +1,196 @@
+package com.quckapp.audit.service.report;
+
+import com.quckapp.audit.domain.entity.AuditLog;
+import com.quckapp.audit.domain.entity.AuditLog.AuditCategory;
+import com.quckapp.audit.domain.entity.AuditLog.AuditSeverity;
+import com.quckapp.audit.domain.repository.AuditLogRepository;
+import com.quckapp.audit.service.CsvExportService;
+import com.quckapp.audit.service.report.ReportGenerator.ReportContext;
+import com.quckapp.audit.service.report.ReportRunner.ReportResult;
+import com.quckapp.audit.service.report.ReportRunner.Slice;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ReportRunnerTest {
+
+    @TempDir
+    Path dir;
+
+    @Mock
+    private AuditLogRepository auditLogRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ReportRunner reportRunner;
+    private final LoginHistoryReportGenerator generator = new LoginHistoryReportGenerator();
+    private final UUID workspaceId = UUID.randomUUID();
+    private final UUID reportId = UUID.randomUUID();
+    private final Instant periodEnd = Instant.parse("2025-01-31T00:00:00Z");
+    private final ReportContext context = new ReportContext(workspaceId, periodEnd.minus(30, ChronoUnit.DAYS), periodEnd, null);
+
+    private void startRunner(int parallelism) {
+        CsvExportService csvExportService = new CsvExportService();
+        ReflectionTestUtils.setField(csvExportService, "exportPath", dir.toString());
+        reportRunner = new ReportRunner(auditLogRepository, csvExportService, transactionManager);
+        ReflectionTestUtils.setField(reportRunner, "parallelism", parallelism);
+        ReflectionTestUtils.setField(reportRunner, "sliceDays", 7);
+        reportRunner.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (reportRunner != null) {
+            reportRunner.stop();
+        }
+    }
+
+    private AuditLog login(String action, String email, Instant createdAt) {
+        return AuditLog.builder()
+            .id(UUID.randomUUID())
+            .workspaceId(workspaceId)
+            .actorId(UUID.randomUUID())
+            .actorEmail(email)
+            .action(action)
+            .resourceType("SESSION")
+            .resourceId(UUID.randomUUID())
+            .severity(AuditSeverity.LOW)
+            .category(AuditCategory.AUTHENTICATION)
+            .createdAt(createdAt)
+            .build();
+    }
+
+    @Nested
+    @DisplayName("slices")
+    class SlicesTests {
+
+        @Test
+        @DisplayName("should cover the period newest first with half-open slices")
+        void shouldCoverPeriodNewestFirst() {
+            startRunner(1);
+
+            List<Slice> slices = reportRunner.slices(context.periodStart(), periodEnd);
+
+            assertThat(slices).hasSize(5);
+            assertThat(slices.get(0)).isEqualTo(new Slice(periodEnd.minus(7, ChronoUnit.DAYS), null));
+            assertThat(slices.get(1).to()).isEqualTo(slices.get(0).from());
+            assertThat(slices.get(4)).isEqualTo(new Slice(context.periodStart(), periodEnd.minus(28, ChronoUnit.DAYS)));
+        }
+
+        @Test
+        @DisplayName("should use a single slice for a short period")
+        void shouldUseSingleSliceForShortPeriod() {
+            startRunner(1);
+
+            List<Slice> slices = reportRunner.slices(periodEnd.minus(1, ChronoUnit.DAYS), periodEnd);
+
+            assertThat(slices).containsExactly(new Slice(periodEnd.minus(1, ChronoUnit.DAYS), null));
+        }
+    }
+
+    @Nested
+    @DisplayName("run")
+    class RunTests {
+
+        @Test
+        @SuppressWarnings("unchecked")
+        @DisplayName("should merge slice summaries and concatenate the CSV parts in slice order")
+        void shouldMergeSlices() throws IOException {
+            startRunner(1);
+            AuditLog newest = login("LOGIN_SUCCESS", "alice@example.com", periodEnd.minus(1, ChronoUnit.DAYS));
+            AuditLog middle = login("LOGIN_FAILED", "bob@example.com", periodEnd.minus(10, ChronoUnit.DAYS));
+            AuditLog oldest = login("LOGIN_SUCCESS", "alice@example.com", periodEnd.minus(29, ChronoUnit.DAYS));
+            when(auditLogRepository.streamAll(any(Specification.class), any()))
+                .thenReturn(Stream.of(newest), Stream.of(middle), Stream.empty(), Stream.empty(), Stream.of(oldest));
+
+            ReportResult result = reportRunner.run(generator, context, "Logins", reportId);
+
+            assertThat(result.summary()).containsEntry("totalEvents", 3L)
+                .containsEntry("successfulLogins", 2L)
+                .containsEntry("failedLogins", 1L);
+            List<String> lines = Files.readAllLines(Path.of(result.export().filePath()));
+            assertThat(lines).hasSize(4);
+            assertThat(lines.get(1)).contains(newest.getId().toString());
+            assertThat(lines.get(2)).contains(middle.getId().toString());
+            assertThat(lines.get(3)).contains(oldest.getId().toString());
+            assertThat(dir).isDirectoryNotContaining("glob:**.tmp");
+            verify(auditLogRepository, times(5)).streamAll(any(Specification.class), any());
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        @DisplayName("should scan slices in parallel")
+        void shouldScanSlicesInParallel() throws IOException {
+            startRunner(4);
+            when(auditLogRepository.streamAll(any(Specification.class), any()))
+                .thenAnswer(inv -> Stream.of(login("LOGOUT", "carol@example.com", periodEnd)));
+
+            ReportResult result = reportRunner.run(generator, context, "Logins", reportId);
+
+            assertThat(result.summary()).containsEntry("totalEvents", 5L).containsEntry("logouts", 5L);
+            assertThat(Files.readAllLines(Path.of(result.export().filePath()))).hasSize(6);
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        @DisplayName("should leave out rows the query matched only ignoring case")
+        void shouldLeaveOutRowsNotIncluded() throws IOException {
+            startRunner(1);
+            AuditLog roleChange = login("ROLE_ASSIGNED", "alice@example.com", periodEnd.minus(1, ChronoUnit.DAYS));
+            AuditLog lowerCase = login("user_role_viewed", "bob@example.com", periodEnd.minus(1, ChronoUnit.DAYS));
+            when(auditLogRepository.streamAll(any(Specification.class), any()))
+                .thenReturn(Stream.of(roleChange, lowerCase), Stream.empty(), Stream.empty(), Stream.empty(), Stream.empty());
+
+            ReportResult result = reportRunner.run(new AdminActionsReportGenerator(), context, "Admin actions", reportId);
+
+            assertThat(result.summary()).containsEntry("totalEvents", 1L);
+            List<String> lines = Files.readAllLines(Path.of(result.export().filePath()));
+            assertThat(lines).hasSize(2);
+            assertThat(lines.get(1)).contains(roleChange.getId().toString());
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        @DisplayName("should fail the report and clean up parts when a slice fails")
+        void shouldCleanUpOnFailure() throws IOException {
+            startRunner(1);
+            when(auditLogRepository.streamAll(any(Specification.class), any()))
+                .thenReturn(Stream.of(login("LOGOUT", "carol@example.com", periodEnd)))
+                .thenThrow(new IllegalStateException("connection lost"));
+
+            assertThatThrownBy(() -> reportRunner.run(generator, context, "Logins", reportId))
+                .isInstanceOf(IllegalStateException.class)
+                .hasRootCauseMessage("connection lost");
+            try (Stream<Path> files = Files.list(dir)) {
+                assertThat(files).isEmpty();
+            }
+        }
+    }
+}
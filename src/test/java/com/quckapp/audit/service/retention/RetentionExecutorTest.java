@@ -0,0 +1,461 @@
+package com.quckapp.audit.service.retention;
+
+import com.quckapp.audit.domain.entity.AuditLog.AuditCategory;
+import com.quckapp.audit.domain.entity.AuditLog.AuditSeverity;
+import com.quckapp.audit.domain.entity.RetentionPolicy;
+import com.quckapp.audit.domain.repository.AuditLogPartitionRepository.PartitionInfo;
+import com.quckapp.audit.domain.repository.AuditLogRetentionRepository;
+import com.quckapp.audit.domain.repository.AuditLogRetentionRepository.RetentionCell;
+import com.quckapp.audit.domain.repository.AuditLogRetentionRepository.RowKey;
+import com.quckapp.audit.domain.repository.AuditRollupRepository;
+import com.quckapp.audit.domain.repository.AuditSketchRepository;
+import com.quckapp.audit.domain.repository.RetentionCheckpointRepository;
+import com.quckapp.audit.domain.repository.RetentionCheckpointRepository.RetentionCheckpoint;
+import com.quckapp.audit.domain.repository.SearchOutboxRepository;
+import com.quckapp.audit.dto.AuditDtos.PolicyExecutionDetail;
+import com.quckapp.audit.service.ArchiveService;
+import com.quckapp.audit.service.PartitionMaintenanceService;
+import com.quckapp.audit.service.PartitionMaintenanceService.DroppedPartition;
+import com.quckapp.audit.service.indexing.SearchIndexRelay;
+import com.quckapp.audit.service.statistics.StatisticsCache;
+import com.quckapp.audit.service.retention.RetentionPlanner.ScanRange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class RetentionExecutorTest {
+
+    @Mock
+    private AuditLogRetentionRepository retentionRepository;
+
+    @Mock
+    private RetentionCheckpointRepository checkpointRepository;
+
+    @Mock
+    private PartitionMaintenanceService partitionMaintenanceService;
+
+    @Mock
+    private ArchiveService archiveService;
+
+    @Mock
+    private SearchOutboxRepository outboxRepository;
+
+    @Mock
+    private SearchIndexRelay searchIndexRelay;
+
+    @Mock
+    private AuditRollupRepository rollupRepository;
+
+    @Mock
+    private AuditSketchRepository sketchRepository;
+
+    @Mock
+    private StatisticsCache statisticsCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private RetentionExecutor retentionExecutor;
+    private RetentionPolicy policy;
+    private RetentionCell cell;
+    private List<ScanRange> plan;
+
+    @BeforeEach
+    void setUp() {
+        retentionExecutor = new RetentionExecutor(retentionRepository, checkpointRepository, new RetentionPlanner(),
+            partitionMaintenanceService, archiveService, outboxRepository, searchIndexRelay, rollupRepository, sketchRepository,
+            statisticsCache, transactionManager);
+        ReflectionTestUtils.setField(retentionExecutor, "chunkSize", 2);
+        ReflectionTestUtils.setField(retentionExecutor, "maxRowsPerSecond", 0.0);
+
+        policy = policy("Test Policy", 90, AuditCategory.DATA_ACCESS);
+        cell = new RetentionCell(policy.getWorkspaceId(), AuditCategory.DATA_ACCESS, AuditSeverity.LOW);
+        plan = List.of(new ScanRange(cell, policy));
+
+        when(checkpointRepository.findByPolicyId(any())).thenReturn(Optional.empty());
+        when(checkpointRepository.start(any(), any()))
+            .thenAnswer(inv -> new RetentionCheckpoint(inv.getArgument(0), true, inv.getArgument(1), null, null, null, 0, 0));
+        when(partitionMaintenanceService.dropExpiredPartitions(any(), any())).thenReturn(List.of());
+        when(retentionRepository.deleteByKeys(anyList())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+    }
+
+    private static RetentionPolicy policy(String name, int retentionDays, AuditCategory category) {
+        return RetentionPolicy.builder()
+            .id(UUID.randomUUID())
+            .workspaceId(UUID.randomUUID())
+            .name(name)
+            .retentionDays(retentionDays)
+            .category(category)
+            .minSeverity(AuditSeverity.LOW)
+            .enabled(true)
+            .archiveBeforeDelete(false)
+            .build();
+    }
+
+    private static RowKey key(Instant createdAt) {
+        return new RowKey(UUID.randomUUID(), createdAt);
+    }
+
+    private PolicyExecutionDetail executeSingle() {
+        return retentionExecutor.execute(List.of(policy), plan).get(0);
+    }
+
+    @Nested
+    @DisplayName("plan")
+    class PlanTests {
+
+        @Test
+        @DisplayName("should plan over the workspaces that have audit logs")
+        void shouldPlanOverWorkspaces() {
+            RetentionPolicy defaults = policy("Default", 30, AuditCategory.SYSTEM);
+            defaults.setWorkspaceId(RetentionPlanner.DEFAULT_WORKSPACE_ID);
+            UUID workspaceId = UUID.randomUUID();
+            when(retentionRepository.findWorkspaceIds()).thenReturn(List.of(workspaceId));
+
+            List<ScanRange> ranges = retentionExecutor.plan(List.of(defaults));
+
+            assertThat(ranges).hasSize(AuditSeverity.values().length)
+                .allMatch(range -> range.cell().workspaceId().equals(workspaceId));
+        }
+    }
+
+    @Nested
+    @DisplayName("chunked delete")
+    class ChunkedDeleteTests {
+
+        @Test
+        @DisplayName("should delete in chunks until a short chunk and advance the checkpoint per chunk")
+        void shouldDeleteInChunks() {
+            Instant old = Instant.now().minus(200, ChronoUnit.DAYS);
+            RowKey k1 = key(old), k2 = key(old.plusSeconds(1)), k3 = key(old.plusSeconds(2));
+            when(retentionRepository.findExpiredKeys(eq(cell), any(), isNull(), eq(2)))
+                .thenReturn(List.of(k1, k2));
+            when(retentionRepository.findExpiredKeys(eq(cell), any(), eq(k2), eq(2)))
+                .thenReturn(List.of(k3));
+
+            PolicyExecutionDetail detail = executeSingle();
+
+            assertThat(detail.isSuccess()).isTrue();
+            assertThat(detail.getDeletedCount()).isEqualTo(3);
+            verify(retentionRepository, times(2)).deleteByKeys(anyList());
+            verify(checkpointRepository).advance(policy.getId(), cell, k2.createdAt(), k2.id(), 2, 0);
+            verify(checkpointRepository).advance(policy.getId(), cell, k3.createdAt(), k3.id(), 1, 0);
+            verify(checkpointRepository).complete(policy.getId());
+            verify(transactionManager, times(2)).commit(any());
+        }
+
+        @Test
+        @DisplayName("should scan each planned cell with a cutoff of retentionDays ago")
+        void shouldScanEachCellWithCutoff() {
+            RetentionCell high = new RetentionCell(cell.workspaceId(), AuditCategory.DATA_ACCESS, AuditSeverity.HIGH);
+            when(retentionRepository.findExpiredKeys(any(), any(), any(), anyInt())).thenReturn(List.of());
+
+            retentionExecutor.execute(List.of(policy), List.of(new ScanRange(high, policy), new ScanRange(cell, policy)));
+
+            InOrder inOrder = inOrder(retentionRepository);
+            inOrder.verify(retentionRepository).findExpiredKeys(eq(cell),
+                argThat(cutoff -> cutoff.isBefore(Instant.now().minus(89, ChronoUnit.DAYS))), isNull(), eq(2));
+            inOrder.verify(retentionRepository).findExpiredKeys(eq(high), any(), isNull(), eq(2));
+        }
+
+        @Test
+        @DisplayName("should remove the expired rollups of each finished cell")
+        void shouldRemoveExpiredRollups() {
+            when(retentionRepository.findExpiredKeys(any(), any(), any(), anyInt())).thenReturn(List.of());
+            doThrow(new RuntimeException("lock wait timeout")).when(rollupRepository).deleteExpired(any(), any());
+
+            PolicyExecutionDetail detail = executeSingle();
+
+            verify(rollupRepository).deleteExpired(eq(cell),
+                argThat(cutoff -> cutoff.isBefore(Instant.now().minus(89, ChronoUnit.DAYS))));
+            verify(statisticsCache, never()).evictBefore(any(), any());
+            assertThat(detail.isSuccess()).isTrue();
+        }
+
+        @Test
+        @DisplayName("should evict the cached statistics behind the removed rollups")
+        void shouldEvictCachedStatistics() {
+            when(retentionRepository.findExpiredKeys(any(), any(), any(), anyInt())).thenReturn(List.of());
+
+            executeSingle();
+
+            ArgumentCaptor<Instant> cutoff = ArgumentCaptor.forClass(Instant.class);
+            verify(rollupRepository).deleteExpired(eq(cell), cutoff.capture());
+            verify(statisticsCache).evictBefore(cell.workspaceId(), cutoff.getValue());
+        }
+
+        @Test
+        @DisplayName("should drop the sketches of the days rows were deleted from")
+        void shouldTrimSketchesOfDeletedDays() {
+            Instant old = Instant.parse("2025-01-10T22:00:00Z");
+            when(retentionRepository.findExpiredKeys(eq(cell), any(), isNull(), eq(2)))
+                .thenReturn(List.of(key(old), key(old.plus(3, ChronoUnit.HOURS))));
+            when(retentionRepository.findExpiredKeys(eq(cell), any(), notNull(), eq(2))).thenReturn(List.of());
+
+            executeSingle();
+
+            verify(sketchRepository).deleteDays(cell.workspaceId(),
+                Instant.parse("2025-01-10T00:00:00Z"), Instant.parse("2025-01-12T00:00:00Z"));
+        }
+
+        @Test
+        @DisplayName("should leave the sketches alone when nothing expired")
+        void shouldKeepSketchesWhenNothingDeleted() {
+            when(retentionRepository.findExpiredKeys(any(), any(), any(), anyInt())).thenReturn(List.of());
+
+            executeSingle();
+
+            verifyNoInteractions(sketchRepository);
+        }
+
+        @Test
+        @DisplayName("should only scan the ranges governed by each policy")
+        void shouldOnlyScanGovernedRanges() {
+            RetentionPolicy other = policy("Other", 30, AuditCategory.SYSTEM);
+            RetentionCell otherCell = new RetentionCell(cell.workspaceId(), AuditCategory.SYSTEM, AuditSeverity.LOW);
+            when(retentionRepository.findExpiredKeys(any(), any(), any(), anyInt())).thenReturn(List.of());
+
+            List<PolicyExecutionDetail> details = retentionExecutor.execute(List.of(policy),
+                List.of(new ScanRange(cell, policy), new ScanRange(otherCell, other)));
+
+            assertThat(details).extracting(PolicyExecutionDetail::getPolicyId).containsExactly(policy.getId());
+            verify(retentionRepository, never()).findExpiredKeys(eq(otherCell), any(), any(), anyInt());
+        }
+
+        @Test
+        @DisplayName("should resume after the checkpoint cell and cursor with the original cutoff")
+        void shouldResumeFromCheckpoint() {
+            Instant cutoff = Instant.now().minus(91, ChronoUnit.DAYS);
+            RetentionCell high = new RetentionCell(cell.workspaceId(), AuditCategory.DATA_ACCESS, AuditSeverity.HIGH);
+            RowKey cursor = key(cutoff.minus(10, ChronoUnit.DAYS));
+            when(checkpointRepository.findByPolicyId(policy.getId())).thenReturn(Optional.of(
+                new RetentionCheckpoint(policy.getId(), true, cutoff, high, cursor.createdAt(), cursor.id(), 500, 0)));
+            when(retentionRepository.findExpiredKeys(high, cutoff, cursor, 2))
+                .thenReturn(List.of(key(cursor.createdAt().plusSeconds(1))));
+
+            PolicyExecutionDetail detail = retentionExecutor.execute(List.of(policy),
+                List.of(new ScanRange(cell, policy), new ScanRange(high, policy)));
+
+            assertThat(detail.getDeletedCount()).isEqualTo(501);
+            verify(checkpointRepository, never()).start(any(), any());
+            verify(retentionRepository, never()).findExpiredKeys(eq(cell), any(), any(), anyInt());
+        }
+
+        @Test
+        @DisplayName("should report a failing policy and still run the others")
+        void shouldContinueAfterFailure() {
+            RetentionPolicy other = policy("Other", 30, AuditCategory.SYSTEM);
+            RetentionCell otherCell = new RetentionCell(cell.workspaceId(), AuditCategory.SYSTEM, AuditSeverity.LOW);
+            when(retentionRepository.findExpiredKeys(eq(cell), any(), any(), anyInt()))
+                .thenThrow(new RuntimeException("Lock wait timeout"));
+            when(retentionRepository.findExpiredKeys(eq(otherCell), any(), any(), anyInt()))
+                .thenReturn(List.of(key(Instant.now().minus(100, ChronoUnit.DAYS))));
+
+            List<PolicyExecutionDetail> details = retentionExecutor.execute(List.of(policy, other),
+                List.of(new ScanRange(cell, policy), new ScanRange(otherCell, other)));
+
+            assertThat(details.get(0).isSuccess()).isFalse();
+            assertThat(details.get(0).getErrorMessage()).contains("Lock wait timeout");
+            assertThat(details.get(1).isSuccess()).isTrue();
+            assertThat(details.get(1).getDeletedCount()).isEqualTo(1);
+            verify(checkpointRepository, never()).complete(policy.getId());
+        }
+    }
+
+    @Nested
+    @DisplayName("partitions")
+    class PartitionTests {
+
+        @Test
+        @DisplayName("should offer the cells of deleting policies with their cutoffs")
+        void shouldOfferDeletingCells() {
+            RetentionPolicy archiving = policy("Archiving", 365, AuditCategory.SECURITY);
+            archiving.setArchiveBeforeDelete(true);
+            RetentionCell archivedCell = new RetentionCell(cell.workspaceId(), AuditCategory.SECURITY, AuditSeverity.LOW);
+            when(retentionRepository.findExpiredKeys(any(), any(), any(), anyInt())).thenReturn(List.of());
+
+            retentionExecutor.execute(List.of(policy, archiving),
+                List.of(new ScanRange(cell, policy), new ScanRange(archivedCell, archiving)));
+
+            verify(partitionMaintenanceService).dropExpiredPartitions(argThat(cutoffs ->
+                cutoffs.keySet().equals(Set.of(cell))
+                    && cutoffs.get(cell).isBefore(Instant.now().minus(89, ChronoUnit.DAYS))), any());
+        }
+
+        @Test
+        @DisplayName("should report dropped partitions holding the policy's cells")
+        void shouldReportDroppedPartitions() {
+            when(partitionMaintenanceService.dropExpiredPartitions(any(), any())).thenReturn(List.of(
+                new DroppedPartition(new PartitionInfo("p202601", Instant.now(), 1000), List.of(cell))));
+            when(retentionRepository.findExpiredKeys(any(), any(), any(), anyInt())).thenReturn(List.of());
+
+            assertThat(executeSingle().getDroppedPartitions()).isEqualTo(1);
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        @DisplayName("should delete the search documents of a partition's cells before it is dropped")
+        void shouldDeleteDocumentsBeforeDrop() {
+            Instant upperBound = Instant.parse("2026-02-01T00:00:00Z");
+            DroppedPartition partition = new DroppedPartition(new PartitionInfo("p202601", upperBound, 1000), List.of(cell));
+            when(partitionMaintenanceService.dropExpiredPartitions(any(), any())).thenAnswer(inv -> {
+                inv.<Consumer<DroppedPartition>>getArgument(1).accept(partition);
+                return List.of(partition);
+            });
+            when(searchIndexRelay.deleteExpired(cell, upperBound)).thenReturn(700L);
+            when(retentionRepository.findExpiredKeys(any(), any(), any(), anyInt())).thenReturn(List.of());
+
+            PolicyExecutionDetail detail = executeSingle();
+
+            verify(searchIndexRelay).deleteExpired(cell, upperBound);
+            assertThat(detail.getEsCleanedCount()).isEqualTo(700);
+            assertThat(detail.getEsQueuedCount()).isZero();
+        }
+
+        @Test
+        @DisplayName("should drop the sketches of the workspaces in dropped partitions")
+        void shouldTrimSketchesOfDroppedPartitions() {
+            Instant upperBound = Instant.parse("2026-02-01T00:00:00Z");
+            when(partitionMaintenanceService.dropExpiredPartitions(any(), any())).thenReturn(List.of(
+                new DroppedPartition(new PartitionInfo("p202601", upperBound, 1000), List.of(cell))));
+            when(retentionRepository.findExpiredKeys(any(), any(), any(), anyInt())).thenReturn(List.of());
+
+            executeSingle();
+
+            verify(sketchRepository).deleteDays(cell.workspaceId(), null, upperBound);
+        }
+    }
+
+    @Nested
+    @DisplayName("archiving")
+    class ArchivingTests {
+
+        @Test
+        @DisplayName("should archive each chunk before deleting it in the same transaction")
+        void shouldArchiveEachChunkBeforeDelete() {
+            policy.setArchiveBeforeDelete(true);
+            Instant old = Instant.now().minus(200, ChronoUnit.DAYS);
+            List<RowKey> first = List.of(key(old), key(old.plusSeconds(1)));
+            List<RowKey> second = List.of(key(old.plusSeconds(2)));
+            when(retentionRepository.findExpiredKeys(eq(cell), any(), isNull(), eq(2))).thenReturn(first);
+            when(retentionRepository.findExpiredKeys(eq(cell), any(), eq(first.get(1)), eq(2))).thenReturn(second);
+            when(archiveService.archiveChunk(eq(policy), anyList()))
+                .thenAnswer(inv -> ((List<?>) inv.getArgument(1)).size());
+
+            PolicyExecutionDetail detail = executeSingle();
+
+            InOrder inOrder = inOrder(archiveService, retentionRepository, checkpointRepository, transactionManager);
+            inOrder.verify(archiveService).archiveChunk(policy, first);
+            inOrder.verify(retentionRepository).deleteByKeys(first);
+            inOrder.verify(checkpointRepository).advance(policy.getId(), cell, first.get(1).createdAt(), first.get(1).id(), 2, 2);
+            inOrder.verify(transactionManager).commit(any());
+            inOrder.verify(archiveService).archiveChunk(policy, second);
+            inOrder.verify(retentionRepository).deleteByKeys(second);
+            assertThat(detail.getArchivedCount()).isEqualTo(3);
+            assertThat(detail.getDeletedCount()).isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("should not archive when not configured")
+        void shouldNotArchiveWhenNotConfigured() {
+            when(retentionRepository.findExpiredKeys(any(), any(), any(), anyInt()))
+                .thenReturn(List.of(key(Instant.now().minus(200, ChronoUnit.DAYS))));
+
+            PolicyExecutionDetail detail = executeSingle();
+
+            verify(archiveService, never()).archiveChunk(any(), anyList());
+            assertThat(detail.getArchivedCount()).isZero();
+        }
+
+        @Test
+        @DisplayName("should include archived rows recorded by an interrupted run")
+        void shouldResumeArchivedCount() {
+            policy.setArchiveBeforeDelete(true);
+            when(checkpointRepository.findByPolicyId(policy.getId())).thenReturn(Optional.of(new RetentionCheckpoint(
+                policy.getId(), true, Instant.now().minus(90, ChronoUnit.DAYS), null, null, null, 40, 40)));
+            when(retentionRepository.findExpiredKeys(any(), any(), any(), anyInt())).thenReturn(List.of());
+
+            assertThat(executeSingle().getArchivedCount()).isEqualTo(40);
+        }
+    }
+
+    @Nested
+    @DisplayName("Elasticsearch cleanup")
+    class ElasticsearchCleanupTests {
+
+        @Test
+        @DisplayName("should queue the elasticsearch deletes of each deleted chunk")
+        void shouldQueueElasticsearchDeletes() {
+            RowKey k1 = key(Instant.now().minus(200, ChronoUnit.DAYS));
+            when(retentionRepository.findExpiredKeys(any(), any(), any(), anyInt())).thenReturn(List.of(k1));
+
+            PolicyExecutionDetail detail = executeSingle();
+
+            verify(outboxRepository).append(List.of(k1.id()));
+            assertThat(detail.getEsQueuedCount()).isEqualTo(1);
+            assertThat(detail.getEsCleanedCount()).isZero();
+        }
+
+        @Test
+        @DisplayName("should not queue the deletes of a chunk that failed")
+        void shouldNotQueueDeletesOfFailedChunk() {
+            when(retentionRepository.findExpiredKeys(any(), any(), any(), anyInt()))
+                .thenReturn(List.of(key(Instant.now().minus(200, ChronoUnit.DAYS))));
+            when(retentionRepository.deleteByKeys(anyList())).thenThrow(new RuntimeException("lock wait timeout"));
+
+            PolicyExecutionDetail detail = executeSingle();
+
+            assertThat(detail.isSuccess()).isFalse();
+            verify(outboxRepository, never()).append(anyList());
+        }
+
+        @Test
+        @DisplayName("should skip elasticsearch cleanup when nothing expired")
+        void shouldSkipEsCleanupWhenNoIdsToDelete() {
+            when(retentionRepository.findExpiredKeys(any(), any(), any(), anyInt())).thenReturn(List.of());
+
+            executeSingle();
+
+            verify(outboxRepository, never()).append(anyList());
+            verify(retentionRepository, never()).deleteByKeys(anyList());
+        }
+    }
+
+    @Nested
+    @DisplayName("Throttle")
+    class ThrottleTests {
+
+        @Test
+        @DisplayName("should delay until the average rate is back under the limit")
+        void shouldComputeDelay() {
+            RetentionExecutor.Throttle throttle = new RetentionExecutor.Throttle(1000);
+
+            assertThat(throttle.delayNanos(1000, 250_000_000L)).isEqualTo(750_000_000L);
+            assertThat(throttle.delayNanos(1000, 2_000_000_000L)).isNegative();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.quckapp.audit.service.retention;
+
+import com.quckapp.audit.domain.entity.AuditLog.AuditCategory;
+import com.quckapp.audit.domain.entity.AuditLog.AuditSeverity;
+import com.quckapp.audit.domain.entity.RetentionPolicy;
+import com.quckapp.audit.domain.repository.AuditLogRetentionRepository.RetentionCell;
+import com.quckapp.audit.service.retention.RetentionPlanner.ScanRange;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+class RetentionPlannerTest {
+
+    private final RetentionPlanner planner = new RetentionPlanner();
+    private final UUID workspaceId = UUID.randomUUID();
+
+    private static RetentionPolicy policy(UUID workspaceId, int retentionDays,
+                                          AuditCategory category, AuditSeverity minSeverity) {
+        return RetentionPolicy.builder()
+            .id(UUID.randomUUID())
+            .workspaceId(workspaceId)
+            .name("policy-" + retentionDays)
+            .retentionDays(retentionDays)
+            .category(category)
+            .minSeverity(minSeverity)
+            .enabled(true)
+            .build();
+    }
+
+    private Map<RetentionCell, RetentionPolicy> plan(List<RetentionPolicy> policies, List<UUID> workspaceIds) {
+        return planner.plan(policies, workspaceIds).stream()
+            .collect(Collectors.toMap(ScanRange::cell, ScanRange::policy));
+    }
+
+    private RetentionCell cell(AuditCategory category, AuditSeverity severity) {
+        return new RetentionCell(workspaceId, category, severity);
+    }
+
+    @Nested
+    @DisplayName("severity and category")
+    class SeverityAndCategoryTests {
+
+        @Test
+        @DisplayName("should only cover severities at or above the policy's minimum")
+        void shouldApplyMinSeverity() {
+            RetentionPolicy policy = policy(workspaceId, 90, AuditCategory.DATA_ACCESS, AuditSeverity.HIGH);
+
+            Map<RetentionCell, RetentionPolicy> plan = plan(List.of(policy), List.of(workspaceId));
+
+            assertThat(plan.keySet()).containsExactlyInAnyOrder(
+                cell(AuditCategory.DATA_ACCESS, AuditSeverity.HIGH),
+                cell(AuditCategory.DATA_ACCESS, AuditSeverity.CRITICAL));
+        }
+
+        @Test
+        @DisplayName("should cover every category and severity when the policy sets neither")
+        void shouldCoverEverythingWithoutFilters() {
+            RetentionPolicy policy = policy(workspaceId, 90, null, null);
+
+            assertThat(planner.plan(List.of(policy), List.of(workspaceId)))
+                .hasSize(AuditCategory.values().length * AuditSeverity.values().length);
+        }
+
+        @Test
+        @DisplayName("should let the longest overlapping retention govern each cell")
+        void shouldMergeOverlappingPolicies() {
+            RetentionPolicy everything = policy(workspaceId, 90, null, AuditSeverity.LOW);
+            RetentionPolicy critical = policy(workspaceId, 730, null, AuditSeverity.CRITICAL);
+
+            Map<RetentionCell, RetentionPolicy> plan = plan(List.of(everything, critical), List.of(workspaceId));
+
+            assertThat(plan.get(cell(AuditCategory.SECURITY, AuditSeverity.CRITICAL))).isSameAs(critical);
+            assertThat(plan.get(cell(AuditCategory.SECURITY, AuditSeverity.HIGH))).isSameAs(everything);
+        }
+
+        @Test
+        @DisplayName("should prefer the archiving policy when retentions tie")
+        void shouldPreferArchivingOnTie() {
+            RetentionPolicy deleting = policy(workspaceId, 90, AuditCategory.SECURITY, null);
+            RetentionPolicy archiving = policy(workspaceId, 90, AuditCategory.SECURITY, null);
+            archiving.setArchiveBeforeDelete(true);
+
+            Map<RetentionCell, RetentionPolicy> plan = plan(List.of(archiving, deleting), List.of(workspaceId));
+
+            assertThat(plan.get(cell(AuditCategory.SECURITY, AuditSeverity.LOW))).isSameAs(archiving);
+        }
+    }
+
+    @Nested
+    @DisplayName("workspaces")
+    class WorkspaceTests {
+
+        @Test
+        @DisplayName("should apply default policies to every workspace")
+        void shouldApplyDefaultsEverywhere() {
+            UUID otherWorkspace = UUID.randomUUID();
+            RetentionPolicy defaults = policy(RetentionPlanner.DEFAULT_WORKSPACE_ID, 365, AuditCategory.AUTHENTICATION, null);
+
+            List<ScanRange> ranges = planner.plan(List.of(defaults), List.of(workspaceId, otherWorkspace));
+
+            assertThat(ranges).extracting(range -> range.cell().workspaceId())
+                .containsOnly(workspaceId, otherWorkspace)
+                .hasSize(2 * AuditSeverity.values().length);
+        }
+
+        @Test
+        @DisplayName("should let a workspace policy override the defaults, even with a shorter retention")
+        void shouldPreferWorkspacePolicies() {
+            RetentionPolicy defaults = policy(RetentionPlanner.DEFAULT_WORKSPACE_ID, 90, AuditCategory.DATA_ACCESS, null);
+            RetentionPolicy own = policy(workspaceId, 30, AuditCategory.DATA_ACCESS, AuditSeverity.MEDIUM);
+
+            Map<RetentionCell, RetentionPolicy> plan = plan(List.of(defaults, own), List.of(workspaceId));
+
+            assertThat(plan.get(cell(AuditCategory.DATA_ACCESS, AuditSeverity.MEDIUM))).isSameAs(own);
+            assertThat(plan.get(cell(AuditCategory.DATA_ACCESS, AuditSeverity.LOW))).isSameAs(defaults);
+        }
+
+        @Test
+        @DisplayName("should not apply a workspace policy to other workspaces")
+        void shouldScopeWorkspacePolicies() {
+            RetentionPolicy other = policy(UUID.randomUUID(), 30, null, null);
+
+            assertThat(planner.plan(List.of(other), List.of(workspaceId))).isEmpty();
+        }
+
+        @Test
+        @DisplayName("should plan cells in index order")
+        void shouldPlanInIndexOrder() {
+            RetentionPolicy defaults = policy(RetentionPlanner.DEFAULT_WORKSPACE_ID, 90, null, null);
+
+            List<RetentionCell> cells = planner.plan(List.of(defaults), List.of(UUID.randomUUID(), workspaceId, UUID.randomUUID()))
+                .stream().map(ScanRange::cell).toList();
+
+            assertThat(cells).isSortedAccordingTo(RetentionCell.ORDER);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.quckapp.audit.service.sketch;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    private static HyperLogLog of(int from, int to) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = from; i < to; i++) {
+            sketch.add("user-" + i + "@example.com");
+        }
+        return sketch;
+    }
+
+    @Test
+    @DisplayName("should count small sets almost exactly")
+    void shouldCountSmallSets() {
+        HyperLogLog sketch = of(0, 100);
+        sketch.merge(of(50, 100));
+        sketch.add("user-0@example.com");
+
+        assertThat(sketch.count()).isBetween(98L, 102L);
+        assertThat(new HyperLogLog().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("should estimate large sets within three standard errors")
+    void shouldEstimateLargeSets() {
+        long estimate = of(0, 200_000).count();
+
+        assertThat((double) Math.abs(estimate - 200_000) / 200_000).isLessThan(3 * HyperLogLog.RELATIVE_ERROR);
+    }
+
+    @Test
+    @DisplayName("should merge overlapping sketches into the sketch of the union")
+    void shouldMergeIntoUnion() {
+        HyperLogLog first = of(0, 60_000);
+        HyperLogLog second = of(40_000, 100_000);
+
+        first.merge(second);
+
+        assertThat(first.toBytes()).isEqualTo(of(0, 100_000).toBytes());
+        assertThat(HyperLogLog.fromBytes(first.toBytes()).count()).isEqualTo(first.count());
+    }
+
+    @Test
+    @DisplayName("should reject registers of the wrong size")
+    void shouldRejectWrongSize() {
+        assertThatThrownBy(() -> HyperLogLog.fromBytes(new byte[16])).isInstanceOf(IllegalArgumentException.class);
+    }
+}
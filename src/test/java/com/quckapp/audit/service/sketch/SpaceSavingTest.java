@@ -0,0 +1,70 @@
+package com.quckapp.audit.service.sketch;
+
+import com.quckapp.audit.service.sketch.SpaceSaving.Entry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SpaceSavingTest {
+
+    /** Heavy items 0..4 occur 1000, 900, ... times among 5000 distinct light items. */
+    private static SpaceSaving skewed(int lightFrom) {
+        SpaceSaving summary = new SpaceSaving(16);
+        for (int round = 0; round < 1000; round++) {
+            for (int heavy = 0; heavy < 5; heavy++) {
+                if (round < 1000 - heavy * 100) {
+                    summary.add("heavy-" + heavy);
+                }
+            }
+            for (int light = 0; light < 5; light++) {
+                summary.add("light-" + (lightFrom + round * 5 + light));
+            }
+        }
+        return summary;
+    }
+
+    @Test
+    @DisplayName("should count exactly while under capacity")
+    void shouldCountExactlyUnderCapacity() {
+        SpaceSaving summary = new SpaceSaving(4);
+        summary.add("a", 3);
+        summary.add("b");
+        summary.add("a");
+
+        assertThat(summary.top(2)).containsExactly(new Entry("a", 4, 0), new Entry("b", 1, 0));
+        assertThat(summary.total()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("should find the heavy items with counts within their error")
+    void shouldFindHeavyItems() {
+        SpaceSaving summary = skewed(0);
+
+        List<Entry> top = summary.top(5);
+
+        assertThat(top).extracting(Entry::item)
+            .containsExactly("heavy-0", "heavy-1", "heavy-2", "heavy-3", "heavy-4");
+        assertThat(top).allSatisfy(entry -> assertThat(entry.error()).isLessThanOrEqualTo(summary.maxError()));
+        assertThat(top.get(0).count() - top.get(0).error()).isLessThanOrEqualTo(1000);
+        assertThat(top.get(0).count()).isGreaterThanOrEqualTo(1000);
+    }
+
+    @Test
+    @DisplayName("should merge summaries of disjoint streams and keep the error bound")
+    void shouldMergeSummaries() {
+        SpaceSaving merged = skewed(0);
+        merged.merge(SpaceSaving.fromBytes(skewed(1_000_000).toBytes()));
+
+        List<Entry> top = merged.top(5);
+
+        assertThat(merged.total()).isEqualTo(2 * (4000 + 5000));
+        assertThat(top).extracting(Entry::item).containsExactly("heavy-0", "heavy-1", "heavy-2", "heavy-3", "heavy-4");
+        assertThat(top).allSatisfy(entry -> {
+            assertThat(entry.error()).isLessThanOrEqualTo(merged.maxError());
+            assertThat(entry.count() - entry.error()).isLessThanOrEqualTo(2000);
+        });
+    }
+}
@@ -0,0 +1,190 @@
+package com.quckapp.audit.service.statistics;
+
+import com.quckapp.audit.domain.entity.AuditLog;
+import com.quckapp.audit.domain.entity.AuditLog.AuditCategory;
+import com.quckapp.audit.domain.entity.AuditLog.AuditSeverity;
+import com.quckapp.audit.domain.repository.AuditRollupRepository;
+import com.quckapp.audit.domain.repository.AuditRollupRepository.Granularity;
+import com.quckapp.audit.domain.repository.AuditRollupRepository.RollupCount;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StatisticsCacheTest {
+
+    @Mock
+    private AuditRollupRepository rollupRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UUID workspaceId = UUID.randomUUID();
+    private final Instant now = Instant.parse("2025-01-01T12:30:00Z");
+    private StatisticsCache statisticsCache;
+
+    @BeforeEach
+    void setUp() {
+        statisticsCache = new StatisticsCache(rollupRepository, meterRegistry, Clock.fixed(now, ZoneOffset.UTC),
+            1000, Duration.ofHours(24), Duration.ofSeconds(15), Duration.ofSeconds(60), 100, Duration.ofSeconds(60));
+    }
+
+    private static Instant at(String instant) {
+        return Instant.parse(instant);
+    }
+
+    private static RollupCount count(long count) {
+        return new RollupCount("LOGIN_SUCCESS", AuditCategory.AUTHENTICATION, AuditSeverity.LOW, count);
+    }
+
+    @Nested
+    @DisplayName("buckets")
+    class BucketsTests {
+
+        @Test
+        @DisplayName("should load missing buckets with one query and serve them from the cache afterwards")
+        void shouldCacheBuckets() {
+            when(rollupRepository.findBuckets(Granularity.HOURLY, workspaceId, at("2025-01-01T08:00:00Z"), at("2025-01-01T11:00:00Z")))
+                .thenReturn(Map.of(at("2025-01-01T08:00:00Z"), List.of(count(3)), at("2025-01-01T10:00:00Z"), List.of(count(4))));
+
+            List<RollupCount> first = statisticsCache.buckets(Granularity.HOURLY, workspaceId, at("2025-01-01T08:00:00Z"), at("2025-01-01T11:00:00Z"));
+            List<RollupCount> second = statisticsCache.buckets(Granularity.HOURLY, workspaceId, at("2025-01-01T09:00:00Z"), at("2025-01-01T11:00:00Z"));
+
+            assertThat(first).extracting(RollupCount::count).containsExactlyInAnyOrder(3L, 4L);
+            assertThat(second).extracting(RollupCount::count).containsExactly(4L);
+            verify(rollupRepository, times(1)).findBuckets(any(), any(), any(), any());
+            assertThat(meterRegistry.get("cache.gets").tag("cache", "audit.statistics.buckets").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("should only load the buckets that are not cached yet")
+        void shouldLoadOnlyMissingBuckets() {
+            when(rollupRepository.findBuckets(eq(Granularity.DAILY), eq(workspaceId), any(), any())).thenReturn(Map.of());
+
+            statisticsCache.buckets(Granularity.DAILY, workspaceId, at("2024-12-01T00:00:00Z"), at("2024-12-03T00:00:00Z"));
+            statisticsCache.buckets(Granularity.DAILY, workspaceId, at("2024-12-01T00:00:00Z"), at("2024-12-05T00:00:00Z"));
+
+            verify(rollupRepository).findBuckets(Granularity.DAILY, workspaceId, at("2024-12-01T00:00:00Z"), at("2024-12-03T00:00:00Z"));
+            verify(rollupRepository).findBuckets(Granularity.DAILY, workspaceId, at("2024-12-03T00:00:00Z"), at("2024-12-05T00:00:00Z"));
+        }
+    }
+
+    @Nested
+    @DisplayName("expiry")
+    class ExpiryTests {
+
+        private final StatisticsCache.BucketExpiry expiry = new StatisticsCache.BucketExpiry(
+            Clock.fixed(at("2025-01-01T12:00:30Z"), ZoneOffset.UTC), Duration.ofHours(24), Duration.ofSeconds(15),
+            Duration.ofSeconds(60));
+
+        private long expiresAfter(Instant bucketStart) {
+            return expiry.expireAfterCreate(new StatisticsCache.BucketKey(workspaceId, Granularity.HOURLY, bucketStart),
+                List.of(), 0);
+        }
+
+        @Test
+        @DisplayName("should keep a bucket open until the grace period after its end has passed")
+        void shouldKeepEndedBucketOpenDuringGrace() {
+            assertThat(expiresAfter(at("2025-01-01T12:00:00Z"))).isEqualTo(Duration.ofSeconds(15).toNanos());
+            assertThat(expiresAfter(at("2025-01-01T11:00:00Z"))).isEqualTo(Duration.ofSeconds(15).toNanos());
+            assertThat(expiresAfter(at("2025-01-01T10:00:00Z"))).isEqualTo(Duration.ofHours(24).toNanos());
+        }
+    }
+
+    @Nested
+    @DisplayName("evictBefore")
+    class EvictBeforeTests {
+
+        @Test
+        @DisplayName("should evict the workspace's buckets before the cutoff and keep later and other workspaces' ones")
+        void shouldEvictExpiredBuckets() {
+            UUID otherWorkspaceId = UUID.randomUUID();
+            when(rollupRepository.findBuckets(eq(Granularity.DAILY), any(), any(), any())).thenReturn(Map.of());
+            statisticsCache.buckets(Granularity.DAILY, workspaceId, at("2024-12-01T00:00:00Z"), at("2024-12-03T00:00:00Z"));
+            statisticsCache.buckets(Granularity.DAILY, otherWorkspaceId, at("2024-12-01T00:00:00Z"), at("2024-12-03T00:00:00Z"));
+
+            statisticsCache.evictBefore(workspaceId, at("2024-12-02T00:00:00Z"));
+            statisticsCache.buckets(Granularity.DAILY, workspaceId, at("2024-12-01T00:00:00Z"), at("2024-12-03T00:00:00Z"));
+            statisticsCache.buckets(Granularity.DAILY, otherWorkspaceId, at("2024-12-01T00:00:00Z"), at("2024-12-03T00:00:00Z"));
+
+            verify(rollupRepository).findBuckets(Granularity.DAILY, workspaceId, at("2024-12-01T00:00:00Z"), at("2024-12-03T00:00:00Z"));
+            verify(rollupRepository).findBuckets(Granularity.DAILY, workspaceId, at("2024-12-01T00:00:00Z"), at("2024-12-02T00:00:00Z"));
+            verify(rollupRepository).findBuckets(eq(Granularity.DAILY), eq(otherWorkspaceId), any(), any());
+        }
+
+        @Test
+        @DisplayName("should evict the top lists of ranges starting before the cutoff")
+        void shouldEvictExpiredTopLists() {
+            statisticsCache.topLists(workspaceId, at("2024-12-01T00:00:00Z"), at("2024-12-03T00:00:00Z"), false, () -> "before");
+            statisticsCache.evictBefore(workspaceId, at("2024-12-02T00:00:00Z"));
+
+            assertThat(statisticsCache.<String>topLists(workspaceId, at("2024-12-01T00:00:00Z"), at("2024-12-03T00:00:00Z"),
+                false, () -> "after")).isEqualTo("after");
+        }
+    }
+
+    @Nested
+    @DisplayName("evictAfterCommit")
+    class EvictAfterCommitTests {
+
+        private final AuditLog auditLog = AuditLog.builder()
+            .workspaceId(workspaceId)
+            .action("LOGIN_SUCCESS")
+            .category(AuditCategory.AUTHENTICATION)
+            .severity(AuditSeverity.LOW)
+            .createdAt(now)
+            .build();
+
+        @BeforeEach
+        void setUp() {
+            when(rollupRepository.findBuckets(eq(Granularity.HOURLY), eq(workspaceId), any(), any()))
+                .thenReturn(Map.of(at("2025-01-01T12:00:00Z"), List.of(count(1))));
+            statisticsCache.buckets(Granularity.HOURLY, workspaceId, at("2025-01-01T11:00:00Z"), at("2025-01-01T13:00:00Z"));
+        }
+
+        @Test
+        @DisplayName("should evict the open bucket of ingested events and keep closed ones")
+        void shouldEvictOpenBucket() {
+            statisticsCache.evictAfterCommit(List.of(auditLog));
+            statisticsCache.buckets(Granularity.HOURLY, workspaceId, at("2025-01-01T11:00:00Z"), at("2025-01-01T13:00:00Z"));
+
+            verify(rollupRepository).findBuckets(Granularity.HOURLY, workspaceId, at("2025-01-01T12:00:00Z"), at("2025-01-01T13:00:00Z"));
+        }
+
+        @Test
+        @DisplayName("should defer eviction until the transaction commits")
+        void shouldEvictAfterCommit() {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                statisticsCache.evictAfterCommit(List.of(auditLog));
+                statisticsCache.buckets(Granularity.HOURLY, workspaceId, at("2025-01-01T12:00:00Z"), at("2025-01-01T13:00:00Z"));
+                verify(rollupRepository, times(1)).findBuckets(any(), any(), any(), any());
+
+                TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+            statisticsCache.buckets(Granularity.HOURLY, workspaceId, at("2025-01-01T12:00:00Z"), at("2025-01-01T13:00:00Z"));
+
+            verify(rollupRepository, times(2)).findBuckets(any(), any(), any(), any());
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.quckapp.audit.service.statistics;
+
+import com.quckapp.audit.domain.entity.AuditLog.AuditCategory;
+import com.quckapp.audit.domain.entity.AuditLog.AuditSeverity;
+import com.quckapp.audit.domain.repository.AuditLogIndices;
+import com.quckapp.audit.domain.repository.AuditRollupRepository;
+import com.quckapp.audit.domain.repository.AuditRollupRepository.Granularity;
+import com.quckapp.audit.domain.repository.AuditRollupRepository.RollupCount;
+import com.quckapp.audit.domain.repository.AuditSketchRepository;
+import com.quckapp.audit.domain.repository.AuditSketchRepository.ActivityRow;
+import com.quckapp.audit.service.indexing.SearchIndexRelay;
+import com.quckapp.audit.service.sketch.AuditSketches;
+import com.quckapp.audit.service.statistics.StatisticsPlanner.Backend;
+import com.quckapp.audit.service.statistics.StatisticsPlanner.EventCounts;
+import com.quckapp.audit.service.statistics.StatisticsPlanner.Segment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StatisticsPlannerTest {
+
+    @Mock
+    private AuditRollupRepository rollupRepository;
+
+    @Mock
+    private AuditSketchRepository sketchRepository;
+
+    @Mock
+    private StatisticsCache statisticsCache;
+
+    @Mock
+    private SearchIndexRelay searchIndexRelay;
+
+    @Mock
+    private AuditLogIndices indices;
+
+    private StatisticsPlanner planner;
+    private final UUID workspaceId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        planner = new StatisticsPlanner(rollupRepository, sketchRepository, statisticsCache, searchIndexRelay, indices);
+        ReflectionTestUtils.setField(planner, "elasticsearchEnabled", true);
+        ReflectionTestUtils.setField(planner, "maxLagSeconds", 10L);
+    }
+
+    private static Instant at(String instant) {
+        return Instant.parse(instant);
+    }
+
+    @Nested
+    @DisplayName("plan")
+    class PlanTests {
+
+        @Test
+        @DisplayName("should read whole days and hours from rollups and only the ragged edges raw")
+        void shouldSplitIntoBuckets() {
+            List<Segment> segments = planner.plan(at("2025-01-01T22:15:00Z"), at("2025-03-31T10:30:00Z"));
+
+            assertThat(segments).containsExactly(
+                new Segment(null, at("2025-01-01T22:15:00Z"), at("2025-01-01T23:00:00Z")),
+                new Segment(Granularity.HOURLY, at("2025-01-01T23:00:00Z"), at("2025-01-02T00:00:00Z")),
+                new Segment(Granularity.DAILY, at("2025-01-02T00:00:00Z"), at("2025-03-31T00:00:00Z")),
+                new Segment(Granularity.HOURLY, at("2025-03-31T00:00:00Z"), at("2025-03-31T10:00:00Z")),
+                new Segment(null, at("2025-03-31T10:00:00Z"), at("2025-03-31T10:30:00Z")));
+        }
+
+        @Test
+        @DisplayName("should read a range aligned to days from daily rollups alone")
+        void shouldSkipEmptyEdges() {
+            List<Segment> segments = planner.plan(at("2025-01-01T00:00:00Z"), at("2025-01-03T00:00:00Z"));
+
+            assertThat(segments).containsExactly(
+                new Segment(Granularity.DAILY, at("2025-01-01T00:00:00Z"), at("2025-01-03T00:00:00Z")));
+        }
+
+        @Test
+        @DisplayName("should use hourly rollups only when no whole day fits")
+        void shouldUseHoursWithinADay() {
+            List<Segment> segments = planner.plan(at("2025-01-01T08:30:00Z"), at("2025-01-01T12:10:00Z"));
+
+            assertThat(segments).extracting(Segment::granularity)
+                .containsExactly(null, Granularity.HOURLY, null);
+            assertThat(segments.get(1).from()).isEqualTo(at("2025-01-01T09:00:00Z"));
+            assertThat(segments.get(1).to()).isEqualTo(at("2025-01-01T12:00:00Z"));
+        }
+
+        @Test
+        @DisplayName("should read a range within one hour raw")
+        void shouldReadShortRangeRaw() {
+            List<Segment> segments = planner.plan(at("2025-01-01T08:10:00Z"), at("2025-01-01T08:50:00Z"));
+
+            assertThat(segments).containsExactly(
+                new Segment(null, at("2025-01-01T08:10:00Z"), at("2025-01-01T08:50:00Z")));
+        }
+    }
+
+    @Nested
+    @DisplayName("count")
+    class CountTests {
+
+        @Test
+        @DisplayName("should add up rollup and raw counts per action, category and severity")
+        void shouldAddUpSegments() {
+            when(rollupRepository.countRaw(eq(workspaceId), any(), any(), anyBoolean())).thenReturn(List.of(
+                new RollupCount("LOGIN_SUCCESS", AuditCategory.AUTHENTICATION, AuditSeverity.LOW, 2)));
+            when(statisticsCache.buckets(eq(Granularity.HOURLY), eq(workspaceId), any(), any())).thenReturn(List.of(
+                new RollupCount("LOGIN_SUCCESS", AuditCategory.AUTHENTICATION, AuditSeverity.LOW, 10)));
+            when(statisticsCache.buckets(eq(Granularity.DAILY), eq(workspaceId), any(), any())).thenReturn(List.of(
+                new RollupCount("LOGIN_SUCCESS", AuditCategory.AUTHENTICATION, AuditSeverity.LOW, 100),
+                new RollupCount("ROLE_CHANGED", AuditCategory.AUTHORIZATION, AuditSeverity.HIGH, 5)));
+
+            EventCounts counts = planner.count(workspaceId, at("2025-01-01T22:15:00Z"), at("2025-03-31T10:30:00Z"));
+
+            assertThat(counts.total()).isEqualTo(2 + 10 + 100 + 5 + 10 + 2);
+            assertThat(counts.byAction()).containsEntry("LOGIN_SUCCESS", 124L).containsEntry("ROLE_CHANGED", 5L);
+            assertThat(counts.byCategory()).containsEntry("AUTHENTICATION", 124L).containsEntry("AUTHORIZATION", 5L);
+            assertThat(counts.bySeverity()).containsEntry("LOW", 124L).containsEntry("HIGH", 5L);
+            verify(rollupRepository).countRaw(workspaceId, at("2025-03-31T10:00:00Z"), at("2025-03-31T10:30:00Z"), false);
+        }
+    }
+
+    @Nested
+    @DisplayName("sketch")
+    class SketchTests {
+
+        private ActivityRow row(UUID actorId) {
+            return new ActivityRow(actorId, "a@example.com", null, "10.0.0.1", "FILE", UUID.randomUUID(), null, "FILE_READ");
+        }
+
+        @Test
+        @DisplayName("should merge stored days and scan the edges and unsketched days raw")
+        @SuppressWarnings("unchecked")
+        void shouldMergeStoredDaysAndScanTheRest() {
+            AuditSketches stored = new AuditSketches();
+            stored.add(row(UUID.randomUUID()));
+            when(sketchRepository.findDays(workspaceId, at("2025-01-02T00:00:00Z"), at("2025-01-05T00:00:00Z")))
+                .thenReturn(Map.of(at("2025-01-03T00:00:00Z"), stored.toRow()));
+            doAnswer(inv -> {
+                ((Consumer<ActivityRow>) inv.getArgument(4)).accept(row(UUID.randomUUID()));
+                return null;
+            }).when(sketchRepository).scan(eq(workspaceId), any(), any(), anyBoolean(), any());
+
+            AuditSketches sketches = planner.sketch(workspaceId, at("2025-01-01T12:00:00Z"), at("2025-01-05T06:00:00Z"));
+
+            verify(sketchRepository).scan(eq(workspaceId), eq(at("2025-01-01T12:00:00Z")), eq(at("2025-01-02T00:00:00Z")), eq(false), any());
+            verify(sketchRepository).scan(eq(workspaceId), eq(at("2025-01-02T00:00:00Z")), eq(at("2025-01-03T00:00:00Z")), eq(false), any());
+            verify(sketchRepository).scan(eq(workspaceId), eq(at("2025-01-04T00:00:00Z")), eq(at("2025-01-05T06:00:00Z")), eq(false), any());
+            assertThat(sketches.actors().count()).isEqualTo(4);
+            assertThat(sketches.topActions().top(1).get(0).count()).isEqualTo(4);
+        }
+    }
+
+    @Nested
+    @DisplayName("choose")
+    class ChooseTests {
+
+        private final Instant now = Instant.now().truncatedTo(ChronoUnit.HOURS);
+
+        @Test
+        @DisplayName("should use Elasticsearch up to now while the index lags by a few seconds")
+        void shouldUseElasticsearchWhenFresh() {
+            when(indices.isBootstrapped()).thenReturn(true);
+            when(searchIndexRelay.indexLag()).thenReturn(Duration.ofSeconds(2));
+
+            assertThat(planner.choose(now.minus(30, ChronoUnit.DAYS), now.plus(1, ChronoUnit.HOURS), false))
+                .isEqualTo(Backend.ELASTICSEARCH);
+        }
+
+        @Test
+        @DisplayName("should use rollups for recent ranges while the index lags behind")
+        void shouldUseRollupsWhenLagging() {
+            when(indices.isBootstrapped()).thenReturn(true);
+            when(searchIndexRelay.indexLag()).thenReturn(Duration.ofMinutes(5));
+
+            assertThat(planner.choose(now.minus(30, ChronoUnit.DAYS), now.plus(1, ChronoUnit.HOURS), false))
+                .isEqualTo(Backend.ROLLUPS);
+        }
+
+        @Test
+        @DisplayName("should use Elasticsearch for ranges already indexed whatever the lag")
+        void shouldUseElasticsearchForIndexedRanges() {
+            when(indices.isBootstrapped()).thenReturn(true);
+            when(searchIndexRelay.indexLag()).thenReturn(Duration.ofMinutes(5));
+
+            assertThat(planner.choose(now.minus(30, ChronoUnit.DAYS), now.minus(1, ChronoUnit.HOURS), false))
+                .isEqualTo(Backend.ELASTICSEARCH);
+        }
+
+        @Test
+        @DisplayName("should use rollups while the index is being replayed")
+        void shouldUseRollupsDuringReplay() {
+            when(indices.isBootstrapped()).thenReturn(true);
+            when(searchIndexRelay.indexLag()).thenReturn(null);
+
+            assertThat(planner.choose(at("2025-01-01T08:00:00Z"), at("2025-01-31T11:00:00Z"), false))
+                .isEqualTo(Backend.ROLLUPS);
+        }
+
+        @Test
+        @DisplayName("should keep approximate statistics of whole days on rollups and sketches")
+        void shouldUseRollupsForWholeDaysWhenApproximate() {
+            when(indices.isBootstrapped()).thenReturn(true);
+
+            assertThat(planner.choose(at("2025-01-01T00:00:00Z"), at("2025-01-31T00:00:00Z"), true))
+                .isEqualTo(Backend.ROLLUPS);
+            verifyNoInteractions(searchIndexRelay);
+        }
+
+        @Test
+        @DisplayName("should bucket histograms of whole hours from rollups")
+        void shouldUseRollupsForHourlyHistograms() {
+            assertThat(planner.chooseHistogram(now.minus(7, ChronoUnit.DAYS), now, Duration.ofHours(6)))
+                .isEqualTo(Backend.ROLLUPS);
+            verifyNoInteractions(searchIndexRelay, indices);
+        }
+
+        @Test
+        @DisplayName("should scan MySQL for finer histograms while the index lags behind")
+        void shouldScanFineHistogramsWhenLagging() {
+            when(indices.isBootstrapped()).thenReturn(true);
+            when(searchIndexRelay.indexLag()).thenReturn(Duration.ofMinutes(5));
+
+            assertThat(planner.chooseHistogram(now.minus(1, ChronoUnit.DAYS), now.plus(1, ChronoUnit.HOURS), Duration.ofMinutes(5)))
+                .isEqualTo(Backend.SCAN);
+        }
+
+        @Test
+        @DisplayName("should use rollups when disabled")
+        void shouldUseRollupsWhenDisabled() {
+            ReflectionTestUtils.setField(planner, "elasticsearchEnabled", false);
+
+            assertThat(planner.choose(at("2025-01-01T08:00:00Z"), at("2025-01-31T11:00:00Z"), false))
+                .isEqualTo(Backend.ROLLUPS);
+            verifyNoInteractions(searchIndexRelay, indices);
+        }
+    }
+}